@@ -18,7 +18,8 @@ import utils.Throwables;
  * <ul>
  *   <li>{@link #start()} 호출 시 {@link AbstractAsyncExecution#getExecutor()}가 설정되어 있으면
  *       해당 {@code Executor}에 작업을 제출하고, 그렇지 않으면 새 {@link Thread}를 생성하여 수행
- *       (스레드의 daemon 여부는 {@link #setDaemonThread(boolean)}으로 제어).</li>
+ *       (스레드의 daemon 여부는 {@link #setDaemonThread(boolean)}으로 제어).
+ *       {@link Executions#setUseVirtualThreads(boolean)}이 설정된 경우는 virtual thread를 생성한다.</li>
  *   <li>{@code executeWork()}의 정상 반환 → {@code COMPLETED} 전이.</li>
  *   <li>{@code InterruptedException}/{@code CancellationException} → {@code CANCELLED} 전이.</li>
  *   <li>그 외 {@code Exception} → {@code FAILED} 전이 (원인은 {@link Throwables#unwrapThrowable}).</li>
@@ -205,8 +206,16 @@ public abstract class AbstractThreadedExecution<T> extends AbstractAsyncExecutio
 			}
 			else {
 				String threadName = m_threadNamePrefix +"@"+Integer.toHexString(System.identityHashCode(this));
-				Thread thread = new Thread(this::runInThread, threadName);
-				thread.setDaemon(m_isDaemonThread);
+				Thread thread;
+				if ( Executions.isUseVirtualThreads() && Executions.isVirtualThreadSupported() ) {
+					// virtual thread는 항상 daemon thread이다.
+					thread = Executions.newThread(this::runInThread, true);
+					thread.setName(threadName);
+				}
+				else {
+					thread = new Thread(this::runInThread, threadName);
+					thread.setDaemon(m_isDaemonThread);
+				}
 				thread.start();
 			}
 		}
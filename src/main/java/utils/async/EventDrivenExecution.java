@@ -1,27 +1,25 @@
 package utils.async;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Date;
-import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import javax.annotation.concurrent.GuardedBy;
-
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Lists;
-
 import utils.LoggerSettable;
 import utils.Preconditions;
 import utils.RuntimeInterruptedException;
-import utils.Tuple;
-import utils.func.Funcs;
 import utils.func.Result;
 import utils.thread.Guard;
 
@@ -31,8 +29,20 @@ import utils.thread.Guard;
  * <p>
  * 외부 트리거({@link #notifyStarting()}, {@link #notifyStarted()}, {@link #notifyCompleted(Object)},
  * {@link #notifyFailed(Throwable)}, {@link #notifyCancelling()}, {@link #notifyCancelled()})를 통해
- * 라이프사이클 상태를 전이시키는 방식으로 동작한다. 모든 상태 전이와 listener 호출은
- * 내부 {@link Guard}({@code m_aopGuard})로 직렬화되어 thread-safe하다.
+ * 라이프사이클 상태를 전이시키는 방식으로 동작한다.
+ * <p>
+ * 상태는 lock 없이 하나의 volatile 필드에 대한 CAS로 전이된다. 종료 전에는 필드에 {@link AsyncState}
+ * 값이, 종료 후에는 상태와 결과를 함께 담은 {@link AsyncResult}가 저장되므로 종료 상태와 결과는 항상
+ * 원자적으로 함께 관측된다. 등록된 listener들은 lock-free stack에 유지되며, 상태 전이에 성공한
+ * 쓰레드가 한번만 호출한다. {@link #waitForFinished()} 등으로 대기하는 쓰레드는 실제로 대기해야 하는
+ * 경우에만 대기 목록에 등록되어 park되고, 상태 전이 시 깨어난다.
+ * <p>
+ * 동기 listener들은 대기 중인 쓰레드들이 깨어나기 전에 모두 호출된다. 즉 {@link #waitForFinished()}가
+ * 반환되었다면 {@link #whenFinished(Consumer)}로 등록된 handler들의 호출은 이미 끝난 상태이다.
+ * <p>
+ * {@code m_aopGuard}는 더 이상 상태 전이를 직렬화하지 않으며, 하위 클래스가 자신의 필드를 보호하기 위해
+ * 사용한다. 단, {@code CANCELLING}으로의 전이 시에는 {@code m_aopGuard}의 condition에서 취소 요청을
+ * 기다리는 하위 클래스를 위해 signal이 발생된다.
  * <p>
  * 거의 모든 다른 {@link Execution} 구현체({@code AbstractAsyncExecution},
  * {@code AbstractThreadedExecution}, {@code CompletableFutureAsyncExecution},
@@ -44,26 +54,48 @@ import utils.thread.Guard;
 public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	private static final Logger s_logger = LoggerFactory.getLogger(EventDrivenExecution.class);
 
+	private static final VarHandle STATE;
+	private static final VarHandle START_LISTENERS;
+	private static final VarHandle FINISH_LISTENERS;
+	private static final VarHandle WAITERS;
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			STATE = lookup.findVarHandle(EventDrivenExecution.class, "m_state", Object.class);
+			START_LISTENERS = lookup.findVarHandle(EventDrivenExecution.class, "m_startListeners",
+													ListenerNode.class);
+			FINISH_LISTENERS = lookup.findVarHandle(EventDrivenExecution.class, "m_finishListeners",
+													ListenerNode.class);
+			WAITERS = lookup.findVarHandle(EventDrivenExecution.class, "m_waiters", WaitNode.class);
+		}
+		catch ( ReflectiveOperationException e ) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
 	private long m_cancelTimeoutMillis = TimeUnit.SECONDS.toMillis(3);	// 3 seconds
 	protected final Guard m_aopGuard = Guard.create();
-	@GuardedBy("m_aopGuard") private AsyncState m_aopState = AsyncState.NOT_STARTED;
-	@GuardedBy("m_aopGuard") private boolean m_didStart = false;
-	@GuardedBy("m_aopGuard") private AsyncResult<T> m_asyncResult;		// may null
-	@GuardedBy("m_aopGuard") private final List<Tuple<Runnable,Boolean>> m_startListeners
-													= Lists.newArrayList();
-	@GuardedBy("m_aopGuard") private final List<Tuple<Consumer<Result<T>>,Boolean>> m_finishListeners
-													= Lists.newArrayList();
+
+	/** 종료 전에는 {@link AsyncState}, 종료 후에는 {@link AsyncResult}. */
+	private volatile Object m_state = AsyncState.NOT_STARTED;
+	private volatile boolean m_didStart = false;
+	private volatile @Nullable ListenerNode m_startListeners = null;
+	private volatile @Nullable ListenerNode m_finishListeners = null;
+	private volatile @Nullable WaitNode m_waiters = null;
+	// listener를 호출 중인 쓰레드. 동기 listener 내에서의 대기가 deadlock되지 않도록 한다.
+	private volatile @Nullable Thread m_startNotifier = null;
+	private volatile @Nullable Thread m_finishNotifier = null;
 	
 	private Logger m_logger = s_logger;
 
 	@Override
 	public AsyncState getState() {
-		return m_aopGuard.get(() -> m_aopState);
+		return toAsyncState(m_state);
 	}
 
 	@Override
 	public boolean isStarted() {
-		return m_aopGuard.get(() -> m_didStart);
+		return m_didStart;
 	}
 
     @Override
@@ -120,22 +152,25 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 */
 	@Override
 	public boolean cancel(boolean mayInterruptIfRunning) {
-		Date due = new Date(System.currentTimeMillis() + m_cancelTimeoutMillis);
+		long due = System.currentTimeMillis() + m_cancelTimeoutMillis;
 		
-		m_aopGuard.lock();
 		try {
 			boolean inTransitionState = true;
 			while ( inTransitionState ) {
-				switch ( m_aopState ) {
+				Object state = m_state;
+				switch ( toAsyncState(state) ) {
 					case NOT_STARTED:
 						// 시작되지도 않은 상태이면 바로 cancel된 것으로 세팅하고 바로 반환한다.
-						notifyCancelled();
-						return true;
+						// 그 사이 다른 쓰레드에 의해 상태가 바뀐 경우는 바뀐 상태에서 다시 시도한다.
+						if ( notifyCancelled() ) {
+							return true;
+						}
+						break;
 					case STARTING:
 					case CANCELLING:
 						// 'STARTING'/'CANCELLING' 상태인 경우에는 상태가 바뀔때까지
 						// 제한시간동안 대기한다.
-						if ( !m_aopGuard.awaitSignal(due) ) {
+						if ( !await(() -> m_state != state, due) ) {
 							// 제한 시간이 초과된 경우
 							return false;
 						}
@@ -150,26 +185,23 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 						break;
 				}
 			}
-			
-			// 여기서 상태는 'RUNNING' 밖에 없음
-			
-			// mayInterruptIfRunning이 false인 경우거나 'CancellableWork'를 implement하지
-			// Execution은 시작되지 않는 execution만 취소시킬 수 있기
-			// 때문에 이미 RUNNING상태인 경우에는 false를 반환한다.
-			if ( !mayInterruptIfRunning && !(this instanceof CancellableWork) ) {
-				return false;
-			}
-			
-			// 일단 상태를 'CANCELLING' 상태로 전이시켜 놓고 원래 작업을 중단시킬 준비를 함
-			if ( !notifyCancelling() ) {
-				return false;
-			}
 		}
 		catch ( InterruptedException e ) {
 			throw new RuntimeInterruptedException(e);
 		}
-		finally {
-			m_aopGuard.unlock();
+		
+		// 여기서 상태는 'RUNNING' 밖에 없음
+		
+		// mayInterruptIfRunning이 false인 경우거나 'CancellableWork'를 implement하지
+		// Execution은 시작되지 않는 execution만 취소시킬 수 있기
+		// 때문에 이미 RUNNING상태인 경우에는 false를 반환한다.
+		if ( !mayInterruptIfRunning && !(this instanceof CancellableWork) ) {
+			return false;
+		}
+		
+		// 일단 상태를 'CANCELLING' 상태로 전이시켜 놓고 원래 작업을 중단시킬 준비를 함
+		if ( !notifyCancelling() ) {
+			return false;
 		}
 		
 		if ( this instanceof CancellableWork canceller ) {
@@ -208,34 +240,31 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	
 	@Override
 	public void waitForStarted() throws InterruptedException {
-		m_aopGuard.awaitCondition(() -> m_didStart).andReturn();
+		await(this::isStartNotified, -1);
 	}
 
 	@Override
 	public boolean waitForStarted(Date due) throws InterruptedException {
-		return m_aopGuard.awaitCondition(() -> m_didStart, due).andReturn();
+		return await(this::isStartNotified, due.getTime());
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public AsyncResult<T> poll() {
-		return m_aopGuard.get(() -> isDoneInGuard() ? m_asyncResult : AsyncResult.running());
+		return (m_state instanceof AsyncResult<?> result) ? (AsyncResult<T>)result : AsyncResult.running();
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public AsyncResult<T> waitForFinished(Date due) throws InterruptedException {
-		try {
-			return m_aopGuard.awaitCondition(() -> isDoneInGuard(), due)
-								.andGet(() -> m_asyncResult);
-		}
-		catch ( TimeoutException e ) {
-			return AsyncResult.running();
-		}
+		return await(this::isFinishNotified, due.getTime()) ? (AsyncResult<T>)m_state : AsyncResult.running();
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public AsyncResult<T> waitForFinished() throws InterruptedException {
-		return m_aopGuard.awaitCondition(() -> isDoneInGuard())
-						.andGet(() -> m_asyncResult);
+		await(this::isFinishNotified, -1);
+		return (AsyncResult<T>)m_state;
 	}
 
 	@Override
@@ -262,12 +291,15 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * @return	{@code STARTING} 상태에 도달했거나 이미 도달해 있는 경우 {@code true}, 그 외 {@code false}
 	 */
 	public boolean notifyStarting() {
-		m_aopGuard.lock();
-		try {
-			switch ( m_aopState ) {
+		while ( true ) {
+			Object state = m_state;
+			switch ( toAsyncState(state) ) {
 				case NOT_STARTED:
-					m_aopState = AsyncState.STARTING;
-					m_aopGuard.signalAll();
+					if ( STATE.compareAndSet(this, state, AsyncState.STARTING) ) {
+						releaseWaiters();
+						return true;
+					}
+					break;
 				case STARTING:
 			    	return true;
 				case RUNNING:
@@ -277,14 +309,8 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 				case FAILED:
 					return false;
 				default:
-					String msg = String.format("unexpected state: current[%s], event=[%s]",
-												m_aopState, AsyncState.STARTING);
-					throw new IllegalStateException(msg);
+					throw unexpectedState(state, AsyncState.STARTING);
 			}
-			
-		}
-		finally {
-			m_aopGuard.unlock();
 		}
 	}
 	
@@ -307,47 +333,32 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * 			취소된 상태({@code CANCELLED})에서만 false를 반환.
 	 */
 	public boolean notifyStarted() {
-		List<Runnable> asyncStartListeners = List.of();
-		boolean started = false;
-		m_aopGuard.lock();
-		try {
-			switch ( m_aopState ) {
+		while ( true ) {
+			Object state = m_state;
+			switch ( toAsyncState(state) ) {
 				case NOT_STARTED:
 				case STARTING:
-					m_aopState = AsyncState.RUNNING;
-					m_didStart = true;
-					m_aopGuard.signalAll();
-					getLogger().debug("started: {}", this);
+					if ( STATE.compareAndSet(this, state, AsyncState.RUNNING) ) {
+						m_didStart = true;
+						getLogger().debug("started: {}", this);
 
-					asyncStartListeners = notifyStartListenersInGuard();
-					started = true;
+						notifyStartListeners();
+						return true;
+					}
 					break;
 				case RUNNING:
-			    	started = true;
-			    	break;
+			    	return true;
 				case COMPLETED:
 				case CANCELLED:
 				case CANCELLING:
 				case FAILED:
-					started = false;
-					break;
+					return false;
 				default:
 					// 이 상태는 존재하지 않음.
 					// 추후 확장시 실수 탐지용을 사용.
-					String msg = String.format("unexpected state: current[%s], event=[%s]",
-												m_aopState, AsyncState.RUNNING);
-					throw new IllegalStateException(msg);
+					throw unexpectedState(state, AsyncState.RUNNING);
 			}
 		}
-		finally {
-			m_aopGuard.unlock();
-		}
-
-		for ( Runnable listener: asyncStartListeners ) {
-			CompletableFuture.runAsync(() -> invokeStartListener(listener));
-		}
-
-		return started;
 	}
 
 	/**
@@ -368,18 +379,19 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * @throws IllegalStateException	아직 시작 전 상태에서 호출된 경우
 	 */
 	public boolean notifyCompleted(T result) {
-		m_aopGuard.lock();
-		try {
-			switch ( m_aopState ) {
+		AsyncResult<T> completed = AsyncResult.completed(result);
+		while ( true ) {
+			Object state = m_state;
+			switch ( toAsyncState(state) ) {
 				case RUNNING:
 				case CANCELLING:
-					m_asyncResult = AsyncResult.completed(result);
-					m_aopState = AsyncState.COMPLETED;
-					m_aopGuard.signalAll();
-					getLogger().debug("completed: {}, result={}", this, result);
-					
-					notifyFinishListenersInGuard();
-			    	return true;
+					if ( STATE.compareAndSet(this, state, completed) ) {
+						getLogger().debug("completed: {}, result={}", this, result);
+						
+						notifyFinishListeners(completed);
+				    	return true;
+					}
+					break;
 				case CANCELLED:
 				case FAILED:
 				case COMPLETED:
@@ -387,14 +399,8 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 				case NOT_STARTED:
 				case STARTING:
 				default:
-					String msg = String.format("unexpected state: current[%s], event=[%s]",
-												m_aopState, AsyncState.COMPLETED);
-					throw new IllegalStateException(msg);
+					throw unexpectedState(state, AsyncState.COMPLETED);
 			}
-			
-		}
-		finally {
-			m_aopGuard.unlock();
 		}
 	}
 	
@@ -415,33 +421,29 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * @throws IllegalStateException	아직 시작 전 상태에서 호출된 경우
 	 */
 	public boolean notifyFailed(Throwable cause) {
-		m_aopGuard.lock();
-    	try {
-			switch ( m_aopState ) {
+		AsyncResult<T> failed = AsyncResult.failed(cause);
+		while ( true ) {
+			Object state = m_state;
+			switch ( toAsyncState(state) ) {
 				case STARTING:		// start 과정에서 오류가 발생된 경우.
 				case RUNNING:
 				case CANCELLING:
-					m_asyncResult = AsyncResult.failed(cause);
-			    	m_aopState = AsyncState.FAILED;
-			    	m_aopGuard.signalAll();
-					getLogger().info("failed: {}, cause={}", this, cause.toString());
-					
-					notifyFinishListenersInGuard();
-			    	return true;
+					if ( STATE.compareAndSet(this, state, failed) ) {
+						getLogger().info("failed: {}, cause={}", this, cause.toString());
+						
+						notifyFinishListeners(failed);
+				    	return true;
+					}
+					break;
 				case FAILED:
 				case COMPLETED:
 				case CANCELLED:
 					return false;
 				case NOT_STARTED:
 				default:
-					String msg = String.format("unexpected state: current[%s], event=[%s]",
-												m_aopState, AsyncState.FAILED);
-					throw new IllegalStateException(msg);
+					throw unexpectedState(state, AsyncState.FAILED);
 			}
-    	}
-    	finally {
-    		m_aopGuard.unlock();
-    	}
+		}
     }
 	
 	/**
@@ -460,27 +462,30 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * 			그 외의 경우 {@code false}
 	 */
 	public boolean notifyCancelling() {
-		m_aopGuard.lock();
-    	try {
-    		// 시작 중인 상태이면, cancel 작업이 inconsistent한 상태를 볼 수 있기 때문에,
-    		// 일단 start작업이 완료될 때까지 대기한다.
-    		Date due = new Date(System.currentTimeMillis() + m_cancelTimeoutMillis);
-			while ( m_aopState == AsyncState.STARTING ) {
-				try {
-					if ( !m_aopGuard.awaitSignal(due) ) {
-						return false;
-					}
-				}
-				catch ( InterruptedException e ) {
-					return false;
-				}
-			}
-    		
-			switch ( m_aopState ) {
+		// 시작 중인 상태이면, cancel 작업이 inconsistent한 상태를 볼 수 있기 때문에,
+		// 일단 start작업이 완료될 때까지 대기한다.
+		if ( !awaitStartingFinished() ) {
+			return false;
+		}
+		
+		while ( true ) {
+			Object state = m_state;
+			switch ( toAsyncState(state) ) {
 				case RUNNING:
 				case NOT_STARTED:
-					m_aopState = AsyncState.CANCELLING;
-					m_aopGuard.signalAll();
+					if ( STATE.compareAndSet(this, state, AsyncState.CANCELLING) ) {
+						releaseWaiters();
+						// m_aopGuard에서 취소 요청을 기다리는 하위 클래스를 깨운다.
+						m_aopGuard.run(() -> { });
+						return true;
+					}
+					break;
+				case STARTING:
+					// 대기 후 다시 시작 절차가 시작된 경우.
+					if ( !awaitStartingFinished() ) {
+						return false;
+					}
+					break;
 				case CANCELLING:
 				case CANCELLED:
 					return true;
@@ -488,14 +493,9 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 				case FAILED:
 					return false;
 				default:
-					String msg = String.format("unexpected state: current[%s], event=[%s]",
-												m_aopState, AsyncState.CANCELLING);
-					throw new IllegalStateException(msg);
+					throw unexpectedState(state, AsyncState.CANCELLING);
 			}
-    	}
-    	finally {
-    		m_aopGuard.unlock();
-    	}
+		}
     }
 	
 	/**
@@ -515,46 +515,41 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * 			그 외의 경우 {@code false}
 	 */
 	public boolean notifyCancelled() {
-		m_aopGuard.lock();
-    	try {
-    		// 시작 중인 상태이면, cancel 작업이 inconsistent한 상태를 볼 수 있기 때문에,
-    		// 일단 start작업이 완료될 때까지 대기한다.
-    		Date due = new Date(System.currentTimeMillis() + m_cancelTimeoutMillis);
-    		try {
-				while ( m_aopState == AsyncState.STARTING ) {
-					if ( !m_aopGuard.awaitSignal(due) ) {
-						return false;
-					}
-				}
-			}
-			catch ( InterruptedException e ) {
-				return false;
-			}
-    		
-			switch ( m_aopState ) {
+		// 시작 중인 상태이면, cancel 작업이 inconsistent한 상태를 볼 수 있기 때문에,
+		// 일단 start작업이 완료될 때까지 대기한다.
+		if ( !awaitStartingFinished() ) {
+			return false;
+		}
+		
+		AsyncResult<T> cancelled = AsyncResult.cancelled();
+		while ( true ) {
+			Object state = m_state;
+			switch ( toAsyncState(state) ) {
 				case CANCELLING:
 				case RUNNING:
 				case NOT_STARTED:
-					m_asyncResult = AsyncResult.cancelled();
-					m_aopState = AsyncState.CANCELLED;
-					m_aopGuard.signalAll();
-					getLogger().info("cancelled: {}", this);
-					
-					notifyFinishListenersInGuard();
+					if ( STATE.compareAndSet(this, state, cancelled) ) {
+						getLogger().info("cancelled: {}", this);
+						
+						notifyFinishListeners(cancelled);
+				    	return true;
+					}
+					break;
+				case STARTING:
+					// 대기 후 다시 시작 절차가 시작된 경우.
+					if ( !awaitStartingFinished() ) {
+						return false;
+					}
+					break;
 				case CANCELLED:
 			    	return true;
 				case COMPLETED:
 				case FAILED:
 					return false;
 				default:
-					String msg = String.format("unexpected state: current[%s], event=[%s]",
-												m_aopState, AsyncState.CANCELLED);
-					throw new IllegalStateException(msg);
+					throw unexpectedState(state, AsyncState.CANCELLED);
 			}
-    	}
-    	finally {
-    		m_aopGuard.unlock();
-    	}
+		}
     }
 	
 	/**
@@ -575,18 +570,14 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	 * @throws IllegalStateException	내부 결과가 비종료 상태인 경우
 	 */
 	public Result<T> getResult() {
-		return m_aopGuard.get(() -> {
-			switch ( m_asyncResult.getState() ) {
-				case COMPLETED:
-					return Result.success(m_asyncResult.getUnchecked());
-				case FAILED:
-					return Result.failure(m_asyncResult.getFailureCause());
-				case CANCELLED:
-					return Result.none();
-				default:
-					throw new IllegalStateException("invalid execution state: " + m_asyncResult.getState());
-			}
-		});
+		Object state = m_state;
+		if ( !(state instanceof AsyncResult<?>) ) {
+			throw new IllegalStateException("invalid execution state: " + state);
+		}
+		
+		@SuppressWarnings("unchecked")
+		AsyncResult<T> result = (AsyncResult<T>)state;
+		return toResult(result);
 	}
 
 	@Override
@@ -602,36 +593,14 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	private Execution<T> _whenStarted(Runnable listener, boolean runAsync) {
 		Preconditions.checkNotNullArgument(listener, "listener is null");
 
-		List<Runnable> asyncStartListeners = List.of();
-		Tuple<Runnable, Boolean> tup = Tuple.of(listener, runAsync);
-
-		m_aopGuard.lock();
-    	try {
-			if ( !Funcs.exists(m_startListeners, t -> t._1 == listener) ) {
-				switch ( m_aopState ) {
-					case NOT_STARTED:
-					case STARTING:
-						// 아직 시작되지 않은 상태이므로 listener를 등록해 놓는다.
-						m_startListeners.add(tup);
-						break;
-					default:
-						// 작업이 RUNNING에 도달한 적이 있는 경우에만 listener를 즉시 구동시킨다.
-						// NOT_STARTED → CANCELLED, STARTING → FAILED 등 RUNNING에 도달하지 못한
-						// 채로 종료된 경우에는 listener를 호출하지 않는다.
-						if ( m_didStart ) {
-							m_startListeners.add(tup);
-							asyncStartListeners = notifyStartListenersInGuard(List.of(tup));
-						}
-						break;
-				}
+		if ( register(START_LISTENERS, listener, runAsync) ) {
+			// 작업이 RUNNING에 도달한 이후 등록된 경우에는 listener를 즉시 구동시킨다.
+			if ( runAsync ) {
+				CompletableFuture.runAsync(() -> invokeStartListener(listener));
+			}
+			else {
+				invokeStartListener(listener);
 			}
-    	}
-    	finally {
-    		m_aopGuard.unlock();
-    	}
-
-		for ( Runnable al: asyncStartListeners ) {
-			CompletableFuture.runAsync(() -> invokeStartListener(al));
 		}
 
 		return this;
@@ -650,23 +619,18 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 	private Execution<T> _whenFinished(Consumer<Result<T>> handler, boolean runAsync) {
 		Preconditions.checkNotNullArgument(handler, "handler is null");
 
-		m_aopGuard.lock();
-    	try {
-			Tuple<Consumer<Result<T>>, Boolean> listener = Tuple.of(handler, runAsync);
-			if ( !Funcs.exists(m_finishListeners, t -> t._1 == handler) ) {
-				m_finishListeners.add(listener);
-				
-				if ( isDoneInGuard() ) {
-					// 이미 종료된 경우에는 바로 수행시킨다.
-					notifyFinishListenersInGuard(List.of(listener));
-				}
+		if ( register(FINISH_LISTENERS, handler, runAsync) ) {
+			// 이미 종료된 경우에는 바로 수행시킨다.
+			@SuppressWarnings("unchecked")
+			Result<T> result = toResult((AsyncResult<T>)m_state);
+			if ( runAsync ) {
+				CompletableFuture.runAsync(() -> invokeFinishListener(handler, result));
 			}
-
-			return this;
-    	}
-    	finally {
-    		m_aopGuard.unlock();
-    	}
+			else {
+				invokeFinishListener(handler, result);
+			}
+		}
+		return this;
 	}
 	
 	/**
@@ -723,13 +687,16 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 
 	@Override
 	public String toString() {
-		return String.format("%s[%s]", getClass().getSimpleName(), m_aopState);
+		return String.format("%s[%s]", getClass().getSimpleName(), getState());
 	}
 
 	/**
 	 * 본 객체의 내부 lock을 획득한 상태에서 주어진 작업을 실행한다.
 	 * <p>
-	 * 서브클래스/외부 코드가 상태 검사와 추가 동작을 원자적으로 묶어야 할 때 사용한다.
+	 * 서브클래스/외부 코드가 자신의 필드 검사와 갱신을 원자적으로 묶어야 할 때 사용한다.
+	 * 상태 전이는 본 lock과 무관하게 이루어지므로, 상태 검사 후 부가 작업을 수행하는 경우에는
+	 * 취소 요청 등으로 상태가 바뀐 뒤 호출되는 {@link CancellableWork#cancelWork()} 등에서도
+	 * 같은 lock을 획득하여 필드를 확인해야 한다.
 	 * 작업 종료 후 lock 은 자동으로 해제되며 {@code signalAll()}이 호출된다.
 	 *
 	 * @param work	실행할 작업
@@ -749,23 +716,31 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 		return m_aopGuard.get(supplier);
 	}
 	
-	private List<Runnable> notifyStartListenersInGuard(List<Tuple<Runnable, Boolean>> listeners) {
-		// 동기 핸들러들을 수행시킨다.
-		for ( Tuple<Runnable, Boolean> tup : listeners ) {
-			if ( !tup._2 ) {
-				invokeStartListener(tup._1);
+	private void notifyStartListeners() {
+		m_startNotifier = Thread.currentThread();
+		try {
+			ListenerNode listeners = beginNotify(START_LISTENERS);
+
+			// 동기 핸들러들을 수행시킨다.
+			for ( ListenerNode node = listeners; node != null; node = node.m_next ) {
+				if ( !node.m_async ) {
+					invokeStartListener((Runnable)node.m_listener);
+				}
 			}
-		}
+			endNotify(START_LISTENERS);
+			releaseWaiters();
 
-		// 비동기 핸들러들을 수집하여 반환한다.
-		return listeners.stream()
-						.filter(t -> t._2)
-						.map(t -> t._1)
-						.toList();
-	}
-	
-	private List<Runnable> notifyStartListenersInGuard() {
-		return notifyStartListenersInGuard(m_startListeners);
+			// 비동기 핸들러들을 수행시킨다.
+			for ( ListenerNode node = listeners; node != null; node = node.m_next ) {
+				if ( node.m_async ) {
+					Runnable listener = (Runnable)node.m_listener;
+					CompletableFuture.runAsync(() -> invokeStartListener(listener));
+				}
+			}
+		}
+		finally {
+			m_startNotifier = null;
+		}
 	}
 
 	private void invokeStartListener(Runnable listener) {
@@ -778,26 +753,38 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 		}
 	}
 	
-	private void notifyFinishListenersInGuard(List<Tuple<Consumer<Result<T>>, Boolean>> listeners) {
-		final Result<T> result = getResult();
+	@SuppressWarnings("unchecked")
+	private void notifyFinishListeners(AsyncResult<T> asyncResult) {
+		if ( !m_didStart ) {
+			// RUNNING에 도달하지 못한 채로 종료된 경우에는 start listener들을 호출하지 않는다.
+			discardStartListeners();
+		}
+		
+		m_finishNotifier = Thread.currentThread();
+		try {
+			final Result<T> result = toResult(asyncResult);
+			ListenerNode listeners = beginNotify(FINISH_LISTENERS);
 
-		// 동기 핸들러들을 수행시킨다.
-		for ( Tuple<Consumer<Result<T>>, Boolean> tup : listeners ) {
-			if ( !tup._2 ) {
-				invokeFinishListener(tup._1, result);
+			// 동기 핸들러들을 수행시킨다.
+			for ( ListenerNode node = listeners; node != null; node = node.m_next ) {
+				if ( !node.m_async ) {
+					invokeFinishListener((Consumer<Result<T>>)node.m_listener, result);
+				}
 			}
-		}
+			endNotify(FINISH_LISTENERS);
+			releaseWaiters();
 
-		// 비동기 핸들러들을 수행시킨다.
-		for ( Tuple<Consumer<Result<T>>, Boolean> tup : listeners ) {
-			if ( tup._2 ) {
-				CompletableFuture.runAsync(() -> invokeFinishListener(tup._1, result));
+			// 비동기 핸들러들을 수행시킨다.
+			for ( ListenerNode node = listeners; node != null; node = node.m_next ) {
+				if ( node.m_async ) {
+					Consumer<Result<T>> handler = (Consumer<Result<T>>)node.m_listener;
+					CompletableFuture.runAsync(() -> invokeFinishListener(handler, result));
+				}
 			}
 		}
-	}
-	
-	private void notifyFinishListenersInGuard() {
-		notifyFinishListenersInGuard(m_finishListeners);
+		finally {
+			m_finishNotifier = null;
+		}
 	}
 
 	private void invokeFinishListener(Consumer<Result<T>> handler, Result<T> result) {
@@ -810,16 +797,263 @@ public class EventDrivenExecution<T> implements Execution<T>, LoggerSettable {
 		}
 	}
 	
-	private static boolean isFinished(AsyncState state) {
-		switch ( state ) {
-			case COMPLETED: case FAILED: case CANCELLED:
-				return true;
+	private boolean isStartNotified() {
+		ListenerNode head = m_startListeners;
+		return (head != null && head.m_listener == FIRED)
+				|| (m_didStart && m_startNotifier == Thread.currentThread());
+	}
+	
+	private boolean isFinishNotified() {
+		ListenerNode head = m_finishListeners;
+		return (head != null && head.m_listener == FIRED)
+				|| (m_state instanceof AsyncResult && m_finishNotifier == Thread.currentThread());
+	}
+	
+	private boolean awaitStartingFinished() {
+		if ( m_state != AsyncState.STARTING ) {
+			return true;
+		}
+		
+		long due = System.currentTimeMillis() + m_cancelTimeoutMillis;
+		try {
+			return await(() -> m_state != AsyncState.STARTING, due);
+		}
+		catch ( InterruptedException e ) {
+			return false;
+		}
+	}
+	
+	private IllegalStateException unexpectedState(Object state, AsyncState event) {
+		String msg = String.format("unexpected state: current[%s], event=[%s]", toAsyncState(state), event);
+		return new IllegalStateException(msg);
+	}
+	
+	private static AsyncState toAsyncState(Object state) {
+		return (state instanceof AsyncResult<?> result) ? result.getState() : (AsyncState)state;
+	}
+	
+	private static <T> Result<T> toResult(AsyncResult<T> result) {
+		switch ( result.getState() ) {
+			case COMPLETED:
+				return Result.success(result.getUnchecked());
+			case FAILED:
+				return Result.failure(result.getFailureCause());
+			case CANCELLED:
+				return Result.none();
 			default:
+				throw new IllegalStateException("invalid execution state: " + result.getState());
+		}
+	}
+	
+	//
+	// Listener 목록 관리
+	//
+	// Listener 목록은 lock-free stack으로 관리된다. stack의 head가 아래의 marker 노드인 경우는
+	// listener들이 이미 호출 중(FIRING)이거나 호출된(FIRED) 상태, 또는 호출되지 않고 폐기된(DISCARDED)
+	// 상태를 의미하며, marker 노드의 m_next에는 중복 등록 검사를 위해 등록된 listener들이 유지된다.
+	//
+	private static final Object FIRING = new Object();
+	private static final Object FIRED = new Object();
+	private static final Object DISCARDED = new Object();
+	
+	private static final class ListenerNode {
+		private final Object m_listener;
+		private final boolean m_async;
+		private final @Nullable ListenerNode m_next;
+		
+		ListenerNode(Object listener, boolean async, @Nullable ListenerNode next) {
+			m_listener = listener;
+			m_async = async;
+			m_next = next;
+		}
+		
+		boolean isMarker() {
+			return m_listener == FIRING || m_listener == FIRED || m_listener == DISCARDED;
+		}
+	}
+	
+	/**
+	 * 주어진 listener를 등록한다.
+	 *
+	 * @return	listener들이 이미 호출 중이거나 호출된 상태여서 호출자가 직접 listener를
+	 * 			호출해야 하는 경우 {@code true}. 목록에 등록되었거나, 중복 등록 또는 폐기된 목록이어서
+	 * 			무시된 경우는 {@code false}.
+	 */
+	private boolean register(VarHandle handle, Object listener, boolean async) {
+		while ( true ) {
+			ListenerNode head = (ListenerNode)handle.getVolatile(this);
+			if ( head != null && head.m_listener == DISCARDED ) {
+				return false;
+			}
+			for ( ListenerNode node = head; node != null; node = node.m_next ) {
+				if ( node.m_listener == listener ) {
+					return false;
+				}
+			}
+			
+			if ( head != null && head.isMarker() ) {
+				// 이미 호출 중이거나 호출된 경우는 중복 검사를 위해 목록에만 추가한다.
+				ListenerNode marker = new ListenerNode(head.m_listener, false,
+														new ListenerNode(listener, async, head.m_next));
+				if ( handle.compareAndSet(this, head, marker) ) {
+					return true;
+				}
+			}
+			else if ( handle.compareAndSet(this, head, new ListenerNode(listener, async, head)) ) {
 				return false;
+			}
 		}
 	}
 	
-	private boolean isDoneInGuard() {
-		return isFinished(m_aopState);
+	/**
+	 * Listener 목록을 호출 중(FIRING) 상태로 바꾸고, 그때까지 등록된 listener들을 등록 순서대로 반환한다.
+	 */
+	private ListenerNode beginNotify(VarHandle handle) {
+		while ( true ) {
+			ListenerNode head = (ListenerNode)handle.getVolatile(this);
+			if ( head != null && head.isMarker() ) {
+				// 폐기되었거나 이미 호출된 경우.
+				return null;
+			}
+			if ( handle.compareAndSet(this, head, new ListenerNode(FIRING, false, head)) ) {
+				// stack은 역순이므로 등록 순서로 뒤집는다.
+				ListenerNode ordered = null;
+				for ( ListenerNode node = head; node != null; node = node.m_next ) {
+					ordered = new ListenerNode(node.m_listener, node.m_async, ordered);
+				}
+				return ordered;
+			}
+		}
+	}
+	
+	private void endNotify(VarHandle handle) {
+		while ( true ) {
+			ListenerNode head = (ListenerNode)handle.getVolatile(this);
+			if ( head == null || head.m_listener != FIRING ) {
+				return;
+			}
+			if ( handle.compareAndSet(this, head, new ListenerNode(FIRED, false, head.m_next)) ) {
+				return;
+			}
+		}
+	}
+	
+	private void discardStartListeners() {
+		while ( true ) {
+			ListenerNode head = m_startListeners;
+			if ( head != null && head.isMarker() ) {
+				return;
+			}
+			if ( START_LISTENERS.compareAndSet(this, head, new ListenerNode(DISCARDED, false, null)) ) {
+				return;
+			}
+		}
+	}
+	
+	//
+	// 대기 쓰레드 관리
+	//
+	private static final class WaitNode {
+		private volatile @Nullable Thread m_thread = Thread.currentThread();
+		private volatile @Nullable WaitNode m_next;
+	}
+	
+	/**
+	 * 주어진 조건이 만족될 때까지 대기한다.
+	 * <p>
+	 * 조건이 이미 만족된 경우는 대기 목록에 등록하지 않고 바로 반환한다.
+	 *
+	 * @param cond	대기 조건.
+	 * @param dueMillis	대기 제한 시각 (epoch milli-seconds). 음수인 경우는 무한 대기.
+	 * @return	조건이 만족된 경우는 {@code true}, 제한 시각이 경과한 경우는 {@code false}.
+	 * @throws InterruptedException	대기 중 쓰레드가 인터럽트된 경우.
+	 */
+	private boolean await(BooleanSupplier cond, long dueMillis) throws InterruptedException {
+		WaitNode node = null;
+		boolean queued = false;
+		try {
+			while ( true ) {
+				if ( cond.getAsBoolean() ) {
+					return true;
+				}
+				if ( Thread.interrupted() ) {
+					throw new InterruptedException();
+				}
+				
+				if ( node == null ) {
+					node = new WaitNode();
+				}
+				else if ( queued && node.m_thread == null ) {
+					// 상태 전이로 대기 목록에서 풀려났으나 조건이 만족되지 않은 경우는 다시 등록한다.
+					node = null;
+					queued = false;
+				}
+				else if ( !queued ) {
+					WaitNode head = m_waiters;
+					node.m_next = head;
+					queued = WAITERS.compareAndSet(this, head, node);
+				}
+				else if ( dueMillis < 0 ) {
+					LockSupport.park(this);
+				}
+				else if ( System.currentTimeMillis() >= dueMillis ) {
+					return cond.getAsBoolean();
+				}
+				else {
+					LockSupport.parkUntil(this, dueMillis);
+				}
+			}
+		}
+		finally {
+			if ( queued ) {
+				removeWaiter(node);
+			}
+		}
+	}
+	
+	private void releaseWaiters() {
+		if ( m_waiters == null ) {
+			return;
+		}
+		
+		WaitNode node = (WaitNode)WAITERS.getAndSet(this, null);
+		for ( ; node != null; node = node.m_next ) {
+			Thread thread = node.m_thread;
+			if ( thread != null ) {
+				node.m_thread = null;
+				LockSupport.unpark(thread);
+			}
+		}
+	}
+	
+	/**
+	 * 대기를 마친 노드를 대기 목록에서 제거한다.
+	 * <p>
+	 * 노드의 쓰레드를 {@code null}로 설정한 후, 목록을 훑으며 쓰레드가 {@code null}인 노드들을 제거한다.
+	 */
+	private void removeWaiter(WaitNode node) {
+		node.m_thread = null;
+		retry:
+		while ( true ) {
+			WaitNode pred = null;
+			for ( WaitNode q = m_waiters; q != null; ) {
+				WaitNode next = q.m_next;
+				if ( q.m_thread != null ) {
+					pred = q;
+				}
+				else if ( pred != null ) {
+					pred.m_next = next;
+					if ( pred.m_thread == null ) {
+						// pred도 제거 중인 경우는 처음부터 다시 시도한다.
+						continue retry;
+					}
+				}
+				else if ( !WAITERS.compareAndSet(this, q, next) ) {
+					continue retry;
+				}
+				q = next;
+			}
+			return;
+		}
 	}
 }
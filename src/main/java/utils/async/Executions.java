@@ -8,6 +8,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -38,13 +40,23 @@ import utils.thread.Timer;
  * </ul>
  * 또한 라이브러리 공용으로 사용되는 {@link ScheduledExecutorService}와 {@link Timer} 인스턴스를
  * {@link #getExecutor()}, {@link #getTimer()}로 노출한다.
+ * <p>
+ * Java 21 이상에서 수행되는 경우에는 작업마다 virtual thread를 생성하여 수행하는
+ * {@link #getVirtualThreadExecutor()}를 제공하며, {@link #setUseVirtualThreads(boolean)}으로
+ * {@link Executor}가 지정되지 않은 비동기 작업들이 기본적으로 virtual thread에서 수행되도록 할 수 있다.
+ * Virtual thread 지원 여부는 실행 시점에 reflection으로 판단하므로 Java 17 환경에서도 동작하며,
+ * 이 경우는 platform thread가 대신 사용된다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public class Executions {
 	private static final ScheduledExecutorService EXECUTOR = Executions.createDefaultExecutor();
 	
-	private static Timer s_timer = null;
+	private static volatile Timer s_timer = null;
+
+	private static final @Nullable ThreadFactory VIRTUAL_THREAD_FACTORY = loadVirtualThreadFactory();
+	private static final Executor THREAD_PER_TASK_EXECUTOR = task -> newThread(task, true).start();
+	private static volatile boolean s_useVirtualThreads = false;
 	
 	private Executions() {
 		throw new AssertionError("Should not be called: class=" + getClass());
@@ -55,14 +67,24 @@ public class Executions {
 	 * <p>
 	 * 주로 {@link EventDrivenExecution#setTimeout(long, java.util.concurrent.TimeUnit)} 등
 	 * {@link Execution}에 타임아웃을 부착하는 데 사용된다. 최초 호출 시 lazy 생성된다.
+	 * <p>
+	 * 공용 타이머는 기본 tick({@value Timer#DEFAULT_TICK_MILLIS}ms)의 hashed wheel 타이머이며,
+	 * 만기된 작업(대상 {@link Execution}의 취소)은 {@link #getExecutor()}에서 수행된다.
 	 *
 	 * @return 공용 {@link Timer} 객체.
 	 */
 	public static Timer getTimer() {
-		if ( s_timer == null ) {
-			s_timer = new Timer();
+		Timer timer = s_timer;
+		if ( timer == null ) {
+			synchronized ( Executions.class ) {
+				if ( s_timer == null ) {
+					s_timer = new Timer(Timer.DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS,
+										Timer.DEFAULT_WHEEL_SIZE, EXECUTOR);
+				}
+				timer = s_timer;
+			}
 		}
-		return s_timer;
+		return timer;
 	}
 
 	/**
@@ -76,6 +98,53 @@ public class Executions {
 	public static ScheduledExecutorService getExecutor() {
 		return EXECUTOR;
 	}
+
+	/**
+	 * 현재 수행 환경(Java 21 이상)에서 virtual thread를 사용할 수 있는지 여부를 반환한다.
+	 *
+	 * @return	virtual thread를 사용할 수 있으면 {@code true}, 그렇지 않으면 {@code false}.
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return VIRTUAL_THREAD_FACTORY != null;
+	}
+
+	/**
+	 * 제출된 작업마다 새 virtual thread를 생성하여 수행하는 {@link Executor}를 반환한다.
+	 * <p>
+	 * 쓰레드 풀의 크기 제한이 없으므로 HTTP/JDBC 호출 등 blocking I/O 작업을 대량으로 동시에
+	 * 수행하는데 적합하다. Virtual thread를 지원하지 않는 환경에서는 작업마다 daemon platform thread를
+	 * 생성하여 수행한다.
+	 *
+	 * @return	thread-per-task {@link Executor} 객체.
+	 */
+	public static Executor getVirtualThreadExecutor() {
+		return THREAD_PER_TASK_EXECUTOR;
+	}
+
+	/**
+	 * {@link Executor}가 지정되지 않은 비동기 작업들을 virtual thread에서 수행할지 여부를 설정한다.
+	 * <p>
+	 * 설정된 경우 {@link #supplyAsync(Supplier, Executor)}, {@link #toExecution(CheckedRunnable, Executor)},
+	 * {@link #callAsync(Callable, Executor)} 등에 {@code null} executor가 주어지면
+	 * {@link #getVirtualThreadExecutor()}가 사용되고, {@link AbstractThreadedExecution}은 작업 쓰레드로
+	 * virtual thread를 사용한다. {@link utils.stream.FStream#mapAsync} 등 비동기 스트림 연산도 별도의 executor가
+	 * 지정되지 않았다면 본 설정을 따른다.
+	 *
+	 * @param flag	virtual thread 사용 여부.
+	 */
+	public static void setUseVirtualThreads(boolean flag) {
+		s_useVirtualThreads = flag;
+	}
+
+	/**
+	 * {@link Executor}가 지정되지 않은 비동기 작업들이 virtual thread에서 수행되는지 여부를 반환한다.
+	 *
+	 * @return	virtual thread 사용 여부.
+	 * @see #setUseVirtualThreads(boolean)
+	 */
+	public static boolean isUseVirtualThreads() {
+		return s_useVirtualThreads;
+	}
 	
 	/**
 	 * 주어진 {@link CheckedRunnable} 작업을 비동기로 실행하는 {@link StartableExecution}을 생성한다.
@@ -93,8 +162,9 @@ public class Executions {
 		return new CompletableFutureAsyncExecution<Void>() {
 			@Override
 			protected CompletableFuture<? extends Void> startExecution() {
-				if ( executor != null ) {
-					return CompletableFuture.runAsync(UncheckedRunnable.sneakyThrow(task), executor);
+				Executor resolved = resolveExecutor(executor);
+				if ( resolved != null ) {
+					return CompletableFuture.runAsync(UncheckedRunnable.sneakyThrow(task), resolved);
 				}
 				else {
 					return CompletableFuture.runAsync(UncheckedRunnable.sneakyThrow(task));
@@ -162,7 +232,8 @@ public class Executions {
 		return new CompletableFutureAsyncExecution<T>() {
 			@Override
 			protected CompletableFuture<? extends T> startExecution() {
-				return (executor != null) ? CompletableFuture.supplyAsync(supplier, executor)
+				Executor resolved = resolveExecutor(executor);
+				return (resolved != null) ? CompletableFuture.supplyAsync(supplier, resolved)
 											:  CompletableFuture.supplyAsync(supplier);
 			}
 		};
@@ -226,7 +297,8 @@ public class Executions {
 				throw new CompletionException(e);
 			}
 		};
-		return (executor != null) ? CompletableFuture.supplyAsync(supplier, executor)
+		Executor resolved = resolveExecutor(executor);
+		return (resolved != null) ? CompletableFuture.supplyAsync(supplier, resolved)
 									: CompletableFuture.supplyAsync(supplier);
 	}
 	/**
@@ -285,4 +357,48 @@ public class Executions {
 
         return Executors.newScheduledThreadPool(numberOfThreads);
 	}
+
+	/**
+	 * 작업 쓰레드를 생성한다.
+	 * <p>
+	 * {@code virtual}이 {@code true}이고 virtual thread를 지원하는 환경이면 virtual thread를,
+	 * 그렇지 않으면 daemon platform thread를 생성한다. 생성된 쓰레드는 시작되지 않은 상태이다.
+	 *
+	 * @param task		쓰레드에서 수행할 작업.
+	 * @param virtual	virtual thread 생성 여부.
+	 * @return	생성된 쓰레드.
+	 */
+	static Thread newThread(Runnable task, boolean virtual) {
+		if ( virtual && VIRTUAL_THREAD_FACTORY != null ) {
+			return VIRTUAL_THREAD_FACTORY.newThread(task);
+		}
+		else {
+			Thread thread = new Thread(task);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	private static @Nullable Executor resolveExecutor(@Nullable Executor executor) {
+		if ( executor != null ) {
+			return executor;
+		}
+		return s_useVirtualThreads ? THREAD_PER_TASK_EXECUTOR : null;
+	}
+
+	/**
+	 * {@code Thread.ofVirtual().factory()}를 reflection을 통해 호출하여 virtual thread용
+	 * {@link ThreadFactory}를 얻는다. Java 21 미만이거나 virtual thread가 preview 기능이라
+	 * 사용할 수 없는 경우는 {@code null}을 반환한다.
+	 */
+	private static @Nullable ThreadFactory loadVirtualThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+		}
+		catch ( ReflectiveOperationException | RuntimeException | LinkageError e ) {
+			return null;
+		}
+	}
 }
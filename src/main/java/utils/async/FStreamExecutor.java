@@ -5,11 +5,12 @@ import utils.stream.FStream;
 import utils.stream.SuppliableFStream;
 
 
+// FIXME: 삭제 대상
 /**
  * 
+ * @deprecated	작업 스트림들의 가중치와 동시 실행 수 제한이 필요한 경우는 {@link WeightedFairExecutor}를 사용한다.
  * @author Kang-Woo Lee (ETRI)
  */
-// FIXME: 삭제 대상
 @Deprecated(since="2024-06", forRemoval=true)
 public class FStreamExecutor<T> {
 	private final FStream<StartableExecution<T>> m_executions;
@@ -0,0 +1,600 @@
+package utils.async;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.func.FOption;
+import utils.func.Result;
+import utils.func.Unchecked;
+import utils.stream.FStream;
+import utils.stream.SuppliableFStream;
+import utils.thread.Guard;
+
+
+/**
+ * 여러 작업 스트림({@link Lane})에 등록된 {@link StartableExecution}들을 전역 동시 실행 수 제한 하에서
+ * weighted fair queuing 방식으로 실행시키는 스케쥴러.
+ * <p>
+ * 하나의 스케쥴러를 여러 job이 공유하는 경우, 각 job은 자신의 {@link Lane}을 생성하여 작업을 등록한다.
+ * <ul>
+ *   <li>각 lane은 가중치({@code weight})를 갖는다. 동시에 실행될 수 있는 작업 수({@code concurrency})가
+ *       모두 사용 중이면, 실행 slot이 반환될 때마다 lane들의 virtual time을 비교하여 가장 작은 lane의
+ *       작업을 실행시킨다. 작업 하나가 시작될 때마다 해당 lane의 virtual time은 {@code 1/weight}만큼
+ *       증가하므로, 대기 중인 작업이 있는 lane들은 장기적으로 가중치에 비례하는 수의 작업을 실행하게 된다.</li>
+ *   <li>대기 작업이 없던 lane에 새 작업이 등록되면 해당 lane의 virtual time은 스케쥴러의 현재 virtual time
+ *       이상으로 조정된다. 따라서 한동안 쉬었던 lane이 그동안 사용하지 않은 몫을 한꺼번에 가져가지 않는다.</li>
+ *   <li>Lane별로 동시에 실행될 수 있는 작업 수({@code maxConcurrency})를 제한할 수 있다. 제한에 걸린
+ *       lane의 몫은 다른 lane들이 사용하므로, 대기 중인 작업이 있는 한 전역 slot은 놀지 않는다.</li>
+ * </ul>
+ * 각 lane의 대기 작업 수, 대기 시간 등의 통계는 {@link Lane#getStats()} 또는 {@link #getStats()}를
+ * 통해 얻을 수 있다.
+ * <p>
+ * 작업의 완료 처리는 {@link Execution#whenFinishedAsync(java.util.function.Consumer)}를 통해 이루어지고,
+ * 다음 작업은 완료 처리 쓰레드에서 시작된다.
+ * <p>
+ * {@link #execute(String, FStream, int, int)}로 등록된 작업 스트림은 스케쥴러 lock 밖에서 읽혀지므로,
+ * 작업 스트림의 {@code next()}가 오래 걸리더라도 다른 lane들의 스케쥴링이 지연되지 않는다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class WeightedFairExecutor {
+	private final int m_concurrency;
+
+	private final Guard m_guard = Guard.create();
+	@GuardedBy("m_guard") private final List<Lane> m_lanes = new ArrayList<>();
+	@GuardedBy("m_guard") private int m_runningCount = 0;
+	@GuardedBy("m_guard") private double m_virtualTime = 0;
+	@GuardedBy("m_guard") private boolean m_shutdown = false;
+
+	/**
+	 * 최대 {@code concurrency}개의 작업을 동시에 실행시키는 스케쥴러를 생성한다.
+	 *
+	 * @param concurrency	동시에 실행될 수 있는 최대 작업 수.
+	 */
+	public WeightedFairExecutor(int concurrency) {
+		Preconditions.checkArgument(concurrency > 0, "concurrency should be positive: %s", concurrency);
+
+		m_concurrency = concurrency;
+	}
+
+	/**
+	 * 동시에 실행될 수 있는 최대 작업 수를 반환한다.
+	 *
+	 * @return	최대 동시 실행 작업 수.
+	 */
+	public int getConcurrency() {
+		return m_concurrency;
+	}
+
+	/**
+	 * 현재 실행 중인 작업 수를 반환한다.
+	 *
+	 * @return	실행 중인 작업 수.
+	 */
+	public int getRunningCount() {
+		return m_guard.get(() -> m_runningCount);
+	}
+
+	/**
+	 * 동시 실행 수 제한이 없는 lane을 생성한다.
+	 *
+	 * @param name		lane 이름.
+	 * @param weight	lane 가중치.
+	 * @return	생성된 lane.
+	 */
+	public Lane addLane(String name, int weight) {
+		return addLane(name, weight, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 새 lane을 생성한다.
+	 *
+	 * @param name		lane 이름.
+	 * @param weight	lane 가중치. 양의 정수이어야 한다.
+	 * @param maxConcurrency	본 lane에서 동시에 실행될 수 있는 최대 작업 수.
+	 * @return	생성된 lane.
+	 * @throws IllegalStateException	스케쥴러가 이미 종료된 경우.
+	 */
+	public Lane addLane(String name, int weight, int maxConcurrency) {
+		return register(new Lane(name, weight, maxConcurrency, null, null));
+	}
+
+	/**
+	 * 주어진 작업 스트림을 새 lane으로 등록하여 실행시키고, 작업 결과로 구성된 스트림을 반환한다.
+	 * <p>
+	 * 작업 스트림의 {@code next()}는 lane에 대기 중인 작업이 없을 때마다 하나씩 호출되며, 반환되는 결과
+	 * 스트림에는 작업들의 결과가 종료된 순서대로 포함된다. 결과 스트림은 작업 스트림의 모든 작업이
+	 * 종료되면 끝나고, 결과 스트림을 닫으면 lane도 닫힌다.
+	 * 결과 스트림에는 lane의 동시 실행 작업 수만큼의 결과만 적재되므로, 결과를 소비하지 않으면 더 이상의
+	 * 작업이 실행되지 않는다.
+	 *
+	 * @param <T>	작업 결과 타입.
+	 * @param name		lane 이름.
+	 * @param executions	실행시킬 작업 스트림.
+	 * @param weight	lane 가중치.
+	 * @param maxConcurrency	본 lane에서 동시에 실행될 수 있는 최대 작업 수.
+	 * @return	작업 결과 스트림.
+	 */
+	public <T> FStream<Result<T>> execute(String name, FStream<? extends StartableExecution<? extends T>> executions,
+											int weight, int maxConcurrency) {
+		Preconditions.checkNotNullArgument(executions, "executions is null");
+		Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency should be positive: %s", maxConcurrency);
+
+		int capacity = Math.min(maxConcurrency, m_concurrency);
+		SuppliableFStream<Result<?>> results = new SuppliableFStream<>(capacity);
+		Lane lane = register(new Lane(name, weight, maxConcurrency, executions, results));
+		return new ResultStream<>(lane, results);
+	}
+
+	/**
+	 * 등록된 모든 lane들의 통계 정보를 반환한다.
+	 *
+	 * @return	lane 통계 정보 리스트.
+	 */
+	public List<LaneStats> getStats() {
+		return m_guard.get(() -> FStream.from(m_lanes).map(Lane::getStatsInGuard).toList());
+	}
+
+	/**
+	 * 스케쥴러를 종료시킨다.
+	 * <p>
+	 * 모든 lane이 닫히고 대기 중인 작업들은 취소된다. 이미 실행 중인 작업들은 계속 수행된다.
+	 */
+	public void shutdown() {
+		List<Lane> lanes = m_guard.get(() -> {
+			m_shutdown = true;
+			return new ArrayList<>(m_lanes);
+		});
+		lanes.forEach(Lane::close);
+	}
+
+	@Override
+	public String toString() {
+		return m_guard.get(() -> String.format("%s[running=%d/%d, lanes=%d]", getClass().getSimpleName(),
+												m_runningCount, m_concurrency, m_lanes.size()));
+	}
+
+	private Lane register(Lane lane) {
+		m_guard.run(() -> {
+			if ( m_shutdown ) {
+				throw new IllegalStateException("executor has been shut down");
+			}
+			lane.m_vtime = m_virtualTime;
+			m_lanes.add(lane);
+		});
+		dispatch();
+		return lane;
+	}
+
+	/**
+	 * 실행 slot이 남아있는 동안 virtual time이 가장 작은 lane의 작업을 차례로 선택하여 실행시킨다.
+	 * <p>
+	 * 대기 작업이 없는 lane의 작업 스트림은 lock 밖에서 읽고, 읽은 작업을 대기열에 추가한 후
+	 * 다시 스케쥴링을 수행한다.
+	 */
+	private void dispatch() {
+		while ( true ) {
+			List<Pending> selecteds = new ArrayList<>();
+			List<Lane> finisheds = new ArrayList<>();
+			List<Lane> pulls = new ArrayList<>();
+			m_guard.run(() -> {
+				while ( m_runningCount < m_concurrency ) {
+					Lane selected = null;
+					for ( Lane lane: m_lanes ) {
+						if ( lane.isReadyInGuard() && (selected == null || lane.m_vtime < selected.m_vtime) ) {
+							selected = lane;
+						}
+					}
+					if ( selected == null ) {
+						break;
+					}
+
+					Pending pending = selected.m_queue.poll();
+					long waitNanos = System.nanoTime() - pending.m_enqueuedNanos;
+					selected.m_totalWaitNanos += waitNanos;
+					selected.m_maxWaitNanos = Math.max(selected.m_maxWaitNanos, waitNanos);
+					++selected.m_startedCount;
+					++selected.m_runningCount;
+					++m_runningCount;
+
+					m_virtualTime = selected.m_vtime;
+					selected.m_vtime += 1.0 / selected.m_weight;
+					selecteds.add(pending);
+				}
+				if ( m_runningCount < m_concurrency ) {
+					for ( Lane lane: m_lanes ) {
+						if ( lane.needsPullInGuard() ) {
+							// 다른 쓰레드가 동시에 같은 작업 스트림을 읽지 않도록 표시한다.
+							lane.m_pulling = true;
+							pulls.add(lane);
+						}
+					}
+				}
+				for ( Lane lane: m_lanes ) {
+					if ( lane.isDrainedInGuard() ) {
+						finisheds.add(lane);
+					}
+				}
+				m_lanes.removeAll(finisheds);
+			});
+
+			finisheds.forEach(Lane::endOfSupply);
+			selecteds.forEach(this::start);
+			if ( pulls.isEmpty() ) {
+				return;
+			}
+			pulls.forEach(Lane::pullSource);
+		}
+	}
+
+	private void start(Pending pending) {
+		StartableExecution<?> exec = pending.m_exec;
+		try {
+			exec.whenFinishedAsync(ret -> onFinished(pending.m_lane, ret));
+			exec.start();
+		}
+		catch ( Throwable e ) {
+			// 이미 시작된 작업 등 시작에 실패한 경우는 실패한 작업으로 간주한다.
+			onFinished(pending.m_lane, Result.failure(e));
+		}
+	}
+
+	private void onFinished(Lane lane, Result<?> result) {
+		if ( lane.m_results != null ) {
+			// 결과 채널에는 실행 중인 작업 수만큼의 여유가 확보되어 있으므로 대기하지 않는다.
+			// 실행 중인 작업 수를 감소시키기 전에 적재해야 다른 작업이 이 여유를 가져가지 않는다.
+			Unchecked.runOrIgnore(() -> lane.m_results.supply(result));
+		}
+		m_guard.run(() -> {
+			--lane.m_runningCount;
+			--m_runningCount;
+			++lane.m_completedCount;
+		});
+		dispatch();
+	}
+
+	/**
+	 * {@link WeightedFairExecutor}에 작업을 등록하는 작업 스트림.
+	 * <p>
+	 * 동일 lane에 등록된 작업들은 등록된 순서대로 시작된다.
+	 */
+	public final class Lane implements AutoCloseable {
+		private final String m_name;
+		private final int m_weight;
+		private final int m_maxConcurrency;
+		private final @Nullable FStream<? extends StartableExecution<?>> m_source;
+		private final @Nullable SuppliableFStream<Result<?>> m_results;
+
+		@GuardedBy("m_guard") private final ArrayDeque<Pending> m_queue = new ArrayDeque<>();
+		@GuardedBy("m_guard") private double m_vtime;
+		@GuardedBy("m_guard") private boolean m_sourceExhausted;
+		@GuardedBy("m_guard") private boolean m_pulling = false;
+		@GuardedBy("m_guard") private @Nullable Throwable m_sourceFailure = null;
+		@GuardedBy("m_guard") private boolean m_closed = false;
+		@GuardedBy("m_guard") private int m_runningCount = 0;
+		@GuardedBy("m_guard") private long m_startedCount = 0;
+		@GuardedBy("m_guard") private long m_completedCount = 0;
+		@GuardedBy("m_guard") private long m_totalWaitNanos = 0;
+		@GuardedBy("m_guard") private long m_maxWaitNanos = 0;
+
+		private Lane(String name, int weight, int maxConcurrency,
+					@Nullable FStream<? extends StartableExecution<?>> source,
+					@Nullable SuppliableFStream<Result<?>> results) {
+			Preconditions.checkNotNullArgument(name, "lane name is null");
+			Preconditions.checkArgument(weight > 0, "weight should be positive: %s", weight);
+			Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency should be positive: %s", maxConcurrency);
+
+			m_name = name;
+			m_weight = weight;
+			m_maxConcurrency = maxConcurrency;
+			m_source = source;
+			m_results = results;
+			m_sourceExhausted = source == null;
+		}
+
+		public String getName() {
+			return m_name;
+		}
+
+		public int getWeight() {
+			return m_weight;
+		}
+
+		public int getMaxConcurrency() {
+			return m_maxConcurrency;
+		}
+
+		/**
+		 * 주어진 작업을 본 lane에 등록한다.
+		 * <p>
+		 * 등록된 작업은 스케쥴러에 의해 선택되었을 때 시작된다.
+		 *
+		 * @param exec	등록할 작업. 아직 시작되지 않은 작업이어야 한다.
+		 * @throws IllegalStateException	lane이 이미 닫힌 경우.
+		 */
+		public void submit(StartableExecution<?> exec) {
+			Preconditions.checkNotNullArgument(exec, "execution is null");
+
+			m_guard.run(() -> {
+				if ( m_closed ) {
+					throw new IllegalStateException("lane has been closed: " + m_name);
+				}
+				enqueueInGuard(exec);
+			});
+			dispatch();
+		}
+
+		/**
+		 * 본 lane의 통계 정보를 반환한다.
+		 *
+		 * @return	lane 통계 정보.
+		 */
+		public LaneStats getStats() {
+			return m_guard.get(this::getStatsInGuard);
+		}
+
+		/**
+		 * 본 lane을 닫는다.
+		 * <p>
+		 * 대기 중인 작업들은 취소되고, 이미 실행 중인 작업들은 계속 수행된다.
+		 * 멱등하며, 이미 닫힌 경우는 무시된다.
+		 */
+		@Override
+		public void close() {
+			List<Pending> pendings = m_guard.get(() -> {
+				if ( m_closed ) {
+					return List.<Pending>of();
+				}
+				m_closed = true;
+				m_lanes.remove(this);
+				List<Pending> drained = new ArrayList<>(m_queue);
+				m_queue.clear();
+				return drained;
+			});
+			pendings.forEach(p -> p.m_exec.cancel(true));
+			if ( m_source != null ) {
+				m_source.closeQuietly();
+			}
+			if ( m_results != null ) {
+				m_results.endOfSupply();
+			}
+			// 본 lane에 할당될 수 있었던 slot을 다른 lane들이 사용할 수 있도록 한다.
+			dispatch();
+		}
+
+		@Override
+		public String toString() {
+			return getStats().toString();
+		}
+
+		private void enqueueInGuard(StartableExecution<?> exec) {
+			if ( m_queue.isEmpty() && m_runningCount == 0 ) {
+				// 쉬고 있던 lane은 현재 virtual time부터 다시 경쟁한다.
+				m_vtime = Math.max(m_vtime, m_virtualTime);
+			}
+			m_queue.add(new Pending(this, exec));
+		}
+
+		private boolean isReadyInGuard() {
+			return !m_queue.isEmpty() && hasRoomInGuard();
+		}
+
+		private boolean hasRoomInGuard() {
+			if ( m_closed || m_runningCount >= m_maxConcurrency ) {
+				return false;
+			}
+			if ( m_results != null && m_runningCount + m_results.size() >= m_results.capacity() ) {
+				// 결과 스트림이 소비되지 않아 더 이상 결과를 적재할 수 없다.
+				return false;
+			}
+			return true;
+		}
+
+		private boolean needsPullInGuard() {
+			return m_queue.isEmpty() && !m_sourceExhausted && !m_pulling && hasRoomInGuard();
+		}
+
+		/**
+		 * 작업 스트림에서 다음 작업을 읽어 대기열에 추가한다.
+		 * <p>
+		 * {@code m_pulling}이 설정된 상태에서 lock 밖에서 호출된다. 작업 스트림에서 예외가 발생한 경우는
+		 * 이를 기록해두었다가, 이미 실행 중인 작업들의 결과가 모두 적재된 후 결과 스트림에 전달한다.
+		 */
+		private void pullSource() {
+			FOption<? extends StartableExecution<?>> next;
+			Throwable failure = null;
+			try {
+				next = m_source.next();
+			}
+			catch ( Throwable e ) {
+				next = FOption.empty();
+				failure = e;
+			}
+
+			FOption<? extends StartableExecution<?>> pulled = next;
+			Throwable cause = failure;
+			boolean rejected = m_guard.get(() -> {
+				m_pulling = false;
+				if ( pulled.isAbsent() ) {
+					m_sourceExhausted = true;
+					m_sourceFailure = cause;
+					return false;
+				}
+				if ( m_closed ) {
+					return true;
+				}
+				enqueueInGuard(pulled.getUnchecked());
+				return false;
+			});
+			if ( rejected ) {
+				// 읽는 도중 lane이 닫힌 경우.
+				pulled.getUnchecked().cancel(true);
+			}
+		}
+
+		private boolean isDrainedInGuard() {
+			return m_results != null && !m_closed && m_sourceExhausted && !m_pulling
+					&& m_queue.isEmpty() && m_runningCount == 0;
+		}
+
+		private void endOfSupply() {
+			Throwable failure = m_guard.get(() -> m_sourceFailure);
+			if ( failure != null ) {
+				m_results.endOfSupply(failure);
+			}
+			else {
+				m_results.endOfSupply();
+			}
+		}
+
+		private LaneStats getStatsInGuard() {
+			long oldestWait = FOption.ofNullable(m_queue.peek())
+									.map(p -> System.nanoTime() - p.m_enqueuedNanos)
+									.getOrElse(0L);
+			return new LaneStats(m_name, m_weight, m_queue.size(), m_runningCount, m_startedCount,
+								m_completedCount, m_totalWaitNanos, m_maxWaitNanos, oldestWait);
+		}
+	}
+
+	/**
+	 * {@link Lane}의 특정 시점의 통계 정보.
+	 */
+	public static final class LaneStats {
+		private final String m_name;
+		private final int m_weight;
+		private final int m_queueDepth;
+		private final int m_runningCount;
+		private final long m_startedCount;
+		private final long m_completedCount;
+		private final long m_totalWaitNanos;
+		private final long m_maxWaitNanos;
+		private final long m_oldestWaitNanos;
+
+		private LaneStats(String name, int weight, int queueDepth, int runningCount, long startedCount,
+							long completedCount, long totalWaitNanos, long maxWaitNanos, long oldestWaitNanos) {
+			m_name = name;
+			m_weight = weight;
+			m_queueDepth = queueDepth;
+			m_runningCount = runningCount;
+			m_startedCount = startedCount;
+			m_completedCount = completedCount;
+			m_totalWaitNanos = totalWaitNanos;
+			m_maxWaitNanos = maxWaitNanos;
+			m_oldestWaitNanos = oldestWaitNanos;
+		}
+
+		public String getName() {
+			return m_name;
+		}
+
+		public int getWeight() {
+			return m_weight;
+		}
+
+		/**
+		 * 시작되기를 기다리는 작업 수를 반환한다.
+		 *
+		 * @return	대기 작업 수.
+		 */
+		public int getQueueDepth() {
+			return m_queueDepth;
+		}
+
+		public int getRunningCount() {
+			return m_runningCount;
+		}
+
+		public long getStartedCount() {
+			return m_startedCount;
+		}
+
+		public long getCompletedCount() {
+			return m_completedCount;
+		}
+
+		/**
+		 * 시작된 작업들이 등록된 후 시작될 때까지 대기한 평균 시간을 반환한다.
+		 *
+		 * @return	평균 대기 시간 (milli-seconds). 시작된 작업이 없는 경우는 {@code 0}.
+		 */
+		public double getAverageWaitMillis() {
+			return (m_startedCount > 0) ? (m_totalWaitNanos / (double)m_startedCount) / 1_000_000d : 0;
+		}
+
+		/**
+		 * 시작된 작업들 중 가장 오래 대기한 작업의 대기 시간을 반환한다.
+		 *
+		 * @return	최대 대기 시간 (milli-seconds).
+		 */
+		public long getMaxWaitMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(m_maxWaitNanos);
+		}
+
+		/**
+		 * 현재 대기 중인 작업들 중 가장 먼저 등록된 작업이 지금까지 대기한 시간을 반환한다.
+		 *
+		 * @return	대기 시간 (milli-seconds). 대기 작업이 없는 경우는 {@code 0}.
+		 */
+		public long getOldestWaitMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(m_oldestWaitNanos);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s[weight=%d, queued=%d, running=%d, completed=%d, avg_wait=%.1fms, max_wait=%dms]",
+								m_name, m_weight, m_queueDepth, m_runningCount, m_completedCount,
+								getAverageWaitMillis(), getMaxWaitMillis());
+		}
+	}
+
+	private static final class Pending {
+		private final Lane m_lane;
+		private final StartableExecution<?> m_exec;
+		private final long m_enqueuedNanos;
+
+		Pending(Lane lane, StartableExecution<?> exec) {
+			m_lane = lane;
+			m_exec = exec;
+			m_enqueuedNanos = System.nanoTime();
+		}
+	}
+
+	private final class ResultStream<T> implements FStream<Result<T>> {
+		private final Lane m_lane;
+		private final SuppliableFStream<Result<?>> m_results;
+
+		ResultStream(Lane lane, SuppliableFStream<Result<?>> results) {
+			m_lane = lane;
+			m_results = results;
+		}
+
+		@Override
+		public void close() throws Exception {
+			m_lane.close();
+			m_results.close();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public FOption<Result<T>> next() {
+			FOption<Result<?>> next = m_results.next();
+			if ( next.isPresent() ) {
+				// 결과 하나가 소비되어 결과 채널에 여유가 생겼으므로 대기 작업을 시작시킨다.
+				dispatch();
+			}
+			return next.map(r -> (Result<T>)r);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s[lane=%s]", getClass().getSimpleName(), m_lane.getName());
+		}
+	}
+}
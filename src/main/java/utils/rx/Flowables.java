@@ -1,8 +1,10 @@
 package utils.rx;
 
 import java.util.Iterator;
+import java.util.concurrent.Flow;
 import java.util.stream.Stream;
 
+import org.reactivestreams.FlowAdapters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,14 +14,11 @@ import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.FlowableEmitter;
 import io.reactivex.rxjava3.core.FlowableOnSubscribe;
-import io.reactivex.rxjava3.disposables.Disposable;
 
 import utils.async.Execution;
 import utils.func.CheckedSupplier;
-import utils.func.FOption;
 import utils.func.Unchecked;
 import utils.stream.FStream;
-import utils.stream.SuppliableFStream;
 
 
 /**
@@ -28,6 +27,8 @@ import utils.stream.SuppliableFStream;
  */
 public class Flowables {
 	static final Logger s_logger = LoggerFactory.getLogger(Flowables.class);
+	private static final int DEFAULT_PREFETCH = 128;
+	private static final int DEFAULT_LOW_WATERMARK = 32;
 	
 	private Flowables() {
 		throw new AssertionError("Should not be called: class=" + Flowables.class);
@@ -79,54 +80,78 @@ public class Flowables {
 	
 	/**
 	 * 주어진 {@link Flowable}객체로부터 FStream 객체를 생성한다.
+	 * <p>
+	 * 생성된 스트림은 {@code flowable}을 한번 구독하며, 최대 {@value #DEFAULT_PREFETCH}개의 데이터를
+	 * 미리 요청하여 buffer에 적재한다. 자세한 동작은 {@link #from(Flowable, int, int)}를 참고한다.
 	 * 
 	 * @param <T> Flowable에서 반환하는 데이터 타입
 	 * @param flowable	입력 {@link Flowable} 객체.
 	 * @return FStream 객체
 	 */
 	public static <T> FStream<T> from(Flowable<? extends T> flowable) {
+		return from(flowable, DEFAULT_PREFETCH, DEFAULT_LOW_WATERMARK);
+	}
+	
+	/**
+	 * 주어진 {@link Flowable}객체로부터 backpressure를 지원하는 FStream 객체를 생성한다.
+	 * <p>
+	 * 생성된 스트림은 {@code flowable}을 한번 구독하고, 먼저 {@code prefetch}개의 데이터를 요청한다.
+	 * 이후 소비자가 데이터를 꺼내가면서 buffer에 적재된 데이터와 요청 중인 데이터의 수가
+	 * {@code lowWatermark} 이하로 떨어지면 다시 {@code prefetch}개가 되도록 추가로 요청한다.
+	 * 따라서 buffer에는 최대 {@code prefetch}개의 데이터만 적재되고, 소비 속도가 느린 경우에는
+	 * {@code flowable}의 발행 속도가 제한된다. 스트림이 close되면 구독이 취소된다.
+	 * 
+	 * @param <T> Flowable에서 반환하는 데이터 타입
+	 * @param flowable	입력 {@link Flowable} 객체.
+	 * @param prefetch	미리 요청할 최대 데이터 수 (high watermark).
+	 * @param lowWatermark	추가 요청을 시작할 데이터 수. {@code 0 <= lowWatermark < prefetch}이어야 한다.
+	 * @return FStream 객체
+	 */
+	public static <T> FStream<T> from(Flowable<? extends T> flowable, int prefetch, int lowWatermark) {
 		Preconditions.checkNotNull(flowable, "flowable is null");
 		
-		return new FlowableFStream<>(flowable);
+		return new PublisherFStream<>(flowable, prefetch, lowWatermark);
 	}
 	
-	static class FlowableFStream<T> implements FStream<T> {
-		private final static int DEFAULT_LENGTH = 128;
-		
-		private final Flowable<? extends T> m_flowable;
-		private final Disposable m_subscription;
-		private final SuppliableFStream<T> m_output;
-		
-		FlowableFStream(Flowable<? extends T> flowable, int queueLength) {
-			Preconditions.checkNotNull(flowable, "flowable is null");
-			Preconditions.checkArgument(queueLength > 0, "queueLength > 0, but: %s", queueLength);
-			
-			m_flowable = flowable;
-			m_output = new SuppliableFStream<>(queueLength);
-			m_subscription = flowable.subscribe(m_output::supply,
-												m_output::endOfSupply,
-												m_output::endOfSupply);
-		}
-		
-		FlowableFStream(Flowable<? extends T> flowable) {
-			this(flowable, DEFAULT_LENGTH);
-		}
-
-		@Override
-		public void close() throws Exception {
-			m_subscription.dispose();
-			m_output.close();
-		}
-
-		@Override
-		public FOption<T> next() {
-			return m_output.next();
-		}
+	/**
+	 * 주어진 {@link Flow.Publisher}객체로부터 FStream 객체를 생성한다.
+	 * 자세한 동작은 {@link #from(Flowable, int, int)}를 참고한다.
+	 * 
+	 * @param <T> Publisher에서 반환하는 데이터 타입
+	 * @param publisher	입력 {@link Flow.Publisher} 객체.
+	 * @param prefetch	미리 요청할 최대 데이터 수 (high watermark).
+	 * @param lowWatermark	추가 요청을 시작할 데이터 수. {@code 0 <= lowWatermark < prefetch}이어야 한다.
+	 * @return FStream 객체
+	 */
+	public static <T> FStream<T> from(Flow.Publisher<? extends T> publisher, int prefetch, int lowWatermark) {
+		Preconditions.checkNotNull(publisher, "publisher is null");
 		
-		@Override
-		public String toString() {
-			return String.format("%s[%s]", getClass().getSimpleName(), m_flowable);
-		}
+		return new PublisherFStream<>(FlowAdapters.toPublisher(publisher), prefetch, lowWatermark);
+	}
+	
+	/**
+	 * 주어진 {@link Flow.Publisher}객체로부터 FStream 객체를 생성한다.
+	 * 
+	 * @param <T> Publisher에서 반환하는 데이터 타입
+	 * @param publisher	입력 {@link Flow.Publisher} 객체.
+	 * @return FStream 객체
+	 * @see #from(Flow.Publisher, int, int)
+	 */
+	public static <T> FStream<T> from(Flow.Publisher<? extends T> publisher) {
+		return from(publisher, DEFAULT_PREFETCH, DEFAULT_LOW_WATERMARK);
+	}
+	
+	/**
+	 * {@link FStream} 객체를 {@link Flow.Publisher} 객체로 변환시킨다.
+	 * <p>
+	 * 구독자가 {@code request(n)}으로 요청한 만큼만 {@code stream}에서 데이터를 읽어 발행한다.
+	 * 
+	 * @param <T>
+	 * @param stream	변환시킬 {@code FStream} 객체
+	 * @return	변환된 {@link Flow.Publisher} 객체.
+	 */
+	public static <T> Flow.Publisher<T> toFlowPublisher(FStream<? extends T> stream) {
+		return FlowAdapters.toFlowPublisher(from(stream));
 	}
 	
 	public static <T> Flowable<ExecutionProgress<T>>
@@ -0,0 +1,178 @@
+package utils.rx;
+
+import java.util.ArrayDeque;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.jetbrains.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import utils.Preconditions;
+import utils.RuntimeInterruptedException;
+import utils.Throwables;
+import utils.func.FOption;
+import utils.stream.FStream;
+import utils.thread.Guard;
+
+
+/**
+ * Reactive Streams {@link Publisher}를 구독하여 발행된 데이터를 차례로 반환하는 {@link FStream}.
+ * <p>
+ * 발행자에게 한번에 무제한의 데이터를 요청하지 않고, {@code request(n)}을 통해 bounded buffer가 허용하는
+ * 만큼만 요청한다.
+ * <ul>
+ *   <li>구독 직후 {@code prefetch}(high watermark)개의 데이터를 요청한다.</li>
+ *   <li>소비자가 데이터를 꺼내가면서 buffer에 적재된 데이터 수와 요청했으나 아직 도착하지 않은 데이터 수의
+ *       합이 {@code lowWatermark} 이하로 떨어지면, 다시 {@code prefetch}개가 되도록 추가로 요청한다.
+ *       따라서 추가 요청은 최소 {@code prefetch - lowWatermark}개 단위로 이루어진다.</li>
+ * </ul>
+ * 이에 따라 buffer에는 최대 {@code prefetch}개의 데이터만 적재되며, 소비 속도가 느린 경우 발행자의 발행
+ * 속도가 제한된다. 구독은 스트림 생성 시 한번만 이루어지며, {@link #close()}가 호출되면 구독이 취소된다.
+ *
+ * @param <T>	데이터 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+final class PublisherFStream<T> implements FStream<T>, Subscriber<T> {
+	private final int m_prefetch;
+	private final int m_lowWatermark;
+
+	private final Guard m_guard = Guard.create();
+	@GuardedBy("m_guard") private final ArrayDeque<T> m_buffer;
+	@GuardedBy("m_guard") private @Nullable Subscription m_subscription = null;
+	@GuardedBy("m_guard") private long m_outstanding = 0;	// 요청했으나 아직 도착하지 않은 데이터 수
+	@GuardedBy("m_guard") private boolean m_done = false;
+	@GuardedBy("m_guard") private @Nullable Throwable m_error = null;
+	@GuardedBy("m_guard") private boolean m_closed = false;
+
+	PublisherFStream(Publisher<? extends T> publisher, int prefetch, int lowWatermark) {
+		Preconditions.checkNotNullArgument(publisher, "publisher is null");
+		Preconditions.checkArgument(prefetch > 0, "invalid prefetch: %s", prefetch);
+		Preconditions.checkArgument(lowWatermark >= 0 && lowWatermark < prefetch,
+									"lowWatermark should be in [0, %s): %s", prefetch, lowWatermark);
+
+		m_prefetch = prefetch;
+		m_lowWatermark = lowWatermark;
+		m_buffer = new ArrayDeque<>(prefetch);
+
+		publisher.subscribe(this);
+	}
+
+	@Override
+	public void close() throws Exception {
+		Subscription subscription = m_guard.get(() -> {
+			m_closed = true;
+			m_buffer.clear();
+			return m_subscription;
+		});
+		if ( subscription != null ) {
+			subscription.cancel();
+		}
+	}
+
+	@Override
+	public FOption<T> next() {
+		T value;
+		long request = 0;
+		Subscription subscription;
+
+		m_guard.lock();
+		try {
+			while ( m_buffer.isEmpty() && !m_done && !m_closed ) {
+				m_guard.awaitSignal();
+			}
+			if ( m_closed ) {
+				return FOption.empty();
+			}
+			if ( m_buffer.isEmpty() ) {
+				if ( m_error != null ) {
+					throw Throwables.toRuntimeException(m_error);
+				}
+				return FOption.empty();
+			}
+
+			value = m_buffer.poll();
+			long pending = m_buffer.size() + m_outstanding;
+			if ( !m_done && pending <= m_lowWatermark ) {
+				request = m_prefetch - pending;
+				m_outstanding += request;
+			}
+			subscription = m_subscription;
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeInterruptedException(e);
+		}
+		finally {
+			m_guard.unlock();
+		}
+
+		// 발행자의 request() 처리 과정에서 onNext()가 호출될 수 있으므로 lock 밖에서 요청한다.
+		if ( request > 0 && subscription != null ) {
+			subscription.request(request);
+		}
+		return FOption.of(value);
+	}
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		boolean accepted = m_guard.get(() -> {
+			if ( m_closed || m_subscription != null ) {
+				return false;
+			}
+			m_subscription = subscription;
+			m_outstanding = m_prefetch;
+			return true;
+		});
+		if ( accepted ) {
+			subscription.request(m_prefetch);
+		}
+		else {
+			subscription.cancel();
+		}
+	}
+
+	@Override
+	public void onNext(T value) {
+		Subscription violated = m_guard.get(() -> {
+			if ( m_closed || m_done ) {
+				return null;
+			}
+			if ( m_outstanding <= 0 ) {
+				// 발행자가 요청한 것보다 많은 데이터를 발행한 경우.
+				m_done = true;
+				m_error = new IllegalStateException("publisher emitted more than requested: " + value);
+				return m_subscription;
+			}
+			--m_outstanding;
+			m_buffer.add(value);
+			return null;
+		});
+		if ( violated != null ) {
+			violated.cancel();
+		}
+	}
+
+	@Override
+	public void onError(Throwable error) {
+		m_guard.run(() -> {
+			if ( !m_done ) {
+				m_done = true;
+				m_error = error;
+			}
+		});
+	}
+
+	@Override
+	public void onComplete() {
+		m_guard.run(() -> m_done = true);
+	}
+
+	@Override
+	public String toString() {
+		return m_guard.get(() -> String.format("%s[buffered=%d, outstanding=%d, prefetch=%d, low=%d]",
+												getClass().getSimpleName(), m_buffer.size(), m_outstanding,
+												m_prefetch, m_lowWatermark));
+	}
+}
@@ -7,12 +7,20 @@ import org.jetbrains.annotations.Nullable;
 
 import com.google.common.base.Preconditions;
 
+import utils.async.Executions;
+
 
 public class AsyncExecutionOptions {
 	private final boolean m_keepOrder;
 	private final @Nullable Executor m_executor;
 	private final int m_workerCount;
 	private final long m_timeoutMillis;
+	private final boolean m_lockFreeChannel;
+	private final boolean m_virtualThreads;
+	private final @Nullable ConcurrencyLimiter m_limiter;
+	private final @Nullable RetryPolicy m_retryPolicy;
+	private final @Nullable HedgePolicy m_hedgePolicy;
+	private final int m_reorderWindow;
 	
 	public static AsyncExecutionOptions create() {
 		return new AsyncExecutionOptions();
@@ -29,51 +37,246 @@ public class AsyncExecutionOptions {
 	public static AsyncExecutionOptions KEEP_ORDER(boolean flag) {
 		return new AsyncExecutionOptions().setKeepOrder(flag);
 	}
+	public static AsyncExecutionOptions LOCK_FREE_CHANNEL() {
+		return new AsyncExecutionOptions().setLockFreeChannel(true);
+	}
+	public static AsyncExecutionOptions VIRTUAL_THREADS(int workerCount) {
+		return new AsyncExecutionOptions().setVirtualThreads(true).setWorkerCount(workerCount);
+	}
+	public static AsyncExecutionOptions ADAPTIVE(ConcurrencyLimiter limiter) {
+		return new AsyncExecutionOptions().setConcurrencyLimiter(limiter);
+	}
 	
 	private AsyncExecutionOptions() {
-		this(false, -1L, null,  Math.max(1, Runtime.getRuntime().availableProcessors()-2));
+		this(false, -1L, null,  Math.max(1, Runtime.getRuntime().availableProcessors()-2), false, false,
+			null, null, null, 0);
 	}
 	
 	private AsyncExecutionOptions(boolean keepOrder, long timeoutMillis, @Nullable Executor executor,
-									int workerCount) {
+									int workerCount, boolean lockFreeChannel, boolean virtualThreads,
+									@Nullable ConcurrencyLimiter limiter, @Nullable RetryPolicy retryPolicy,
+									@Nullable HedgePolicy hedgePolicy, int reorderWindow) {
 		Preconditions.checkArgument(workerCount >= 1, "workerCount should be at least 1");
+		Preconditions.checkArgument(reorderWindow >= 0, "invalid reorder window size: %s", reorderWindow);
 		
 		m_keepOrder = keepOrder;
 		m_timeoutMillis = timeoutMillis;
 		m_executor = executor;
 		m_workerCount = workerCount;
+		m_lockFreeChannel = lockFreeChannel;
+		m_virtualThreads = virtualThreads;
+		m_limiter = limiter;
+		m_retryPolicy = retryPolicy;
+		m_hedgePolicy = hedgePolicy;
+		m_reorderWindow = reorderWindow;
 	}
 	
 	public boolean getKeepOrder() {
 		return m_keepOrder;
 	}
 	
+	/**
+	 * 동시에 수행되는 비동기 작업의 수를 반환한다.
+	 * <p>
+	 * {@link #setConcurrencyLimiter(ConcurrencyLimiter)}로 limiter가 설정된 경우는 limiter의 최대 동시 작업 수를
+	 * 반환한다. 이 값은 결과 전달 채널의 크기로도 사용된다.
+	 *
+	 * @return	동시 작업 수.
+	 */
 	public int getWorkerCount() {
-		return m_workerCount;
+		return (m_limiter != null) ? m_limiter.getMaxLimit() : m_workerCount;
 	}
 	
+	/**
+	 * 입력 원소 하나에 대한 비동기 작업의 제한 시간을 반환한다.
+	 *
+	 * @return	제한 시간 (milli-seconds). 제한이 없는 경우는 {@code 0} 이하의 값.
+	 * @see #setTimeout(long, TimeUnit)
+	 */
 	public long getTimeoutMillis() {
 		return m_timeoutMillis;
 	}
 	
-	public Executor getExecutor() {
+	/**
+	 * 비동기 작업 수행에 사용할 {@link Executor}를 반환한다.
+	 * <p>
+	 * {@link #setExecutor(Executor)}로 지정된 executor가 없고 {@link #setVirtualThreads(boolean)}이
+	 * 설정된 경우는 {@link Executions#getVirtualThreadExecutor()}를 반환한다.
+	 *
+	 * @return	{@link Executor} 객체. 지정되지 않은 경우는 {@code null}.
+	 */
+	public @Nullable Executor getExecutor() {
+		if ( m_executor == null && m_virtualThreads ) {
+			return Executions.getVirtualThreadExecutor();
+		}
 		return m_executor;
 	}
 	
+	public boolean getVirtualThreads() {
+		return m_virtualThreads;
+	}
+	
+	public boolean getLockFreeChannel() {
+		return m_lockFreeChannel;
+	}
+	
+	public @Nullable ConcurrencyLimiter getConcurrencyLimiter() {
+		return m_limiter;
+	}
+	
+	public @Nullable RetryPolicy getRetryPolicy() {
+		return m_retryPolicy;
+	}
+	
+	public @Nullable HedgePolicy getHedgePolicy() {
+		return m_hedgePolicy;
+	}
+	
+	public int getReorderWindow() {
+		return m_reorderWindow;
+	}
+	
 	public AsyncExecutionOptions setKeepOrder(boolean flag) {
-		return new AsyncExecutionOptions(flag, m_timeoutMillis, m_executor, m_workerCount);
+		return new AsyncExecutionOptions(flag, m_timeoutMillis, m_executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
 	}
 	
+	/**
+	 * 입력 원소 하나에 대한 비동기 작업의 제한 시간을 설정한다.
+	 * <p>
+	 * 제한 시간은 재시도({@link #setRetryPolicy(RetryPolicy)})와 추가 호출({@link #setHedgePolicy(HedgePolicy)})
+	 * 을 모두 포함하며, 제한 시간 내에 결과를 얻지 못한 원소는 {@link java.util.concurrent.TimeoutException}을
+	 * 담은 실패 결과로 반환된다. 따라서 순서를 보존하는 경우에도 느린 원소 하나가 스트림 전체를 무한정
+	 * 지연시키지 않는다.
+	 *
+	 * @param timeout	제한 시간.
+	 * @param unit		시간 단위.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 */
 	public AsyncExecutionOptions setTimeout(long timeout, TimeUnit unit) {
-		long timeoutMillis = unit.toMillis(timeout);
-		return new AsyncExecutionOptions(m_keepOrder, timeoutMillis, m_executor, m_workerCount);
+		return new AsyncExecutionOptions(m_keepOrder, unit.toMillis(timeout), m_executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
 	}
 	
 	public AsyncExecutionOptions setExecutor(Executor executor) {
-		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, executor, m_workerCount);
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
 	}
 	
 	public AsyncExecutionOptions setWorkerCount(int workerCount) {
-		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, workerCount);
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
+	}
+	
+	/**
+	 * 비동기 연산 결과를 소비자에게 전달하는 채널로 lock-free ring buffer 기반의
+	 * {@link RingBufferFStream}을 사용할지 여부를 설정한다. 설정하지 않은 경우는 lock 기반의
+	 * {@link SuppliableFStream}이 사용된다.
+	 * <p>
+	 * 다수의 워커가 동시에 결과를 전달하는 경우 채널의 lock 경합을 줄일 수 있다.
+	 *
+	 * @param flag	lock-free 채널 사용 여부.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 */
+	public AsyncExecutionOptions setLockFreeChannel(boolean flag) {
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, m_workerCount,
+										flag, m_virtualThreads, m_limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
+	}
+	
+	/**
+	 * 작업마다 새 virtual thread를 생성하여 비동기 작업을 수행할지 여부를 설정한다.
+	 * <p>
+	 * {@link #setExecutor(Executor)}로 executor가 별도로 지정되지 않은 경우에만 적용되며,
+	 * virtual thread를 지원하지 않는 환경(Java 21 미만)에서는 작업마다 platform thread가 생성된다.
+	 * Blocking I/O를 수행하는 매핑 함수를 대량으로 동시에 수행하려는 경우에 사용하며, 이때 동시 작업 수는
+	 * {@link #setWorkerCount(int)}로 충분히 크게 설정한다.
+	 *
+	 * @param flag	virtual thread 사용 여부.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 * @see Executions#getVirtualThreadExecutor()
+	 */
+	public AsyncExecutionOptions setVirtualThreads(boolean flag) {
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, m_workerCount,
+										m_lockFreeChannel, flag, m_limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
+	}
+	
+	/**
+	 * 동시 작업 수를 고정하지 않고 {@code limiter}에 의해 관측된 지연 시간과 오류율에 따라
+	 * 조정되도록 설정한다.
+	 * <p>
+	 * 설정된 경우 {@link #setWorkerCount(int)}로 설정된 값은 무시되며, 동시 작업 수는
+	 * {@link ConcurrencyLimiter#getMinLimit()}와 {@link ConcurrencyLimiter#getMaxLimit()} 사이에서 변한다.
+	 * 현재 동시 작업 한도, 수행 중인 작업 수, 지연 시간 분포는 {@code limiter}를 통해 조회할 수 있다.
+	 * 하나의 limiter를 여러 스트림이 공유하면 해당 스트림들의 동시 작업 수 합이 함께 제한된다.
+	 *
+	 * @param limiter	동시 작업 수 조정기. {@code null}인 경우는 고정된 worker 수를 사용한다.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 */
+	public AsyncExecutionOptions setConcurrencyLimiter(@Nullable ConcurrencyLimiter limiter) {
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, limiter,
+										m_retryPolicy, m_hedgePolicy, m_reorderWindow);
+	}
+	
+	/**
+	 * 매핑 함수 호출이 실패한 경우의 재시도 정책을 설정한다.
+	 *
+	 * @param policy	재시도 정책. {@code null}인 경우는 재시도하지 않는다.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 */
+	public AsyncExecutionOptions setRetryPolicy(@Nullable RetryPolicy policy) {
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										policy, m_hedgePolicy, m_reorderWindow);
+	}
+	
+	/**
+	 * 매핑 함수 호출이 늦어지는 경우 동일 입력에 대해 매핑 함수를 추가로 호출하는 정책을 설정한다.
+	 * <p>
+	 * 매핑 함수는 동일 입력에 대해 중복 호출되어도 무방하여야 한다.
+	 *
+	 * @param policy	추가 호출 정책. {@code null}인 경우는 추가 호출하지 않는다.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 */
+	public AsyncExecutionOptions setHedgePolicy(@Nullable HedgePolicy policy) {
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										m_retryPolicy, policy, m_reorderWindow);
+	}
+	
+	/**
+	 * 순서를 보존하는 비동기 매핑에서 사용할 재정렬 window의 크기를 설정한다.
+	 * <p>
+	 * 설정되지 않은 경우 ({@code 0}) 순서 보존 매핑은 동시 작업 수만큼의 작업만을 시작해두고 입력 순서대로
+	 * 완료를 기다리므로, 앞선 작업 하나가 느리면 다른 worker들이 놀고 있더라도 새 작업이 시작되지 않는다.
+	 * 재정렬 window가 설정되면 먼저 끝난 작업의 결과는 자기 차례가 될 때까지 window에 보관되고, 그 동안
+	 * 새 작업이 계속 시작된다. 따라서 아직 반환되지 않은 가장 앞선 원소와의 순번 차이가 window 크기보다
+	 * 작은 동안에는 동시 작업 수가 계속 유지된다. 일반적으로 동시 작업 수보다 충분히 크게 설정한다.
+	 * {@link #setKeepOrder(boolean)}이 설정되지 않은 경우는 사용되지 않는다.
+	 *
+	 * @param size	재정렬 window 크기. {@code 0}인 경우는 재정렬 window를 사용하지 않는다.
+	 * @return	설정이 반영된 새 {@link AsyncExecutionOptions} 객체.
+	 */
+	public AsyncExecutionOptions setReorderWindow(int size) {
+		return new AsyncExecutionOptions(m_keepOrder, m_timeoutMillis, m_executor, m_workerCount,
+										m_lockFreeChannel, m_virtualThreads, m_limiter,
+										m_retryPolicy, m_hedgePolicy, size);
+	}
+	
+	/**
+	 * 본 옵션에 따른 결과 전달 채널을 생성한다.
+	 *
+	 * @param <T>		채널 원소 타입.
+	 * @param capacity	채널 capacity.
+	 * @return	채널 객체.
+	 */
+	<T> FStreamChannel<T> newChannel(int capacity) {
+		return m_lockFreeChannel ? new RingBufferFStream<>(capacity) : new SuppliableFStream<>(capacity);
 	}
-}
\ No newline at end of file
+}
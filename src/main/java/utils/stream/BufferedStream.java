@@ -20,6 +20,11 @@ class BufferedStream<T> extends SingleSourceStream<T,List<T>> {
 	
 	private boolean m_endOfSource = false;
 	
+	// 원천 스트림에서 batch 단위로 읽어온 원소들. 한번에 윈도우 크기 이상은 읽지 않는다.
+	private final Object[] m_chunk;
+	private int m_chunkSize = 0;
+	private int m_chunkIdx = 0;
+	
 	BufferedStream(FStream<T> src, int count, int skip) {
 		super(src);
 		Preconditions.checkArgument(count > 0, "count > 0, but: " + count);
@@ -27,6 +32,7 @@ class BufferedStream<T> extends SingleSourceStream<T,List<T>> {
 		m_count = count;
 		m_skip = skip;
 		m_buffer = Lists.newArrayListWithExpectedSize(count);
+		m_chunk = new Object[Math.min(FStreams.BATCH_SIZE, Math.max(count, skip))];
 	}
 	
 	public int getCount() {
@@ -53,21 +59,43 @@ class BufferedStream<T> extends SingleSourceStream<T,List<T>> {
 			if ( m_buffer.size() > 0 ) {
 				m_buffer.remove(0);
 			}
-			else if ( src.next().isAbsent() ) {
+			else if ( !pullFromChunk(src) ) {
 				break;
 			}
+			else {
+				++m_chunkIdx;
+			}
 		}
 	}
 	
 	private void fill(FStream<T> src) {
 		while ( !m_endOfSource && m_buffer.size() < m_count ) {
-			FOption<T> next = src.next();
-			if ( next.isPresent() ) {
-				m_buffer.add(next.get());
+			if ( pullFromChunk(src) ) {
+				@SuppressWarnings("unchecked")
+				T next = (T)m_chunk[m_chunkIdx];
+				m_chunk[m_chunkIdx++] = null;
+				m_buffer.add(next);
 			}
 			else {
 				m_endOfSource = true;
 			}
 		}
 	}
+	
+	private boolean pullFromChunk(FStream<T> src) {
+		if ( m_chunkIdx < m_chunkSize ) {
+			return true;
+		}
+		if ( m_endOfSource ) {
+			return false;
+		}
+		
+		m_chunkSize = src.nextBatch(m_chunk);
+		m_chunkIdx = 0;
+		if ( m_chunkSize == 0 ) {
+			m_endOfSource = true;
+		}
+		
+		return m_chunkSize > 0;
+	}
 }
@@ -55,4 +55,27 @@ class ConcatedStream<T> implements FStream<T> {
 			m_current = nextStream.get();
 		}
 	}
+
+	@Override
+	public int nextBatch(Object[] buf) {
+		if ( m_current == null ) {
+			return 0;
+		}
+		
+		while ( true ) {
+			int count = m_current.nextBatch(buf);
+			if ( count > 0 ) {
+				return count;
+			}
+			Try.run(m_current::close);
+			
+			FOption<FStream<T>> nextStream = m_fact.next();
+			if ( nextStream.isAbsent() ) {
+				m_current = null;
+				return 0;
+			}
+			
+			m_current = nextStream.get();
+		}
+	}
 }
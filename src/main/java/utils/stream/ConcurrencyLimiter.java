@@ -0,0 +1,274 @@
+package utils.stream;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import utils.Preconditions;
+import utils.thread.Guard;
+import utils.thread.LatencyHistogram;
+
+
+/**
+ * 비동기 작업의 동시 수행 수를 관측된 지연 시간과 오류율에 따라 조정하는 limiter.
+ * <p>
+ * AIMD(additive-increase / multiplicative-decrease) 방식으로 동시 작업 한도를 조정한다.
+ * <ul>
+ *   <li>작업이 정상 종료되고 지연 시간이 지금까지 관측된 최소 지연 시간의
+ *       {@link #latencyTolerance(double) latencyTolerance}배 이하이면 한도를 {@code 1/limit}만큼 증가시킨다.
+ *       (한도 만큼의 작업이 정상 종료될 때마다 1씩 증가)</li>
+ *   <li>지연 시간이 위 기준을 넘거나 최근 오류율이 {@link #errorRateThreshold(double) errorRateThreshold}를
+ *       넘으면 한도에 {@link #backoffRatio(double) backoffRatio}를 곱해 감소시킨다. 동시에 수행 중이던
+ *       작업들이 연달아 과부하를 보고하여 한도가 급격히 줄어드는 것을 막기 위해, 한 번 감소시킨 후에는
+ *       한도 만큼의 작업이 더 종료될 때까지 추가로 감소시키지 않는다.</li>
+ * </ul>
+ * 한도는 항상 [{@link #getMinLimit()}, {@link #getMaxLimit()}] 범위 내에서 유지된다.
+ * <p>
+ * {@link AsyncExecutionOptions#setConcurrencyLimiter(ConcurrencyLimiter)}를 통해
+ * {@link FStream#mapAsync}, {@link FStream#flatMapAsync} 등에 적용되며, 스트림이 수행되는 동안
+ * {@link #getLimit()}, {@link #getInFlightCount()}, {@link #getLatencyHistogram()}으로 현재 상태를
+ * 조회할 수 있다.
+ * <pre>{@code
+ * ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(2, 64);
+ * FStream<Tuple<Req,Try<Resp>>> strm = reqs.mapAsync(client::call, AsyncExecutionOptions.ADAPTIVE(limiter));
+ * ...
+ * log.info("limit={}, latency={}", limiter.getLimit(), limiter.getLatencyHistogram());
+ * }</pre>
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class ConcurrencyLimiter {
+	private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+	private static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+	private static final double DEFAULT_ERROR_RATE_THRESHOLD = 0.1;
+	private static final double ERROR_RATE_ALPHA = 0.1;
+	/** 최소 지연 시간 기준값을 갱신하는 주기 (작업 수). 대상 서비스의 특성 변화에 적응하기 위해 사용된다. */
+	private static final int BASELINE_RESET_INTERVAL = 1000;
+	/** 매우 짧은 작업의 지연 시간 변동을 과부하로 오인하지 않도록 허용하는 최소 지연 시간 증가폭. */
+	private static final long MIN_LATENCY_SLACK_NANOS = 1_000_000L;
+
+	private final int m_minLimit;
+	private final int m_maxLimit;
+	private final int m_initialLimit;
+	private final double m_backoffRatio;
+	private final double m_latencyTolerance;
+	private final double m_errorRateThreshold;
+
+	private final AtomicInteger m_inFlight = new AtomicInteger(0);
+	private volatile int m_limit;
+	private final LatencyHistogram m_histogram = new LatencyHistogram();
+
+	private final Guard m_guard = Guard.create();
+	@GuardedBy("m_guard") private double m_exactLimit;
+	@GuardedBy("m_guard") private double m_errorRate = 0;
+	@GuardedBy("m_guard") private long m_baselineNanos = Long.MAX_VALUE;
+	@GuardedBy("m_guard") private long m_sampleCount = 0;
+	@GuardedBy("m_guard") private long m_samplesSinceBackoff = Integer.MAX_VALUE;
+
+	/**
+	 * 동시 작업 한도가 [{@code minLimit}, {@code maxLimit}] 범위에서 조정되는 AIMD limiter를 생성한다.
+	 * 초기 한도는 {@code minLimit}이다.
+	 *
+	 * @param minLimit	최소 동시 작업 수. 양의 정수여야 한다.
+	 * @param maxLimit	최대 동시 작업 수. {@code minLimit} 이상이어야 한다.
+	 * @return	{@link ConcurrencyLimiter} 객체.
+	 */
+	public static ConcurrencyLimiter aimd(int minLimit, int maxLimit) {
+		return new ConcurrencyLimiter(minLimit, maxLimit, minLimit, DEFAULT_BACKOFF_RATIO,
+										DEFAULT_LATENCY_TOLERANCE, DEFAULT_ERROR_RATE_THRESHOLD);
+	}
+
+	private ConcurrencyLimiter(int minLimit, int maxLimit, int initialLimit, double backoffRatio,
+								double latencyTolerance, double errorRateThreshold) {
+		Preconditions.checkArgument(minLimit >= 1, "minLimit should be at least 1: %s", minLimit);
+		Preconditions.checkArgument(maxLimit >= minLimit, "maxLimit(%s) < minLimit(%s)", maxLimit, minLimit);
+		Preconditions.checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit,
+									"initialLimit should be in [%s, %s]: %s", minLimit, maxLimit, initialLimit);
+		Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1, "invalid backoffRatio: %s", backoffRatio);
+		Preconditions.checkArgument(latencyTolerance >= 1, "invalid latencyTolerance: %s", latencyTolerance);
+		Preconditions.checkArgument(errorRateThreshold > 0 && errorRateThreshold <= 1,
+									"invalid errorRateThreshold: %s", errorRateThreshold);
+
+		m_minLimit = minLimit;
+		m_maxLimit = maxLimit;
+		m_initialLimit = initialLimit;
+		m_backoffRatio = backoffRatio;
+		m_latencyTolerance = latencyTolerance;
+		m_errorRateThreshold = errorRateThreshold;
+
+		m_exactLimit = initialLimit;
+		m_limit = initialLimit;
+	}
+
+	/**
+	 * 초기 동시 작업 한도를 설정한 새 limiter를 생성한다.
+	 *
+	 * @param limit	초기 한도.
+	 * @return	설정이 반영된 새 {@link ConcurrencyLimiter} 객체.
+	 */
+	public ConcurrencyLimiter initialLimit(int limit) {
+		return new ConcurrencyLimiter(m_minLimit, m_maxLimit, limit, m_backoffRatio,
+										m_latencyTolerance, m_errorRateThreshold);
+	}
+
+	/**
+	 * 과부하가 감지되었을 때 한도에 곱할 비율을 설정한 새 limiter를 생성한다. (기본값: 0.9)
+	 *
+	 * @param ratio	감소 비율 ({@code 0 < ratio < 1}).
+	 * @return	설정이 반영된 새 {@link ConcurrencyLimiter} 객체.
+	 */
+	public ConcurrencyLimiter backoffRatio(double ratio) {
+		return new ConcurrencyLimiter(m_minLimit, m_maxLimit, m_initialLimit, ratio,
+										m_latencyTolerance, m_errorRateThreshold);
+	}
+
+	/**
+	 * 최소 지연 시간 대비 허용되는 지연 시간의 배수를 설정한 새 limiter를 생성한다. (기본값: 2.0)
+	 *
+	 * @param tolerance	허용 배수 ({@code tolerance >= 1}).
+	 * @return	설정이 반영된 새 {@link ConcurrencyLimiter} 객체.
+	 */
+	public ConcurrencyLimiter latencyTolerance(double tolerance) {
+		return new ConcurrencyLimiter(m_minLimit, m_maxLimit, m_initialLimit, m_backoffRatio,
+										tolerance, m_errorRateThreshold);
+	}
+
+	/**
+	 * 과부하로 간주할 최근 오류율을 설정한 새 limiter를 생성한다. (기본값: 0.1)
+	 *
+	 * @param threshold	오류율 기준 ({@code 0 < threshold <= 1}).
+	 * @return	설정이 반영된 새 {@link ConcurrencyLimiter} 객체.
+	 */
+	public ConcurrencyLimiter errorRateThreshold(double threshold) {
+		return new ConcurrencyLimiter(m_minLimit, m_maxLimit, m_initialLimit, m_backoffRatio,
+										m_latencyTolerance, threshold);
+	}
+
+	public int getMinLimit() {
+		return m_minLimit;
+	}
+
+	public int getMaxLimit() {
+		return m_maxLimit;
+	}
+
+	/**
+	 * 현재의 동시 작업 한도를 반환한다.
+	 *
+	 * @return	동시 작업 한도.
+	 */
+	public int getLimit() {
+		return m_limit;
+	}
+
+	/**
+	 * 현재 수행 중인 작업의 수를 반환한다.
+	 *
+	 * @return	수행 중인 작업 수.
+	 */
+	public int getInFlightCount() {
+		return m_inFlight.get();
+	}
+
+	/**
+	 * 최근 작업들의 오류율 (지수 이동 평균)을 반환한다.
+	 *
+	 * @return	오류율.
+	 */
+	public double getErrorRate() {
+		return m_guard.get(() -> m_errorRate);
+	}
+
+	/**
+	 * 종료된 작업들의 지연 시간 분포를 반환한다.
+	 *
+	 * @return	지연 시간 histogram.
+	 */
+	public LatencyHistogram getLatencyHistogram() {
+		return m_histogram;
+	}
+
+	/**
+	 * 현재 한도 내에서 새 작업을 시작할 수 있으면 수행 중인 작업 수를 증가시킨다.
+	 *
+	 * @return	작업을 시작할 수 있는 경우는 {@code true}, 한도에 도달한 경우는 {@code false}.
+	 */
+	boolean tryAcquire() {
+		while ( true ) {
+			int inFlight = m_inFlight.get();
+			if ( inFlight >= m_limit ) {
+				return false;
+			}
+			if ( m_inFlight.compareAndSet(inFlight, inFlight + 1) ) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 한도와 무관하게 수행 중인 작업 수를 증가시킨다.
+	 * <p>
+	 * 여러 스트림이 limiter를 공유할 때, 수행 중인 작업이 하나도 없는 스트림이 진행될 수 있도록
+	 * 하기 위해 사용된다.
+	 */
+	void acquire() {
+		m_inFlight.incrementAndGet();
+	}
+
+	/**
+	 * {@link #tryAcquire()} 또는 {@link #acquire()}로 얻은 작업 슬롯을 반환한다.
+	 */
+	void release() {
+		m_inFlight.decrementAndGet();
+	}
+
+	/**
+	 * 종료된 작업의 지연 시간과 성공 여부를 반영하여 동시 작업 한도를 조정한다.
+	 *
+	 * @param latencyNanos	작업 지연 시간 (nano-seconds).
+	 * @param failed		작업 실패 여부.
+	 */
+	void onSample(long latencyNanos, boolean failed) {
+		m_histogram.record(latencyNanos);
+
+		m_guard.lock();
+		try {
+			++m_sampleCount;
+			++m_samplesSinceBackoff;
+			m_errorRate += ERROR_RATE_ALPHA * ((failed ? 1 : 0) - m_errorRate);
+
+			if ( !failed ) {
+				if ( m_sampleCount % BASELINE_RESET_INTERVAL == 0 ) {
+					m_baselineNanos = latencyNanos;
+				}
+				else {
+					m_baselineNanos = Math.min(m_baselineNanos, latencyNanos);
+				}
+			}
+
+			double latencyLimit = Math.max(m_baselineNanos * m_latencyTolerance,
+											m_baselineNanos + MIN_LATENCY_SLACK_NANOS);
+			boolean overloaded = (m_errorRate > m_errorRateThreshold)
+								|| (!failed && latencyNanos > latencyLimit);
+			if ( overloaded ) {
+				if ( m_samplesSinceBackoff >= m_exactLimit ) {
+					m_exactLimit = Math.max(m_minLimit, m_exactLimit * m_backoffRatio);
+					m_samplesSinceBackoff = 0;
+				}
+			}
+			else if ( !failed ) {
+				m_exactLimit = Math.min(m_maxLimit, m_exactLimit + 1.0 / m_exactLimit);
+			}
+			m_limit = (int)m_exactLimit;
+		}
+		finally {
+			m_guard.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ConcurrencyLimiter[limit=%d (%d~%d), in-flight=%d, latency={%s}]",
+								m_limit, m_minLimit, m_maxLimit, getInFlightCount(), m_histogram);
+	}
+}
@@ -2,23 +2,54 @@ package utils.stream;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import com.google.common.primitives.Doubles;
 
 import utils.Preconditions;
-import utils.Tuple;
 import utils.func.FOption;
+import utils.stream.PrimitiveFStreams.BoxedStream;
+import utils.stream.PrimitiveFStreams.DoubleArrayStream;
+import utils.stream.PrimitiveFStreams.DoubleUnboxingAdaptor;
+import utils.stream.PrimitiveFStreams.FilteredDoubleStream;
+import utils.stream.PrimitiveFStreams.MappedDoubleStream;
+import utils.stream.PrimitiveFStreams.TakenDoubleStream;
 
 /**
  * {@code double} primitive에 특화된 {@link FStream} 변형.
  * <p>
- * {@link FStream}{@code <Double>}을 확장하지만 합계({@link #sum()})/평균({@link #average()}) 등의
- * 종결 연산을 box 비용 없이 제공한다.
+ * {@link FStream}{@code <Double>}을 확장하지만 {@link #hasNextDouble()}/{@link #nextDouble()}로
+ * 구성된 primitive pull 프로토콜을 통해 {@link #mapDouble}, {@link #filterDouble}, 합계({@link #sum()}),
+ * 평균({@link #average()}), {@link #histogram} 등의 연산을 box 비용 없이 제공한다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public interface DoubleFStream extends FStream<Double> {
+	/**
+	 * 다음 {@code double} 원소가 존재하는지 여부를 반환한다.
+	 * <p>
+	 * 동일 원소에 대해 여러 번 호출해도 원소를 소비하지 않는다.
+	 * <p>
+	 * Primitive pull 프로토콜은 각 구현체가 직접 제공한다. {@link #next()}만 제공하는
+	 * {@link FStream}{@code <Double>}은 {@link #downcast(FStream)}로 어댑팅하여 사용한다.
+	 *
+	 * @return	다음 원소가 있으면 {@code true}, 스트림 끝이면 {@code false}.
+	 */
+	public boolean hasNextDouble();
+
+	/**
+	 * 다음 {@code double} 원소를 box 없이 반환한다.
+	 *
+	 * @return	다음 원소.
+	 * @throws NoSuchElementException	더 이상의 원소가 없는 경우.
+	 * @throws IllegalStateException	원소가 {@code null}인 경우.
+	 */
+	public double nextDouble();
+
 	/**
 	 * 가변인자 {@code double} 값들로부터 {@link DoubleFStream}을 생성한다.
 	 *
@@ -26,7 +57,7 @@ public interface DoubleFStream extends FStream<Double> {
 	 * @return {@link DoubleFStream} 객체.
 	 */
 	public static DoubleFStream of(double... values) {
-		return new ToDoubleDowncaster(FStream.from(Arrays.stream(values).iterator()));
+		return new DoubleArrayStream(values);
 	}
 
 	/**
@@ -36,7 +67,7 @@ public interface DoubleFStream extends FStream<Double> {
 	 * @return {@link DoubleFStream} 객체.
 	 */
 	public static DoubleFStream of(Double... values) {
-		return new ToDoubleDowncaster(FStream.of(values));
+		return new DoubleArrayStream(Doubles.toArray(Arrays.asList(values)));
 	}
 
 	/**
@@ -46,17 +77,22 @@ public interface DoubleFStream extends FStream<Double> {
 	 * @return {@link DoubleFStream} 객체.
 	 */
 	public static DoubleFStream from(List<Double> values) {
-		return new ToDoubleDowncaster(FStream.from(values));
+		return new DoubleUnboxingAdaptor(FStream.from(values));
 	}
 
 	/**
 	 * 기존 {@link FStream}{@code <Double>}을 {@link DoubleFStream}으로 어댑팅한다.
+	 * <p>
+	 * 원소는 원본 스트림에서 읽힐 때 한번만 unboxing된다.
 	 *
 	 * @param strm 원본 스트림.
 	 * @return {@link DoubleFStream}으로 노출된 wrapper.
 	 */
 	public static DoubleFStream downcast(FStream<Double> strm) {
-		return new ToDoubleDowncaster(strm);
+		if ( strm instanceof DoubleFStream dstrm ) {
+			return dstrm;
+		}
+		return new DoubleUnboxingAdaptor(strm);
 	}
 
 	/**
@@ -72,6 +108,35 @@ public interface DoubleFStream extends FStream<Double> {
 		return map(mapper);
 	}
 
+	/**
+	 * 각 원소를 {@code mapper}로 변환한 {@link DoubleFStream}을 생성한다.
+	 *
+	 * @param mapper	매핑 함수.
+	 * @return	매핑된 primitive 스트림.
+	 */
+	public default DoubleFStream mapDouble(DoubleUnaryOperator mapper) {
+		return new MappedDoubleStream(this, mapper);
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 원소들로만 구성된 {@link DoubleFStream}을 생성한다.
+	 *
+	 * @param pred	조건 함수.
+	 * @return	조건을 만족하는 원소들의 primitive 스트림.
+	 */
+	public default DoubleFStream filterDouble(DoublePredicate pred) {
+		return new FilteredDoubleStream(this, pred);
+	}
+
+	/**
+	 * 본 스트림을 boxing된 {@link FStream}{@code <Double>}로 노출시킨다.
+	 *
+	 * @return	boxing된 스트림.
+	 */
+	public default FStream<Double> boxed() {
+		return new BoxedStream<>(this);
+	}
+
 	/**
 	 * 스트림의 앞 {@code count}개 원소로 구성된 {@link DoubleFStream}을 생성한다.
 	 *
@@ -83,7 +148,76 @@ public interface DoubleFStream extends FStream<Double> {
 	public default DoubleFStream take(long count) {
 		Preconditions.checkArgument(count >= 0, "count >= 0: but: " + count);
 
-		return new ToDoubleDowncaster(FStream.super.take(count));
+		return new TakenDoubleStream(this, count);
+	}
+
+	/**
+	 * 주어진 초기값과 누적 함수를 이용하여 모든 원소를 primitive 상태로 누적한다.
+	 * <p>
+	 * 메소드 종료 시 스트림은 닫힌다.
+	 *
+	 * @param initial	초기 누적 값.
+	 * @param combiner	누적 함수.
+	 * @return	누적 결과.
+	 */
+	public default double foldDouble(double initial, DoubleBinaryOperator combiner) {
+		Preconditions.checkNotNullArgument(combiner, "combiner is null");
+
+		try {
+			double accum = initial;
+			while ( hasNextDouble() ) {
+				accum = combiner.applyAsDouble(accum, nextDouble());
+			}
+			return accum;
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	/**
+	 * 첫번째 원소를 초기값으로 하여 나머지 원소들을 primitive 상태로 누적한다.
+	 * <p>
+	 * 빈 스트림이면 {@link FOption#empty()}를 반환한다. 메소드 종료 시 스트림은 닫힌다.
+	 *
+	 * @param reducer	누적 함수.
+	 * @return	누적 결과를 감싼 {@link FOption}.
+	 */
+	public default FOption<Double> reduceDouble(DoubleBinaryOperator reducer) {
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		try {
+			if ( !hasNextDouble() ) {
+				return FOption.empty();
+			}
+
+			double accum = nextDouble();
+			while ( hasNextDouble() ) {
+				accum = reducer.applyAsDouble(accum, nextDouble());
+			}
+			return FOption.of(accum);
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	/**
+	 * 스트림 원소들 중 최댓값을 반환한다.
+	 *
+	 * @return 최댓값을 감싼 {@link FOption}. 빈 스트림이면 {@link FOption#empty()}.
+	 */
+	public default FOption<Double> maxValue() {
+		return reduceDouble(Math::max);
+	}
+
+	/**
+	 * 스트림 원소들 중 최솟값을 반환한다.
+	 *
+	 * @return 최솟값을 감싼 {@link FOption}. 빈 스트림이면 {@link FOption#empty()}.
+	 */
+	public default FOption<Double> minValue() {
+		return reduceDouble(Math::min);
 	}
 	
 	/**
@@ -95,7 +229,7 @@ public interface DoubleFStream extends FStream<Double> {
 	 * @return 모든 원소의 합. 빈 스트림이면 {@code 0.0}.
 	 */
 	public default double sum() {
-		return reduce((v1,v2) -> v1+v2).getOrElse(0d);
+		return foldDouble(0d, Double::sum);
 	}
 	
 	/**
@@ -106,9 +240,48 @@ public interface DoubleFStream extends FStream<Double> {
 	 * @return 평균을 감싼 {@link FOption}. 빈 스트림이면 {@link FOption#empty()}.
 	 */
 	public default FOption<Double> average() {
-		Tuple<Double,Long> state = fold(Tuple.of(0d,0L), (a,v) -> Tuple.of(a._1 + v, a._2 + 1));
-		return (state._2 > 0) ? FOption.of(state._1 / state._2)
-								: FOption.empty();
+		try {
+			double sum = 0;
+			long count = 0;
+			while ( hasNextDouble() ) {
+				sum += nextDouble();
+				++count;
+			}
+			return (count > 0) ? FOption.of(sum / count) : FOption.empty();
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	/**
+	 * 구간 [{@code lower}, {@code upper})를 {@code binCount}개의 균등 폭 구간으로 나누어
+	 * 각 구간에 속한 원소의 수를 계산한다.
+	 * <p>
+	 * 구간 밖의 원소와 {@code NaN}은 무시된다. 메소드 종료 시 스트림은 닫힌다.
+	 *
+	 * @param lower		구간 하한 (포함).
+	 * @param upper		구간 상한 (제외).
+	 * @param binCount	구간 수. 1 이상.
+	 * @return	구간별 원소 수 배열.
+	 */
+	public default long[] histogram(double lower, double upper, int binCount) {
+		Preconditions.checkArgument(lower < upper, "invalid range: lower=%s upper=%s", lower, upper);
+		Preconditions.checkArgument(binCount > 0, "binCount > 0: but: " + binCount);
+
+		long[] bins = new long[binCount];
+		try {
+			while ( hasNextDouble() ) {
+				int idx = PrimitiveFStreams.toBinIndex(nextDouble(), lower, upper, binCount);
+				if ( idx >= 0 ) {
+					++bins[idx];
+				}
+			}
+			return bins;
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 
 	/**
@@ -117,24 +290,31 @@ public interface DoubleFStream extends FStream<Double> {
 	 * @return 모든 원소를 담은 {@code double[]} 배열.
 	 */
 	public default double[] toArray() {
-		return Doubles.toArray(toList());
-	}
-	
-	static class ToDoubleDowncaster implements DoubleFStream {
-		private final FStream<Double> m_src;
-		
-		ToDoubleDowncaster(FStream<Double> src) {
-			m_src = src;
+		try {
+			double[] buf = new double[16];
+			int size = 0;
+			while ( hasNextDouble() ) {
+				if ( size == buf.length ) {
+					buf = Arrays.copyOf(buf, size << 1);
+				}
+				buf[size++] = nextDouble();
+			}
+			return (size == buf.length) ? buf : Arrays.copyOf(buf, size);
 		}
-
-		@Override
-		public void close() throws Exception {
-			m_src.close();
+		finally {
+			closeQuietly();
 		}
+	}
 
-		@Override
-		public FOption<Double> next() {
-			return m_src.next();
+	/**
+	 * {@link FStream}{@code <Double>}을 {@link DoubleFStream}으로 노출시키는 어댑터.
+	 *
+	 * @deprecated	{@link DoubleFStream#downcast(FStream)}를 사용한다.
+	 */
+	@Deprecated
+	static class ToDoubleDowncaster extends DoubleUnboxingAdaptor {
+		ToDoubleDowncaster(FStream<Double> src) {
+			super(src);
 		}
 	}
 }
@@ -0,0 +1,224 @@
+package utils.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.google.common.collect.Lists;
+
+import utils.Preconditions;
+import utils.func.FOption;
+import utils.stream.FStreams.AbstractFStream;
+
+
+/**
+ * 메모리 사용량을 제한하는 외부 정렬(external merge sort) 스트림.
+ * <p>
+ * 원천 스트림에서 최대 {@link SortOptions#getMaxInMemory()}개씩 원소를 읽어 정렬한 run을
+ * 임시 파일로 기록하고, 원천 스트림의 끝에 도달하면 모든 run들을 k-way 병합하며 원소를 반환한다.
+ * 마지막 run은 파일로 기록하지 않고 메모리에서 바로 병합에 참여하며, 원천 스트림 전체가
+ * 메모리 한도 이내인 경우는 파일을 전혀 생성하지 않는다.
+ * 동일 순서의 원소들은 원천 스트림에서의 순서를 유지한다 (stable).
+ * <p>
+ * 생성된 run 파일들은 스트림이 close될 때 삭제된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class ExternalSortedFStream<T> extends AbstractFStream<T> {
+	/** 한번에 병합할 최대 run 파일 수. 넘는 경우는 여러 단계로 나누어 병합한다. */
+	private static final int MAX_MERGE_WIDTH = 64;
+
+	private final FStream<T> m_src;
+	private final Comparator<? super T> m_cmp;
+	private final SortOptions m_opts;
+	private final SpillCodec<T> m_codec;
+	private final List<SpillFile<T>> m_runFiles = Lists.newArrayList();
+	private @Nullable FStream<T> m_output = null;
+
+	@SuppressWarnings("unchecked")
+	ExternalSortedFStream(FStream<T> src, Comparator<? super T> cmp, SortOptions opts) {
+		Preconditions.checkNotNullArgument(src, "source FStream is null");
+		Preconditions.checkNotNullArgument(cmp, "Comparator is null");
+		Preconditions.checkNotNullArgument(opts, "SortOptions is null");
+
+		m_src = src;
+		m_cmp = cmp;
+		m_opts = opts;
+		m_codec = (SpillCodec<T>)opts.getCodec();
+	}
+
+	@Override
+	protected void initialize() {
+		try {
+			m_output = buildRuns();
+		}
+		catch ( IOException e ) {
+			throw new FStreamException("fails to spill sorted runs", e);
+		}
+	}
+
+	@Override
+	protected void closeInGuard() throws Exception {
+		if ( m_output != null ) {
+			m_output.closeQuietly();
+			m_output = null;
+		}
+		m_src.closeQuietly();
+
+		m_runFiles.forEach(SpillFile::delete);
+		m_runFiles.clear();
+	}
+
+	@Override
+	protected FOption<T> nextInGuard() {
+		return m_output.next();
+	}
+
+	@Override
+	protected int nextBatchInGuard(Object[] buf) {
+		return m_output.nextBatch(buf);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("external_sort[%s, runs=%d]", m_opts, m_runFiles.size());
+	}
+
+	private FStream<T> buildRuns() throws IOException {
+		int maxInMemory = m_opts.getMaxInMemory();
+
+		List<T> buffer = new ArrayList<>(Math.min(maxInMemory, FStreams.BATCH_SIZE));
+		Object[] chunk = new Object[Math.min(maxInMemory, FStreams.BATCH_SIZE)];
+		while ( true ) {
+			int nread = m_src.nextBatch(chunk);
+			if ( nread == 0 ) {
+				break;
+			}
+			for ( int i =0; i < nread; ++i ) {
+				@SuppressWarnings("unchecked")
+				T value = (T)chunk[i];
+
+				if ( buffer.size() >= maxInMemory ) {
+					buffer.sort(m_cmp);
+					m_runFiles.add(writeRun(FStream.from(buffer)));
+					buffer.clear();
+				}
+				buffer.add(value);
+			}
+		}
+		m_src.closeQuietly();
+		buffer.sort(m_cmp);
+
+		if ( m_runFiles.isEmpty() ) {
+			return FStream.from(buffer);
+		}
+
+		// run 파일의 수가 너무 많으면 여러 단계로 나누어 병합하여 동시에 여는 파일 수를 제한한다.
+		while ( m_runFiles.size() >= MAX_MERGE_WIDTH ) {
+			List<SpillFile<T>> level = Lists.newArrayList();
+			for ( List<SpillFile<T>> group: Lists.partition(Lists.newArrayList(m_runFiles), MAX_MERGE_WIDTH) ) {
+				if ( group.size() == 1 ) {
+					level.add(group.get(0));
+					continue;
+				}
+
+				List<FStream<T>> runs = Lists.newArrayList();
+				for ( SpillFile<T> run: group ) {
+					runs.add(run.read());
+				}
+				SpillFile<T> merged = writeRun(new MergedRunStream(runs));
+				m_runFiles.add(merged);
+				level.add(merged);
+
+				m_runFiles.removeAll(group);
+				group.forEach(SpillFile::delete);
+			}
+			m_runFiles.clear();
+			m_runFiles.addAll(level);
+		}
+
+		List<FStream<T>> runs = Lists.newArrayList();
+		for ( SpillFile<T> run: m_runFiles ) {
+			runs.add(run.read());
+		}
+		runs.add(FStream.from(buffer));
+		return new MergedRunStream(runs);
+	}
+
+	private SpillFile<T> writeRun(FStream<T> sorted) throws IOException {
+		SpillFile<T> run = SpillFile.create(m_opts.getTempDir(), "fstream_sort_", m_codec);
+		try {
+			run.appendAll(sorted);
+			run.finish();
+
+			return run;
+		}
+		catch ( IOException | RuntimeException e ) {
+			run.delete();
+			throw e;
+		}
+	}
+
+	/**
+	 * 정렬된 run들을 k-way 병합하는 스트림.
+	 * 비교 결과가 같은 경우는 앞선 run의 원소를 먼저 반환한다.
+	 */
+	private class MergedRunStream extends AbstractFStream<T> {
+		private final List<FStream<T>> m_runs;
+		private final PriorityQueue<Head> m_heads;
+
+		MergedRunStream(List<FStream<T>> runs) {
+			m_runs = runs;
+			m_heads = new PriorityQueue<>(Math.max(1, runs.size()), (h1, h2) -> {
+				int cmp = m_cmp.compare(h1.m_value, h2.m_value);
+				return (cmp != 0) ? cmp : Integer.compare(h1.m_runIdx, h2.m_runIdx);
+			});
+		}
+
+		@Override
+		protected void initialize() {
+			for ( int i =0; i < m_runs.size(); ++i ) {
+				int runIdx = i;
+				m_runs.get(i).next().ifPresent(v -> m_heads.add(new Head(v, runIdx)));
+			}
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_heads.clear();
+			for ( FStream<T> run: m_runs ) {
+				run.closeQuietly();
+			}
+		}
+
+		@Override
+		protected FOption<T> nextInGuard() {
+			Head head = m_heads.poll();
+			if ( head == null ) {
+				return FOption.empty();
+			}
+
+			T value = head.m_value;
+			FOption<T> next = m_runs.get(head.m_runIdx).next();
+			if ( next.isPresent() ) {
+				head.m_value = next.getUnchecked();
+				m_heads.add(head);
+			}
+			return FOption.of(value);
+		}
+
+		private class Head {
+			private T m_value;
+			private final int m_runIdx;
+
+			Head(T value, int runIdx) {
+				m_value = value;
+				m_runIdx = runIdx;
+			}
+		}
+	}
+}
@@ -13,14 +13,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -35,7 +41,6 @@ import utils.KeyValue;
 import utils.Preconditions;
 import utils.Suppliable;
 import utils.Tuple;
-import utils.Utilities;
 import utils.func.CheckedConsumer;
 import utils.func.CheckedConsumerX;
 import utils.func.CheckedFunction;
@@ -49,23 +54,24 @@ import utils.stream.FStreams.AbstractFStream;
 import utils.stream.FStreams.FlatMapDataSupplier;
 import utils.stream.FStreams.FlatMapTry;
 import utils.stream.FStreams.FoldLeftLeakFStream;
+import utils.stream.FStreams.FusedStream;
 import utils.stream.FStreams.GeneratedStream;
+import utils.stream.FStreams.ListStream;
 import utils.stream.FStreams.MapOrThrowStream;
 import utils.stream.FStreams.MapToBooleanStream;
-import utils.stream.FStreams.MapToDoubleStream;
 import utils.stream.FStreams.MapToFloatStream;
-import utils.stream.FStreams.MapToIntStream;
-import utils.stream.FStreams.MapToLongStream;
-import utils.stream.FStreams.MappedStream;
-import utils.stream.FStreams.PeekedStream;
 import utils.stream.FStreams.ScannedStream;
 import utils.stream.FStreams.SelectiveMapStream;
 import utils.stream.FStreams.SingleSourceStream;
 import utils.stream.FStreams.SplitFStream;
+import utils.stream.FStreams.StreamAdaptor;
 import utils.stream.FStreams.UnfoldStream;
 import utils.stream.FStreams.UniqueFStream;
 import utils.stream.FStreams.UniqueKeyFStream;
 import utils.stream.IntFStream.RangedStream;
+import utils.stream.PrimitiveFStreams.MapToDoubleStream;
+import utils.stream.PrimitiveFStreams.MapToIntStream;
+import utils.stream.PrimitiveFStreams.MapToLongStream;
 
 
 /**
@@ -122,6 +128,51 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 * @throws IllegalStateException 스트림이 이미 close된 경우.
 	 */
 	public FOption<T> next() throws IllegalStateException;
+
+	/**
+	 * 스트림에 포함된 다음 데이터들을 주어진 버퍼에 최대 {@code buf.length}개까지 채운다.
+	 * <p>
+	 * 버퍼의 {@code 0}번째부터 반환된 갯수만큼 원소가 저장되며, 스트림의 끝에 도달한 경우에만
+	 * {@code 0}을 반환한다. 즉, 스트림이 끝나지 않은 경우에는 최소 1개 이상의 원소가 채워진다.
+	 * 버퍼는 호출자가 재사용할 수 있도록 다음 호출 전까지만 유효한 것으로 간주한다.
+	 * <p>
+	 * 기본 구현은 {@link #next()}를 한 번만 호출하여 최대 1개의 원소를 채운다. 이는 채널 기반
+	 * 스트림처럼 다음 원소가 준비될 때까지 대기해야하는 스트림에서 버퍼를 채우기 위해 불필요하게
+	 * 대기하지 않도록 하기 위함이다. 메모리 기반 소스와 {@code map}, {@code filter}, {@code take},
+	 * {@code drop}, {@code concat} 등의 연산자는 이를 재정의하여 한번에 여러 원소를 전달한다.
+	 * <p>
+	 * 재정의된 연산자들도 원소 단위로 읽는 경우와 동일한 관찰 결과를 유지한다. 버퍼 중간의 원소를
+	 * 처리하다 예외가 발생하면 그 이전까지 처리된 원소들을 먼저 반환하고, 예외는 다음 호출에서
+	 * 발생시킨다. 또한 {@code peek}처럼 부수효과가 있는 단계는 부수효과가 소비자보다 앞서 수행되지
+	 * 않도록 한번에 한 원소씩 전달한다.
+	 *
+	 * @param buf	원소를 저장할 버퍼. 길이가 0보다 커야 한다.
+	 * @return	버퍼에 채워진 원소의 수. 스트림 끝인 경우는 {@code 0}.
+	 * @throws IllegalStateException 스트림이 이미 close된 경우.
+	 */
+	public default int nextBatch(Object[] buf) throws IllegalStateException {
+		FOption<T> next = next();
+		if ( next.isPresent() ) {
+			buf[0] = next.getUnchecked();
+			return 1;
+		}
+		else {
+			return 0;
+		}
+	}
+	
+	/**
+	 * 본 스트림의 실행 계획을 문자열로 반환한다.
+	 * <p>
+	 * 인접한 {@code filter}/{@code map}/{@code peek} 연산들은 하나의 단계로 합쳐져 실행되며
+	 * (예: {@code "... -> fused[filter, map, peek]"}), 이렇게 합쳐진 단계는 원천 스트림의 계획 뒤에
+	 * 표시된다. 기본 구현은 {@link #toString()}을 반환한다.
+	 * 
+	 * @return	실행 계획 문자열.
+	 */
+	public default String explain() {
+		return toString();
+	}
 	
 	/**
 	 * 스트림을 닫는다. 예외는 던지지 않고 {@link Try}로 감싸 반환한다.
@@ -205,8 +256,14 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	public static <T> FStream<T> from(final Iterable<? extends T> values) {
 		Preconditions.checkNotNullArgument(values, "Iterable is null");
 
+		if ( values instanceof List<? extends T> list && values instanceof RandomAccess ) {
+			return new ListStream<>(list);
+		}
 		return new AbstractFStream<T>() {
 			private Iterator<? extends T> m_iter = values.iterator();
+			// 메모리에 적재된 collection만 일괄 전달한다. 일반 Iterable의 iterator는 다음 원소를
+			// 얻기 위해 대기할 수 있으므로 원소 단위로 전달한다.
+			private final boolean m_inMemory = values instanceof Collection;
 
 			@Override
 			protected void closeInGuard() throws Exception {
@@ -222,6 +279,19 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 					return FOption.empty();
 				}
 			}
+
+			@Override
+			protected int nextBatchInGuard(Object[] buf) {
+				if ( !m_inMemory ) {
+					return super.nextBatchInGuard(buf);
+				}
+
+				int count = 0;
+				while ( count < buf.length && m_iter.hasNext() ) {
+					buf[count++] = m_iter.next();
+				}
+				return count;
+			}
 		};
 	}
 	
@@ -235,7 +305,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	public static <T> FStream<T> from(Stream<? extends T> stream) {
 		Preconditions.checkNotNullArgument(stream, "Stream is null");
 
-		return FStream.<T>from(stream.iterator()).onClose(stream::close);
+		return new StreamAdaptor<>(stream);
 	}
 
 	/**
@@ -363,18 +433,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	public default FStream<T> filter(final Predicate<? super T> pred) {
 		Preconditions.checkNotNullArgument(pred, "predicate is null");
 		
-		return new SingleSourceStream<T,T>(this) {
-			@Override
-			protected FOption<T> getNext(FStream<T> src) {
-				for ( FOption<T> next = src.next(); next.isPresent(); next = src.next() ) {
-					if ( pred.test(next.getUnchecked()) ) {
-						return next;
-					}
-				}
-				
-				return FOption.empty();
-			}
-		};
+		return FusedStream.filter(this, pred);
 	}
 	
 	/**
@@ -398,7 +457,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 */
 	public default <S> FStream<S> map(Function<? super T,? extends S> mapper) {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
-		return new MappedStream<>(this, mapper);
+		return FusedStream.map(this, mapper);
 	}
 
 	/**
@@ -545,12 +604,32 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 * 	<dd> 매핑 함수 수행을 위해 사용되는 최대 쓰레드 수.</dd>
 	 * 	<dt>{@link AsyncExecutionOptions#getExecutor()}</dt>
 	 * 	<dd>쓰레드 할당에 사용될 쓰레드 풀을 관리할 {@link Executor} 객체.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getVirtualThreads()}</dt>
+	 * 	<dd>{@link Executor}가 지정되지 않은 경우, 매핑 함수 호출마다 virtual thread를 생성하여 수행할지 여부.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getLockFreeChannel()}</dt>
+	 * 	<dd>매핑 결과를 소비자에게 전달하는 채널로 lock-free {@link RingBufferFStream}을 사용할지 여부.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getConcurrencyLimiter()}</dt>
+	 * 	<dd>설정된 경우, 고정된 worker 수 대신 관측된 지연 시간과 오류율에 따라 동시 작업 수를 조정하는
+	 * 		{@link ConcurrencyLimiter}.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getReorderWindow()}</dt>
+	 * 	<dd>입력 순서를 보존하는 경우, 먼저 끝난 결과를 자기 차례가 될 때까지 보관하는 재정렬 window의 크기.
+	 * 		설정된 경우는 앞선 매핑 함수 수행이 늦어지더라도 다른 입력 데이터에 대한 매핑 함수 수행이
+	 * 		계속 시작된다.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getTimeoutMillis()}</dt>
+	 * 	<dd>입력 데이터 하나에 대한 매핑 함수 수행 제한 시간. 제한 시간을 넘긴 데이터는
+	 * 		{@link java.util.concurrent.TimeoutException}을 담은 실패 결과로 출력된다.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getRetryPolicy()}</dt>
+	 * 	<dd>매핑 함수 수행이 실패한 경우의 재시도 정책.</dd>
+	 * 	<dt>{@link AsyncExecutionOptions#getHedgePolicy()}</dt>
+	 * 	<dd>매핑 함수 수행이 늦어지는 경우, 동일 입력 데이터에 대해 매핑 함수를 추가로 수행하고
+	 * 		먼저 끝난 결과를 사용하는 정책.</dd>
 	 * </dl>
 	 * 
 	 * <p>
 	 * 내부적으로 {@code options.getKeepOrder()} 값에 따라 두 구현체 중 하나를 선택한다:
 	 * {@code true}이면 입력 순서를 보존하는 {@link OrderedMapAsyncStream}, {@code false}이면 처리량을
-	 * 우선하는 {@link UnorderedMapAsyncStream}.
+	 * 우선하는 {@link UnorderedMapAsyncStream}. 순서를 보존하면서 재정렬 window가 설정된 경우는
+	 * {@link ReorderingMapAsyncStream}을 사용한다.
 	 *
 	 * @param <S>		매핑 결과 데이터의 타입
 	 * @param mapper	매핑 함수 객체.
@@ -564,7 +643,10 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
 		Preconditions.checkNotNullArgument(options, "AsyncExecutionOptions is null");
 		
-		if ( options.getKeepOrder() ) {
+		if ( options.getKeepOrder() && options.getReorderWindow() > 0 ) {
+			return new ReorderingMapAsyncStream<>(this, mapper, options);
+		}
+		else if ( options.getKeepOrder() ) {
 			return new OrderedMapAsyncStream<>(this, mapper, options);
 		}
 		else {
@@ -602,7 +684,10 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 
 		CheckedFunction<? super T,? extends S> checkedMapper = (t) -> mapper.apply(t);
 
-		if ( options.getKeepOrder() ) {
+		if ( options.getKeepOrder() && options.getReorderWindow() > 0 ) {
+			return new ReorderingMapAsyncStream<>(this, checkedMapper, options);
+		}
+		else if ( options.getKeepOrder() ) {
 			return new OrderedMapAsyncStream<>(this, checkedMapper, options);
 		}
 		else {
@@ -749,7 +834,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		else {
 			Function<? super T, ? extends FStream<V>> asyncMapper = mapper.toSneakyThrowFunction();
 			FStream<FStream<V>> strmOfStreams = this.map(t -> new FlatMapDataSupplier<T,V>(t, asyncMapper));
-			return FStream.mergeParallel(strmOfStreams, options.getWorkerCount(), options.getExecutor());
+			return FStream.mergeParallel(strmOfStreams, options);
 		}
 	}
 	
@@ -765,7 +850,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		}
 		else {
 			FStream<FStream<V>> strmOfStreams = this.map(t -> new FlatMapDataSupplier<T,V>(t, mapper));
-			return FStream.mergeParallel(strmOfStreams, options.getWorkerCount(), options.getExecutor());
+			return FStream.mergeParallel(strmOfStreams, options);
 		}
 	}
 	
@@ -783,6 +868,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		
 		return new SingleSourceStream<T,T>(this) {
 			private long m_remains = count;
+			private Object[] m_tail = null;
 			
 			@Override
 			public FOption<T> getNext(FStream<T> src) {
@@ -794,6 +880,38 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 					return src.next();
 				}
 			}
+
+			@Override
+			protected int getNextBatch(FStream<T> src, Object[] buf) {
+				if ( m_remains <= 0 ) {
+					return 0;
+				}
+				
+				// 원천 스트림에서 필요 이상의 원소를 읽지 않도록 남은 갯수만큼만 읽는다.
+				int count;
+				if ( m_remains >= buf.length ) {
+					count = src.nextBatch(buf);
+				}
+				else if ( m_tail == null ) {
+					// 마지막 일부 구간을 위한 버퍼는 한번만 할당한다.
+					m_tail = new Object[(int)m_remains];
+					count = src.nextBatch(m_tail);
+					System.arraycopy(m_tail, 0, buf, 0, count);
+					Arrays.fill(m_tail, 0, count, null);
+				}
+				else {
+					// 원천 스트림이 일부만 채운 경우로, 남은 원소들은 호출자의 버퍼로 하나씩 읽는다.
+					FOption<T> next = src.next();
+					if ( next.isAbsent() ) {
+						return 0;
+					}
+					buf[0] = next.getUnchecked();
+					count = 1;
+				}
+				m_remains -= count;
+				
+				return count;
+			}
 		};
 	}
 	
@@ -824,6 +942,25 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 				
 				return src.next();
 			}
+
+			@Override
+			protected int getNextBatch(FStream<T> src, Object[] buf) {
+				if ( !m_dropped ) {
+					m_dropped = true;
+					
+					long remains = count;
+					while ( remains > 0 ) {
+						Object[] skipped = (remains >= buf.length) ? buf : new Object[(int)remains];
+						int nread = src.nextBatch(skipped);
+						if ( nread == 0 ) {
+							return 0;
+						}
+						remains -= nread;
+					}
+				}
+				
+				return src.nextBatch(buf);
+			}
 		};
 	}
 	
@@ -1143,6 +1280,58 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		return concatWith(FStream.of(tail));
 	}
 	
+	/**
+	 * 본 스트림을 {@code parallelism}개의 쓰레드로 fork-join 방식으로 병렬 처리하는
+	 * {@link ParallelFStream}을 생성한다.
+	 * <p>
+	 * 스트림은 {@link java.util.Spliterator}로 분할되어 각 분할마다 {@code map}/{@code filter}/{@code peek}
+	 * 연산이 독립적으로 수행되고, {@code fold}/{@code reduce}/{@code collect}/{@code reduceByKey}/{@code count}
+	 * 등의 종결 연산은 분할별 결과를 결합하여 계산된다. 본 메소드 호출 직전의
+	 * {@code map}/{@code filter}/{@code peek} 연산들도 분할 단위로 병렬 수행된다.
+	 * CPU 사용량이 많은 연산에 적합하며, 연산 함수들은 여러 쓰레드에서 동시에 호출될 수 있다.
+	 *
+	 * @param parallelism	병렬 처리에 사용할 쓰레드 수.
+	 * @return	{@link ParallelFStream} 객체.
+	 */
+	public default ParallelFStream<T> parallel(int parallelism) {
+		Preconditions.checkArgument(parallelism > 0, "parallelism > 0, but: " + parallelism);
+
+		return ParallelFStream.from(this, parallelism);
+	}
+
+	/**
+	 * 본 스트림을 별도의 쓰레드에서 미리 읽어 최대 {@code capacity}개까지 buffer에 적재해 두는
+	 * 스트림을 생성한다.
+	 * <p>
+	 * {@link #prefetch(int, Executor) prefetch(capacity, null)}와 동일하다.
+	 *
+	 * @param capacity	미리 읽어 적재할 최대 데이터 수.
+	 * @return	FStream 객체
+	 */
+	public default FStream<T> prefetch(int capacity) {
+		return prefetch(capacity, null);
+	}
+
+	/**
+	 * 본 스트림을 별도의 쓰레드에서 미리 읽어 최대 {@code capacity}개까지 buffer에 적재해 두는
+	 * 스트림을 생성한다.
+	 * <p>
+	 * 본 스트림의 {@code next()} 호출은 모두 별도의 쓰레드에서 수행되므로, 본 스트림의 데이터 생성
+	 * (예: JDBC cursor나 파일에서 읽기)과 반환된 스트림의 소비 작업이 중첩되어 수행된다.
+	 * 읽은 데이터는 chunk 단위로 소비자 쓰레드에 전달된다.
+	 * 본 스트림에서 예외가 발생하면 이미 읽은 데이터들이 모두 반환된 후 해당 예외가 발생된다.
+	 * 반환된 스트림을 닫으면 본 스트림도 닫힌다.
+	 *
+	 * @param capacity	미리 읽어 적재할 최대 데이터 수.
+	 * @param executor	본 스트림을 읽는 작업을 수행할 쓰레드 풀 객체.
+	 * 					{@code null}인 경우는 별도의 쓰레드 풀을 사용하지 않고,
+	 * 					전용 daemon {@link Thread}를 새로 생성하여 수행한다.
+	 * @return	FStream 객체
+	 */
+	public default FStream<T> prefetch(int capacity, @Nullable Executor executor) {
+		return new PrefetchedFStream<>(this, capacity, executor);
+	}
+
 	/**
 	 * {@code inputStreamFact}가 반환하는 {@link FStream}들에서 생성하는 데이터들이 합쳐진
 	 * 데이터로 구성된 스트림을 반환한다.
@@ -1165,6 +1354,54 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 												int workerCount, @Nullable Executor executor) {
 		return new MergeParallelFStream<>(inputStreamFact, workerCount, executor);
 	}
+
+	/**
+	 * {@code inputStreamFact}가 반환하는 {@link FStream}들에서 생성하는 데이터들이 합쳐진
+	 * 데이터로 구성된 스트림을 반환한다.
+	 * <p>
+	 * 작업 쓰레드 수와 쓰레드 풀, 결과 전달 채널의 종류는 {@code options}의
+	 * {@link AsyncExecutionOptions#getWorkerCount()}, {@link AsyncExecutionOptions#getExecutor()},
+	 * {@link AsyncExecutionOptions#getLockFreeChannel()}에 의해 결정된다.
+	 *
+	 * @param <T>	스트림의 원소 타입
+	 * @param inputStreamFact	입력 스트림의 스트림 객체.
+	 * @param options		비동기 실행 옵션.
+	 * @return	{@code FStream} 객체.
+	 * @see #mergeParallel(FStream, int, Executor)
+	 */
+	public static <T> FStream<T> mergeParallel(FStream<? extends FStream<? extends T>> inputStreamFact,
+												AsyncExecutionOptions options) {
+		Preconditions.checkNotNullArgument(options, "AsyncExecutionOptions is null");
+
+		return new MergeParallelFStream<>(inputStreamFact, options);
+	}
+
+	/**
+	 * {@code inputStreamFact}가 반환하는 {@link FStream}들에서 생성하는 데이터들이 합쳐진
+	 * 데이터로 구성된 스트림을 반환한다.
+	 * <p>
+	 * {@link #mergeParallel(FStream, int, Executor)}와 달리 각 쓰레드는 입력 스트림에서 읽은 데이터를
+	 * {@code batchSize}개 단위로 모아 출력 스트림으로 전달하므로, 많은 수의 파일이나 partition을 병합하는
+	 * 경우 쓰레드 수에 따라 처리량이 증가한다. 또한 입력 스트림이 {@link SplittableFStream}인 경우에는
+	 * 할 일이 없는 쓰레드가 생길 때 남은 데이터 일부를 분리하여 해당 쓰레드에 넘겨주므로 입력 스트림들의
+	 * 크기가 고르지 않더라도 모든 쓰레드가 계속 작업한다.
+	 * <p>
+	 * 출력 스트림에는 여러 입력 스트림에서 생성된 데이터가 섞일 수 있다.
+	 * 
+	 * @param <T>	스트림의 원소 타입
+	 * @param inputStreamFact	입력 스트림의 스트림 객체.
+	 * @param workerCount	스트림 merge 작업을 수행하는 쓰레드의 갯수.
+	 * @param batchSize		한번에 출력 스트림으로 전달할 데이터의 수.
+	 * @param executor		쓰레드 풀 객체.
+	 * 						{@code null}인 경우는 별도의 쓰레드 풀을 사용하지 않고,
+	 * 						각 작업마다 {@link Thread}를 새로 생성하여 수행한다.
+	 * @return	{@code FStream} 객체.
+	 * @see SplittableFStream
+	 */
+	public static <T> FStream<T> mergePartitioned(FStream<? extends FStream<? extends T>> inputStreamFact,
+												int workerCount, int batchSize, @Nullable Executor executor) {
+		return new PartitionedMergeFStream<>(inputStreamFact, workerCount, batchSize, executor);
+	}
 	
 	/**
 	 * 스트림의 각 원소를 좌측 누적으로 결합하며 <b>중간 누적값을 모두 노출</b>하는 스트림을 생성한다.
@@ -1258,9 +1495,14 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		Preconditions.checkNotNullArgument(folder, "folder is null");
 
 		try {
-			FOption<T> next;
-			while ( (next = next()).isPresent() ) {
-				accum = folder.apply(accum, next.getUnchecked());
+			Object[] buf = new Object[FStreams.BATCH_SIZE];
+			int count;
+			while ( (count = nextBatch(buf)) > 0 ) {
+				for ( int i =0; i < count; ++i ) {
+					@SuppressWarnings("unchecked")
+					T next = (T)buf[i];
+					accum = folder.apply(accum, next);
+				}
 			}
 
 			return accum;
@@ -1324,9 +1566,14 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		Preconditions.checkNotNullArgument(collect, "collect is null");
 
 		try {
-			FOption<T> next;
-			while ( (next = next()).isPresent() ) {
-				collect.accept(accum, next.get());
+			Object[] buf = new Object[FStreams.BATCH_SIZE];
+			int count;
+			while ( (count = nextBatch(buf)) > 0 ) {
+				for ( int i =0; i < count; ++i ) {
+					@SuppressWarnings("unchecked")
+					T next = (T)buf[i];
+					collect.accept(accum, next);
+				}
 			}
 
 			return accum;
@@ -1418,6 +1665,71 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 						});
 	}
 
+	/**
+	 * 각 원소에서 추출한 {@code long} 키를 기준으로 원소들을 집계하는 {@link LongGroupBy}를 생성한다.
+	 * <p>
+	 * {@link #reduceByKey}, {@link #foldByKey}와 달리 키와 누적값을 box하지 않는 open-addressing
+	 * map에 누적하므로, 정수 id 등으로 대량의 원소를 집계하는 경우 GC 부담이 적다.
+	 * <pre>{@code
+	 * LongDoubleMap sums = strm.groupByLong(Order::getCustomerId).sumDouble(Order::getAmount);
+	 * }</pre>
+	 *
+	 * @param keyer	원소에서 키를 추출하는 함수.
+	 * @return	{@link LongGroupBy} 객체.
+	 */
+	public default LongGroupBy<T> groupByLong(ToLongFunction<? super T> keyer) {
+		return new LongGroupBy<>(this, keyer, 0);
+	}
+
+	/**
+	 * 각 원소에서 추출한 {@code int} 키를 기준으로 원소들을 집계하는 {@link LongGroupBy}를 생성한다.
+	 * 집계 결과의 키는 {@code long}으로 확장되어 저장된다.
+	 *
+	 * @param keyer	원소에서 키를 추출하는 함수.
+	 * @return	{@link LongGroupBy} 객체.
+	 * @see #groupByLong(ToLongFunction)
+	 */
+	public default LongGroupBy<T> groupByInt(ToIntFunction<? super T> keyer) {
+		Preconditions.checkNotNullArgument(keyer, "keyer is null");
+
+		return new LongGroupBy<>(this, keyer::applyAsInt, 0);
+	}
+
+	/**
+	 * 원소들을 도착 시각(processing-time) 기준의 시간 window 별로 집계하는 {@link WindowBuilder}를 생성한다.
+	 * <p>
+	 * 본 스트림이 {@link TimedFStream}인 경우에는 원소가 도착하지 않더라도 window의 종료 시각이 되면
+	 * 해당 window의 결과가 반환된다. 그렇지 않은 경우에는 다음 원소가 도착하거나 스트림이 종료될 때
+	 * 종료된 window들의 결과가 반환된다.
+	 *
+	 * @param spec	window 정의.
+	 * @return	{@link WindowBuilder} 객체.
+	 */
+	public default WindowBuilder<T> window(WindowSpec spec) {
+		return new WindowBuilder<>(this, spec, null);
+	}
+
+	/**
+	 * 원소들을 {@code timestamper}가 반환하는 시각(event-time) 기준의 시간 window 별로 집계하는
+	 * {@link WindowBuilder}를 생성한다.
+	 * <p>
+	 * 지금까지 관측된 가장 늦은 시각을 현재 시각으로 간주하여 종료된 window의 결과를 반환하며,
+	 * 이미 결과가 반환된 window에 속하는 늦게 도착한 원소는 무시된다.
+	 * <pre>{@code
+	 * FStream<TimeWindow<Long>> counts = strm.window(WindowSpec.sliding(ofMinutes(5), ofMinutes(1)), Event::getTime)
+	 *                                         .count();
+	 * }</pre>
+	 *
+	 * @param spec			window 정의.
+	 * @param timestamper	원소의 시각(milli-seconds)을 추출하는 함수.
+	 * @return	{@link WindowBuilder} 객체.
+	 */
+	public default WindowBuilder<T> window(WindowSpec spec, ToLongFunction<? super T> timestamper) {
+		Preconditions.checkNotNullArgument(timestamper, "timestamper is null");
+
+		return new WindowBuilder<>(this, spec, timestamper);
+	}
+
 	/**
 	 * 스트림에 포함된 데이터 중에서 마지막 {@code count}개의 원소로 구성된 리스트를 반환된다.
 	 * 
@@ -1456,9 +1768,14 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		Preconditions.checkNotNullArgument(effect, "effect is null");
 		
 		try {
-			FOption<T> next;
-			while ( (next = next()).isPresent() ) {
-				effect.accept(next.get());
+			Object[] buf = new Object[FStreams.BATCH_SIZE];
+			int count;
+			while ( (count = nextBatch(buf)) > 0 ) {
+				for ( int i =0; i < count; ++i ) {
+					@SuppressWarnings("unchecked")
+					T next = (T)buf[i];
+					effect.accept(next);
+				}
 			}
 		}
 		finally {
@@ -1522,9 +1839,11 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 */
 	public default long count() {
 		try {
+			Object[] buf = new Object[FStreams.BATCH_SIZE];
 			long count = 0;
-			while ( next().isPresent() ) {
-				++count;
+			int nread;
+			while ( (nread = nextBatch(buf)) > 0 ) {
+				count += nread;
 			}
 			
 			return count;
@@ -1717,7 +2036,26 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 * @return	본 스트림의 원소들로 구성된 {@link Stream} 객체.
 	 */
 	public default Stream<T> stream() {
-		return Utilities.stream(iterator()).onClose(this::closeQuietly);
+		return StreamSupport.stream(spliterator(), false).onClose(this::closeQuietly);
+	}
+	
+	/**
+	 * 본 스트림의 원소들을 순환하는 {@link Spliterator}를 반환한다.
+	 * <p>
+	 * 배열, {@link RandomAccess} 리스트, 정수 구간 등을 원천으로 하는 스트림은 남은 원소들에 대해
+	 * {@link Spliterator#SIZED}, {@link Spliterator#SUBSIZED}, {@link Spliterator#ORDERED}
+	 * 특성을 갖고 균등하게 분할되는 {@link Spliterator}를 반환하므로, {@link #stream()}을 통해
+	 * 얻은 {@link Stream}을 병렬로 수행하는 경우 효과적으로 분할된다.
+	 * 그 외의 스트림은 원소들을 점차 커지는 크기의 배열로 읽어 분할하는 크기 미상의
+	 * {@link Spliterator}를 반환한다.
+	 * <p>
+	 * 반환된 {@link Spliterator}는 본 스트림의 남은 원소들을 소비한다.
+	 *
+	 * @return	{@link Spliterator} 객체.
+	 */
+	@Override
+	public default Spliterator<T> spliterator() {
+		return new FStreamSpliterator<>(this);
 	}
 	
 	
@@ -1798,7 +2136,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	public default FStream<T> peek(Consumer<? super T> effect) {
 		Preconditions.checkNotNullArgument(effect, "effect is null");
 
-		return new PeekedStream<>(this, effect);
+		return FusedStream.peek(this, effect);
 	}
 
 	/**
@@ -1905,7 +2243,7 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 * @return	{@link IntFStream} 객체.
 	 */
 	public default IntFStream toIntFStream() {
-		return new IntFStream.FStreamAdaptor(this.cast(Integer.class));
+		return IntFStream.downcast(this.cast(Integer.class));
 	}
 	
 	/**
@@ -1995,8 +2333,8 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 	 * 본 스트림의 원소들을 주어진 비교자 기준으로 정렬한 스트림을 생성한다.
 	 * <p>
 	 * 본 메소드는 모든 원소를 메모리에 적재하여 정렬하므로 무한 스트림이나 매우 큰 스트림에는
-	 * 사용할 수 없다. 메모리 사용을 제한하면서 근사 정렬이 필요하면 {@link #quasiSort(int, Comparator)}를
-	 * 사용한다.
+	 * 사용할 수 없다. 메모리보다 큰 스트림은 {@link #sort(Comparator, SortOptions)}를, 메모리 사용을
+	 * 제한하면서 근사 정렬이 필요하면 {@link #quasiSort(int, Comparator)}를 사용한다.
 	 *
 	 * @param cmp	비교자.
 	 * @return	정렬된 스트림.
@@ -2007,6 +2345,23 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 		return from(list);
 	}
 
+	/**
+	 * 본 스트림의 원소들을 주어진 비교자 기준으로 외부 정렬(external merge sort)한 스트림을 생성한다.
+	 * <p>
+	 * 원소들은 최대 {@link SortOptions#getMaxInMemory()}개씩 메모리에서 정렬되어
+	 * {@link SortOptions#getCodec()}을 통해 {@link SortOptions#getTempDir()}의 임시 파일(run)로 기록되고,
+	 * 반환된 스트림에서 원소를 읽을 때 모든 run들이 k-way 병합된다.
+	 * 비교 결과가 같은 원소들은 본 스트림에서의 순서를 유지한다.
+	 * 생성된 임시 파일들은 반환된 스트림이 close될 때 삭제된다.
+	 *
+	 * @param cmp	비교자.
+	 * @param opts	외부 정렬 설정.
+	 * @return	정렬된 스트림.
+	 */
+	public default FStream<T> sort(Comparator<? super T> cmp, SortOptions opts) {
+		return new ExternalSortedFStream<>(this, cmp, opts);
+	}
+
 	/**
 	 * 각 원소에서 추출한 키의 자연 순서로 정렬한 스트림을 생성한다.
 	 *
@@ -2588,11 +2943,13 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 
 	/**
 	 * 각 원소를 int 값으로 매핑한 primitive 스트림을 생성한다.
+	 * <p>
+	 * 매핑 결과는 boxing되지 않고 primitive 값으로 바로 전달된다.
 	 *
-	 * @param mapper 원소를 {@link Integer}로 변환하는 함수.
+	 * @param mapper 원소를 {@code int}로 변환하는 함수.
 	 * @return {@link IntFStream} 객체.
 	 */
-	public default IntFStream mapToInt(Function<? super T, Integer> mapper) {
+	public default IntFStream mapToInt(ToIntFunction<? super T> mapper) {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
 
 		return new MapToIntStream<>(this, mapper);
@@ -2600,11 +2957,13 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 
 	/**
 	 * 각 원소를 long 값으로 매핑한 primitive 스트림을 생성한다.
+	 * <p>
+	 * 매핑 결과는 boxing되지 않고 primitive 값으로 바로 전달된다.
 	 *
-	 * @param mapper 원소를 {@link Long}으로 변환하는 함수.
+	 * @param mapper 원소를 {@code long}으로 변환하는 함수.
 	 * @return {@link LongFStream} 객체.
 	 */
-	public default LongFStream mapToLong(Function<? super T, Long> mapper) {
+	public default LongFStream mapToLong(ToLongFunction<? super T> mapper) {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
 
 		return new MapToLongStream<>(this, mapper);
@@ -2624,11 +2983,13 @@ public interface FStream<T> extends Iterable<T>, AutoCloseable {
 
 	/**
 	 * 각 원소를 double 값으로 매핑한 primitive 스트림을 생성한다.
+	 * <p>
+	 * 매핑 결과는 boxing되지 않고 primitive 값으로 바로 전달된다.
 	 *
-	 * @param mapper 원소를 {@link Double}로 변환하는 함수.
+	 * @param mapper 원소를 {@code double}로 변환하는 함수.
 	 * @return {@link DoubleFStream} 객체.
 	 */
-	public default DoubleFStream mapToDouble(Function<? super T, Double> mapper) {
+	public default DoubleFStream mapToDouble(ToDoubleFunction<? super T> mapper) {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
 
 		return new MapToDoubleStream<>(this, mapper);
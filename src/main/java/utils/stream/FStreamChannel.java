@@ -0,0 +1,58 @@
+package utils.stream;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import utils.Suppliable;
+import utils.func.FOption;
+
+
+/**
+ * 생산자가 {@link Suppliable} 인터페이스로 데이터를 push하고, 소비자가 {@link TimedFStream}
+ * 인터페이스로 pull 소비하는 bounded 채널.
+ * <p>
+ * 비동기 스트림 연산자들({@link FStream#mapAsync}, {@link FStream#mergeParallel} 등)이 워커 쓰레드의
+ * 결과를 소비자 쓰레드로 전달하는데 사용한다. 구현체로는 lock 기반의 {@link SuppliableFStream}과
+ * lock-free ring buffer 기반의 {@link RingBufferFStream}이 있으며,
+ * {@link AsyncExecutionOptions#setLockFreeChannel(boolean)}으로 선택할 수 있다.
+ * <p>
+ * 종료 규약은 {@link SuppliableFStream}과 동일하다.
+ * <ul>
+ *   <li>{@link #endOfSupply()}/{@link #endOfSupply(Throwable)}: 이미 적재된 데이터는 모두 소비 가능하며,
+ *       에러로 종료된 경우는 잔여 데이터 소비 후 에러가 RuntimeException으로 래핑되어 던져진다.</li>
+ *   <li>{@link #close()}: 미소비 데이터를 모두 폐기하며, 이후 {@code supply}는
+ *       {@link IllegalStateException}을 발생시킨다.</li>
+ * </ul>
+ *
+ * @param <T>	채널 원소 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+public interface FStreamChannel<T> extends TimedFStream<T>, Suppliable<T> {
+	/**
+	 * 채널의 capacity를 반환한다.
+	 *
+	 * @return	채널 capacity.
+	 */
+	public int capacity();
+
+	/**
+	 * 대기 없이 채널의 다음 원소를 반환한다.
+	 *
+	 * @return	다음 원소. 채널이 빈 경우는 {@link FOption#empty()}.
+	 */
+	public FOption<T> poll();
+
+	/**
+	 * 소비자 측에서 {@link #close()}가 호출되어 채널이 종료되었는지 여부를 반환한다.
+	 *
+	 * @return	소비자 측이 close된 경우 {@code true}, 그렇지 않은 경우 {@code false}.
+	 */
+	public boolean isClosed();
+
+	@Override
+	public void supply(T data) throws IllegalStateException, InterruptedException;
+
+	@Override
+	public void supply(T data, long timeout, TimeUnit tu) throws IllegalStateException, InterruptedException,
+																TimeoutException;
+}
@@ -0,0 +1,117 @@
+package utils.stream;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import utils.Preconditions;
+import utils.func.FOption;
+
+
+/**
+ * 임의의 {@link FStream}을 위한 {@link Spliterator}.
+ * <p>
+ * 원천 스트림의 끝에 도달하면 원천 스트림을 close시킨다.
+ * <p>
+ * 스트림의 크기를 알 수 없으므로 {@link #trySplit()}이 호출될 때마다 원천 스트림에서
+ * {@link FStream#nextBatch(Object[])}를 통해 점차 커지는 크기의 원소들을 배열로 읽어
+ * 분할된 {@link Spliterator}로 반환한다. ({@link Spliterators#spliteratorUnknownSize}와
+ * 동일한 전략이나, {@link FStream#iterator()}를 거치지 않는다.)
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class FStreamSpliterator<T> implements Spliterator<T> {
+	private static final int BATCH_UNIT = FStreams.BATCH_SIZE;
+	private static final int MAX_BATCH = 1 << 25;
+
+	private final FStream<T> m_strm;
+	private int m_batchSize = 0;
+	private boolean m_eos = false;
+
+	FStreamSpliterator(FStream<T> strm) {
+		Preconditions.checkNotNullArgument(strm, "FStream is null");
+
+		m_strm = strm;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if ( m_eos ) {
+			return false;
+		}
+
+		FOption<T> next = m_strm.next();
+		if ( next.isPresent() ) {
+			action.accept(next.getUnchecked());
+			return true;
+		}
+		else {
+			markEndOfStream();
+			return false;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		if ( m_eos ) {
+			return;
+		}
+
+		Object[] buf = new Object[BATCH_UNIT];
+		int count;
+		while ( (count = m_strm.nextBatch(buf)) > 0 ) {
+			for ( int i =0; i < count; ++i ) {
+				action.accept((T)buf[i]);
+			}
+		}
+		markEndOfStream();
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		if ( m_eos ) {
+			return null;
+		}
+
+		// 원천 스트림이 한번에 반환하는 원소 수에 따라 목표 크기를 약간 넘을 수 있다.
+		int batchSize = Math.min(m_batchSize + BATCH_UNIT, MAX_BATCH);
+		Object[] chunk = new Object[Math.min(BATCH_UNIT, batchSize)];
+		Object[] buf = new Object[batchSize];
+		int count = 0;
+		while ( count < batchSize ) {
+			int nread = m_strm.nextBatch(chunk);
+			if ( nread == 0 ) {
+				markEndOfStream();
+				break;
+			}
+			if ( count + nread > buf.length ) {
+				buf = Arrays.copyOf(buf, count + nread);
+			}
+			System.arraycopy(chunk, 0, buf, count, nread);
+			count += nread;
+		}
+		if ( count == 0 ) {
+			return null;
+		}
+		m_batchSize = batchSize;
+
+		return Spliterators.spliterator(buf, 0, count, ORDERED);
+	}
+
+	@Override
+	public long estimateSize() {
+		return m_eos ? 0 : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED;
+	}
+	
+	private void markEndOfStream() {
+		m_eos = true;
+		m_strm.closeQuietly();
+	}
+}
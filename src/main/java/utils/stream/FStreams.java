@@ -1,13 +1,17 @@
 package utils.stream;
 
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -31,6 +35,9 @@ import utils.io.IOUtils;
  * @author Kang-Woo Lee (ETRI)
  */
 public class FStreams {
+	/** 종결 연산 등에서 {@link FStream#nextBatch(Object[])} 호출시 사용하는 기본 버퍼 크기. */
+	static final int BATCH_SIZE = 1024;
+	
 	@SuppressWarnings("rawtypes")
 	static final EmptyStream EMPTY = new EmptyStream<>();
 	
@@ -42,6 +49,11 @@ public class FStreams {
 		public FOption<T> next() {
 			return FOption.empty();
 		}
+
+		@Override
+		public int nextBatch(Object[] buf) {
+			return 0;
+		}
 		
 		@Override
 		public String toString() {
@@ -84,6 +96,45 @@ public class FStreams {
 			
 			return nextInGuard().ifAbsent(() -> m_eos = true);
 		}
+
+		@Override
+		public int nextBatch(Object[] buf) {
+			checkNotClosed();
+
+			if ( m_eos ) {
+				return 0;
+			}
+			if ( !m_initialized ) {
+				initialize();
+				m_initialized = true;
+			}
+			
+			int count = nextBatchInGuard(buf);
+			if ( count == 0 ) {
+				m_eos = true;
+			}
+			return count;
+		}
+		
+		/**
+		 * 다음 원소들을 주어진 버퍼에 채운다.
+		 * <p>
+		 * 기본 구현은 {@link #nextInGuard()}를 한번 호출한 결과를 사용한다.
+		 * 한번에 여러 원소를 효율적으로 생성할 수 있는 경우 재정의한다.
+		 * 
+		 * @param buf	원소를 저장할 버퍼.
+		 * @return	채워진 원소의 수. 스트림 끝인 경우는 {@code 0}.
+		 */
+		protected int nextBatchInGuard(Object[] buf) {
+			FOption<T> next = nextInGuard();
+			if ( next.isPresent() ) {
+				buf[0] = next.getUnchecked();
+				return 1;
+			}
+			else {
+				return 0;
+			}
+		}
 		
 		public boolean isClosed() {
 			return m_closed;
@@ -114,15 +165,164 @@ public class FStreams {
 		}
 	}
 	
+	/**
+	 * {@link RandomAccess} 리스트를 원천으로 하는 스트림.
+	 * <p>
+	 * {@link #spliterator()}는 아직 소비되지 않은 구간에 대해 {@link Spliterator#SIZED},
+	 * {@link Spliterator#SUBSIZED}, {@link Spliterator#ORDERED} 특성을 갖고 균등하게 분할되는
+	 * {@link Spliterator}를 반환한다.
+	 */
+	static class ListStream<T> extends AbstractFStream<T> {
+		private final List<? extends T> m_list;
+		private int m_idx = 0;
+		
+		ListStream(List<? extends T> list) {
+			Preconditions.checkNotNullArgument(list, "list is null");
+			
+			m_list = list;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception { }
+
+		@Override
+		protected FOption<T> nextInGuard() {
+			return (m_idx < m_list.size()) ? FOption.of(m_list.get(m_idx++)) : FOption.empty();
+		}
+
+		@Override
+		protected int nextBatchInGuard(Object[] buf) {
+			int count = Math.min(buf.length, m_list.size() - m_idx);
+			for ( int i =0; i < count; ++i ) {
+				buf[i] = m_list.get(m_idx++);
+			}
+			return count;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Spliterator<T> spliterator() {
+			checkNotClosed();
+			
+			// 반환된 spliterator가 남은 원소들을 소비하는 것으로 간주한다.
+			int size = m_list.size();
+			List<T> remains = (List<T>)((m_idx == 0) ? m_list : m_list.subList(m_idx, size));
+			m_idx = size;
+			
+			return remains.spliterator();
+		}
+	}
+	
+	/**
+	 * {@link Stream}을 원천으로 하는 스트림.
+	 * <p>
+	 * 원소를 읽기 전에 {@link #spliterator()}가 호출되면 원천 {@link Stream}의 spliterator를 그대로
+	 * 반환하여, 원천 스트림의 분할 특성이 유지되도록 한다.
+	 */
+	static class StreamAdaptor<T> extends AbstractFStream<T> {
+		private final Stream<? extends T> m_stream;
+		private final Spliterator<? extends T> m_spliterator;
+		private @Nullable T m_next;
+		
+		StreamAdaptor(Stream<? extends T> stream) {
+			Preconditions.checkNotNullArgument(stream, "Stream is null");
+			
+			m_stream = stream;
+			m_spliterator = stream.spliterator();
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_stream.close();
+		}
+
+		@Override
+		protected FOption<T> nextInGuard() {
+			if ( m_spliterator.tryAdvance(v -> m_next = v) ) {
+				T next = m_next;
+				m_next = null;
+				return FOption.of(next);
+			}
+			else {
+				return FOption.empty();
+			}
+		}
+
+		@Override
+		protected int nextBatchInGuard(Object[] buf) {
+			// 크기가 정해진 stream만 일괄 전달한다. Stream.generate()나 I/O 기반 stream처럼
+			// 크기를 알 수 없는 경우는 다음 원소를 얻기 위해 대기할 수 있으므로 원소 단위로 전달한다.
+			if ( !m_spliterator.hasCharacteristics(Spliterator.SIZED) ) {
+				return super.nextBatchInGuard(buf);
+			}
+
+			int count = 0;
+			while ( count < buf.length && m_spliterator.tryAdvance(v -> m_next = v) ) {
+				buf[count++] = m_next;
+			}
+			m_next = null;
+			
+			return count;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Spliterator<T> spliterator() {
+			checkNotClosed();
+			
+			return (Spliterator<T>)m_spliterator;
+		}
+	}
+	
 	static abstract class SingleSourceStream<S,T> extends AbstractFStream<T> {
 		private final FStream<S> m_src;
+		/** 원소를 읽어올 스트림. 일괄 처리 중 실패로 남은 원소가 있으면 이들이 앞에 붙는다. */
+		private FStream<S> m_input;
+		/** 일괄 처리 중 발생하여 다음 호출시 발생시킬 예외. */
+		private @Nullable Throwable m_deferred = null;
 		
 		abstract protected FOption<T> getNext(FStream<S> src);
 		
+		/**
+		 * 원천 스트림에서 읽은 데이터를 변환하여 주어진 버퍼에 채운다.
+		 * <p>
+		 * 기본 구현은 {@link #getNext(FStream)}를 한번 호출한 결과를 사용한다.
+		 * 
+		 * @param src	원천 스트림.
+		 * @param buf	원소를 저장할 버퍼.
+		 * @return	채워진 원소의 수. 스트림 끝인 경우는 {@code 0}.
+		 */
+		protected int getNextBatch(FStream<S> src, Object[] buf) {
+			FOption<T> next = getNext(src);
+			if ( next.isPresent() ) {
+				buf[0] = next.getUnchecked();
+				return 1;
+			}
+			else {
+				return 0;
+			}
+		}
+		
 		protected SingleSourceStream(FStream<S> src) {
 			Preconditions.checkNotNullArgument(src, "source FStream");
 			
 			m_src = src;
+			m_input = src;
+		}
+		
+		FStream<S> getSource() {
+			return m_input;
+		}
+		
+		/**
+		 * 본 스트림의 연산들을 다른 스트림으로 옮겨 합칠 수 있는지 여부를 반환한다.
+		 * <p>
+		 * 스트림이 닫혔거나 일괄 처리 중 발생한 예외가 아직 전달되지 않은 경우는 합칠 수 없다.
+		 * 
+		 * @return	합칠 수 있는 경우는 {@code true}.
+		 */
+		boolean isFusible() {
+			return !isClosed() && m_deferred == null;
 		}
 		
 		@Override
@@ -132,7 +332,101 @@ public class FStreams {
 		
 		@Override
 		protected final FOption<T> nextInGuard() {
-			return getNext(m_src);
+			throwDeferred();
+			return getNext(m_input);
+		}
+		
+		@Override
+		protected final int nextBatchInGuard(Object[] buf) {
+			throwDeferred();
+			return getNextBatch(m_input, buf);
+		}
+		
+		/**
+		 * {@link #getNextBatch(FStream, Object[])} 수행 중 {@code buf[failed]} 원소의 처리에서
+		 * 예외가 발생한 경우를 처리한다.
+		 * <p>
+		 * 이미 처리된 원소가 있으면 ({@code count > 0}) 이들을 먼저 전달하고 예외는 다음 호출에서
+		 * 발생시킨다. 그렇지 않으면 예외를 바로 발생시킨다. 어느 경우든 버퍼에 읽혀졌지만 아직 처리되지
+		 * 않은 {@code buf[failed+1 .. nread)} 원소들은 이후 호출에서 원천 스트림의 원소보다 먼저 처리된다.
+		 * 이를 통해 원소 단위로 읽는 경우와 동일한 순서로 결과와 예외가 전달된다.
+		 * 
+		 * @param cause		발생된 예외.
+		 * @param buf		원천 스트림에서 읽은 원소들이 저장된 버퍼.
+		 * @param failed	예외가 발생한 원소의 위치.
+		 * @param nread		원천 스트림에서 읽은 원소의 수.
+		 * @param count		이미 처리되어 버퍼 앞 부분에 저장된 결과 원소의 수.
+		 * @return	{@code count}.
+		 */
+		protected final int deferFailure(Throwable cause, Object[] buf, int failed, int nread, int count) {
+			if ( failed+1 < nread ) {
+				m_input = new PushbackStream<>(Arrays.copyOfRange(buf, failed+1, nread), m_input);
+			}
+			if ( count > 0 ) {
+				m_deferred = cause;
+				return count;
+			}
+			
+			Throwables.sneakyThrow(cause);
+			throw new AssertionError();
+		}
+		
+		private void throwDeferred() {
+			if ( m_deferred != null ) {
+				Throwable cause = m_deferred;
+				m_deferred = null;
+				
+				Throwables.sneakyThrow(cause);
+			}
+		}
+	}
+	
+	/**
+	 * 원천 스트림 앞에 이미 읽혀진 원소들을 되돌려 놓은 스트림.
+	 * <p>
+	 * 원천 스트림의 close는 원래 소유자가 담당하므로 본 스트림의 {@link #close()}는 아무 일도 하지 않는다.
+	 */
+	private static final class PushbackStream<T> implements FStream<T> {
+		private final Object[] m_pushbacks;
+		private final FStream<T> m_src;
+		private int m_idx = 0;
+		
+		PushbackStream(Object[] pushbacks, FStream<T> src) {
+			m_pushbacks = pushbacks;
+			m_src = src;
+		}
+
+		@Override
+		public void close() throws Exception { }
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public FOption<T> next() {
+			return (m_idx < m_pushbacks.length) ? FOption.of((T)m_pushbacks[m_idx++]) : m_src.next();
+		}
+
+		@Override
+		public int nextBatch(Object[] buf) {
+			if ( m_idx < m_pushbacks.length ) {
+				int count = Math.min(buf.length, m_pushbacks.length - m_idx);
+				System.arraycopy(m_pushbacks, m_idx, buf, 0, count);
+				m_idx += count;
+				
+				return count;
+			}
+			else {
+				return m_src.nextBatch(buf);
+			}
+		}
+		
+		@Override
+		public String explain() {
+			return m_src.explain();
+		}
+		
+		@Override
+		public String toString() {
+			return m_src.toString();
 		}
 	}
 	
@@ -163,6 +457,22 @@ public class FStreams {
 			
 			return FOption.empty();
 		}
+
+		@Override
+		protected int getNextBatch(FStream<T> src, Object[] buf) {
+			int count = src.nextBatch(buf);
+			for ( int i =0; i < count; ++i ) {
+				try {
+					@SuppressWarnings("unchecked")
+					T next = (T)buf[i];
+					buf[i] = m_mapper.apply(next);
+				}
+				catch ( Throwable e ) {
+					return deferFailure(e, buf, i, count, i);
+				}
+			}
+			return count;
+		}
 	}
 	
 	static class MappedStream<S,T> extends SingleSourceStream<S,T> {
@@ -179,17 +489,217 @@ public class FStreams {
 		protected FOption<T> getNext(FStream<S> src) {
 			return src.next().map(m_mapper);
 		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		protected int getNextBatch(FStream<S> src, Object[] buf) {
+			int count = src.nextBatch(buf);
+			for ( int i =0; i < count; ++i ) {
+				try {
+					buf[i] = m_mapper.apply((S)buf[i]);
+				}
+				catch ( Throwable e ) {
+					return deferFailure(e, buf, i, count, i);
+				}
+			}
+			return count;
+		}
 	}
 	
-	static class MapToIntStream<T> extends MappedStream<T,Integer> implements IntFStream {
-		MapToIntStream(FStream<T> base, Function<? super T,Integer> mapper) {
-			super(base, mapper);
+	/**
+	 * 인접한 상태 없는(stateless) {@code filter}/{@code map}/{@code peek} 연산들을 하나로 합친 스트림.
+	 * <p>
+	 * 각 연산마다 별도의 스트림 객체를 쌓는 대신, 원천 스트림에서 읽은 원소에 대해
+	 * 연산들을 차례대로 적용하는 하나의 단계로 실행된다. 중간 단계마다 발생하던
+	 * {@link FOption} 생성과 close 여부 검사가 제거된다.
+	 * {@link FStream#filter}, {@link FStream#map}, {@link FStream#peek}에서 본 스트림에
+	 * 연산을 추가하는 경우 새로운 단계를 쌓지 않고 기존 연산 목록에 추가된 스트림이 생성된다.
+	 * <p>
+	 * {@code peek} 연산이 포함된 경우에는 부수효과가 소비자보다 앞서 수행되지 않도록
+	 * {@link FStream#nextBatch(Object[])} 호출시에도 원소를 하나씩 전달한다.
+	 */
+	static final class FusedStream<S,T> extends SingleSourceStream<S,T> {
+		private final FusedOp[] m_ops;
+		private final boolean m_hasEffect;
+		
+		private FusedStream(FStream<S> src, FusedOp[] ops) {
+			super(src);
+			
+			m_ops = ops;
+			m_hasEffect = FusedOp.hasEffect(ops);
+		}
+		
+		static <S,T> FusedStream<S,T> filter(FStream<S> src, Predicate<? super S> pred) {
+			return append(src, FusedOp.filter(pred));
+		}
+		
+		static <S,T> FusedStream<S,T> map(FStream<S> src, Function<? super S,? extends T> mapper) {
+			return append(src, FusedOp.map(mapper));
+		}
+		
+		static <S,T> FusedStream<S,T> peek(FStream<S> src, Consumer<? super S> effect) {
+			return append(src, FusedOp.peek(effect));
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private static <S,T> FusedStream<S,T> append(FStream<?> src, FusedOp op) {
+			if ( src instanceof FusedStream fused && fused.isFusible() ) {
+				return new FusedStream<>(fused.getSource(), FusedOp.append(fused.m_ops, op));
+			}
+			else {
+				return new FusedStream<>((FStream<S>)src, new FusedOp[] { op });
+			}
+		}
+		
+		/**
+		 * 합쳐진 연산의 수를 반환한다.
+		 * 
+		 * @return	연산 수.
+		 */
+		int getStageCount() {
+			return m_ops.length;
+		}
+		
+		FusedOp[] getOps() {
+			return m_ops;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		protected FOption<T> getNext(FStream<S> src) {
+			FOption<S> next;
+			while ( (next = src.next()).isPresent() ) {
+				Object v = FusedOp.apply(m_ops, next.getUnchecked());
+				if ( v != FusedOp.SKIP ) {
+					return FOption.of((T)v);
+				}
+			}
+			
+			return FOption.empty();
+		}
+
+		@Override
+		protected int getNextBatch(FStream<S> src, Object[] buf) {
+			if ( m_hasEffect ) {
+				return super.getNextBatch(src, buf);
+			}
+			
+			int nread;
+			while ( (nread = src.nextBatch(buf)) > 0 ) {
+				int count = 0;
+				for ( int i =0; i < nread; ++i ) {
+					Object v;
+					try {
+						v = FusedOp.apply(m_ops, buf[i]);
+					}
+					catch ( Throwable e ) {
+						return deferFailure(e, buf, i, nread, count);
+					}
+					if ( v != FusedOp.SKIP ) {
+						buf[count++] = v;
+					}
+				}
+				if ( count > 0 ) {
+					return count;
+				}
+			}
+			
+			return 0;
+		}
+		
+		@Override
+		public String explain() {
+			return String.format("%s -> %s", getSource().explain(), this);
+		}
+		
+		@Override
+		public String toString() {
+			return FusedOp.toString(m_ops, "fused");
 		}
 	}
 	
-	static class MapToLongStream<T> extends MappedStream<T,Long> implements LongFStream {
-		MapToLongStream(FStream<T> base, Function<? super T,Long> mapper) {
-			super(base, mapper);
+	/**
+	 * {@link FusedStream}과 {@link ParallelFStream}에서 원소 단위로 적용되는 상태 없는 연산.
+	 */
+	static final class FusedOp {
+		/** filter 연산에서 조건을 만족하지 못한 원소를 표시하는 값. */
+		static final Object SKIP = new Object();
+		static final FusedOp[] NONE = new FusedOp[0];
+		
+		private final String m_name;
+		private final Function<Object,Object> m_func;
+		
+		private FusedOp(String name, Function<Object,Object> func) {
+			m_name = name;
+			m_func = func;
+		}
+		
+		/**
+		 * 본 연산이 부수효과를 위한 {@code peek} 연산인지 여부를 반환한다.
+		 * 
+		 * @return	{@code peek} 연산인 경우는 {@code true}.
+		 */
+		boolean isEffect() {
+			return m_name.equals("peek");
+		}
+		
+		@SuppressWarnings("unchecked")
+		static FusedOp filter(Predicate<?> pred) {
+			Preconditions.checkNotNullArgument(pred, "predicate is null");
+			
+			Predicate<Object> test = (Predicate<Object>)pred;
+			return new FusedOp("filter", v -> test.test(v) ? v : SKIP);
+		}
+		
+		@SuppressWarnings("unchecked")
+		static FusedOp map(Function<?,?> mapper) {
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+			
+			return new FusedOp("map", (Function<Object,Object>)mapper);
+		}
+		
+		@SuppressWarnings("unchecked")
+		static FusedOp peek(Consumer<?> effect) {
+			Preconditions.checkNotNullArgument(effect, "effect is null");
+			
+			Consumer<Object> consumer = (Consumer<Object>)effect;
+			return new FusedOp("peek", v -> { consumer.accept(v); return v; });
+		}
+		
+		static boolean hasEffect(FusedOp[] ops) {
+			for ( FusedOp op: ops ) {
+				if ( op.isEffect() ) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		static FusedOp[] append(FusedOp[] ops, FusedOp op) {
+			FusedOp[] appended = Arrays.copyOf(ops, ops.length + 1);
+			appended[ops.length] = op;
+			
+			return appended;
+		}
+		
+		/**
+		 * 주어진 연산들을 차례대로 적용한다.
+		 * 
+		 * @param ops	적용할 연산들.
+		 * @param value	입력 값.
+		 * @return	결과 값. 중간에 filter된 경우는 {@link #SKIP}.
+		 */
+		static Object apply(FusedOp[] ops, Object value) {
+			for ( FusedOp op: ops ) {
+				if ( (value = op.m_func.apply(value)) == SKIP ) {
+					break;
+				}
+			}
+			return value;
+		}
+		
+		static String toString(FusedOp[] ops, String prefix) {
+			return FStream.of(ops).map(op -> op.m_name).join(", ", prefix + "[", "]");
 		}
 	}
 	
@@ -199,12 +709,6 @@ public class FStreams {
 		}
 	}
 	
-	static class MapToDoubleStream<T> extends MappedStream<T,Double> implements DoubleFStream {
-		MapToDoubleStream(FStream<T> base, Function<? super T,Double> mapper) {
-			super(base, mapper);
-		}
-	}
-	
 	static class MapToBooleanStream<T> extends MappedStream<T,Boolean> implements BooleanFStream {
 		MapToBooleanStream(FStream<T> base, Function<? super T,Boolean> mapper) {
 			super(base, mapper);
@@ -378,7 +882,12 @@ public class FStreams {
 		public void close() throws Exception {
 			if ( !m_closed ) {
 				m_closed = true;
-				m_closingTask.run();
+				try {
+					m_base.close();
+				}
+				finally {
+					m_closingTask.run();
+				}
 			}
 		}
 
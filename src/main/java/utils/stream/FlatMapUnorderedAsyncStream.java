@@ -23,7 +23,7 @@ class FlatMapUnorderedAsyncStream<S,T> extends AbstractFStream<T> {
 	
 	private final AsyncExecutionOptions m_options;
 	private final Guard m_guard = Guard.create();
-	private final SuppliableFStream<T> m_outChannel;
+	private final FStreamChannel<T> m_outChannel;
 	@GuardedBy("m_guard")  int m_runningWorkerCount = 0;
 	
 	FlatMapUnorderedAsyncStream(FStream<S> src, Function<? super S, ? extends FStream<T>> mapper,
@@ -33,7 +33,7 @@ class FlatMapUnorderedAsyncStream<S,T> extends AbstractFStream<T> {
 		m_options = options;
 		m_execStream = src.map((S input) -> Executions.supplyAsync(() -> mapper.apply(input),
 																	options.getExecutor()));
-		m_outChannel = new SuppliableFStream<>(options.getWorkerCount());
+		m_outChannel = options.newChannel(options.getWorkerCount());
 	}
 	
 	@Override
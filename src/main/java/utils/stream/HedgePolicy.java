@@ -0,0 +1,99 @@
+package utils.stream;
+
+import java.util.concurrent.TimeUnit;
+
+import utils.Preconditions;
+import utils.thread.LatencyHistogram;
+
+
+/**
+ * 비동기 매핑 함수 호출에 대한 hedged request 정책.
+ * <p>
+ * 매핑 함수 호출이 일정 시간 내에 끝나지 않으면 동일 입력에 대해 매핑 함수를 한번 더 호출하고,
+ * 먼저 정상 종료된 호출의 결과를 사용한다. 나머지 호출은 취소된다. 소수의 느린 원격 호출로 인해
+ * 스트림 전체의 tail latency가 늘어나는 것을 줄이기 위해 사용한다.
+ * <p>
+ * 추가 호출까지의 대기 시간은 고정된 값({@link #after(long, TimeUnit)})이거나, 지금까지 정상 종료된
+ * 호출들의 지연 시간 분포에서 주어진 백분위 값({@link #atPercentile(double, long, TimeUnit)})으로 정한다.
+ * 후자의 경우 지연 시간은 {@link LatencyHistogram}의 구간 상한으로 추정되므로 실제 백분위 값보다 최대
+ * 2배까지 클 수 있다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ * @see AsyncExecutionOptions#setHedgePolicy(HedgePolicy)
+ */
+public final class HedgePolicy {
+	/** 백분위 기반 대기 시간을 사용하기 위해 필요한 최소 관측 수. */
+	private static final int MIN_SAMPLES = 20;
+
+	private final long m_delayMillis;
+	private final double m_percentile;	// 0 이하인 경우는 고정 대기 시간 사용
+	private final int m_maxHedges;
+
+	/**
+	 * 호출 후 {@code delay} 시간이 지나도 끝나지 않으면 추가 호출을 하는 정책을 생성한다.
+	 *
+	 * @param delay	추가 호출까지의 대기 시간.
+	 * @param unit	시간 단위.
+	 * @return	{@link HedgePolicy} 객체.
+	 */
+	public static HedgePolicy after(long delay, TimeUnit unit) {
+		return new HedgePolicy(unit.toMillis(delay), 0, 1);
+	}
+
+	/**
+	 * 관측된 지연 시간의 {@code percentile} 백분위 시간이 지나도 호출이 끝나지 않으면 추가 호출을 하는
+	 * 정책을 생성한다. 관측된 지연 시간이 충분하지 않은 동안은 {@code initialDelay}를 사용한다.
+	 *
+	 * @param percentile	백분위 ({@code 0 < percentile < 100}).
+	 * @param initialDelay	관측이 충분하지 않은 동안 사용할 대기 시간.
+	 * @param unit			시간 단위.
+	 * @return	{@link HedgePolicy} 객체.
+	 */
+	public static HedgePolicy atPercentile(double percentile, long initialDelay, TimeUnit unit) {
+		Preconditions.checkArgument(percentile > 0 && percentile < 100, "invalid percentile: %s", percentile);
+		return new HedgePolicy(unit.toMillis(initialDelay), percentile, 1);
+	}
+
+	private HedgePolicy(long delayMillis, double percentile, int maxHedges) {
+		Preconditions.checkArgument(delayMillis >= 0, "invalid delay: %s", delayMillis);
+		Preconditions.checkArgument(maxHedges >= 1, "invalid maxHedges: %s", maxHedges);
+
+		m_delayMillis = delayMillis;
+		m_percentile = percentile;
+		m_maxHedges = maxHedges;
+	}
+
+	/**
+	 * 원소 하나당 허용되는 최대 추가 호출 수를 설정한 새 정책을 생성한다. (기본값: 1)
+	 *
+	 * @param count	최대 추가 호출 수.
+	 * @return	설정이 반영된 새 {@link HedgePolicy} 객체.
+	 */
+	public HedgePolicy maxHedges(int count) {
+		return new HedgePolicy(m_delayMillis, m_percentile, count);
+	}
+
+	public int getMaxHedges() {
+		return m_maxHedges;
+	}
+
+	/**
+	 * 주어진 지연 시간 분포에 따른 추가 호출까지의 대기 시간을 반환한다.
+	 *
+	 * @param latencies	지금까지 정상 종료된 호출들의 지연 시간 분포.
+	 * @return	대기 시간 (milli-seconds).
+	 */
+	long getDelayMillis(LatencyHistogram latencies) {
+		if ( m_percentile > 0 && latencies.getCount() >= MIN_SAMPLES ) {
+			return latencies.getPercentileMillis(m_percentile);
+		}
+		return m_delayMillis;
+	}
+
+	@Override
+	public String toString() {
+		String delay = (m_percentile > 0) ? String.format("p%.1f(initial=%dms)", m_percentile, m_delayMillis)
+										: String.format("%dms", m_delayMillis);
+		return String.format("hedge[after=%s, max=%d]", delay, m_maxHedges);
+	}
+}
@@ -1,9 +1,9 @@
 package utils.stream;
 
-import java.util.Collections;
-import java.util.Iterator;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -15,52 +15,176 @@ import utils.stream.KeyValueFStreams.AbstractKeyValueFStream;
 
 
 /**
+ * 두 {@link KeyValueFStream}을 키 기준으로 inner join한 스트림.
+ * <p>
+ * build 측 스트림(기본적으로 왼쪽)의 원소들로 hash table을 구성하고, probe 측 스트림의 각 원소에
+ * 대해 같은 키를 갖는 build 측 원소들과의 쌍을 반환한다.
+ * build 측 원소 수가 {@link JoinOptions#getMaxInMemory()}를 넘으면 grace hash join으로 전환되어
+ * 양측 스트림을 키의 hash 값에 따라 파티션 파일로 나누어 기록한 뒤 파티션 단위로 join한다.
+ * 이 경우 결과 원소들의 순서는 정의되지 않는다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 class InnerJoinedFStream<K,TL,TR> extends AbstractKeyValueFStream<K,Tuple<TL,TR>> {
+	/** 파티션이 여전히 메모리 한도를 넘는 경우 재분할을 시도할 최대 단계. */
+	private static final int MAX_PARTITION_LEVEL = 3;
+
 	private final KeyValueFStream<K,TL> m_leftStream;
 	private final KeyValueFStream<K,TR> m_rightStream;
-	private Map<K,List<TL>> m_leftDict;
-	private Iterator<TL> m_leftIter;
-	private K m_key;
-	private TR m_right;
-	
-	InnerJoinedFStream(KeyValueFStream<K,TL> left, KeyValueFStream<K,TR> right) {
+	private final JoinOptions m_opts;
+	private FStream<KeyValue<K,Tuple<TL,TR>>> m_output;
+
+	InnerJoinedFStream(KeyValueFStream<K,TL> left, KeyValueFStream<K,TR> right, JoinOptions opts) {
 		m_leftStream = left;
 		m_rightStream = right;
+		m_opts = opts;
 	}
 
 	@Override
 	protected void initialize() {
-		m_leftDict = Maps.newHashMap();
-		for ( KeyValue<K,TL> left: m_leftStream ) {
-			m_key = left.key();
-			m_leftDict.computeIfAbsent(m_key, k -> Lists.newArrayList()).add(left.value());
+		try {
+			if ( m_opts.isRightBuildSide() ) {
+				m_output = hashJoin(m_rightStream, m_opts.getRightValueCodec(), m_leftStream,
+									m_opts.getLeftValueCodec(), (r,l) -> Tuple.of(l, r));
+			}
+			else {
+				m_output = hashJoin(m_leftStream, m_opts.getLeftValueCodec(), m_rightStream,
+									m_opts.getRightValueCodec(), Tuple::of);
+			}
+		}
+		catch ( IOException e ) {
+			throw new FStreamException("fails to spill join partitions", e);
 		}
-		
-		m_leftIter = Collections.emptyIterator();
 	}
 
 	@Override
-	protected void closeInGuard() throws Exception { }
+	protected void closeInGuard() throws Exception {
+		if ( m_output != null ) {
+			m_output.closeQuietly();
+		}
+		m_leftStream.closeQuietly();
+		m_rightStream.closeQuietly();
+	}
 
 	@Override
 	protected FOption<KeyValue<K,Tuple<TL,TR>>> nextInGuard() {
-		while ( !m_leftIter.hasNext() ) {
-			FOption<KeyValue<K,TR>> onext = m_rightStream.next();
-			if ( onext.isAbsent() ) {
-				return FOption.empty();
+		return m_output.next();
+	}
+
+	private <B,P> FStream<KeyValue<K,Tuple<TL,TR>>>
+	hashJoin(FStream<KeyValue<K,B>> build, SpillCodec<?> buildCodec,
+				FStream<KeyValue<K,P>> probe, SpillCodec<?> probeCodec,
+				BiFunction<B,P,Tuple<TL,TR>> pairer) throws IOException {
+		Map<K,List<B>> dict = Maps.newHashMap();
+		long count = 0;
+
+		FOption<KeyValue<K,B>> next;
+		while ( (next = build.next()).isPresent() ) {
+			KeyValue<K,B> kv = next.getUnchecked();
+			dict.computeIfAbsent(kv.key(), k -> Lists.newArrayList()).add(kv.value());
+
+			if ( ++count > m_opts.getMaxInMemory() ) {
+				// 메모리 한도를 넘었으므로 지금까지 읽은 원소들과 나머지 원소들을 파티션 파일로 내보낸다.
+				KeyHashPartitions<K,B> buildParts = new KeyHashPartitions<>(m_opts, buildCodec, 0,
+																			"fstream_join_");
+				KeyHashPartitions<K,P> probeParts = null;
+				try {
+					buildParts.addAll(dict);
+					dict = null;
+					buildParts.addAll(build);
+
+					probeParts = new KeyHashPartitions<>(m_opts, probeCodec, 0, "fstream_join_");
+					probeParts.addAll(probe);
+				}
+				catch ( IOException | RuntimeException e ) {
+					buildParts.delete();
+					if ( probeParts != null ) {
+						probeParts.delete();
+					}
+					throw e;
+				}
+
+				return joinPartitions(buildParts, probeParts, buildCodec, probeCodec, 1, pairer);
+			}
+		}
+		build.closeQuietly();
+
+		return probe(dict, probe, pairer);
+	}
+
+	private <B,P> FStream<KeyValue<K,Tuple<TL,TR>>>
+	probe(Map<K,List<B>> dict, FStream<KeyValue<K,P>> probe, BiFunction<B,P,Tuple<TL,TR>> pairer) {
+		return probe.flatMap(kv -> {
+			List<B> matches = dict.get(kv.key());
+			if ( matches == null ) {
+				return FStream.empty();
 			}
+			return FStream.from(matches).map(b -> KeyValue.of(kv.key(), pairer.apply(b, kv.value())));
+		});
+	}
 
-			m_key = onext.get().key();
-			m_right = onext.get().value();
-			
-			List<TL> leftMatches = m_leftDict.get(m_key);
-			m_leftIter = (leftMatches != null) ? leftMatches.iterator() : Collections.emptyIterator();
+	private <B,P> FStream<KeyValue<K,Tuple<TL,TR>>>
+	joinPartitions(KeyHashPartitions<K,B> buildParts, KeyHashPartitions<K,P> probeParts,
+					SpillCodec<?> buildCodec, SpillCodec<?> probeCodec, int level,
+					BiFunction<B,P,Tuple<TL,TR>> pairer) throws IOException {
+		buildParts.finish();
+		probeParts.finish();
+
+		return FStream.range(0, buildParts.size())
+						.flatMap(idx -> {
+							try {
+								return joinPartition(buildParts.get(idx), probeParts.get(idx),
+													buildCodec, probeCodec, level, pairer);
+							}
+							catch ( IOException e ) {
+								throw new FStreamException("fails to join partition: index=" + idx, e);
+							}
+						})
+						.onClose(() -> {
+							buildParts.delete();
+							probeParts.delete();
+						});
+	}
+
+	private <B,P> FStream<KeyValue<K,Tuple<TL,TR>>>
+	joinPartition(SpillFile<KeyValue<K,B>> buildFile, SpillFile<KeyValue<K,P>> probeFile,
+					SpillCodec<?> buildCodec, SpillCodec<?> probeCodec, int level,
+					BiFunction<B,P,Tuple<TL,TR>> pairer) throws IOException {
+		if ( buildFile.size() == 0 || probeFile.size() == 0 ) {
+			buildFile.delete();
+			probeFile.delete();
+			return FStream.empty();
 		}
-		
-		TL left = m_leftIter.next();
-		return FOption.of(KeyValue.of(m_key, Tuple.of(left, m_right)));
+
+		if ( buildFile.size() > m_opts.getMaxInMemory() && level < MAX_PARTITION_LEVEL ) {
+			KeyHashPartitions<K,B> buildParts = new KeyHashPartitions<>(m_opts, buildCodec, level,
+																		"fstream_join_");
+			KeyHashPartitions<K,P> probeParts = null;
+			try {
+				buildParts.addAll(buildFile.read());
+				buildFile.delete();
+
+				probeParts = new KeyHashPartitions<>(m_opts, probeCodec, level, "fstream_join_");
+				probeParts.addAll(probeFile.read());
+				probeFile.delete();
+			}
+			catch ( IOException | RuntimeException e ) {
+				buildParts.delete();
+				if ( probeParts != null ) {
+					probeParts.delete();
+				}
+				throw e;
+			}
+
+			return joinPartitions(buildParts, probeParts, buildCodec, probeCodec, level+1, pairer);
+		}
+
+		// 재분할로도 충분히 작아지지 않는 경우(같은 키를 갖는 원소가 매우 많은 경우 등)는
+		// 해당 파티션을 메모리에 적재하여 join한다.
+		Map<K,List<B>> dict = Maps.newHashMap();
+		buildFile.read().forEach(kv -> dict.computeIfAbsent(kv.key(), k -> Lists.newArrayList()).add(kv.value()));
+		buildFile.delete();
+
+		return probe(dict, probeFile.read(), pairer).onClose(probeFile::delete);
 	}
 }
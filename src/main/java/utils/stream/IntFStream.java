@@ -1,24 +1,61 @@
 package utils.stream;
 
 import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.function.Function;
-
-import com.google.common.primitives.Ints;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 import utils.Preconditions;
-import utils.Tuple;
 import utils.func.FOption;
-import utils.stream.FStreams.AbstractFStream;
+import utils.stream.PrimitiveFStreams.AbstractIntFStream;
+import utils.stream.PrimitiveFStreams.BoxedStream;
+import utils.stream.PrimitiveFStreams.FilteredIntStream;
+import utils.stream.PrimitiveFStreams.IntArrayStream;
+import utils.stream.PrimitiveFStreams.IntToDoubleStream;
+import utils.stream.PrimitiveFStreams.IntToLongStream;
+import utils.stream.PrimitiveFStreams.IntUnboxingAdaptor;
+import utils.stream.PrimitiveFStreams.MappedIntStream;
+import utils.stream.PrimitiveFStreams.TakenIntStream;
 
 /**
  * {@code int} primitive에 특화된 {@link FStream} 변형.
  * <p>
- * {@link FStream}{@code <Integer>}을 확장하지만 합계({@link #sum()})/최댓값/최솟값/평균 등의
- * 종결 연산을 box 비용 없이 제공한다.
+ * {@link FStream}{@code <Integer>}을 확장하지만 {@link #hasNextInt()}/{@link #nextInt()}로 구성된
+ * primitive pull 프로토콜을 별도로 제공하여, {@link #mapInt}, {@link #filterInt}, {@link #reduceInt},
+ * {@link #sum()}, {@link #histogram} 등의 연산을 원소 당 box/{@link FOption} 할당 없이 수행한다.
+ * 기존 {@link FStream} 연산과의 호환을 위해 {@link #next()}는 primitive 프로토콜 위에서 boxing된
+ * 값을 반환하며, 두 프로토콜을 하나의 스트림에 섞어 사용할 수 있다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public interface IntFStream extends FStream<Integer> {
+	/**
+	 * 다음 {@code int} 원소가 존재하는지 여부를 반환한다.
+	 * <p>
+	 * 동일 원소에 대해 여러 번 호출해도 원소를 소비하지 않는다.
+	 * <p>
+	 * Primitive pull 프로토콜은 각 구현체가 직접 제공한다. {@link #next()}만 제공하는
+	 * {@link FStream}{@code <Integer>}은 {@link #downcast(FStream)}로 어댑팅하여 사용한다.
+	 *
+	 * @return	다음 원소가 있으면 {@code true}, 스트림 끝이면 {@code false}.
+	 */
+	public boolean hasNextInt();
+
+	/**
+	 * 다음 {@code int} 원소를 box 없이 반환한다.
+	 *
+	 * @return	다음 원소.
+	 * @throws NoSuchElementException	더 이상의 원소가 없는 경우.
+	 * @throws IllegalStateException	원소가 {@code null}인 경우.
+	 */
+	public int nextInt();
+
 	/**
 	 * 가변인자 {@code int} 값들로부터 {@link IntFStream}을 생성한다.
 	 *
@@ -26,7 +63,22 @@ public interface IntFStream extends FStream<Integer> {
 	 * @return {@link IntFStream} 객체.
 	 */
 	public static IntFStream of(int... values) {
-		return new FStreamAdaptor(FStream.from(Arrays.stream(values).iterator()));
+		return new IntArrayStream(values);
+	}
+
+	/**
+	 * 기존 {@link FStream}{@code <Integer>}을 {@link IntFStream}으로 어댑팅한다.
+	 * <p>
+	 * 원소는 원본 스트림에서 읽힐 때 한번만 unboxing된다.
+	 *
+	 * @param strm 원본 스트림.
+	 * @return {@link IntFStream}으로 노출된 wrapper.
+	 */
+	public static IntFStream downcast(FStream<Integer> strm) {
+		if ( strm instanceof IntFStream istrm ) {
+			return istrm;
+		}
+		return new IntUnboxingAdaptor(strm);
 	}
 
 	/**
@@ -42,6 +94,75 @@ public interface IntFStream extends FStream<Integer> {
 		return map(mapper);
 	}
 
+	/**
+	 * 각 원소를 {@code mapper}로 변환한 {@link IntFStream}을 생성한다.
+	 *
+	 * @param mapper	매핑 함수.
+	 * @return	매핑된 primitive 스트림.
+	 */
+	public default IntFStream mapInt(IntUnaryOperator mapper) {
+		return new MappedIntStream(this, mapper);
+	}
+
+	/**
+	 * 각 원소를 {@code mapper}로 변환한 {@link LongFStream}을 생성한다.
+	 *
+	 * @param mapper	매핑 함수.
+	 * @return	매핑된 primitive 스트림.
+	 */
+	public default LongFStream mapIntToLong(IntToLongFunction mapper) {
+		return new IntToLongStream(this, mapper);
+	}
+
+	/**
+	 * 각 원소를 {@code mapper}로 변환한 {@link DoubleFStream}을 생성한다.
+	 *
+	 * @param mapper	매핑 함수.
+	 * @return	매핑된 primitive 스트림.
+	 */
+	public default DoubleFStream mapIntToDouble(IntToDoubleFunction mapper) {
+		return new IntToDoubleStream(this, mapper);
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 원소들로만 구성된 {@link IntFStream}을 생성한다.
+	 *
+	 * @param pred	조건 함수.
+	 * @return	조건을 만족하는 원소들의 primitive 스트림.
+	 */
+	public default IntFStream filterInt(IntPredicate pred) {
+		return new FilteredIntStream(this, pred);
+	}
+
+	/**
+	 * 본 스트림을 {@link LongFStream}으로 변환한다.
+	 *
+	 * @return	{@link LongFStream} 객체.
+	 */
+	public default LongFStream asLongFStream() {
+		return new IntToLongStream(this, v -> v);
+	}
+
+	/**
+	 * 본 스트림을 {@link DoubleFStream}으로 변환한다.
+	 *
+	 * @return	{@link DoubleFStream} 객체.
+	 */
+	public default DoubleFStream asDoubleFStream() {
+		return new IntToDoubleStream(this, v -> v);
+	}
+
+	/**
+	 * 본 스트림을 boxing된 {@link FStream}{@code <Integer>}로 노출시킨다.
+	 * <p>
+	 * 반환된 스트림에는 {@link IntFStream}의 primitive 연산이 적용되지 않는다.
+	 *
+	 * @return	boxing된 스트림.
+	 */
+	public default FStream<Integer> boxed() {
+		return new BoxedStream<>(this);
+	}
+
 	/**
 	 * 스트림의 앞 {@code count}개 원소로 구성된 {@link IntFStream}을 생성한다.
 	 *
@@ -53,7 +174,58 @@ public interface IntFStream extends FStream<Integer> {
 	public default IntFStream take(long count) {
 		utils.Preconditions.checkArgument(count >= 0, "count >= 0: but: " + count);
 
-		return new FStreamAdaptor(FStream.super.take(count));
+		return new TakenIntStream(this, count);
+	}
+
+	/**
+	 * 주어진 초기값과 누적 함수를 이용하여 모든 원소를 primitive 상태로 누적한다.
+	 * <p>
+	 * 메소드 종료 시 스트림은 닫힌다.
+	 *
+	 * @param initial	초기 누적 값.
+	 * @param combiner	누적 함수.
+	 * @return	누적 결과.
+	 */
+	public default int foldInt(int initial, IntBinaryOperator combiner) {
+		Preconditions.checkNotNullArgument(combiner, "combiner is null");
+
+		try {
+			int accum = initial;
+			while ( hasNextInt() ) {
+				accum = combiner.applyAsInt(accum, nextInt());
+			}
+			return accum;
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	/**
+	 * 첫번째 원소를 초기값으로 하여 나머지 원소들을 primitive 상태로 누적한다.
+	 * <p>
+	 * 빈 스트림이면 {@link FOption#empty()}를 반환한다. 메소드 종료 시 스트림은 닫힌다.
+	 *
+	 * @param reducer	누적 함수.
+	 * @return	누적 결과를 감싼 {@link FOption}.
+	 */
+	public default FOption<Integer> reduceInt(IntBinaryOperator reducer) {
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		try {
+			if ( !hasNextInt() ) {
+				return FOption.empty();
+			}
+
+			int accum = nextInt();
+			while ( hasNextInt() ) {
+				accum = reducer.applyAsInt(accum, nextInt());
+			}
+			return FOption.of(accum);
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 	
 	/**
@@ -64,7 +236,7 @@ public interface IntFStream extends FStream<Integer> {
 	 * @return 최댓값을 감싼 {@link FOption}. 빈 스트림이면 {@link FOption#empty()}.
 	 */
 	public default FOption<Integer> maxValue() {
-		return reduce(Integer::max);
+		return reduceInt(Math::max);
 	}
 
 	/**
@@ -75,7 +247,7 @@ public interface IntFStream extends FStream<Integer> {
 	 * @return 최솟값을 감싼 {@link FOption}. 빈 스트림이면 {@link FOption#empty()}.
 	 */
 	public default FOption<Integer> minValue() {
-		return reduce(Integer::min);
+		return reduceInt(Math::min);
 	}
 	
 	/**
@@ -87,7 +259,16 @@ public interface IntFStream extends FStream<Integer> {
 	 * @return 모든 원소의 합 (long). 빈 스트림이면 {@code 0}.
 	 */
 	public default long sum() {
-		return fold(0L, (s,v) -> s+v);
+		try {
+			long sum = 0;
+			while ( hasNextInt() ) {
+				sum += nextInt();
+			}
+			return sum;
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 
 	/**
@@ -98,10 +279,48 @@ public interface IntFStream extends FStream<Integer> {
 	 * @return 평균을 감싼 {@link FOption}. 빈 스트림이면 {@link FOption#empty()}.
 	 */
 	public default FOption<Double> average() {
-		Tuple<Long,Long> state = fold(Tuple.of(0L,0L),
-											(a,v) -> Tuple.of(a._1 + v, a._2 + 1));
-		return (state._2 > 0) ? FOption.of(state._1 / (double)state._2)
-								: FOption.empty();
+		try {
+			long sum = 0;
+			long count = 0;
+			while ( hasNextInt() ) {
+				sum += nextInt();
+				++count;
+			}
+			return (count > 0) ? FOption.of(sum / (double)count) : FOption.empty();
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	/**
+	 * 구간 [{@code lower}, {@code upper})를 {@code binCount}개의 균등 폭 구간으로 나누어
+	 * 각 구간에 속한 원소의 수를 계산한다.
+	 * <p>
+	 * 구간 밖의 원소는 무시된다. 메소드 종료 시 스트림은 닫힌다.
+	 *
+	 * @param lower		구간 하한 (포함).
+	 * @param upper		구간 상한 (제외).
+	 * @param binCount	구간 수. 1 이상.
+	 * @return	구간별 원소 수 배열.
+	 */
+	public default long[] histogram(int lower, int upper, int binCount) {
+		Preconditions.checkArgument(lower < upper, "invalid range: lower=%s upper=%s", lower, upper);
+		Preconditions.checkArgument(binCount > 0, "binCount > 0: but: " + binCount);
+
+		long[] bins = new long[binCount];
+		try {
+			while ( hasNextInt() ) {
+				int idx = PrimitiveFStreams.toBinIndex(nextInt(), lower, upper, binCount);
+				if ( idx >= 0 ) {
+					++bins[idx];
+				}
+			}
+			return bins;
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 
 	/**
@@ -110,10 +329,23 @@ public interface IntFStream extends FStream<Integer> {
 	 * @return 모든 원소를 담은 {@code int[]} 배열.
 	 */
 	public default int[] toArray() {
-		return Ints.toArray(toList());
+		try {
+			int[] buf = new int[16];
+			int size = 0;
+			while ( hasNextInt() ) {
+				if ( size == buf.length ) {
+					buf = Arrays.copyOf(buf, size << 1);
+				}
+				buf[size++] = nextInt();
+			}
+			return (size == buf.length) ? buf : Arrays.copyOf(buf, size);
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 	
-	static class RangedStream extends AbstractFStream<Integer> implements IntFStream {
+	static class RangedStream extends AbstractIntFStream {
 		private int m_next;
 		private final int m_end;
 		
@@ -129,31 +361,40 @@ public interface IntFStream extends FStream<Integer> {
 		protected void closeInGuard() throws Exception { }
 
 		@Override
-		protected FOption<Integer> nextInGuard() {
-			if ( m_next < m_end ) {
-				return FOption.of(m_next++);
-			}
-			else {
-				return FOption.empty();
-			}
-		}
-	}
-	
-	static class FStreamAdaptor implements IntFStream {
-		private final FStream<Integer> m_src;
-		
-		FStreamAdaptor(FStream<Integer> src) {
-			m_src = src;
+		public boolean hasNextInt() {
+			checkNotClosed();
+			return m_next < m_end;
 		}
 
 		@Override
-		public void close() throws Exception {
-			m_src.close();
+		public int nextInt() {
+			checkNotClosed();
+			if ( m_next >= m_end ) {
+				throw new NoSuchElementException();
+			}
+			return m_next++;
 		}
 
 		@Override
-		public FOption<Integer> next() {
-			return m_src.next();
+		public Spliterator<Integer> spliterator() {
+			checkNotClosed();
+
+			Spliterator.OfInt spliterator = IntStream.range(m_next, m_end).spliterator();
+			m_next = m_end;
+
+			return spliterator;
+		}
+	}
+
+	/**
+	 * {@link FStream}{@code <Integer>}을 {@link IntFStream}으로 노출시키는 어댑터.
+	 *
+	 * @deprecated	{@link IntFStream#downcast(FStream)}를 사용한다.
+	 */
+	@Deprecated
+	static class FStreamAdaptor extends IntUnboxingAdaptor {
+		FStreamAdaptor(FStream<Integer> src) {
+			super(src);
 		}
 	}
 }
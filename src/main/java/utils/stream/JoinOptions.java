@@ -0,0 +1,209 @@
+package utils.stream;
+
+import java.io.File;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+
+
+/**
+ * {@link KeyValueFStream#innerJoin(KeyValueFStream, JoinOptions)},
+ * {@link KeyValueFStream#outerJoin(KeyValueFStream, JoinOptions)}의 hash join 설정.
+ * <p>
+ * 메모리에 적재되는 원소 수가 {@link #getMaxInMemory()}를 넘으면 join은 grace hash join으로 전환되어,
+ * 양쪽 스트림의 원소들을 키의 hash 값에 따라 {@link #getPartitionCount()}개의 파티션 파일로 나누어
+ * 기록한 뒤 파티션 단위로 join을 수행한다. 파티션 파일의 원소들은 키는 {@link #getKeyCodec()}을,
+ * 값은 왼쪽 스트림의 경우 {@link #getLeftValueCodec()}을, 오른쪽 스트림의 경우
+ * {@link #getRightValueCodec()}을 통해 각각 기록된다. 기본값은 모두 Java 직렬화를 사용한다.
+ * <p>
+ * {@link #leftSizeHint(long)}와 {@link #rightSizeHint(long)}로 양쪽 스트림의 대략적인 크기가
+ * 주어진 경우, inner join은 더 작은 쪽을 hash table 구성(build) 측으로 사용한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class JoinOptions {
+	public static final int DEFAULT_MAX_IN_MEMORY = 1_000_000;
+	public static final int DEFAULT_PARTITION_COUNT = 16;
+
+	/** 크기 제한 없이 모든 원소를 메모리에서 join하는 설정. */
+	static final JoinOptions IN_MEMORY = new JoinOptions(Integer.MAX_VALUE, null, DEFAULT_PARTITION_COUNT,
+														SpillCodec.serializable(), SpillCodec.serializable(),
+														SpillCodec.serializable(), -1, -1);
+
+	private final int m_maxInMemory;
+	private final @Nullable File m_tempDir;
+	private final int m_partitionCount;
+	private final SpillCodec<?> m_keyCodec;
+	private final SpillCodec<?> m_leftValueCodec;
+	private final SpillCodec<?> m_rightValueCodec;
+	private final long m_leftSizeHint;
+	private final long m_rightSizeHint;
+
+	public static JoinOptions create() {
+		return maxInMemory(DEFAULT_MAX_IN_MEMORY);
+	}
+
+	public static JoinOptions maxInMemory(int count) {
+		return new JoinOptions(count, null, DEFAULT_PARTITION_COUNT, SpillCodec.serializable(),
+								SpillCodec.serializable(), SpillCodec.serializable(), -1, -1);
+	}
+
+	private JoinOptions(int maxInMemory, @Nullable File tempDir, int partitionCount, SpillCodec<?> keyCodec,
+						SpillCodec<?> leftValueCodec, SpillCodec<?> rightValueCodec,
+						long leftSizeHint, long rightSizeHint) {
+		Preconditions.checkArgument(maxInMemory > 0, "maxInMemory > 0, but: %s", maxInMemory);
+		Preconditions.checkArgument(partitionCount > 1, "partitionCount > 1, but: %s", partitionCount);
+		Preconditions.checkNotNullArgument(keyCodec, "key SpillCodec is null");
+		Preconditions.checkNotNullArgument(leftValueCodec, "left value SpillCodec is null");
+		Preconditions.checkNotNullArgument(rightValueCodec, "right value SpillCodec is null");
+
+		m_maxInMemory = maxInMemory;
+		m_tempDir = tempDir;
+		m_partitionCount = partitionCount;
+		m_keyCodec = keyCodec;
+		m_leftValueCodec = leftValueCodec;
+		m_rightValueCodec = rightValueCodec;
+		m_leftSizeHint = leftSizeHint;
+		m_rightSizeHint = rightSizeHint;
+	}
+
+	/**
+	 * 메모리에 동시에 적재할 최대 원소 수를 반환한다.
+	 *
+	 * @return	원소 수.
+	 */
+	public int getMaxInMemory() {
+		return m_maxInMemory;
+	}
+
+	/**
+	 * 파티션 파일이 생성될 디렉토리를 반환한다.
+	 * {@code null}인 경우는 시스템 기본 임시 디렉토리를 사용한다.
+	 *
+	 * @return	디렉토리 또는 {@code null}.
+	 */
+	public @Nullable File getTempDir() {
+		return m_tempDir;
+	}
+
+	/**
+	 * 메모리 한도를 넘는 경우 각 스트림을 나눌 파티션 수를 반환한다.
+	 *
+	 * @return	파티션 수.
+	 */
+	public int getPartitionCount() {
+		return m_partitionCount;
+	}
+
+	/**
+	 * 파티션 파일에 키를 기록할 때 사용할 codec을 반환한다.
+	 *
+	 * @return	codec 객체.
+	 */
+	public SpillCodec<?> getKeyCodec() {
+		return m_keyCodec;
+	}
+
+	/**
+	 * 파티션 파일에 왼쪽 스트림의 값을 기록할 때 사용할 codec을 반환한다.
+	 *
+	 * @return	codec 객체.
+	 */
+	public SpillCodec<?> getLeftValueCodec() {
+		return m_leftValueCodec;
+	}
+
+	/**
+	 * 파티션 파일에 오른쪽 스트림의 값을 기록할 때 사용할 codec을 반환한다.
+	 *
+	 * @return	codec 객체.
+	 */
+	public SpillCodec<?> getRightValueCodec() {
+		return m_rightValueCodec;
+	}
+
+	/**
+	 * 왼쪽 스트림의 예상 원소 수를 반환한다. 알 수 없는 경우는 음수.
+	 *
+	 * @return	예상 원소 수.
+	 */
+	public long getLeftSizeHint() {
+		return m_leftSizeHint;
+	}
+
+	/**
+	 * 오른쪽 스트림의 예상 원소 수를 반환한다. 알 수 없는 경우는 음수.
+	 *
+	 * @return	예상 원소 수.
+	 */
+	public long getRightSizeHint() {
+		return m_rightSizeHint;
+	}
+
+	/**
+	 * 주어진 크기 힌트에 따라 오른쪽 스트림을 build 측으로 사용할지 여부를 반환한다.
+	 * 양쪽 힌트가 모두 주어지고 오른쪽이 더 작은 경우에만 {@code true}이다.
+	 *
+	 * @return	오른쪽 스트림을 build 측으로 사용하는 경우는 {@code true}.
+	 */
+	boolean isRightBuildSide() {
+		return m_leftSizeHint >= 0 && m_rightSizeHint >= 0 && m_rightSizeHint < m_leftSizeHint;
+	}
+
+	public JoinOptions tempDir(File dir) {
+		Preconditions.checkNotNullArgument(dir, "tempDir is null");
+
+		return new JoinOptions(m_maxInMemory, dir, m_partitionCount, m_keyCodec, m_leftValueCodec,
+								m_rightValueCodec, m_leftSizeHint, m_rightSizeHint);
+	}
+
+	public JoinOptions partitionCount(int count) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, count, m_keyCodec, m_leftValueCodec,
+								m_rightValueCodec, m_leftSizeHint, m_rightSizeHint);
+	}
+
+	public JoinOptions keyCodec(SpillCodec<?> codec) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, m_partitionCount, codec, m_leftValueCodec,
+								m_rightValueCodec, m_leftSizeHint, m_rightSizeHint);
+	}
+
+	/**
+	 * 양쪽 스트림의 값을 기록할 codec을 설정한다. 양쪽 값의 타입이 같은 경우에 사용한다.
+	 *
+	 * @param codec	값 codec.
+	 * @return	설정이 반영된 {@code JoinOptions}.
+	 */
+	public JoinOptions valueCodec(SpillCodec<?> codec) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, m_partitionCount, m_keyCodec, codec, codec,
+								m_leftSizeHint, m_rightSizeHint);
+	}
+
+	public JoinOptions leftValueCodec(SpillCodec<?> codec) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, m_partitionCount, m_keyCodec, codec,
+								m_rightValueCodec, m_leftSizeHint, m_rightSizeHint);
+	}
+
+	public JoinOptions rightValueCodec(SpillCodec<?> codec) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, m_partitionCount, m_keyCodec, m_leftValueCodec,
+								codec, m_leftSizeHint, m_rightSizeHint);
+	}
+
+	public JoinOptions leftSizeHint(long size) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, m_partitionCount, m_keyCodec, m_leftValueCodec,
+								m_rightValueCodec, size, m_rightSizeHint);
+	}
+
+	public JoinOptions rightSizeHint(long size) {
+		return new JoinOptions(m_maxInMemory, m_tempDir, m_partitionCount, m_keyCodec, m_leftValueCodec,
+								m_rightValueCodec, m_leftSizeHint, size);
+	}
+
+	@Override
+	public String toString() {
+		String dirStr = (m_tempDir != null) ? ", dir=" + m_tempDir : "";
+		return String.format("maxInMemory=%d, partitions=%d%s, codecs=(%s, %s, %s)",
+							m_maxInMemory, m_partitionCount, dirStr, m_keyCodec, m_leftValueCodec,
+							m_rightValueCodec);
+	}
+}
@@ -0,0 +1,128 @@
+package utils.stream;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.collect.Lists;
+
+import utils.KeyValue;
+import utils.func.FOption;
+
+
+/**
+ * {@link KeyValue}들을 키의 hash 값에 따라 여러 개의 {@link SpillFile}로 나누어 기록하는 파티션 집합.
+ * <p>
+ * Grace hash join에서 join 양측의 스트림을 동일한 방법으로 분할하여, 같은 키를 갖는 원소들이
+ * 항상 같은 번호의 파티션에 기록되도록 한다. 하나의 파티션이 여전히 너무 큰 경우에는 다른
+ * {@code level}로 재분할하여 hash 값의 다른 비트들을 사용하도록 한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class KeyHashPartitions<K,V> {
+	private final int m_level;
+	private final List<SpillFile<KeyValue<K,V>>> m_partitions;
+
+	/**
+	 * 파티션 집합을 생성한다.
+	 *
+	 * @param opts			join 설정. 키는 {@link JoinOptions#getKeyCodec()}으로 기록된다.
+	 * @param valueCodec	값을 기록할 codec.
+	 * @param level			재분할 단계.
+	 * @param prefix		파티션 파일 이름의 접두어.
+	 * @throws IOException	파티션 파일 생성에 실패한 경우.
+	 */
+	@SuppressWarnings("unchecked")
+	KeyHashPartitions(JoinOptions opts, SpillCodec<?> valueCodec, int level, String prefix) throws IOException {
+		m_level = level;
+
+		SpillCodec<KeyValue<K,V>> codec = new KeyValueCodec<>((SpillCodec<K>)opts.getKeyCodec(),
+																(SpillCodec<V>)valueCodec);
+		m_partitions = Lists.newArrayListWithCapacity(opts.getPartitionCount());
+		try {
+			for ( int i =0; i < opts.getPartitionCount(); ++i ) {
+				m_partitions.add(SpillFile.create(opts.getTempDir(), prefix, codec));
+			}
+		}
+		catch ( IOException e ) {
+			delete();
+			throw e;
+		}
+	}
+
+	int size() {
+		return m_partitions.size();
+	}
+
+	SpillFile<KeyValue<K,V>> get(int index) {
+		return m_partitions.get(index);
+	}
+
+	void add(K key, V value) throws IOException {
+		m_partitions.get(partitionOf(key)).append(KeyValue.of(key, value));
+	}
+
+	void addAll(Map<K,List<V>> groups) throws IOException {
+		for ( Map.Entry<K,List<V>> ent: groups.entrySet() ) {
+			for ( V value: ent.getValue() ) {
+				add(ent.getKey(), value);
+			}
+		}
+	}
+
+	void addAll(FStream<KeyValue<K,V>> strm) throws IOException {
+		try {
+			FOption<KeyValue<K,V>> next;
+			while ( (next = strm.next()).isPresent() ) {
+				KeyValue<K,V> kv = next.getUnchecked();
+				add(kv.key(), kv.value());
+			}
+		}
+		finally {
+			strm.closeQuietly();
+		}
+	}
+
+	void finish() throws IOException {
+		for ( SpillFile<KeyValue<K,V>> partition: m_partitions ) {
+			partition.finish();
+		}
+	}
+
+	void delete() {
+		m_partitions.forEach(SpillFile::delete);
+	}
+
+	private int partitionOf(K key) {
+		// level마다 다른 multiplier를 사용하여 재분할 시에 원소들이 다시 고르게 흩어지도록 한다.
+		int h = Objects.hashCode(key) * (0x9E3779B9 + (m_level << 1));
+		h ^= (h >>> 16);
+		return Math.floorMod(h, m_partitions.size());
+	}
+
+	private static final class KeyValueCodec<K,V> implements SpillCodec<KeyValue<K,V>> {
+		private final SpillCodec<K> m_keyCodec;
+		private final SpillCodec<V> m_valueCodec;
+
+		KeyValueCodec(SpillCodec<K> keyCodec, SpillCodec<V> valueCodec) {
+			m_keyCodec = keyCodec;
+			m_valueCodec = valueCodec;
+		}
+
+		@Override
+		public void write(KeyValue<K,V> kv, ObjectOutput out) throws IOException {
+			m_keyCodec.write(kv.key(), out);
+			m_valueCodec.write(kv.value(), out);
+		}
+
+		@Override
+		public KeyValue<K,V> read(ObjectInput in) throws IOException {
+			K key = m_keyCodec.read(in);
+			V value = m_valueCodec.read(in);
+			return KeyValue.of(key, value);
+		}
+	}
+}
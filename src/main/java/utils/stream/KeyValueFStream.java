@@ -2,6 +2,7 @@ package utils.stream;
 
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -178,9 +179,182 @@ public interface KeyValueFStream<K,V> extends FStream<KeyValue<K,V>> {
 		return from(sorted);
 	}
 	
-//	public default <R> KeyValueFStream<K,Tuple<List<V>,List<R>>> outerJoin(KeyValueFStream<K,R> right) {
-//		return new OuterJoinedFStream<>(this, right);
-//	}
+	/**
+	 * 본 스트림과 주어진 스트림을 키 기준으로 inner join한 스트림을 생성한다.
+	 * <p>
+	 * 본 스트림의 모든 원소를 메모리에 적재하여 hash table을 구성한다.
+	 * 메모리보다 큰 스트림은 {@link #innerJoin(KeyValueFStream, JoinOptions)}를 사용한다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	오른쪽 스트림.
+	 * @return	join된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<V,R>> innerJoin(KeyValueFStream<K,R> right) {
+		return innerJoin(right, JoinOptions.IN_MEMORY);
+	}
+
+	/**
+	 * 본 스트림과 주어진 스트림을 키 기준으로 inner join한 스트림을 생성한다.
+	 * <p>
+	 * build 측 원소 수가 {@link JoinOptions#getMaxInMemory()}를 넘으면 양측 스트림을 키의 hash 값에 따라
+	 * 파티션 파일로 나누어 기록한 뒤 파티션 단위로 join한다 (grace hash join).
+	 * 양측 스트림의 크기 힌트가 주어지면 더 작은 쪽을 build 측으로 사용한다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	오른쪽 스트림.
+	 * @param opts	join 설정.
+	 * @return	join된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<V,R>> innerJoin(KeyValueFStream<K,R> right, JoinOptions opts) {
+		utils.Preconditions.checkNotNullArgument(right, "right stream is null");
+		utils.Preconditions.checkNotNullArgument(opts, "JoinOptions is null");
+
+		return new InnerJoinedFStream<>(this, right, opts);
+	}
+
+	/**
+	 * 본 스트림과 주어진 스트림을 키 기준으로 full outer join한 스트림을 생성한다.
+	 * <p>
+	 * 양측 스트림의 모든 원소를 메모리에 적재한다.
+	 * 메모리보다 큰 스트림은 {@link #outerJoin(KeyValueFStream, JoinOptions)}를 사용한다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	오른쪽 스트림.
+	 * @return	키별로 양측의 원소 리스트 쌍으로 구성된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<List<V>,List<R>>> outerJoin(KeyValueFStream<K,R> right) {
+		return outerJoin(right, JoinOptions.IN_MEMORY);
+	}
+
+	/**
+	 * 본 스트림과 주어진 스트림을 키 기준으로 full outer join한 스트림을 생성한다.
+	 * <p>
+	 * 양측에서 읽은 원소 수가 {@link JoinOptions#getMaxInMemory()}를 넘으면 양측 스트림을 키의 hash 값에
+	 * 따라 파티션 파일로 나누어 기록한 뒤 파티션 단위로 join한다 (grace hash join).
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	오른쪽 스트림.
+	 * @param opts	join 설정.
+	 * @return	키별로 양측의 원소 리스트 쌍으로 구성된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<List<V>,List<R>>> outerJoin(KeyValueFStream<K,R> right,
+																		JoinOptions opts) {
+		utils.Preconditions.checkNotNullArgument(right, "right stream is null");
+		utils.Preconditions.checkNotNullArgument(opts, "JoinOptions is null");
+
+		return new OuterJoinedFStream<>(this, right, opts);
+	}
+	
+	/**
+	 * 키 오름차순으로 정렬된 본 스트림과 오른쪽 스트림을 sort-merge 방식으로 inner join한 스트림을 생성한다.
+	 * <p>
+	 * 양측 스트림을 한 키 그룹씩 읽어 join하므로 메모리에는 현재 키의 원소 그룹만 유지된다.
+	 * 키 순서가 {@code cmp} 기준 오름차순이 아닌 원소가 발견되면 {@link IllegalStateException}이 발생된다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @param cmp	키 비교자.
+	 * @return	join된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeJoin(KeyValueFStream<K,R> right, Comparator<? super K> cmp) {
+		return new MergeJoinedFStream<>(this, right, cmp, false, false);
+	}
+
+	/**
+	 * 키의 자연 순서를 사용하는 {@link #mergeJoin(KeyValueFStream, Comparator)}.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @return	join된 스트림.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeJoin(KeyValueFStream<K,R> right) {
+		return mergeJoin(right, (Comparator<? super K>)(Comparator)Comparator.naturalOrder());
+	}
+	
+	/**
+	 * 키 오름차순으로 정렬된 본 스트림과 오른쪽 스트림을 sort-merge 방식으로 left outer join한 스트림을 생성한다.
+	 * <p>
+	 * 양측 스트림을 한 키 그룹씩 읽어 join하므로 메모리에는 현재 키의 원소 그룹만 유지된다.
+	 * 오른쪽 스트림에 같은 키가 없는 왼쪽 원소는 오른쪽 값을 {@code null}로 하여 반환한다.
+	 * 키 순서가 {@code cmp} 기준 오름차순이 아닌 원소가 발견되면 {@link IllegalStateException}이 발생된다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @param cmp	키 비교자.
+	 * @return	join된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeLeftOuterJoin(KeyValueFStream<K,R> right, Comparator<? super K> cmp) {
+		return new MergeJoinedFStream<>(this, right, cmp, true, false);
+	}
+
+	/**
+	 * 키의 자연 순서를 사용하는 {@link #mergeLeftOuterJoin(KeyValueFStream, Comparator)}.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @return	join된 스트림.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeLeftOuterJoin(KeyValueFStream<K,R> right) {
+		return mergeLeftOuterJoin(right, (Comparator<? super K>)(Comparator)Comparator.naturalOrder());
+	}
+	
+	/**
+	 * 키 오름차순으로 정렬된 본 스트림과 오른쪽 스트림을 sort-merge 방식으로 right outer join한 스트림을 생성한다.
+	 * <p>
+	 * 양측 스트림을 한 키 그룹씩 읽어 join하므로 메모리에는 현재 키의 원소 그룹만 유지된다.
+	 * 왼쪽 스트림(본 스트림)에 같은 키가 없는 오른쪽 원소는 왼쪽 값을 {@code null}로 하여 반환한다.
+	 * 키 순서가 {@code cmp} 기준 오름차순이 아닌 원소가 발견되면 {@link IllegalStateException}이 발생된다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @param cmp	키 비교자.
+	 * @return	join된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeRightOuterJoin(KeyValueFStream<K,R> right, Comparator<? super K> cmp) {
+		return new MergeJoinedFStream<>(this, right, cmp, false, true);
+	}
+
+	/**
+	 * 키의 자연 순서를 사용하는 {@link #mergeRightOuterJoin(KeyValueFStream, Comparator)}.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @return	join된 스트림.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeRightOuterJoin(KeyValueFStream<K,R> right) {
+		return mergeRightOuterJoin(right, (Comparator<? super K>)(Comparator)Comparator.naturalOrder());
+	}
+	
+	/**
+	 * 키 오름차순으로 정렬된 본 스트림과 오른쪽 스트림을 sort-merge 방식으로 full outer join한 스트림을 생성한다.
+	 * <p>
+	 * 양측 스트림을 한 키 그룹씩 읽어 join하므로 메모리에는 현재 키의 원소 그룹만 유지된다.
+	 * 상대편에 같은 키가 없는 원소는 상대편 값을 {@code null}로 하여 반환한다.
+	 * 키 순서가 {@code cmp} 기준 오름차순이 아닌 원소가 발견되면 {@link IllegalStateException}이 발생된다.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @param cmp	키 비교자.
+	 * @return	join된 스트림.
+	 */
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeFullOuterJoin(KeyValueFStream<K,R> right, Comparator<? super K> cmp) {
+		return new MergeJoinedFStream<>(this, right, cmp, true, true);
+	}
+
+	/**
+	 * 키의 자연 순서를 사용하는 {@link #mergeFullOuterJoin(KeyValueFStream, Comparator)}.
+	 *
+	 * @param <R>	오른쪽 스트림의 값 타입.
+	 * @param right	키 순서로 정렬된 오른쪽 스트림.
+	 * @return	join된 스트림.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public default <R> KeyValueFStream<K,Tuple<V,R>> mergeFullOuterJoin(KeyValueFStream<K,R> right) {
+		return mergeFullOuterJoin(right, (Comparator<? super K>)(Comparator)Comparator.naturalOrder());
+	}
 	
 	public default <R> KeyValueFStream<K,Tuple<V,R>> match(Map<K,R> lut, boolean keepUnmatched) {
 		return new MatchKVFStream<>(this, lut, keepUnmatched);
@@ -0,0 +1,108 @@
+package utils.stream;
+
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+
+import com.google.common.collect.Maps;
+
+
+/**
+ * {@code long} 키와 {@code double} 값을 box 없이 저장하는 open-addressing hash map.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class LongDoubleMap extends LongKeyedTable {
+	@FunctionalInterface
+	public static interface EntryConsumer {
+		public void accept(long key, double value);
+	}
+
+	public LongDoubleMap() {
+		this(0);
+	}
+
+	/**
+	 * 최소 {@code expectedSize}개의 키를 재할당 없이 저장할 수 있는 map을 생성한다.
+	 *
+	 * @param expectedSize	예상 키 수.
+	 */
+	public LongDoubleMap(int expectedSize) {
+		super(expectedSize);
+	}
+
+	public double get(long key, double defaultValue) {
+		int slot = indexOf(key);
+		return (slot >= 0) ? Double.longBitsToDouble(m_values[slot]) : defaultValue;
+	}
+
+	public void put(long key, double value) {
+		int slot = insertionIndexOf(key);
+		m_values[(slot >= 0) ? slot : -slot - 1] = Double.doubleToRawLongBits(value);
+	}
+
+	/**
+	 * 주어진 키의 값에 {@code delta}를 더한다. 키가 없으면 {@code delta}를 값으로 등록한다.
+	 *
+	 * @param key	키.
+	 * @param delta	더할 값.
+	 * @return	갱신된 값.
+	 */
+	public double addTo(long key, double delta) {
+		return merge(key, delta, Double::sum);
+	}
+
+	/**
+	 * 주어진 키의 값과 {@code value}를 {@code merger}로 병합한 값으로 갱신한다.
+	 * 키가 없으면 {@code value}를 값으로 등록한다.
+	 *
+	 * @param key		키.
+	 * @param value		병합할 값.
+	 * @param merger	기존 값과 {@code value}를 병합하는 함수.
+	 * @return	갱신된 값.
+	 */
+	public double merge(long key, double value, DoubleBinaryOperator merger) {
+		int slot = insertionIndexOf(key);
+		if ( slot >= 0 ) {
+			double merged = merger.applyAsDouble(Double.longBitsToDouble(m_values[slot]), value);
+			m_values[slot] = Double.doubleToRawLongBits(merged);
+			return merged;
+		}
+		else {
+			m_values[-slot - 1] = Double.doubleToRawLongBits(value);
+			return value;
+		}
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		for ( int i =0; i < slotCount(); ++i ) {
+			if ( isOccupied(i) ) {
+				consumer.accept((i == slotCount()-1) ? 0L : m_keys[i], Double.longBitsToDouble(m_values[i]));
+			}
+		}
+	}
+
+	/**
+	 * 저장된 entry들로 구성된 {@link KeyValueFStream}을 반환한다.
+	 *
+	 * @return	entry 스트림.
+	 */
+	public KeyValueFStream<Long,Double> fstream() {
+		return KeyValueFStream.from(toMap());
+	}
+
+	/**
+	 * box된 키와 값으로 구성된 {@link Map}으로 변환한다.
+	 *
+	 * @return	{@link Map} 객체.
+	 */
+	public Map<Long,Double> toMap() {
+		Map<Long,Double> map = Maps.newHashMapWithExpectedSize(size());
+		forEach(map::put);
+		return map;
+	}
+
+	@Override
+	protected String valueToString(int slot) {
+		return Double.toString(Double.longBitsToDouble(m_values[slot]));
+	}
+}
@@ -1,25 +1,61 @@
 package utils.stream;
 
 import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
 
 import com.google.common.primitives.Longs;
 
 import utils.Preconditions;
-import utils.Tuple;
 import utils.func.FOption;
-import utils.stream.FStreams.AbstractFStream;
+import utils.stream.PrimitiveFStreams.AbstractLongFStream;
+import utils.stream.PrimitiveFStreams.BoxedStream;
+import utils.stream.PrimitiveFStreams.FilteredLongStream;
+import utils.stream.PrimitiveFStreams.LongArrayStream;
+import utils.stream.PrimitiveFStreams.LongToDoubleStream;
+import utils.stream.PrimitiveFStreams.LongUnboxingAdaptor;
+import utils.stream.PrimitiveFStreams.MappedLongStream;
+import utils.stream.PrimitiveFStreams.TakenLongStream;
 
 /**
+ * {@code long} primitive에 특화된 {@link FStream} 변형.
+ * <p>
+ * {@link #hasNextLong()}/{@link #nextLong()} pull 프로토콜을 통해 {@link #mapLong}, {@link #filterLong},
+ * {@link #reduceLong}, {@link #sum()} 등의 연산을 box 비용 없이 수행한다.
  * 
  * @author Kang-Woo Lee (ETRI)
  */
 public interface LongFStream extends FStream<Long> {
+	/**
+	 * 다음 {@code long} 원소가 존재하는지 여부를 반환한다.
+	 * <p>
+	 * Primitive pull 프로토콜은 각 구현체가 직접 제공한다. {@link #next()}만 제공하는
+	 * {@link FStream}{@code <Long>}은 {@link #downcast(FStream)}로 어댑팅하여 사용한다.
+	 *
+	 * @return	다음 원소가 있으면 {@code true}, 스트림 끝이면 {@code false}.
+	 */
+	public boolean hasNextLong();
+
+	/**
+	 * 다음 {@code long} 원소를 box 없이 반환한다.
+	 *
+	 * @return	다음 원소.
+	 * @throws NoSuchElementException	더 이상의 원소가 없는 경우.
+	 * @throws IllegalStateException	원소가 {@code null}인 경우.
+	 */
+	public long nextLong();
+
 	public static LongFStream of(long... values) {
-		return new FStreamAdaptor(FStream.from(Arrays.stream(values).iterator()));
+		return new LongArrayStream(values);
 	}
 	public static LongFStream of(Long... values) {
-		return new FStreamAdaptor(FStream.from(Arrays.stream(values).iterator()));
+		return new LongArrayStream(Longs.toArray(Arrays.asList(values)));
 	}
 
 	/**
@@ -36,35 +72,159 @@ public interface LongFStream extends FStream<Long> {
 		return new RangedStream(start, end);
 	}
 	
+	/**
+	 * 기존 {@link FStream}{@code <Long>}을 {@link LongFStream}으로 어댑팅한다.
+	 *
+	 * @param strm 원본 스트림.
+	 * @return {@link LongFStream}으로 노출된 wrapper.
+	 */
+	public static LongFStream downcast(FStream<Long> strm) {
+		if ( strm instanceof LongFStream lstrm ) {
+			return lstrm;
+		}
+		return new LongUnboxingAdaptor(strm);
+	}
+
 	public default <T> FStream<T> mapToObj(Function<Long,? extends T> mapper) {
 		Preconditions.checkNotNullArgument(mapper, "mapper must not be null");
 		
 		return map(mapper);
 	}
 	
+	public default LongFStream mapLong(LongUnaryOperator mapper) {
+		return new MappedLongStream(this, mapper);
+	}
+
+	public default DoubleFStream mapLongToDouble(LongToDoubleFunction mapper) {
+		return new LongToDoubleStream(this, mapper);
+	}
+
+	public default LongFStream filterLong(LongPredicate pred) {
+		return new FilteredLongStream(this, pred);
+	}
+
+	public default DoubleFStream asDoubleFStream() {
+		return new LongToDoubleStream(this, v -> v);
+	}
+
+	public default FStream<Long> boxed() {
+		return new BoxedStream<>(this);
+	}
+
+	public default long foldLong(long initial, LongBinaryOperator combiner) {
+		Preconditions.checkNotNullArgument(combiner, "combiner is null");
+
+		try {
+			long accum = initial;
+			while ( hasNextLong() ) {
+				accum = combiner.applyAsLong(accum, nextLong());
+			}
+			return accum;
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	public default FOption<Long> reduceLong(LongBinaryOperator reducer) {
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		try {
+			if ( !hasNextLong() ) {
+				return FOption.empty();
+			}
+
+			long accum = nextLong();
+			while ( hasNextLong() ) {
+				accum = reducer.applyAsLong(accum, nextLong());
+			}
+			return FOption.of(accum);
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	public default FOption<Long> maxValue() {
+		return reduceLong(Math::max);
+	}
+
+	public default FOption<Long> minValue() {
+		return reduceLong(Math::min);
+	}
+
 	public default long sum() {
-		return fold(0L, (s,v) -> s+v);
+		return foldLong(0L, Long::sum);
 	}
 	
 	public default FOption<Double> average() {
-		Tuple<Long,Long> state = fold(Tuple.of(0L,0L),
-											(a,v) -> Tuple.of(a._1 + v, a._2 + 1));
-		return (state._2 > 0) ? FOption.of(state._1 / (double)state._2)
-								: FOption.empty();
+		try {
+			long sum = 0;
+			long count = 0;
+			while ( hasNextLong() ) {
+				sum += nextLong();
+				++count;
+			}
+			return (count > 0) ? FOption.of(sum / (double)count) : FOption.empty();
+		}
+		finally {
+			closeQuietly();
+		}
+	}
+
+	/**
+	 * 구간 [{@code lower}, {@code upper})를 {@code binCount}개의 균등 폭 구간으로 나누어
+	 * 각 구간에 속한 원소의 수를 계산한다. 구간 밖의 원소는 무시된다.
+	 *
+	 * @param lower		구간 하한 (포함).
+	 * @param upper		구간 상한 (제외).
+	 * @param binCount	구간 수. 1 이상.
+	 * @return	구간별 원소 수 배열.
+	 */
+	public default long[] histogram(long lower, long upper, int binCount) {
+		Preconditions.checkArgument(lower < upper, "invalid range: lower=%s upper=%s", lower, upper);
+		Preconditions.checkArgument(binCount > 0, "binCount > 0: but: " + binCount);
+
+		long[] bins = new long[binCount];
+		try {
+			while ( hasNextLong() ) {
+				int idx = PrimitiveFStreams.toBinIndex(nextLong(), lower, upper, binCount);
+				if ( idx >= 0 ) {
+					++bins[idx];
+				}
+			}
+			return bins;
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 
 	@Override
 	public default LongFStream take(long count) {
 		Preconditions.checkArgument(count >= 0, "count >= 0: but: " + count);
 
-		return new FStreamAdaptor(FStream.super.take(count));
+		return new TakenLongStream(this, count);
 	}
 	
 	public default long[] toArray() {
-		return Longs.toArray(toList());
+		try {
+			long[] buf = new long[16];
+			int size = 0;
+			while ( hasNextLong() ) {
+				if ( size == buf.length ) {
+					buf = Arrays.copyOf(buf, size << 1);
+				}
+				buf[size++] = nextLong();
+			}
+			return (size == buf.length) ? buf : Arrays.copyOf(buf, size);
+		}
+		finally {
+			closeQuietly();
+		}
 	}
 	
-	static class RangedStream extends AbstractFStream<Long> implements LongFStream {
+	static class RangedStream extends AbstractLongFStream {
 		private long m_next;
 		private final long m_end;
 
@@ -80,31 +240,40 @@ public interface LongFStream extends FStream<Long> {
 		protected void closeInGuard() throws Exception { }
 
 		@Override
-		protected FOption<Long> nextInGuard() {
-			if ( m_next < m_end ) {
-				return FOption.of(m_next++);
-			}
-			else {
-				return FOption.empty();
-			}
+		public boolean hasNextLong() {
+			checkNotClosed();
+			return m_next < m_end;
 		}
-	}
 
-	static class FStreamAdaptor implements LongFStream {
-		private final FStream<Long> m_src;
-		
-		FStreamAdaptor(FStream<Long> src) {
-			m_src = src;
+		@Override
+		public long nextLong() {
+			checkNotClosed();
+			if ( m_next >= m_end ) {
+				throw new NoSuchElementException();
+			}
+			return m_next++;
 		}
 
 		@Override
-		public void close() throws Exception {
-			m_src.close();
+		public Spliterator<Long> spliterator() {
+			checkNotClosed();
+
+			Spliterator.OfLong spliterator = LongStream.range(m_next, m_end).spliterator();
+			m_next = m_end;
+
+			return spliterator;
 		}
+	}
 
-		@Override
-		public FOption<Long> next() {
-			return m_src.next();
+	/**
+	 * {@link FStream}{@code <Long>}을 {@link LongFStream}으로 노출시키는 어댑터.
+	 *
+	 * @deprecated	{@link LongFStream#downcast(FStream)}를 사용한다.
+	 */
+	@Deprecated
+	static class FStreamAdaptor extends LongUnboxingAdaptor {
+		FStreamAdaptor(FStream<Long> src) {
+			super(src);
 		}
 	}
 }
@@ -0,0 +1,140 @@
+package utils.stream;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import utils.Preconditions;
+
+
+/**
+ * {@code long} 키를 기준으로 스트림 원소들을 집계하는 연산자.
+ * <p>
+ * {@link FStream#groupByLong(ToLongFunction)}로 생성되며, 키와 누적값을 box하지 않는
+ * {@link LongLongMap}/{@link LongDoubleMap}에 직접 누적하므로 그룹별 {@code List}나 map entry 객체가
+ * 생성되지 않는다. 모든 집계 연산은 스트림을 끝까지 소비하고 close한다.
+ * <pre>{@code
+ * LongDoubleMap totals = FStream.from(orders).groupByLong(Order::getCustomerId)
+ *                                .sumDouble(Order::getAmount);
+ * }</pre>
+ *
+ * @param <T>	원소 타입.
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class LongGroupBy<T> {
+	private final FStream<T> m_src;
+	private final ToLongFunction<? super T> m_keyer;
+	private final int m_expectedGroups;
+
+	LongGroupBy(FStream<T> src, ToLongFunction<? super T> keyer, int expectedGroups) {
+		Preconditions.checkNotNullArgument(src, "source FStream is null");
+		Preconditions.checkNotNullArgument(keyer, "keyer is null");
+		Preconditions.checkArgument(expectedGroups >= 0, "expectedGroups >= 0, but: %s", expectedGroups);
+
+		m_src = src;
+		m_keyer = keyer;
+		m_expectedGroups = expectedGroups;
+	}
+
+	/**
+	 * 예상되는 그룹 수를 설정한다. 결과 map이 처음부터 충분한 크기로 할당되어 재할당이 발생하지 않는다.
+	 *
+	 * @param count	예상 그룹 수.
+	 * @return	설정이 반영된 새 {@link LongGroupBy} 객체.
+	 */
+	public LongGroupBy<T> expectedGroups(int count) {
+		return new LongGroupBy<>(m_src, m_keyer, count);
+	}
+
+	/**
+	 * 키 별 원소 수를 계산한다.
+	 *
+	 * @return	키 별 원소 수.
+	 */
+	public LongLongMap count() {
+		LongLongMap counts = new LongLongMap(m_expectedGroups);
+		forEach(v -> counts.addTo(m_keyer.applyAsLong(v), 1L));
+		return counts;
+	}
+
+	/**
+	 * 키 별로 {@code valuer}가 반환하는 값의 합을 계산한다.
+	 *
+	 * @param valuer	원소에서 합산할 값을 추출하는 함수.
+	 * @return	키 별 합계.
+	 */
+	public LongLongMap sumLong(ToLongFunction<? super T> valuer) {
+		Preconditions.checkNotNullArgument(valuer, "valuer is null");
+
+		LongLongMap sums = new LongLongMap(m_expectedGroups);
+		forEach(v -> sums.addTo(m_keyer.applyAsLong(v), valuer.applyAsLong(v)));
+		return sums;
+	}
+
+	/**
+	 * 키 별로 {@code valuer}가 반환하는 값의 합을 계산한다.
+	 *
+	 * @param valuer	원소에서 합산할 값을 추출하는 함수.
+	 * @return	키 별 합계.
+	 */
+	public LongDoubleMap sumDouble(ToDoubleFunction<? super T> valuer) {
+		Preconditions.checkNotNullArgument(valuer, "valuer is null");
+
+		LongDoubleMap sums = new LongDoubleMap(m_expectedGroups);
+		forEach(v -> sums.addTo(m_keyer.applyAsLong(v), valuer.applyAsDouble(v)));
+		return sums;
+	}
+
+	/**
+	 * 키 별로 {@code valuer}가 반환하는 값들을 {@code reducer}로 reduce한다.
+	 * (예: {@code reduceLong(valuer, Math::max)})
+	 *
+	 * @param valuer	원소에서 값을 추출하는 함수.
+	 * @param reducer	두 값을 병합하는 함수.
+	 * @return	키 별 reduce 결과.
+	 */
+	public LongLongMap reduceLong(ToLongFunction<? super T> valuer, LongBinaryOperator reducer) {
+		Preconditions.checkNotNullArgument(valuer, "valuer is null");
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		LongLongMap accums = new LongLongMap(m_expectedGroups);
+		forEach(v -> accums.merge(m_keyer.applyAsLong(v), valuer.applyAsLong(v), reducer));
+		return accums;
+	}
+
+	/**
+	 * 키 별로 {@code valuer}가 반환하는 값들을 {@code reducer}로 reduce한다.
+	 * (예: {@code reduceDouble(valuer, Math::min)})
+	 *
+	 * @param valuer	원소에서 값을 추출하는 함수.
+	 * @param reducer	두 값을 병합하는 함수.
+	 * @return	키 별 reduce 결과.
+	 */
+	public LongDoubleMap reduceDouble(ToDoubleFunction<? super T> valuer, DoubleBinaryOperator reducer) {
+		Preconditions.checkNotNullArgument(valuer, "valuer is null");
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		LongDoubleMap accums = new LongDoubleMap(m_expectedGroups);
+		forEach(v -> accums.merge(m_keyer.applyAsLong(v), valuer.applyAsDouble(v), reducer));
+		return accums;
+	}
+
+	private void forEach(Consumer<? super T> effect) {
+		try {
+			Object[] buf = new Object[FStreams.BATCH_SIZE];
+			int count;
+			while ( (count = m_src.nextBatch(buf)) > 0 ) {
+				for ( int i =0; i < count; ++i ) {
+					@SuppressWarnings("unchecked")
+					T value = (T)buf[i];
+					effect.accept(value);
+				}
+			}
+		}
+		finally {
+			m_src.closeQuietly();
+		}
+	}
+}
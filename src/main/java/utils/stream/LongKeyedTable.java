@@ -0,0 +1,210 @@
+package utils.stream;
+
+import java.util.Arrays;
+
+import utils.Preconditions;
+
+
+/**
+ * {@code long} 키를 box하지 않고 저장하는 open-addressing(linear probing) hash table.
+ * <p>
+ * 키와 값을 각각 {@code long[]} 배열에 저장하므로 entry 객체가 생성되지 않는다.
+ * 값은 {@code long} 비트열로 저장되며, 하위 클래스가 이를 {@code long} 또는 {@code double}로 해석한다.
+ * 키 {@code 0}은 빈 슬롯 표시로 사용되므로 배열의 마지막 여분 슬롯에 별도로 저장된다.
+ * <p>
+ * 테이블 크기는 항상 2의 거듭제곱이고, 원소 수가 크기의 {@link #LOAD_FACTOR}를 넘으면 두 배로 늘어난다.
+ * 최대 크기에 도달한 후에는 빈 슬롯이 하나 남을 때까지 채울 수 있으며, 그 이상의 키를 추가하면
+ * {@link IllegalStateException}이 발생한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+abstract class LongKeyedTable {
+	static final float LOAD_FACTOR = 0.75f;
+	private static final int MIN_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	protected long[] m_keys;
+	protected long[] m_values;
+	private int m_mask;
+	private boolean m_hasZeroKey = false;
+	private int m_size = 0;
+	private int m_threshold;
+
+	protected LongKeyedTable(int expectedSize) {
+		Preconditions.checkArgument(expectedSize >= 0, "expectedSize >= 0, but: %s", expectedSize);
+
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * 저장된 키의 수를 반환한다.
+	 *
+	 * @return	키의 수.
+	 */
+	public int size() {
+		return m_size;
+	}
+
+	public boolean isEmpty() {
+		return m_size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * 모든 키를 배열로 반환한다. 키의 순서는 정의되지 않는다.
+	 *
+	 * @return	키 배열.
+	 */
+	public long[] keys() {
+		long[] keys = new long[m_size];
+		int idx = 0;
+		if ( m_hasZeroKey ) {
+			keys[idx++] = 0L;
+		}
+		for ( int i =0; i <= m_mask; ++i ) {
+			if ( m_keys[i] != 0 ) {
+				keys[idx++] = m_keys[i];
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * 주어진 키가 저장된 슬롯 번호를 반환한다.
+	 *
+	 * @param key	키.
+	 * @return	슬롯 번호. 키가 없는 경우는 음수.
+	 */
+	protected final int indexOf(long key) {
+		if ( key == 0 ) {
+			return m_hasZeroKey ? zeroSlot() : -1;
+		}
+
+		int idx = hash(key) & m_mask;
+		long cur;
+		while ( (cur = m_keys[idx]) != 0 ) {
+			if ( cur == key ) {
+				return idx;
+			}
+			idx = (idx + 1) & m_mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * 주어진 키의 슬롯을 찾거나 새로 할당한다.
+	 * <p>
+	 * 새로 할당된 경우는 반환 값이 {@code -(slot + 1)}이며, 호출자가 해당 슬롯의 값을 초기화해야 한다.
+	 *
+	 * @param key	키.
+	 * @return	기존 슬롯 번호 또는 {@code -(새 슬롯 번호 + 1)}.
+	 * @throws IllegalStateException	최대 크기의 테이블이 가득 차서 새 키를 추가할 수 없는 경우.
+	 */
+	protected final int insertionIndexOf(long key) {
+		if ( key == 0 ) {
+			if ( m_hasZeroKey ) {
+				return zeroSlot();
+			}
+			m_hasZeroKey = true;
+			++m_size;
+			return -(zeroSlot() + 1);
+		}
+
+		if ( m_size >= m_threshold && m_mask + 1 < MAX_CAPACITY ) {
+			rehash((m_mask + 1) << 1);
+		}
+
+		int idx = hash(key) & m_mask;
+		long cur;
+		while ( (cur = m_keys[idx]) != 0 ) {
+			if ( cur == key ) {
+				return idx;
+			}
+			idx = (idx + 1) & m_mask;
+		}
+		// 최대 크기의 테이블에서는 더 늘릴 수 없으므로, 탐색이 끝날 수 있도록 빈 슬롯을 하나 남긴다.
+		Preconditions.checkState(m_size < m_threshold, "too many keys: size=%s", m_size);
+		m_keys[idx] = key;
+		++m_size;
+		return -(idx + 1);
+	}
+
+	protected final boolean isOccupied(int slot) {
+		return (slot == zeroSlot()) ? m_hasZeroKey : m_keys[slot] != 0;
+	}
+
+	/**
+	 * 전체 슬롯 수 (키 {@code 0}을 위한 여분 슬롯 포함)를 반환한다.
+	 *
+	 * @return	슬롯 수.
+	 */
+	protected final int slotCount() {
+		return m_keys.length;
+	}
+
+	private int zeroSlot() {
+		return m_mask + 1;
+	}
+
+	private void allocate(int capacity) {
+		m_keys = new long[capacity + 1];
+		m_values = new long[capacity + 1];
+		m_mask = capacity - 1;
+		m_threshold = (capacity == MAX_CAPACITY) ? capacity - 1 : (int)(capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int newCapacity) {
+		Preconditions.checkState(newCapacity <= MAX_CAPACITY, "too many keys: size=%s", m_size);
+
+		long[] oldKeys = m_keys;
+		long[] oldValues = m_values;
+		int oldZeroSlot = zeroSlot();
+
+		allocate(newCapacity);
+		for ( int i =0; i < oldZeroSlot; ++i ) {
+			long key = oldKeys[i];
+			if ( key != 0 ) {
+				int idx = hash(key) & m_mask;
+				while ( m_keys[idx] != 0 ) {
+					idx = (idx + 1) & m_mask;
+				}
+				m_keys[idx] = key;
+				m_values[idx] = oldValues[i];
+			}
+		}
+		m_values[zeroSlot()] = oldValues[oldZeroSlot];
+	}
+
+	private static int capacityFor(int expectedSize) {
+		long required = (long)Math.ceil(expectedSize / (double)LOAD_FACTOR) + 1;
+		int capacity = MIN_CAPACITY;
+		while ( capacity < required && capacity < MAX_CAPACITY ) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		long[] keys = keys();
+		Arrays.sort(keys);
+		StringBuilder builder = new StringBuilder("{");
+		for ( int i =0; i < keys.length; ++i ) {
+			if ( i > 0 ) {
+				builder.append(", ");
+			}
+			builder.append(keys[i]).append('=').append(valueToString(indexOf(keys[i])));
+		}
+		return builder.append('}').toString();
+	}
+
+	protected abstract String valueToString(int slot);
+}
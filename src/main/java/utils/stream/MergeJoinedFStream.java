@@ -0,0 +1,192 @@
+package utils.stream;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import utils.KeyValue;
+import utils.Preconditions;
+import utils.Tuple;
+import utils.func.FOption;
+import utils.stream.KeyValueFStreams.AbstractKeyValueFStream;
+
+
+/**
+ * 키 오름차순으로 정렬된 두 {@link KeyValueFStream}을 sort-merge 방식으로 join한 스트림.
+ * <p>
+ * 양측 스트림을 동시에 한 키 그룹씩 읽어가며 join하므로, 메모리에는 현재 키에 해당하는 양측의
+ * 원소 그룹만 유지된다. 양측 스트림 중 하나라도 키 순서가 오름차순이 아닌 원소가 발견되면
+ * {@link IllegalStateException}을 발생시킨다.
+ * <p>
+ * {@code keepLeftUnmatched}/{@code keepRightUnmatched} 설정에 따라 inner, left outer, right outer,
+ * full outer join을 수행하며, 상대편에 같은 키가 없는 원소는 상대편 값을 {@code null}로 하여 반환한다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class MergeJoinedFStream<K,TL,TR> extends AbstractKeyValueFStream<K,Tuple<TL,TR>> {
+	private final Side<TL> m_left;
+	private final Side<TR> m_right;
+	private final Comparator<? super K> m_cmp;
+	private final boolean m_keepLeftUnmatched;
+	private final boolean m_keepRightUnmatched;
+
+	// 현재 키 그룹에 대한 출력 상태
+	private K m_key;
+	private List<TL> m_leftGroup = Collections.emptyList();
+	private List<TR> m_rightGroup = Collections.emptyList();
+	private int m_leftIdx = 0;
+	private int m_rightIdx = 0;
+
+	MergeJoinedFStream(KeyValueFStream<K,TL> left, KeyValueFStream<K,TR> right, Comparator<? super K> cmp,
+						boolean keepLeftUnmatched, boolean keepRightUnmatched) {
+		Preconditions.checkNotNullArgument(left, "left stream is null");
+		Preconditions.checkNotNullArgument(right, "right stream is null");
+		Preconditions.checkNotNullArgument(cmp, "key comparator is null");
+
+		m_left = new Side<>("left", left);
+		m_right = new Side<>("right", right);
+		m_cmp = cmp;
+		m_keepLeftUnmatched = keepLeftUnmatched;
+		m_keepRightUnmatched = keepRightUnmatched;
+	}
+
+	@Override
+	protected void initialize() {
+		m_left.advance();
+		m_right.advance();
+	}
+
+	@Override
+	protected void closeInGuard() throws Exception {
+		m_left.m_strm.closeQuietly();
+		m_right.m_strm.closeQuietly();
+	}
+
+	@Override
+	protected FOption<KeyValue<K,Tuple<TL,TR>>> nextInGuard() {
+		while ( m_leftIdx >= m_leftGroup.size() ) {
+			if ( !loadNextGroups() ) {
+				return FOption.empty();
+			}
+		}
+
+		TL left = m_leftGroup.get(m_leftIdx);
+		TR right = m_rightGroup.get(m_rightIdx);
+		if ( ++m_rightIdx >= m_rightGroup.size() ) {
+			m_rightIdx = 0;
+			++m_leftIdx;
+		}
+		return FOption.of(KeyValue.of(m_key, Tuple.of(left, right)));
+	}
+
+	@Override
+	public String toString() {
+		String type = m_keepLeftUnmatched
+					? (m_keepRightUnmatched ? "full_outer" : "left_outer")
+					: (m_keepRightUnmatched ? "right_outer" : "inner");
+		return String.format("merge_join[%s]", type);
+	}
+
+	/**
+	 * 양측 스트림에서 다음 키 그룹을 읽어 출력할 원소 그룹들을 설정한다.
+	 *
+	 * @return	더 이상 읽을 그룹이 없으면 {@code false}.
+	 */
+	private boolean loadNextGroups() {
+		m_leftIdx = 0;
+		m_rightIdx = 0;
+
+		while ( true ) {
+			if ( m_left.m_head == null && m_right.m_head == null ) {
+				m_leftGroup = Collections.emptyList();
+				m_rightGroup = Collections.emptyList();
+				return false;
+			}
+
+			int cmp;
+			if ( m_left.m_head == null ) {
+				cmp = 1;
+			}
+			else if ( m_right.m_head == null ) {
+				cmp = -1;
+			}
+			else {
+				cmp = m_cmp.compare(m_left.m_head.key(), m_right.m_head.key());
+			}
+
+			if ( cmp < 0 ) {
+				if ( m_keepLeftUnmatched ) {
+					m_key = m_left.m_head.key();
+					m_leftGroup = m_left.readGroup();
+					m_rightGroup = Collections.singletonList(null);
+					return true;
+				}
+				m_left.skipGroup();
+			}
+			else if ( cmp > 0 ) {
+				if ( m_keepRightUnmatched ) {
+					m_key = m_right.m_head.key();
+					m_leftGroup = Collections.singletonList(null);
+					m_rightGroup = m_right.readGroup();
+					return true;
+				}
+				m_right.skipGroup();
+			}
+			else {
+				m_key = m_left.m_head.key();
+				m_leftGroup = m_left.readGroup();
+				m_rightGroup = m_right.readGroup();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * join의 한쪽 입력 스트림과 그 다음 원소(head)를 관리한다.
+	 */
+	private final class Side<V> {
+		private final String m_name;
+		private final KeyValueFStream<K,V> m_strm;
+		private KeyValue<K,V> m_head;	// null이면 스트림의 끝을 의미한다.
+
+		Side(String name, KeyValueFStream<K,V> strm) {
+			m_name = name;
+			m_strm = strm;
+		}
+
+		void advance() {
+			KeyValue<K,V> prev = m_head;
+			m_head = m_strm.next().getOrNull();
+			if ( prev != null && m_head != null && m_cmp.compare(prev.key(), m_head.key()) > 0 ) {
+				throw new IllegalStateException(String.format("%s stream is not sorted by key: %s -> %s",
+																m_name, prev.key(), m_head.key()));
+			}
+		}
+
+		/**
+		 * 현재 head와 같은 키를 갖는 연속된 원소들의 값을 읽는다.
+		 */
+		List<V> readGroup() {
+			K key = m_head.key();
+			List<V> group = Lists.newArrayList();
+			do {
+				group.add(m_head.value());
+				advance();
+			} while ( m_head != null && m_cmp.compare(key, m_head.key()) == 0 );
+
+			return group;
+		}
+
+		/**
+		 * 현재 head와 같은 키를 갖는 연속된 원소들을 메모리에 적재하지 않고 건너뛴다.
+		 */
+		void skipGroup() {
+			K key = m_head.key();
+			do {
+				advance();
+			} while ( m_head != null && m_cmp.compare(key, m_head.key()) == 0 );
+		}
+	}
+}
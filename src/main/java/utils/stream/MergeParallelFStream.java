@@ -34,7 +34,7 @@ import utils.stream.FStreams.AbstractFStream;
  * 워커가 동시에 push하므로 <b>출력 순서는 정의되지 않으며</b>, 서로 다른 입력 스트림의
  * 원소가 임의로 섞여 나타날 수 있다.
  * <p>
- * 출력 채널은 워커 수와 동일한 용량을 가진 {@link SuppliableFStream}으로, 소비자가 느리면
+ * 출력 채널은 워커 수와 동일한 용량을 가진 {@link FStreamChannel}로, 소비자가 느리면
  * 자연스러운 backpressure가 발생한다.
  * <p>
  * 워커 실행은 생성자에 주어진 {@link Executor}에 위임된다. {@code null}이면 매 작업마다
@@ -50,7 +50,7 @@ class MergeParallelFStream<T> extends AbstractFStream<T> {
 	private final @Nullable Executor m_executor;
 
 	private final Guard m_guard = Guard.create();
-	@GuardedBy("m_guard") private final SuppliableFStream<T> m_outChannel;
+	@GuardedBy("m_guard") private final FStreamChannel<T> m_outChannel;
 	@GuardedBy("m_guard") int m_runningWorkerCount = 0;
 
 	/**
@@ -65,13 +65,28 @@ class MergeParallelFStream<T> extends AbstractFStream<T> {
 	 */
 	MergeParallelFStream(FStream<? extends FStream<? extends T>> fact,
 							int workerCount, @Nullable Executor executor) {
+		this(fact, workerCount, executor, new SuppliableFStream<>(Math.max(workerCount, 1)));
+	}
+
+	/**
+	 * 주어진 옵션의 워커 수, executor 및 출력 채널 종류를 사용하는 병합 스트림을 생성한다.
+	 *
+	 * @param fact		병합할 입력 스트림들을 공급하는 팩토리 스트림. {@code null} 불가.
+	 * @param options	비동기 실행 옵션.
+	 */
+	MergeParallelFStream(FStream<? extends FStream<? extends T>> fact, AsyncExecutionOptions options) {
+		this(fact, options.getWorkerCount(), options.getExecutor(), options.newChannel(options.getWorkerCount()));
+	}
+
+	private MergeParallelFStream(FStream<? extends FStream<? extends T>> fact,
+									int workerCount, @Nullable Executor executor, FStreamChannel<T> outChannel) {
 		Preconditions.checkNotNullArgument(fact, "mapper is null");
 		Preconditions.checkArgument(workerCount > 0, "workerCount should be positive: " + workerCount);
 
 		m_fact = fact;
 		m_workerCount = workerCount;
 		m_executor = executor;
-		m_outChannel = new SuppliableFStream<>(workerCount);
+		m_outChannel = outChannel;
 	}
 	
 	/**
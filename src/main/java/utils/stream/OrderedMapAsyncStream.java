@@ -5,10 +5,11 @@ import java.util.concurrent.CancellationException;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import org.jetbrains.annotations.Nullable;
+
 import utils.Preconditions;
 import utils.Tuple;
 import utils.async.AsyncResult;
-import utils.async.Executions;
 import utils.async.StartableExecution;
 import utils.func.CheckedFunction;
 import utils.func.FOption;
@@ -37,6 +38,10 @@ import utils.thread.Guard;
  * 중인 매핑 작업에는 {@code cancel}을 전파하지 않으므로 작업은 끝까지 실행되지만, 그 결과는 닫힌
  * 채널에 enqueue되거나 소비자에 의해 더 이상 소비되지 않아 silent drop된다. close 이후 새로 호출되는
  * {@link #startNext()}는 {@link IllegalStateException}으로 즉시 빠져나온다.
+ * <p>
+ * {@link AsyncExecutionOptions#getConcurrencyLimiter()}가 설정된 경우는 고정된 수 대신 limiter가 허용하는
+ * 수만큼 작업을 시작한다. 이때 작업 슬롯은 결과가 소비자에게 반환될 때 반납되므로, 완료되었으나 아직
+ * 소비되지 않은 작업도 동시 작업 수에 포함된다.
  *
  * @param <S> 입력 스트림 원소 타입.
  * @param <T> 매핑 결과 타입.
@@ -49,19 +54,25 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 
 	/** 워커 수, executor 등 비동기 실행 옵션. */
 	private final AsyncExecutionOptions m_options;
+	/** 동시 작업 수를 조정하는 limiter. 설정되지 않은 경우는 {@code null}. */
+	private final @Nullable ConcurrencyLimiter m_limiter;
 	/** Producer 측 상태({@link #m_outChannel} 변경, {@link #m_runningWorkerCount} 변경)를 보호한다. */
 	private final Guard m_guard = Guard.create();
 	/**
 	 * Producer 측 operations ({@code supply}, {@code endOfSupply}, {@code close})은
-	 * {@code m_guard} 안에서 직렬화된다. Consumer의 {@code next()} 는 {@link SuppliableFStream}
+	 * {@code m_guard} 안에서 직렬화된다. Consumer의 {@code next()} 는 {@link FStreamChannel}
 	 * 자체의 thread-safety에 의존해 lock 없이 호출된다.
 	 */
-	private final SuppliableFStream<Tuple<S,StartableExecution<T>>> m_outChannel;
+	private final FStreamChannel<Tuple<S,StartableExecution<T>>> m_outChannel;
 	/**
 	 * 아직 종료 시그널이 필요한 worker slot 수. {@link #startNext()} 가 빈 입력을 만날 때마다
 	 * 감소하며, 0이 되면 {@code m_outChannel.endOfSupply()}를 호출하여 소비자에게 종료를 알린다.
 	 */
 	@GuardedBy("m_guard") int m_runningWorkerCount = 0;
+	/** 시작되었으나 아직 소비되지 않은 작업 수. 소비자 측에서만 접근된다. */
+	private int m_windowSize = 0;
+	/** 입력 스트림 소진 여부. 소비자 측에서만 접근된다. */
+	private boolean m_inputExhausted = false;
 
 	/**
 	 * @param src     입력 스트림. {@code null} 여부는 별도 검증하지 않으므로 호출자가 non-null임을
@@ -79,8 +90,10 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
 
 		m_options = options;
-		m_jobStream = src.map(input -> applyFunction(mapper, input));
-		m_outChannel = new SuppliableFStream<>(options.getWorkerCount());
+		m_limiter = options.getConcurrencyLimiter();
+		ResilientMapper<S,T> resilient = new ResilientMapper<>(mapper, options);
+		m_jobStream = src.map(input -> applyFunction(resilient, input));
+		m_outChannel = options.newChannel(options.getWorkerCount());
 	}
 
 	/**
@@ -96,6 +109,13 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	protected void closeInGuard() throws Exception {
 		m_guard.run(() -> Unchecked.runOrIgnore(m_outChannel::close));
 		Unchecked.runOrIgnore(m_jobStream::close);
+		
+		// 소비되지 않고 폐기되는 작업들의 슬롯을 반납한다.
+		if ( m_limiter != null ) {
+			for ( ; m_windowSize > 0; --m_windowSize ) {
+				m_limiter.release();
+			}
+		}
 	}
 
 	/**
@@ -104,6 +124,13 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	 */
 	@Override
 	protected void initialize() {
+		if ( m_limiter != null ) {
+			// 입력 소진은 startNext() 한 번으로 판단되므로 worker slot은 하나로 둔다.
+			m_guard.run(() -> m_runningWorkerCount = 1);
+			fillWindow();
+			return;
+		}
+		
 		int n = m_options.getWorkerCount();
 		// {@code m_runningWorkerCount} 는 @GuardedBy("m_guard") 이므로 lock 안에서 초기화한다.
 		m_guard.run(() -> m_runningWorkerCount = n);
@@ -122,22 +149,49 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	protected FOption<Tuple<S,Try<T>>> nextInGuard() {
 		return m_outChannel.next()
 							.map(this::awaitResult)
-							.ifPresent(__ -> startNext());
+							.ifPresent(__ -> {
+								if ( m_limiter != null ) {
+									--m_windowSize;
+									m_limiter.release();
+									fillWindow();
+								}
+								else {
+									startNext();
+								}
+							});
+	}
+	
+	/**
+	 * Limiter가 허용하는 범위 내에서 새 작업들을 시작한다.
+	 * <p>
+	 * 시작된 작업이 하나도 없는 경우는 (limiter를 공유하는 다른 스트림들로 인해 한도에 도달한 경우에도)
+	 * 스트림이 진행될 수 있도록 한도와 무관하게 하나의 작업을 시작한다.
+	 */
+	private void fillWindow() {
+		while ( !m_inputExhausted ) {
+			if ( !m_limiter.tryAcquire() ) {
+				if ( m_windowSize > 0 ) {
+					return;
+				}
+				m_limiter.acquire();
+			}
+			if ( !startNext() ) {
+				m_limiter.release();
+				return;
+			}
+		}
 	}
 	
 	/**
 	 * 입력 원소를 비동기 매핑 실행 객체로 감싼다. 실제 매핑은 {@link StartableExecution#start()} 호출
-	 * 시점에 시작된다.
+	 * 시점에 시작된다. 제한 시간, 재시도, 추가 호출 등은 {@link ResilientMapper}에 의해 처리된다.
 	 *
-	 * @param func  매핑 함수.
+	 * @param func  매핑 함수 호출기.
 	 * @param input 입력 원소.
 	 * @return 입력 원소와 아직 시작되지 않은 매핑 실행 객체의 튜플.
 	 */
-	private Tuple<S,StartableExecution<T>> applyFunction(CheckedFunction<? super S, ? extends T> func,
-														S input) {
-		StartableExecution<T> exec = Executions.supplyCheckedAsync(() -> func.apply(input),
-																	m_options.getExecutor());
-		return Tuple.of(input, exec);
+	private Tuple<S,StartableExecution<T>> applyFunction(ResilientMapper<S,T> func, S input) {
+		return Tuple.of(input, func.toExecution(input));
 	}
 
 	/**
@@ -197,19 +251,27 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	 *       {@code endOfSupply(e)}로 종료시켜 소비자에게 예외로 전파한다. 이미 enqueue된 결과는
 	 *       정상 소비된 뒤 마지막에 본 예외가 던져진다.</li>
 	 * </ul>
+	 *
+	 * @return 작업이 시작된 경우는 {@code true}, 입력 스트림이 소진된 경우는 {@code false}.
 	 */
-	private void startNext() {
+	private boolean startNext() {
 		m_guard.lock();
 		try {
-			m_jobStream.next()
-						.ifPresent(job -> {
+			FOption<Tuple<S,StartableExecution<T>>> ojob = m_jobStream.next();
+			ojob.ifPresent(job -> {
 							try {
 								S input = job._1();
 								StartableExecution<T> exec = job._2();
+								if ( m_limiter != null ) {
+									long started = System.nanoTime();
+									exec.whenFinished(ret -> m_limiter.onSample(System.nanoTime() - started,
+																				ret.isFailed()));
+								}
 								// exec을 먼저 시작한 후 채널에 enqueue한다 — 반대 순서로 하면
 								// consumer가 unstarted exec을 꺼내 waitForFinished()에서 블록되는
 								// race가 생길 수 있다.
 								exec.start();
+								++m_windowSize;
 								m_outChannel.supply(Tuple.of(input, exec));
 							}
 							catch ( InterruptedException e ) {
@@ -233,10 +295,12 @@ class OrderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 							}
 						})
 						.ifAbsent(() -> {
+							m_inputExhausted = true;
 							if ( --m_runningWorkerCount == 0 ) {
 								m_outChannel.endOfSupply();
 							}
 						});
+			return ojob.isPresent();
 		}
 		finally {
 			m_guard.unlock();
@@ -1,5 +1,6 @@
 package utils.stream;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -12,65 +13,215 @@ import utils.KeyValue;
 import utils.Tuple;
 import utils.func.FOption;
 import utils.func.Funcs;
+import utils.stream.FStreams.AbstractFStream;
 import utils.stream.KeyValueFStreams.AbstractKeyValueFStream;
 
 /**
+ * 두 {@link KeyValueFStream}을 키 기준으로 full outer join한 스트림.
+ * <p>
+ * 양측 스트림에 등장하는 각 키마다 왼쪽 원소 리스트와 오른쪽 원소 리스트의 쌍을 반환한다.
+ * 양측에서 읽은 원소 수의 합이 {@link JoinOptions#getMaxInMemory()}를 넘으면 grace hash join으로
+ * 전환되어 양측 스트림을 키의 hash 값에 따라 파티션 파일로 나누어 기록한 뒤 파티션 단위로 join한다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 class OuterJoinedFStream<K,TL,TR> extends AbstractKeyValueFStream<K,Tuple<List<TL>,List<TR>>> {
+	/** 파티션이 여전히 메모리 한도를 넘는 경우 재분할을 시도할 최대 단계. */
+	private static final int MAX_PARTITION_LEVEL = 3;
+
 	private final KeyValueFStream<K,TL> m_left;
 	private final KeyValueFStream<K,TR> m_right;
-	private Map<K,List<TL>> m_leftDict;
-	private Map<K,List<TR>> m_rightDict;
-	private Iterator<K> m_keyIter;
-	
-	OuterJoinedFStream(KeyValueFStream<K,TL> left, KeyValueFStream<K,TR> right) {
+	private final JoinOptions m_opts;
+	private FStream<KeyValue<K,Tuple<List<TL>,List<TR>>>> m_output;
+
+	OuterJoinedFStream(KeyValueFStream<K,TL> left, KeyValueFStream<K,TR> right, JoinOptions opts) {
 		m_left = left;
 		m_right = right;
+		m_opts = opts;
 	}
 
 	@Override
 	protected void initialize() {
-		m_leftDict = Maps.newHashMap();
-		for ( KeyValue<K,TL> left: m_left ) {
-			K key = left.key();
-			m_leftDict.computeIfAbsent(key, k -> Lists.newArrayList()).add(left.value());
+		try {
+			m_output = hashJoin();
 		}
-		
-		m_rightDict = Maps.newHashMap();
-		for ( KeyValue<K,TR> right: m_right ) {
-			K key = right.key();
-			m_rightDict.computeIfAbsent(key, k -> Lists.newArrayList()).add(right.value());
+		catch ( IOException e ) {
+			throw new FStreamException("fails to spill join partitions", e);
 		}
-		
-		m_keyIter = m_leftDict.keySet().iterator();
 	}
 
 	@Override
 	protected void closeInGuard() throws Exception {
+		if ( m_output != null ) {
+			m_output.closeQuietly();
+		}
+		m_left.closeQuietly();
+		m_right.closeQuietly();
 	}
 
 	@Override
 	protected FOption<KeyValue<K,Tuple<List<TL>,List<TR>>>> nextInGuard() {
-		if ( m_keyIter.hasNext() ) {
-			K key = m_keyIter.next();
-			List<TL> leftBucket = m_leftDict.get(key);
-			List<TR> rightBucket = m_rightDict.remove(key);
-			if ( rightBucket == null ) {
-				rightBucket = Collections.emptyList();
+		return m_output.next();
+	}
+
+	private FStream<KeyValue<K,Tuple<List<TL>,List<TR>>>> hashJoin() throws IOException {
+		long count = 0;
+
+		Map<K,List<TL>> leftDict = Maps.newHashMap();
+		FOption<KeyValue<K,TL>> lnext;
+		while ( (lnext = m_left.next()).isPresent() ) {
+			KeyValue<K,TL> left = lnext.getUnchecked();
+			leftDict.computeIfAbsent(left.key(), k -> Lists.newArrayList()).add(left.value());
+			if ( ++count > m_opts.getMaxInMemory() ) {
+				return spill(leftDict, Maps.newHashMap());
+			}
+		}
+
+		Map<K,List<TR>> rightDict = Maps.newHashMap();
+		FOption<KeyValue<K,TR>> rnext;
+		while ( (rnext = m_right.next()).isPresent() ) {
+			KeyValue<K,TR> right = rnext.getUnchecked();
+			rightDict.computeIfAbsent(right.key(), k -> Lists.newArrayList()).add(right.value());
+			if ( ++count > m_opts.getMaxInMemory() ) {
+				return spill(leftDict, rightDict);
+			}
+		}
+
+		return new BucketPairs(leftDict, rightDict);
+	}
+
+	/**
+	 * 지금까지 읽은 원소들과 양측 스트림의 나머지 원소들을 파티션 파일로 내보낸다.
+	 */
+	private FStream<KeyValue<K,Tuple<List<TL>,List<TR>>>> spill(Map<K,List<TL>> leftDict,
+																Map<K,List<TR>> rightDict)
+		throws IOException {
+		KeyHashPartitions<K,TL> leftParts = new KeyHashPartitions<>(m_opts, m_opts.getLeftValueCodec(), 0,
+																		"fstream_join_");
+		KeyHashPartitions<K,TR> rightParts = null;
+		try {
+			leftParts.addAll(leftDict);
+			leftDict.clear();
+			leftParts.addAll(m_left);
+
+			rightParts = new KeyHashPartitions<>(m_opts, m_opts.getRightValueCodec(), 0, "fstream_join_");
+			rightParts.addAll(rightDict);
+			rightDict.clear();
+			rightParts.addAll(m_right);
+		}
+		catch ( IOException | RuntimeException e ) {
+			leftParts.delete();
+			if ( rightParts != null ) {
+				rightParts.delete();
+			}
+			throw e;
+		}
+
+		return joinPartitions(leftParts, rightParts, 1);
+	}
+
+	private FStream<KeyValue<K,Tuple<List<TL>,List<TR>>>>
+	joinPartitions(KeyHashPartitions<K,TL> leftParts, KeyHashPartitions<K,TR> rightParts, int level)
+		throws IOException {
+		leftParts.finish();
+		rightParts.finish();
+
+		return FStream.range(0, leftParts.size())
+						.flatMap(idx -> {
+							try {
+								return joinPartition(leftParts.get(idx), rightParts.get(idx), level);
+							}
+							catch ( IOException e ) {
+								throw new FStreamException("fails to join partition: index=" + idx, e);
+							}
+						})
+						.onClose(() -> {
+							leftParts.delete();
+							rightParts.delete();
+						});
+	}
+
+	private FStream<KeyValue<K,Tuple<List<TL>,List<TR>>>>
+	joinPartition(SpillFile<KeyValue<K,TL>> leftFile, SpillFile<KeyValue<K,TR>> rightFile, int level)
+		throws IOException {
+		if ( leftFile.size() + rightFile.size() > m_opts.getMaxInMemory() && level < MAX_PARTITION_LEVEL ) {
+			KeyHashPartitions<K,TL> leftParts = new KeyHashPartitions<>(m_opts, m_opts.getLeftValueCodec(),
+																				level, "fstream_join_");
+			KeyHashPartitions<K,TR> rightParts = null;
+			try {
+				leftParts.addAll(leftFile.read());
+				leftFile.delete();
+
+				rightParts = new KeyHashPartitions<>(m_opts, m_opts.getRightValueCodec(), level,
+													"fstream_join_");
+				rightParts.addAll(rightFile.read());
+				rightFile.delete();
+			}
+			catch ( IOException | RuntimeException e ) {
+				leftParts.delete();
+				if ( rightParts != null ) {
+					rightParts.delete();
+				}
+				throw e;
 			}
-			
-			return FOption.of(KeyValue.of(key, Tuple.of(leftBucket, rightBucket)));
+
+			return joinPartitions(leftParts, rightParts, level+1);
 		}
-		else {
-			K unmatchedKey = Funcs.getFirst(m_rightDict.keySet());
-			if ( unmatchedKey != null ) {
-				List<TR> rightBucket = m_rightDict.remove(unmatchedKey);
-				return FOption.of(KeyValue.of(unmatchedKey, Tuple.of(Collections.emptyList(), rightBucket)));
+
+		Map<K,List<TL>> leftDict = Maps.newHashMap();
+		leftFile.read().forEach(kv -> leftDict.computeIfAbsent(kv.key(), k -> Lists.newArrayList())
+												.add(kv.value()));
+		leftFile.delete();
+
+		Map<K,List<TR>> rightDict = Maps.newHashMap();
+		rightFile.read().forEach(kv -> rightDict.computeIfAbsent(kv.key(), k -> Lists.newArrayList())
+												.add(kv.value()));
+		rightFile.delete();
+
+		return new BucketPairs(leftDict, rightDict);
+	}
+
+	/**
+	 * 메모리에 적재된 양측의 키별 원소 리스트들을 outer join하여 반환하는 스트림.
+	 */
+	private class BucketPairs extends AbstractFStream<KeyValue<K,Tuple<List<TL>,List<TR>>>> {
+		private final Map<K,List<TL>> m_leftDict;
+		private final Map<K,List<TR>> m_rightDict;
+		private final Iterator<K> m_keyIter;
+
+		BucketPairs(Map<K,List<TL>> leftDict, Map<K,List<TR>> rightDict) {
+			m_leftDict = leftDict;
+			m_rightDict = rightDict;
+			m_keyIter = leftDict.keySet().iterator();
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_leftDict.clear();
+			m_rightDict.clear();
+		}
+
+		@Override
+		protected FOption<KeyValue<K,Tuple<List<TL>,List<TR>>>> nextInGuard() {
+			if ( m_keyIter.hasNext() ) {
+				K key = m_keyIter.next();
+				List<TL> leftBucket = m_leftDict.get(key);
+				List<TR> rightBucket = m_rightDict.remove(key);
+				if ( rightBucket == null ) {
+					rightBucket = Collections.emptyList();
+				}
+
+				return FOption.of(KeyValue.of(key, Tuple.of(leftBucket, rightBucket)));
 			}
 			else {
-				return FOption.empty();
+				K unmatchedKey = Funcs.getFirst(m_rightDict.keySet());
+				if ( unmatchedKey != null ) {
+					List<TR> rightBucket = m_rightDict.remove(unmatchedKey);
+					return FOption.of(KeyValue.of(unmatchedKey, Tuple.of(Collections.emptyList(), rightBucket)));
+				}
+				else {
+					return FOption.empty();
+				}
 			}
 		}
 	}
@@ -0,0 +1,307 @@
+package utils.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import utils.Holder;
+import utils.Preconditions;
+import utils.func.FOption;
+import utils.stream.FStreams.FusedOp;
+import utils.stream.FStreams.FusedStream;
+
+
+/**
+ * {@link FStream#parallel(int)}로 생성되는 fork-join 방식의 병렬 실행 스트림.
+ * <p>
+ * 원천 스트림을 {@link Spliterator}로 분할하여 {@link ForkJoinPool}의 쓰레드들이 분할 단위로
+ * {@link #map}, {@link #filter}, {@link #peek} 등의 상태 없는 연산을 수행하고,
+ * {@link #fold}, {@link #reduce}, {@link #collect}, {@link #reduceByKey}, {@link #count} 등의
+ * 종결 연산은 분할별로 계산된 결과를 결합하여 최종 결과를 만든다.
+ * 분할 결과는 원천 스트림에서의 순서대로 결합되므로 {@link #toList()}의 결과 순서는 원천 스트림의
+ * 순서와 동일하다.
+ * <p>
+ * {@code FStream.from(list).map(f).parallel(8)}과 같이 병렬화 직전의 {@code filter}/{@code map}/{@code peek}
+ * 연산들도 분할 단위로 병렬 수행된다.
+ * <p>
+ * 일반 {@link FStream}과 마찬가지로 일회성이며, 종결 연산이 수행되면 원천 스트림은 close된다.
+ * 각 종결 연산은 {@code parallelism} 크기의 {@link ForkJoinPool}을 생성하여 수행하고
+ * 종료시 pool을 종료시킨다.
+ *
+ * @param <T> 스트림 원소 타입.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class ParallelFStream<T> {
+	private final FStream<?> m_src;
+	private final FusedOp[] m_ops;
+	private final int m_parallelism;
+
+	private ParallelFStream(FStream<?> src, FusedOp[] ops, int parallelism) {
+		m_src = src;
+		m_ops = ops;
+		m_parallelism = parallelism;
+	}
+
+	@SuppressWarnings({ "rawtypes" })
+	static <T> ParallelFStream<T> from(FStream<T> strm, int parallelism) {
+		Preconditions.checkNotNullArgument(strm, "source FStream is null");
+		Preconditions.checkArgument(parallelism > 0, "parallelism > 0, but: " + parallelism);
+
+		// 병렬화 직전의 fused 연산들은 분할 단위로 수행되도록 가져온다.
+		if ( strm instanceof FusedStream fused && fused.isFusible() ) {
+			return new ParallelFStream<>(fused.getSource(), fused.getOps(), parallelism);
+		}
+		else {
+			return new ParallelFStream<>(strm, FusedOp.NONE, parallelism);
+		}
+	}
+
+	/**
+	 * 병렬 수행에 사용되는 쓰레드 수를 반환한다.
+	 *
+	 * @return	병렬도.
+	 */
+	public int getParallelism() {
+		return m_parallelism;
+	}
+
+	/**
+	 * 각 원소를 {@code mapper}로 변환한 병렬 스트림을 생성한다.
+	 * <p>
+	 * {@code mapper}는 여러 쓰레드에서 동시에 호출될 수 있다.
+	 *
+	 * @param <S>		매핑된 데이터의 타입.
+	 * @param mapper	매핑 함수.
+	 * @return	병렬 스트림.
+	 */
+	public <S> ParallelFStream<S> map(Function<? super T,? extends S> mapper) {
+		return new ParallelFStream<>(m_src, FusedOp.append(m_ops, FusedOp.map(mapper)), m_parallelism);
+	}
+
+	/**
+	 * 주어진 조건을 만족하는 원소들로 구성된 병렬 스트림을 생성한다.
+	 * <p>
+	 * {@code pred}는 여러 쓰레드에서 동시에 호출될 수 있다.
+	 *
+	 * @param pred	조건 함수.
+	 * @return	병렬 스트림.
+	 */
+	public ParallelFStream<T> filter(Predicate<? super T> pred) {
+		return new ParallelFStream<>(m_src, FusedOp.append(m_ops, FusedOp.filter(pred)), m_parallelism);
+	}
+
+	/**
+	 * 각 원소에 대해 {@code effect}를 호출하는 병렬 스트림을 생성한다.
+	 * <p>
+	 * {@code effect}는 여러 쓰레드에서 동시에 호출될 수 있다.
+	 *
+	 * @param effect	부수효과 함수.
+	 * @return	병렬 스트림.
+	 */
+	public ParallelFStream<T> peek(Consumer<? super T> effect) {
+		return new ParallelFStream<>(m_src, FusedOp.append(m_ops, FusedOp.peek(effect)), m_parallelism);
+	}
+
+	/**
+	 * 분할별로 {@code folder}를 이용해 원소들을 누적하고, 그 결과들을 {@code combiner}로 결합한다.
+	 * <p>
+	 * {@code identity}는 각 분할의 초기 누적값으로 사용되므로 {@code combiner}에 대한 항등원이어야 한다.
+	 *
+	 * @param <S>		누적값 타입.
+	 * @param identity	각 분할의 초기 누적값.
+	 * @param folder	누적 함수.
+	 * @param combiner	분할별 누적값 결합 함수.
+	 * @return	누적 결과.
+	 */
+	public <S> S fold(S identity, BiFunction<? super S,? super T,? extends S> folder,
+						BinaryOperator<S> combiner) {
+		Preconditions.checkNotNullArgument(folder, "folder is null");
+		Preconditions.checkNotNullArgument(combiner, "combiner is null");
+
+		Holder<S> result = evaluate(() -> Holder.of(identity),
+									(h,v) -> h.set(folder.apply(h.get(), v)),
+									(h1,h2) -> h1.set(combiner.apply(h1.get(), h2.get())));
+		return result.get();
+	}
+
+	/**
+	 * 원소들을 {@code reducer}로 결합한다.
+	 * <p>
+	 * {@code reducer}는 결합 법칙을 만족해야 한다.
+	 *
+	 * @param reducer	결합 함수.
+	 * @return	결합 결과. 빈 스트림인 경우는 {@link FOption#empty()}.
+	 */
+	public FOption<T> reduce(BinaryOperator<T> reducer) {
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		BiFunction<FOption<T>,FOption<T>,FOption<T>> merge = (a1,a2) -> {
+			if ( a1.isAbsent() ) {
+				return a2;
+			}
+			return a2.isAbsent() ? a1 : FOption.of(reducer.apply(a1.getUnchecked(), a2.getUnchecked()));
+		};
+		Holder<FOption<T>> result = evaluate(() -> Holder.of(FOption.empty()),
+											(h,v) -> h.set(merge.apply(h.get(), FOption.of(v))),
+											(h1,h2) -> h1.set(merge.apply(h1.get(), h2.get())));
+		return result.get();
+	}
+
+	/**
+	 * 분할별로 {@code supplier}가 생성한 mutable 누적기에 원소들을 모으고,
+	 * 분할별 누적기들을 {@code combiner}로 병합한다.
+	 *
+	 * @param <S>			누적기 타입.
+	 * @param supplier		분할별 누적기 생성 함수.
+	 * @param collector		누적기에 원소를 추가하는 함수.
+	 * @param combiner		두번째 누적기의 내용을 첫번째 누적기로 병합하는 함수.
+	 * @return	병합된 누적기.
+	 */
+	public <S> S collect(Supplier<? extends S> supplier, BiConsumer<? super S,? super T> collector,
+						BiConsumer<S,S> combiner) {
+		Preconditions.checkNotNullArgument(supplier, "supplier is null");
+		Preconditions.checkNotNullArgument(collector, "collector is null");
+		Preconditions.checkNotNullArgument(combiner, "combiner is null");
+
+		return evaluate(supplier, collector, (s1,s2) -> { combiner.accept(s1, s2); return s1; });
+	}
+
+	/**
+	 * 주어진 키에 해당하는 데이터별로 reduce작업을 수행한다.
+	 * <p>
+	 * 분할별로 키별 reduce를 수행한 후, 분할별 결과를 다시 {@code reducer}로 병합한다.
+	 *
+	 * @param <K>		키 타입.
+	 * @param keyer		입력 데이터에서 키를 뽑아내는 함수.
+	 * @param reducer	reduce 함수.
+	 * @return	키 별로 reduce된 결과를 담은 Map 객체.
+	 */
+	public <K> Map<K,T> reduceByKey(Function<? super T,? extends K> keyer, BinaryOperator<T> reducer) {
+		Preconditions.checkNotNullArgument(keyer, "keyer is null");
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		return collect(Maps::newHashMap,
+						(accums,v) -> accums.merge(keyer.apply(v), v, reducer),
+						(accums1,accums2) -> accums2.forEach((k,v) -> accums1.merge(k, v, reducer)));
+	}
+
+	/**
+	 * 스트림에 포함된 데이터의 갯수를 반환한다.
+	 *
+	 * @return	데이터의 갯수.
+	 */
+	public long count() {
+		long[] counts = evaluate(() -> new long[1], (c,v) -> ++c[0], (c1,c2) -> { c1[0] += c2[0]; return c1; });
+		return counts[0];
+	}
+
+	/**
+	 * 모든 원소를 원천 스트림에서의 순서대로 {@link List}로 모아 반환한다.
+	 *
+	 * @return	원소 리스트.
+	 */
+	public List<T> toList() {
+		return collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+	}
+
+	/**
+	 * 모든 원소에 대해 {@code effect}를 호출한다.
+	 * <p>
+	 * {@code effect}는 여러 쓰레드에서 동시에 호출되며, 호출 순서는 보장되지 않는다.
+	 *
+	 * @param effect	부수효과 함수.
+	 */
+	public void forEach(Consumer<? super T> effect) {
+		Preconditions.checkNotNullArgument(effect, "effect is null");
+
+		evaluate(() -> null, (n,v) -> effect.accept(v), (n1,n2) -> null);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s -> %s", m_src.explain(), FusedOp.toString(m_ops, "parallel(" + m_parallelism + ")"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A> A evaluate(Supplier<? extends A> supplier, BiConsumer<? super A,? super T> accumulator,
+							BinaryOperator<A> combiner) {
+		ForkJoinPool pool = new ForkJoinPool(m_parallelism);
+		try {
+			Spliterator<Object> root = ((FStream<Object>)m_src).spliterator();
+			long size = root.estimateSize();
+			long threshold = (size != Long.MAX_VALUE)
+							? Math.max(1, size / (m_parallelism * 4L))
+							: FStreams.BATCH_SIZE;
+
+			BiConsumer<A,Object> accum = (a,v) -> {
+				Object out = FusedOp.apply(m_ops, v);
+				if ( out != FusedOp.SKIP ) {
+					accumulator.accept(a, (T)out);
+				}
+			};
+			return pool.invoke(new SplitTask<>(root, threshold, supplier, accum, combiner));
+		}
+		finally {
+			pool.shutdown();
+			m_src.closeQuietly();
+		}
+	}
+
+	private static final class SplitTask<A> extends RecursiveTask<A> {
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<Object> m_spliterator;
+		private final long m_threshold;
+		private final Supplier<? extends A> m_supplier;
+		private final BiConsumer<A,Object> m_accum;
+		private final BinaryOperator<A> m_combiner;
+
+		SplitTask(Spliterator<Object> spliterator, long threshold, Supplier<? extends A> supplier,
+					BiConsumer<A,Object> accum, BinaryOperator<A> combiner) {
+			m_spliterator = spliterator;
+			m_threshold = threshold;
+			m_supplier = supplier;
+			m_accum = accum;
+			m_combiner = combiner;
+		}
+
+		@Override
+		protected A compute() {
+			// 앞쪽 분할부터 차례로 fork하고, 남은 마지막 분할은 현 쓰레드에서 처리한다.
+			List<SplitTask<A>> forks = Lists.newArrayList();
+			Spliterator<Object> split;
+			while ( m_spliterator.estimateSize() > m_threshold
+					&& (split = m_spliterator.trySplit()) != null ) {
+				SplitTask<A> task = new SplitTask<>(split, m_threshold, m_supplier, m_accum, m_combiner);
+				task.fork();
+				forks.add(task);
+			}
+
+			A last = m_supplier.get();
+			m_spliterator.forEachRemaining(v -> m_accum.accept(last, v));
+
+			if ( forks.isEmpty() ) {
+				return last;
+			}
+			A result = forks.get(0).join();
+			for ( int i =1; i < forks.size(); ++i ) {
+				result = m_combiner.apply(result, forks.get(i).join());
+			}
+			return m_combiner.apply(result, last);
+		}
+	}
+}
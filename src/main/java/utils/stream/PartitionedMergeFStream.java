@@ -0,0 +1,274 @@
+package utils.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.async.Executions;
+import utils.func.FOption;
+import utils.func.Unchecked;
+import utils.stream.FStreams.AbstractFStream;
+import utils.thread.Guard;
+
+
+/**
+ * 입력 스트림들의 스트림({@code FStream<FStream<T>>})을 여러 워커 쓰레드로 병렬 소비하여 하나의 출력
+ * 스트림으로 병합하되, 워커별 local buffer와 work stealing을 사용하는 {@link FStream} 구현체.
+ * <p>
+ * 본 클래스는 {@link FStream#mergePartitioned(FStream, int, int, Executor)}의 구현체이다.
+ * {@link MergeParallelFStream}과 비교한 차이점은 다음과 같다.
+ * <ul>
+ *   <li>각 워커는 읽은 원소들을 자신의 local buffer에 모아 {@code batchSize}개 단위로 출력 채널에
+ *       전달한다. 따라서 워커 사이의 출력 채널 경합이 원소 수가 아닌 batch 수에 비례한다.
+ *       단, 입력 스트림의 {@link FStream#nextBatch(Object[])}가 요청보다 적은 수의 원소를 반환하면
+ *       (즉, 다음 원소를 얻기 위해 대기해야 할 수 있으면) 모인 원소들을 batch가 차지 않았더라도 바로
+ *       전달한다. 따라서 느리거나 끝나지 않는 입력 스트림의 원소들도 지연 없이 소비자에게 전달된다.</li>
+ *   <li>팩토리 스트림의 {@code next()}는 별도의 lock 하에서 호출되므로, 팩토리에서 다음 입력 스트림을
+ *       생성하는 동안 다른 워커들의 작업 분배가 지연되지 않는다.</li>
+ *   <li>팩토리가 소진되어 할 일이 없는 워커가 생기면, {@link SplittableFStream}을 소비 중인 워커는
+ *       batch를 전달할 때마다 {@link SplittableFStream#trySplit()}으로 남은 원소 일부를 분리하여
+ *       공유 작업 큐에 넣는다. 할 일이 없던 워커는 이를 가져가 소비한다. 이를 통해 크기가 고르지 않은
+ *       입력 스트림들을 병합하는 경우에도 모든 워커가 계속 작업할 수 있다.</li>
+ * </ul>
+ * 출력 순서는 정의되지 않는다. 출력 채널의 용량은 워커 수와 동일한 수의 batch이므로 소비자가 느리면
+ * 워커들의 진행이 제한된다. 입력 스트림 소비 중 예외가 발생하면 이미 전달된 원소들이 모두 소비된 후
+ * 해당 예외가 소비자에게 전달된다.
+ *
+ * @param <T> 출력 스트림의 원소 타입.
+ * @author Kang-Woo Lee (ETRI)
+ */
+class PartitionedMergeFStream<T> extends AbstractFStream<T> {
+	private final FStream<? extends FStream<? extends T>> m_fact;
+	private final int m_workerCount;
+	private final int m_batchSize;
+	private final @Nullable Executor m_executor;
+	private final FStreamChannel<List<T>> m_outChannel;
+
+	/** 팩토리 스트림 접근을 직렬화한다. {@code m_guard}와 함께 잡는 경우는 항상 본 lock을 먼저 잡는다. */
+	private final Guard m_factGuard = Guard.create();
+	@GuardedBy("m_factGuard") private boolean m_factExhausted = false;
+
+	private final Guard m_guard = Guard.create();
+	@GuardedBy("m_guard") private final ArrayDeque<FStream<? extends T>> m_stolen = new ArrayDeque<>();
+	@GuardedBy("m_guard") private int m_runningWorkerCount = 0;
+	@GuardedBy("m_guard") private int m_activeCount = 0;		// 입력 스트림을 소비 중인 워커 수
+	@GuardedBy("m_guard") private boolean m_closed = false;
+	private volatile int m_idleCount = 0;						// 작업을 기다리는 워커 수
+
+	private Iterator<T> m_current = Collections.emptyIterator();	// 소비자 측에서만 접근
+
+	PartitionedMergeFStream(FStream<? extends FStream<? extends T>> fact, int workerCount, int batchSize,
+							@Nullable Executor executor) {
+		Preconditions.checkNotNullArgument(fact, "input stream factory is null");
+		Preconditions.checkArgument(workerCount > 0, "workerCount should be positive: %s", workerCount);
+		Preconditions.checkArgument(batchSize > 0, "batchSize should be positive: %s", batchSize);
+
+		m_fact = fact;
+		m_workerCount = workerCount;
+		m_batchSize = batchSize;
+		m_executor = executor;
+		m_outChannel = new SuppliableFStream<>(workerCount);
+	}
+
+	@Override
+	protected void closeInGuard() throws Exception {
+		m_guard.run(() -> {
+			m_closed = true;
+			m_stolen.forEach(FStream::closeQuietly);
+			m_stolen.clear();
+		});
+		Unchecked.runOrIgnore(m_outChannel::close);
+
+		// 다른 워커가 'm_fact.next()'를 수행 중일 수 있으므로 팩토리 lock을 잡고 닫는다.
+		m_factGuard.run(() -> {
+			m_factExhausted = true;
+			Unchecked.runOrIgnore(m_fact::close);
+		});
+	}
+
+	@Override
+	protected void initialize() {
+		m_guard.run(() -> m_runningWorkerCount = m_workerCount);
+		for ( int i =0; i < m_workerCount; ++i ) {
+			Executions.toExecution(this::runWorker, m_executor).start();
+		}
+	}
+
+	@Override
+	protected FOption<T> nextInGuard() {
+		while ( !m_current.hasNext() ) {
+			FOption<List<T>> batch = m_outChannel.next();
+			if ( batch.isAbsent() ) {
+				return FOption.empty();
+			}
+			m_current = batch.getUnchecked().iterator();
+		}
+		return FOption.of(m_current.next());
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[workers=%d, batch=%d]", getClass().getSimpleName(), m_workerCount, m_batchSize);
+	}
+
+	private void runWorker() {
+		try {
+			FStream<? extends T> strm;
+			while ( (strm = takeWork()) != null ) {
+				try {
+					consume(strm);
+				}
+				finally {
+					strm.closeQuietly();
+					m_guard.run(() -> --m_activeCount);
+				}
+			}
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+		catch ( Throwable e ) {
+			// 출력 채널이 닫혀 발생한 예외가 아니라면 소비자에게 전달한다.
+			if ( !m_outChannel.isClosed() ) {
+				Unchecked.runOrIgnore(() -> m_outChannel.endOfSupply(e));
+			}
+		}
+		finally {
+			boolean last = m_guard.get(() -> --m_runningWorkerCount == 0);
+			if ( last ) {
+				Unchecked.runOrIgnore(m_outChannel::endOfSupply);
+			}
+		}
+	}
+
+	/**
+	 * 다음에 소비할 입력 스트림을 반환한다.
+	 * <p>
+	 * 다른 워커가 분리해 둔 스트림이 있으면 이를 먼저 반환하고, 없으면 팩토리에서 다음 스트림을 가져온다.
+	 * 팩토리가 소진된 경우에는 다른 워커가 스트림을 분리해주기를 기다리며, 입력 스트림을 소비 중인 워커가
+	 * 하나도 남지 않으면 {@code null}을 반환한다.
+	 */
+	private @Nullable FStream<? extends T> takeWork() throws InterruptedException {
+		FStream<? extends T> strm = pollStolen();
+		if ( strm != null ) {
+			return strm;
+		}
+
+		FOption<? extends FStream<? extends T>> next = m_factGuard.get(() -> {
+			if ( m_factExhausted ) {
+				return FOption.empty();
+			}
+			FOption<? extends FStream<? extends T>> ofact = m_fact.next();
+			m_factExhausted = ofact.isAbsent();
+			if ( ofact.isPresent() ) {
+				// 팩토리 lock을 가진 상태에서 활성 워커로 등록한다. 그렇지 않으면 팩토리 소진을 확인한
+				// 다른 워커가 그 사이에 활성 워커가 없는 것으로 판단하여 종료될 수 있다.
+				m_guard.run(() -> ++m_activeCount);
+			}
+			return ofact;
+		});
+		if ( next.isPresent() ) {
+			return next.getUnchecked();
+		}
+
+		m_guard.lock();
+		try {
+			++m_idleCount;
+			try {
+				while ( true ) {
+					if ( m_closed ) {
+						return null;
+					}
+					if ( !m_stolen.isEmpty() ) {
+						++m_activeCount;
+						return m_stolen.poll();
+					}
+					if ( m_activeCount == 0 ) {
+						// 더 이상 분리될 수 있는 작업이 없다.
+						m_guard.signalAll();
+						return null;
+					}
+					m_guard.awaitSignal();
+				}
+			}
+			finally {
+				--m_idleCount;
+			}
+		}
+		finally {
+			m_guard.unlock();
+		}
+	}
+
+	private @Nullable FStream<? extends T> pollStolen() {
+		return m_guard.get(() -> {
+			FStream<? extends T> strm = m_stolen.poll();
+			if ( strm != null ) {
+				++m_activeCount;
+			}
+			return strm;
+		});
+	}
+
+	/**
+	 * 주어진 입력 스트림의 원소들을 {@code batchSize}개 단위로 모아 출력 채널에 전달한다.
+	 * <p>
+	 * {@link FStream#nextBatch(Object[])}는 다음 원소를 기다리지 않고 바로 얻을 수 있는 원소들만
+	 * 반환하므로, 요청보다 적은 수가 반환된 경우는 다음 호출이 대기할 수 있는 것으로 보고
+	 * 그 때까지 모인 원소들을 먼저 전달한다.
+	 */
+	@SuppressWarnings("unchecked")
+	private void consume(FStream<? extends T> strm) throws InterruptedException {
+		Object[] buf = new Object[m_batchSize];
+		List<T> batch = new ArrayList<>(m_batchSize);
+		while ( true ) {
+			int nread = strm.nextBatch(buf);
+			for ( int i =0; i < nread; ++i ) {
+				batch.add((T)buf[i]);
+				if ( batch.size() >= m_batchSize ) {
+					supply(batch, strm);
+					batch = new ArrayList<>(m_batchSize);
+				}
+			}
+			Arrays.fill(buf, 0, nread, null);
+
+			if ( nread < buf.length && !batch.isEmpty() ) {
+				supply(batch, strm);
+				batch = new ArrayList<>(m_batchSize);
+			}
+			if ( nread == 0 ) {
+				return;
+			}
+		}
+	}
+
+	private void supply(List<T> batch, FStream<? extends T> strm) throws InterruptedException {
+		m_outChannel.supply(batch);
+		if ( m_idleCount > 0 && strm instanceof SplittableFStream<? extends T> splittable ) {
+			shareWork(splittable);
+		}
+	}
+
+	private void shareWork(SplittableFStream<? extends T> strm) {
+		FStream<? extends T> split = strm.trySplit();
+		if ( split != null ) {
+			m_guard.run(() -> {
+				if ( m_closed ) {
+					split.closeQuietly();
+				}
+				else {
+					m_stolen.add(split);
+				}
+			});
+		}
+	}
+}
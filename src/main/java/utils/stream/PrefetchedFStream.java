@@ -0,0 +1,167 @@
+package utils.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.async.Executions;
+import utils.func.FOption;
+import utils.func.Unchecked;
+import utils.stream.FStreams.AbstractFStream;
+
+
+/**
+ * 입력 스트림을 별도의 쓰레드에서 미리 읽어 bounded buffer에 적재해 두고, 소비자는 buffer에서
+ * 데이터를 꺼내가는 {@link FStream} 구현체.
+ * <p>
+ * 본 클래스는 {@link FStream#prefetch(int, Executor)}의 구현체이다.
+ * 입력 스트림의 {@code next()} 호출(예: JDBC cursor, 파일 읽기 등의 I/O)과 소비자의 처리가 서로 다른
+ * 쓰레드에서 중첩되어 수행된다.
+ * <ul>
+ *   <li>Producer 쓰레드는 읽은 데이터를 chunk 단위로 모아 소비자에게 전달하므로, 쓰레드 간 동기화 비용이
+ *       데이터 수가 아닌 chunk 수에 비례한다. 단, 소비자에게 전달된 chunk가 모두 소비된 경우는 chunk가
+ *       다 채워지지 않았더라도 바로 전달하여 소비자가 불필요하게 대기하지 않도록 한다. 전달 대기 중인
+ *       chunk 수는 {@link AtomicInteger}로 관리하여 원소마다 buffer의 lock을 잡지 않는다.</li>
+ *   <li>Buffer에 적재된 데이터 수가 {@code capacity}에 도달하면 producer는 소비자가 데이터를 꺼내갈 때까지
+ *       대기한다.</li>
+ *   <li>입력 스트림에서 예외가 발생하면 이미 읽은 데이터가 모두 소비된 후 해당 예외가 소비자에게 전달된다.</li>
+ *   <li>{@link #close()}가 호출되면 buffer가 닫히고, producer 쓰레드는 진행 중인 {@code next()} 호출이
+ *       반환된 후 입력 스트림을 닫고 종료한다. 입력 스트림은 항상 producer 쓰레드에서만 접근된다.</li>
+ * </ul>
+ * Producer 작업은 첫번째 {@link #next()} 호출 시 시작된다. {@link Executor}가 지정되지 않은 경우는
+ * 전용 daemon 쓰레드를 생성하여 수행하므로, blocking I/O가 공용 쓰레드 풀의 쓰레드를 점유하지 않는다.
+ *
+ * @param <T>	스트림 원소 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+class PrefetchedFStream<T> extends AbstractFStream<T> {
+	private static final int MAX_CHUNK_SIZE = 256;
+
+	private final FStream<? extends T> m_src;
+	private final int m_capacity;
+	private final int m_chunkSize;
+	private final @Nullable Executor m_executor;
+	private final SuppliableFStream<List<T>> m_channel;
+	private volatile boolean m_started = false;
+	/** {@code m_channel}에 전달되었으나 아직 소비자가 꺼내가지 않은 chunk 수. */
+	private final AtomicInteger m_pendingChunks = new AtomicInteger(0);
+
+	private List<T> m_chunk = List.of();	// 소비자 측에서만 접근
+	private int m_chunkIndex = 0;
+
+	PrefetchedFStream(FStream<? extends T> src, int capacity, @Nullable Executor executor) {
+		Preconditions.checkNotNullArgument(src, "source FStream is null");
+		Preconditions.checkArgument(capacity > 0, "capacity should be positive: %s", capacity);
+
+		m_src = src;
+		m_capacity = capacity;
+		m_chunkSize = Math.max(1, Math.min(capacity / 4, MAX_CHUNK_SIZE));
+		m_executor = executor;
+		m_channel = new SuppliableFStream<>((capacity + m_chunkSize - 1) / m_chunkSize);
+	}
+
+	@Override
+	protected void closeInGuard() throws Exception {
+		m_channel.close();
+		if ( !m_started ) {
+			// producer 쓰레드가 시작되지 않은 경우는 직접 입력 스트림을 닫는다.
+			m_src.close();
+		}
+	}
+
+	@Override
+	protected void initialize() {
+		m_started = true;
+		if ( m_executor != null ) {
+			Executions.toExecution(this::runProducer, m_executor).start();
+		}
+		else {
+			Thread producer = new Thread(this::runProducer, "fstream-prefetch");
+			producer.setDaemon(true);
+			producer.start();
+		}
+	}
+
+	@Override
+	protected FOption<T> nextInGuard() {
+		if ( !fillChunk() ) {
+			return FOption.empty();
+		}
+		return FOption.of(m_chunk.get(m_chunkIndex++));
+	}
+
+	@Override
+	protected int nextBatchInGuard(Object[] buf) {
+		if ( !fillChunk() ) {
+			return 0;
+		}
+
+		int count = Math.min(buf.length, m_chunk.size() - m_chunkIndex);
+		for ( int i =0; i < count; ++i ) {
+			buf[i] = m_chunk.get(m_chunkIndex++);
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[capacity=%d, chunk=%d]", getClass().getSimpleName(), m_capacity, m_chunkSize);
+	}
+
+	private boolean fillChunk() {
+		while ( m_chunkIndex >= m_chunk.size() ) {
+			FOption<List<T>> chunk = m_channel.next();
+			if ( chunk.isAbsent() ) {
+				return false;
+			}
+			m_pendingChunks.decrementAndGet();
+			m_chunk = chunk.getUnchecked();
+			m_chunkIndex = 0;
+		}
+		return true;
+	}
+
+	private void runProducer() {
+		List<T> chunk = new ArrayList<>(m_chunkSize);
+		try {
+			FOption<? extends T> next;
+			while ( (next = m_src.next()).isPresent() ) {
+				chunk.add(next.getUnchecked());
+				if ( chunk.size() >= m_chunkSize || m_pendingChunks.get() == 0 ) {
+					supplyChunk(chunk);
+					chunk = new ArrayList<>(m_chunkSize);
+				}
+			}
+			if ( !chunk.isEmpty() ) {
+				supplyChunk(chunk);
+			}
+			m_channel.endOfSupply();
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			Unchecked.runOrIgnore(() -> m_channel.endOfSupply(e));
+		}
+		catch ( Throwable e ) {
+			// 소비자 측에서 닫아 발생한 예외가 아니라면, 이미 읽은 데이터를 전달한 후 예외를 전달한다.
+			if ( !m_channel.isClosed() ) {
+				if ( !chunk.isEmpty() ) {
+					final List<T> remains = chunk;
+					Unchecked.runOrIgnore(() -> supplyChunk(remains));
+				}
+				Unchecked.runOrIgnore(() -> m_channel.endOfSupply(e));
+			}
+		}
+		finally {
+			m_src.closeQuietly();
+		}
+	}
+
+	private void supplyChunk(List<T> chunk) throws InterruptedException {
+		m_pendingChunks.incrementAndGet();
+		m_channel.supply(chunk);
+	}
+}
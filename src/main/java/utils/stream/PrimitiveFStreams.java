@@ -0,0 +1,1049 @@
+package utils.stream;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import utils.Preconditions;
+import utils.func.FOption;
+import utils.func.Unchecked;
+
+
+/**
+ * {@link IntFStream}, {@link LongFStream}, {@link DoubleFStream}의 primitive 파이프라인 구현 모음.
+ * <p>
+ * 본 파일의 스트림들은 {@code hasNextXxx()}/{@code nextXxx()} pull 프로토콜을 직접 구현하여
+ * 원소 당 {@link FOption} 할당이나 boxing 없이 값을 전달한다. {@link FStream#next()}는 legacy 호환을
+ * 위해 primitive 프로토콜 위에서 boxing하여 제공된다. 일반 {@link FStream}은 자체 lookahead를 갖는
+ * unboxing 어댑터({@code XxxUnboxingAdaptor})를 통해 primitive 스트림으로 노출된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class PrimitiveFStreams {
+	private PrimitiveFStreams() {
+		throw new AssertionError("Should not be called: class=" + getClass());
+	}
+
+	static <T> T checkNotNullElement(T value, FStream<?> src) {
+		if ( value == null ) {
+			throw new IllegalStateException("null element cannot be unboxed: source=" + src);
+		}
+		return value;
+	}
+
+	//
+	// int
+	//
+	static abstract class AbstractIntFStream implements IntFStream {
+		private boolean m_closed = false;
+
+		abstract protected void closeInGuard() throws Exception;
+
+		@Override
+		public final void close() throws Exception {
+			if ( !m_closed ) {
+				m_closed = true;
+				closeInGuard();
+			}
+		}
+
+		@Override
+		public FOption<Integer> next() {
+			return hasNextInt() ? FOption.of(nextInt()) : FOption.empty();
+		}
+
+		public boolean isClosed() {
+			return m_closed;
+		}
+
+		protected void checkNotClosed() {
+			if ( m_closed ) {
+				throw new IllegalStateException("already closed: " + this);
+			}
+		}
+	}
+
+	/**
+	 * 원본 primitive 스트림을 소비하는 단일 입력 int 스트림.
+	 */
+	static abstract class IntSourceStream extends AbstractIntFStream {
+		protected final IntFStream m_src;
+
+		IntSourceStream(IntFStream src) {
+			Preconditions.checkNotNullArgument(src, "source IntFStream");
+			m_src = src;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			Unchecked.runOrIgnore(m_src::close);
+		}
+	}
+
+	static class IntArrayStream extends AbstractIntFStream {
+		private final int[] m_values;
+		private int m_idx = 0;
+
+		IntArrayStream(int[] values) {
+			Preconditions.checkNotNullArgument(values, "values is null");
+			m_values = values;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception { }
+
+		@Override
+		public boolean hasNextInt() {
+			checkNotClosed();
+			return m_idx < m_values.length;
+		}
+
+		@Override
+		public int nextInt() {
+			checkNotClosed();
+			if ( m_idx >= m_values.length ) {
+				throw new NoSuchElementException();
+			}
+			return m_values[m_idx++];
+		}
+
+		@Override
+		public Spliterator<Integer> spliterator() {
+			checkNotClosed();
+
+			Spliterator.OfInt spliterator = Arrays.spliterator(m_values, m_idx, m_values.length);
+			m_idx = m_values.length;
+
+			return spliterator;
+		}
+	}
+
+	/**
+	 * {@link FStream}{@code <Integer>}을 {@link IntFStream}으로 노출시키는 unboxing 어댑터.
+	 */
+	static class IntUnboxingAdaptor extends AbstractIntFStream {
+		private final FStream<Integer> m_src;
+		private boolean m_fetched = false;
+		private boolean m_eos = false;
+		private int m_next;
+
+		IntUnboxingAdaptor(FStream<Integer> src) {
+			Preconditions.checkNotNullArgument(src, "source FStream");
+			m_src = src;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public boolean hasNextInt() {
+			checkNotClosed();
+
+			if ( !m_fetched && !m_eos ) {
+				FOption<Integer> next = m_src.next();
+				if ( next.isPresent() ) {
+					m_next = checkNotNullElement(next.getUnchecked(), m_src);
+					m_fetched = true;
+				}
+				else {
+					m_eos = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public int nextInt() {
+			if ( !hasNextInt() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+
+		@Override
+		public FOption<Integer> next() {
+			checkNotClosed();
+
+			// lookahead된 값이 없으면 원본의 boxed 값을 재포장없이 그대로 전달한다.
+			if ( m_fetched ) {
+				return super.next();
+			}
+			FOption<Integer> next = m_src.next();
+			if ( next.isPresent() ) {
+				checkNotNullElement(next.getUnchecked(), m_src);
+			}
+			else {
+				m_eos = true;
+			}
+			return next;
+		}
+	}
+
+	/**
+	 * {@link FStream#mapToInt}의 결과 스트림. 매핑 결과를 boxing하지 않고 바로 전달한다.
+	 */
+	static class MapToIntStream<T> extends AbstractIntFStream {
+		private final FStream<T> m_src;
+		private final ToIntFunction<? super T> m_mapper;
+		private boolean m_fetched = false;
+		private boolean m_eos = false;
+		private int m_next;
+
+		MapToIntStream(FStream<T> src, ToIntFunction<? super T> mapper) {
+			Preconditions.checkNotNullArgument(src, "source FStream");
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_src = src;
+			m_mapper = mapper;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public boolean hasNextInt() {
+			checkNotClosed();
+
+			if ( !m_fetched && !m_eos ) {
+				FOption<T> next = m_src.next();
+				if ( next.isPresent() ) {
+					m_next = m_mapper.applyAsInt(next.getUnchecked());
+					m_fetched = true;
+				}
+				else {
+					m_eos = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public int nextInt() {
+			if ( !hasNextInt() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+	}
+
+	static class MappedIntStream extends IntSourceStream {
+		private final IntUnaryOperator m_mapper;
+
+		MappedIntStream(IntFStream src, IntUnaryOperator mapper) {
+			super(src);
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_mapper = mapper;
+		}
+
+		@Override
+		public boolean hasNextInt() {
+			checkNotClosed();
+			return m_src.hasNextInt();
+		}
+
+		@Override
+		public int nextInt() {
+			checkNotClosed();
+			return m_mapper.applyAsInt(m_src.nextInt());
+		}
+	}
+
+	static class FilteredIntStream extends IntSourceStream {
+		private final IntPredicate m_pred;
+		private boolean m_fetched = false;
+		private int m_next;
+
+		FilteredIntStream(IntFStream src, IntPredicate pred) {
+			super(src);
+			Preconditions.checkNotNullArgument(pred, "predicate is null");
+
+			m_pred = pred;
+		}
+
+		@Override
+		public boolean hasNextInt() {
+			checkNotClosed();
+
+			while ( !m_fetched && m_src.hasNextInt() ) {
+				int v = m_src.nextInt();
+				if ( m_pred.test(v) ) {
+					m_next = v;
+					m_fetched = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public int nextInt() {
+			if ( !hasNextInt() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+	}
+
+	static class TakenIntStream extends IntSourceStream {
+		private long m_remains;
+
+		TakenIntStream(IntFStream src, long count) {
+			super(src);
+			m_remains = count;
+		}
+
+		@Override
+		public boolean hasNextInt() {
+			checkNotClosed();
+			return m_remains > 0 && m_src.hasNextInt();
+		}
+
+		@Override
+		public int nextInt() {
+			checkNotClosed();
+			if ( m_remains <= 0 ) {
+				throw new NoSuchElementException();
+			}
+			int v = m_src.nextInt();
+			--m_remains;
+			return v;
+		}
+	}
+
+	static class IntToLongStream extends AbstractLongFStream {
+		private final IntFStream m_src;
+		private final IntToLongFunction m_mapper;
+
+		IntToLongStream(IntFStream src, IntToLongFunction mapper) {
+			Preconditions.checkNotNullArgument(src, "source IntFStream");
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_src = src;
+			m_mapper = mapper;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			Unchecked.runOrIgnore(m_src::close);
+		}
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+			return m_src.hasNextInt();
+		}
+
+		@Override
+		public long nextLong() {
+			checkNotClosed();
+			return m_mapper.applyAsLong(m_src.nextInt());
+		}
+	}
+
+	static class IntToDoubleStream extends AbstractDoubleFStream {
+		private final IntFStream m_src;
+		private final IntToDoubleFunction m_mapper;
+
+		IntToDoubleStream(IntFStream src, IntToDoubleFunction mapper) {
+			Preconditions.checkNotNullArgument(src, "source IntFStream");
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_src = src;
+			m_mapper = mapper;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			Unchecked.runOrIgnore(m_src::close);
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+			return m_src.hasNextInt();
+		}
+
+		@Override
+		public double nextDouble() {
+			checkNotClosed();
+			return m_mapper.applyAsDouble(m_src.nextInt());
+		}
+	}
+
+	//
+	// long
+	//
+	static abstract class AbstractLongFStream implements LongFStream {
+		private boolean m_closed = false;
+
+		abstract protected void closeInGuard() throws Exception;
+
+		@Override
+		public final void close() throws Exception {
+			if ( !m_closed ) {
+				m_closed = true;
+				closeInGuard();
+			}
+		}
+
+		@Override
+		public FOption<Long> next() {
+			return hasNextLong() ? FOption.of(nextLong()) : FOption.empty();
+		}
+
+		public boolean isClosed() {
+			return m_closed;
+		}
+
+		protected void checkNotClosed() {
+			if ( m_closed ) {
+				throw new IllegalStateException("already closed: " + this);
+			}
+		}
+	}
+
+	static abstract class LongSourceStream extends AbstractLongFStream {
+		protected final LongFStream m_src;
+
+		LongSourceStream(LongFStream src) {
+			Preconditions.checkNotNullArgument(src, "source LongFStream");
+			m_src = src;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			Unchecked.runOrIgnore(m_src::close);
+		}
+	}
+
+	static class LongArrayStream extends AbstractLongFStream {
+		private final long[] m_values;
+		private int m_idx = 0;
+
+		LongArrayStream(long[] values) {
+			Preconditions.checkNotNullArgument(values, "values is null");
+			m_values = values;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception { }
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+			return m_idx < m_values.length;
+		}
+
+		@Override
+		public long nextLong() {
+			checkNotClosed();
+			if ( m_idx >= m_values.length ) {
+				throw new NoSuchElementException();
+			}
+			return m_values[m_idx++];
+		}
+
+		@Override
+		public Spliterator<Long> spliterator() {
+			checkNotClosed();
+
+			Spliterator.OfLong spliterator = Arrays.spliterator(m_values, m_idx, m_values.length);
+			m_idx = m_values.length;
+
+			return spliterator;
+		}
+	}
+
+	/**
+	 * {@link FStream}{@code <Long>}을 {@link LongFStream}으로 노출시키는 unboxing 어댑터.
+	 */
+	static class LongUnboxingAdaptor extends AbstractLongFStream {
+		private final FStream<Long> m_src;
+		private boolean m_fetched = false;
+		private boolean m_eos = false;
+		private long m_next;
+
+		LongUnboxingAdaptor(FStream<Long> src) {
+			Preconditions.checkNotNullArgument(src, "source FStream");
+			m_src = src;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+
+			if ( !m_fetched && !m_eos ) {
+				FOption<Long> next = m_src.next();
+				if ( next.isPresent() ) {
+					m_next = checkNotNullElement(next.getUnchecked(), m_src);
+					m_fetched = true;
+				}
+				else {
+					m_eos = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public long nextLong() {
+			if ( !hasNextLong() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+
+		@Override
+		public FOption<Long> next() {
+			checkNotClosed();
+
+			// lookahead된 값이 없으면 원본의 boxed 값을 재포장없이 그대로 전달한다.
+			if ( m_fetched ) {
+				return super.next();
+			}
+			FOption<Long> next = m_src.next();
+			if ( next.isPresent() ) {
+				checkNotNullElement(next.getUnchecked(), m_src);
+			}
+			else {
+				m_eos = true;
+			}
+			return next;
+		}
+	}
+
+	/**
+	 * {@link FStream#mapToLong}의 결과 스트림. 매핑 결과를 boxing하지 않고 바로 전달한다.
+	 */
+	static class MapToLongStream<T> extends AbstractLongFStream {
+		private final FStream<T> m_src;
+		private final ToLongFunction<? super T> m_mapper;
+		private boolean m_fetched = false;
+		private boolean m_eos = false;
+		private long m_next;
+
+		MapToLongStream(FStream<T> src, ToLongFunction<? super T> mapper) {
+			Preconditions.checkNotNullArgument(src, "source FStream");
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_src = src;
+			m_mapper = mapper;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+
+			if ( !m_fetched && !m_eos ) {
+				FOption<T> next = m_src.next();
+				if ( next.isPresent() ) {
+					m_next = m_mapper.applyAsLong(next.getUnchecked());
+					m_fetched = true;
+				}
+				else {
+					m_eos = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public long nextLong() {
+			if ( !hasNextLong() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+	}
+
+	static class MappedLongStream extends LongSourceStream {
+		private final LongUnaryOperator m_mapper;
+
+		MappedLongStream(LongFStream src, LongUnaryOperator mapper) {
+			super(src);
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_mapper = mapper;
+		}
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+			return m_src.hasNextLong();
+		}
+
+		@Override
+		public long nextLong() {
+			checkNotClosed();
+			return m_mapper.applyAsLong(m_src.nextLong());
+		}
+	}
+
+	static class FilteredLongStream extends LongSourceStream {
+		private final LongPredicate m_pred;
+		private boolean m_fetched = false;
+		private long m_next;
+
+		FilteredLongStream(LongFStream src, LongPredicate pred) {
+			super(src);
+			Preconditions.checkNotNullArgument(pred, "predicate is null");
+
+			m_pred = pred;
+		}
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+
+			while ( !m_fetched && m_src.hasNextLong() ) {
+				long v = m_src.nextLong();
+				if ( m_pred.test(v) ) {
+					m_next = v;
+					m_fetched = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public long nextLong() {
+			if ( !hasNextLong() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+	}
+
+	static class TakenLongStream extends LongSourceStream {
+		private long m_remains;
+
+		TakenLongStream(LongFStream src, long count) {
+			super(src);
+			m_remains = count;
+		}
+
+		@Override
+		public boolean hasNextLong() {
+			checkNotClosed();
+			return m_remains > 0 && m_src.hasNextLong();
+		}
+
+		@Override
+		public long nextLong() {
+			checkNotClosed();
+			if ( m_remains <= 0 ) {
+				throw new NoSuchElementException();
+			}
+			long v = m_src.nextLong();
+			--m_remains;
+			return v;
+		}
+	}
+
+	static class LongToDoubleStream extends AbstractDoubleFStream {
+		private final LongFStream m_src;
+		private final LongToDoubleFunction m_mapper;
+
+		LongToDoubleStream(LongFStream src, LongToDoubleFunction mapper) {
+			Preconditions.checkNotNullArgument(src, "source LongFStream");
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_src = src;
+			m_mapper = mapper;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			Unchecked.runOrIgnore(m_src::close);
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+			return m_src.hasNextLong();
+		}
+
+		@Override
+		public double nextDouble() {
+			checkNotClosed();
+			return m_mapper.applyAsDouble(m_src.nextLong());
+		}
+	}
+
+	//
+	// double
+	//
+	static abstract class AbstractDoubleFStream implements DoubleFStream {
+		private boolean m_closed = false;
+
+		abstract protected void closeInGuard() throws Exception;
+
+		@Override
+		public final void close() throws Exception {
+			if ( !m_closed ) {
+				m_closed = true;
+				closeInGuard();
+			}
+		}
+
+		@Override
+		public FOption<Double> next() {
+			return hasNextDouble() ? FOption.of(nextDouble()) : FOption.empty();
+		}
+
+		public boolean isClosed() {
+			return m_closed;
+		}
+
+		protected void checkNotClosed() {
+			if ( m_closed ) {
+				throw new IllegalStateException("already closed: " + this);
+			}
+		}
+	}
+
+	static abstract class DoubleSourceStream extends AbstractDoubleFStream {
+		protected final DoubleFStream m_src;
+
+		DoubleSourceStream(DoubleFStream src) {
+			Preconditions.checkNotNullArgument(src, "source DoubleFStream");
+			m_src = src;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			Unchecked.runOrIgnore(m_src::close);
+		}
+	}
+
+	static class DoubleArrayStream extends AbstractDoubleFStream {
+		private final double[] m_values;
+		private int m_idx = 0;
+
+		DoubleArrayStream(double[] values) {
+			Preconditions.checkNotNullArgument(values, "values is null");
+			m_values = values;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception { }
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+			return m_idx < m_values.length;
+		}
+
+		@Override
+		public double nextDouble() {
+			checkNotClosed();
+			if ( m_idx >= m_values.length ) {
+				throw new NoSuchElementException();
+			}
+			return m_values[m_idx++];
+		}
+
+		@Override
+		public Spliterator<Double> spliterator() {
+			checkNotClosed();
+
+			Spliterator.OfDouble spliterator = Arrays.spliterator(m_values, m_idx, m_values.length);
+			m_idx = m_values.length;
+
+			return spliterator;
+		}
+	}
+
+	/**
+	 * {@link FStream}{@code <Double>}을 {@link DoubleFStream}으로 노출시키는 unboxing 어댑터.
+	 */
+	static class DoubleUnboxingAdaptor extends AbstractDoubleFStream {
+		private final FStream<Double> m_src;
+		private boolean m_fetched = false;
+		private boolean m_eos = false;
+		private double m_next;
+
+		DoubleUnboxingAdaptor(FStream<Double> src) {
+			Preconditions.checkNotNullArgument(src, "source FStream");
+			m_src = src;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+
+			if ( !m_fetched && !m_eos ) {
+				FOption<Double> next = m_src.next();
+				if ( next.isPresent() ) {
+					m_next = checkNotNullElement(next.getUnchecked(), m_src);
+					m_fetched = true;
+				}
+				else {
+					m_eos = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public double nextDouble() {
+			if ( !hasNextDouble() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+
+		@Override
+		public FOption<Double> next() {
+			checkNotClosed();
+
+			// lookahead된 값이 없으면 원본의 boxed 값을 재포장없이 그대로 전달한다.
+			if ( m_fetched ) {
+				return super.next();
+			}
+			FOption<Double> next = m_src.next();
+			if ( next.isPresent() ) {
+				checkNotNullElement(next.getUnchecked(), m_src);
+			}
+			else {
+				m_eos = true;
+			}
+			return next;
+		}
+	}
+
+	/**
+	 * {@link FStream#mapToDouble}의 결과 스트림. 매핑 결과를 boxing하지 않고 바로 전달한다.
+	 */
+	static class MapToDoubleStream<T> extends AbstractDoubleFStream {
+		private final FStream<T> m_src;
+		private final ToDoubleFunction<? super T> m_mapper;
+		private boolean m_fetched = false;
+		private boolean m_eos = false;
+		private double m_next;
+
+		MapToDoubleStream(FStream<T> src, ToDoubleFunction<? super T> mapper) {
+			Preconditions.checkNotNullArgument(src, "source FStream");
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_src = src;
+			m_mapper = mapper;
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+
+			if ( !m_fetched && !m_eos ) {
+				FOption<T> next = m_src.next();
+				if ( next.isPresent() ) {
+					m_next = m_mapper.applyAsDouble(next.getUnchecked());
+					m_fetched = true;
+				}
+				else {
+					m_eos = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public double nextDouble() {
+			if ( !hasNextDouble() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+	}
+
+	static class MappedDoubleStream extends DoubleSourceStream {
+		private final DoubleUnaryOperator m_mapper;
+
+		MappedDoubleStream(DoubleFStream src, DoubleUnaryOperator mapper) {
+			super(src);
+			Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+			m_mapper = mapper;
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+			return m_src.hasNextDouble();
+		}
+
+		@Override
+		public double nextDouble() {
+			checkNotClosed();
+			return m_mapper.applyAsDouble(m_src.nextDouble());
+		}
+	}
+
+	static class FilteredDoubleStream extends DoubleSourceStream {
+		private final DoublePredicate m_pred;
+		private boolean m_fetched = false;
+		private double m_next;
+
+		FilteredDoubleStream(DoubleFStream src, DoublePredicate pred) {
+			super(src);
+			Preconditions.checkNotNullArgument(pred, "predicate is null");
+
+			m_pred = pred;
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+
+			while ( !m_fetched && m_src.hasNextDouble() ) {
+				double v = m_src.nextDouble();
+				if ( m_pred.test(v) ) {
+					m_next = v;
+					m_fetched = true;
+				}
+			}
+			return m_fetched;
+		}
+
+		@Override
+		public double nextDouble() {
+			if ( !hasNextDouble() ) {
+				throw new NoSuchElementException();
+			}
+			m_fetched = false;
+			return m_next;
+		}
+	}
+
+	static class TakenDoubleStream extends DoubleSourceStream {
+		private long m_remains;
+
+		TakenDoubleStream(DoubleFStream src, long count) {
+			super(src);
+			m_remains = count;
+		}
+
+		@Override
+		public boolean hasNextDouble() {
+			checkNotClosed();
+			return m_remains > 0 && m_src.hasNextDouble();
+		}
+
+		@Override
+		public double nextDouble() {
+			checkNotClosed();
+			if ( m_remains <= 0 ) {
+				throw new NoSuchElementException();
+			}
+			double v = m_src.nextDouble();
+			--m_remains;
+			return v;
+		}
+	}
+
+	/**
+	 * primitive 스트림을 일반 {@link FStream}으로 노출시키기 위한 wrapper.
+	 */
+	static class BoxedStream<T> implements FStream<T> {
+		private final FStream<T> m_src;
+
+		BoxedStream(FStream<T> src) {
+			m_src = src;
+		}
+
+		@Override
+		public void close() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public FOption<T> next() {
+			return m_src.next();
+		}
+	}
+
+	/**
+	 * 균등 폭 histogram의 bin 인덱스를 계산한다.
+	 *
+	 * @return	bin 인덱스. 범위 밖의 값이면 {@code -1}.
+	 */
+	/**
+	 * {@code long} 값이 속한 histogram 구간 번호를 반환한다.
+	 * <p>
+	 * {@code double}로 변환하면 2<sup>53</sup>을 넘는 값의 정밀도가 손실되므로 정수 연산으로 계산한다.
+	 * 구간 폭이 {@code long} 범위를 넘는 경우에만 {@link BigInteger}를 사용한다.
+	 */
+	static int toBinIndex(long v, long lower, long upper, int binCount) {
+		if ( v < lower || v >= upper ) {
+			return -1;
+		}
+
+		long offset = v - lower;
+		long range = upper - lower;
+		if ( range > 0 && Math.multiplyHigh(offset, binCount) == 0 && offset * binCount >= 0 ) {
+			return (int)Math.min(offset * binCount / range, binCount-1);
+		}
+
+		BigInteger idx = toUnsigned(offset).multiply(BigInteger.valueOf(binCount))
+											.divide(toUnsigned(range));
+		return (int)Math.min(idx.longValue(), binCount-1);
+	}
+
+	private static BigInteger toUnsigned(long v) {
+		BigInteger big = BigInteger.valueOf(v);
+		return (v >= 0) ? big : big.add(BigInteger.ONE.shiftLeft(64));
+	}
+
+	static int toBinIndex(double v, double lower, double upper, int binCount) {
+		if ( v < lower || v >= upper || Double.isNaN(v) ) {
+			return -1;
+		}
+		int idx = (int)((v - lower) / (upper - lower) * binCount);
+		return Math.min(idx, binCount-1);
+	}
+}
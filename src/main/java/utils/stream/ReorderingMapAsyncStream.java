@@ -0,0 +1,260 @@
+package utils.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.RuntimeInterruptedException;
+import utils.Tuple;
+import utils.async.StartableExecution;
+import utils.func.CheckedFunction;
+import utils.func.FOption;
+import utils.func.Try;
+import utils.func.Unchecked;
+import utils.stream.FStreams.AbstractFStream;
+import utils.thread.Guard;
+
+
+/**
+ * 입력 스트림 각 원소에 비동기 매핑을 적용하고, 동시 작업 수와 별도로 설정된 크기의 <b>재정렬 window</b>를
+ * 이용하여 입력 순서대로 결과를 반환하는 스트림.
+ * <p>
+ * {@link OrderedMapAsyncStream}은 시작된 작업들을 동시 작업 수 크기의 채널에 넣고 순서대로 완료를
+ * 기다리므로, 앞선 작업 하나가 느리면 다른 worker들이 놀고 있더라도 새 작업을 시작하지 못한다
+ * (head-of-line blocking). 본 스트림은 작업이 끝날 때마다 그 결과를 순번으로 색인되는 ring buffer의 해당
+ * 위치에 저장하고 바로 다음 작업을 시작한다. 소비자는 ring buffer의 맨 앞 결과가 준비될 때마다 이를
+ * 꺼내간다. 따라서 아직 반환되지 않은 가장 앞선 원소와의 순번 차이가 window 크기보다 작은 동안에는
+ * 앞선 작업이 늦어지더라도 항상 {@code workerCount}개의 작업이 수행된다.
+ * <p>
+ * 매핑 결과는 {@link Try}로 감싸여 노출되며, mapper 예외로 인해 결과 스트림이 조기 종료되지 않는다.
+ * <p>
+ * <b>close 의미론</b>: {@link #close()} 호출 시 입력 스트림을 닫고, 진행 중인 모든 매핑 작업에
+ * {@code cancel(true)}를 전파하며 아직 반환되지 않은 결과들은 폐기된다.
+ *
+ * @param <S> 입력 스트림 원소 타입.
+ * @param <T> 매핑 결과 타입.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class ReorderingMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
+	private final FStream<S> m_src;
+	private final ResilientMapper<S,T> m_mapper;
+	private final int m_workerCount;
+	private final int m_windowSize;
+	private final @Nullable ConcurrencyLimiter m_limiter;
+
+	private final Guard m_guard = Guard.create();
+	/** 순번 {@code seq}인 원소의 결과는 {@code m_slots[seq % m_windowSize]}에 저장된다. */
+	@GuardedBy("m_guard") private final Object[] m_slots;
+	@GuardedBy("m_guard") private long m_headSeq = 0;	// 다음에 반환할 결과의 순번
+	@GuardedBy("m_guard") private long m_nextSeq = 0;	// 다음에 시작할 작업의 순번
+	@GuardedBy("m_guard") private int m_runningCount = 0;
+	@GuardedBy("m_guard") private boolean m_inputExhausted = false;
+	@GuardedBy("m_guard") private boolean m_pulling = false;	// 입력 스트림에서 원소를 읽고 있는 쓰레드 존재 여부
+	@GuardedBy("m_guard") private boolean m_closed = false;
+	@GuardedBy("m_guard") private @Nullable RuntimeException m_srcFailure = null;
+	@GuardedBy("m_guard") private final Set<StartableExecution<T>> m_activeJobs = new HashSet<>();
+
+	/**
+	 * @param src     입력 스트림.
+	 * @param mapper  각 원소에 적용할 매핑 함수.
+	 * @param options 비동기 옵션. {@link AsyncExecutionOptions#getReorderWindow()}는 재정렬 window의
+	 *                크기로, {@link AsyncExecutionOptions#getWorkerCount()}는 동시 작업 수로 사용된다.
+	 * @throws IllegalArgumentException {@code mapper}가 {@code null}인 경우.
+	 */
+	ReorderingMapAsyncStream(FStream<S> src, CheckedFunction<? super S, ? extends T> mapper,
+								AsyncExecutionOptions options) {
+		Preconditions.checkNotNullArgument(mapper, "mapper is null");
+
+		m_src = src;
+		m_mapper = new ResilientMapper<>(mapper, options);
+		m_workerCount = options.getWorkerCount();
+		m_windowSize = options.getReorderWindow();
+		m_limiter = options.getConcurrencyLimiter();
+		m_slots = new Object[m_windowSize];
+	}
+
+	@Override
+	protected void closeInGuard() throws Exception {
+		List<StartableExecution<T>> jobs = m_guard.get(() -> {
+			m_closed = true;
+			Arrays.fill(m_slots, null);
+
+			List<StartableExecution<T>> snap = new ArrayList<>(m_activeJobs);
+			m_activeJobs.clear();
+			return snap;
+		});
+		jobs.forEach(job -> Unchecked.runOrIgnore(() -> job.cancel(true)));
+
+		Unchecked.runOrIgnore(m_src::close);
+	}
+
+	@Override
+	protected void initialize() {
+		fill();
+	}
+
+	@Override
+	protected FOption<Tuple<S,Try<T>>> nextInGuard() {
+		Tuple<S,Try<T>> result;
+
+		m_guard.lock();
+		try {
+			while ( true ) {
+				int idx = (int)(m_headSeq % m_windowSize);
+				if ( m_slots[idx] != null ) {
+					@SuppressWarnings("unchecked")
+					Tuple<S,Try<T>> head = (Tuple<S,Try<T>>)m_slots[idx];
+					result = head;
+					m_slots[idx] = null;
+					++m_headSeq;
+					break;
+				}
+				if ( m_inputExhausted && m_headSeq == m_nextSeq ) {
+					if ( m_srcFailure != null ) {
+						// 입력 스트림에서 발생한 예외는 앞선 결과들이 모두 반환된 후 전달한다.
+						throw m_srcFailure;
+					}
+					return FOption.empty();
+				}
+
+				m_guard.awaitSignal();
+			}
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeInterruptedException(e);
+		}
+		finally {
+			m_guard.unlock();
+		}
+
+		// window에 빈 자리가 생겼으므로 새 작업을 시작시킨다.
+		fill();
+		return FOption.of(result);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[workers=%d, window=%d]", getClass().getSimpleName(),
+								m_workerCount, m_windowSize);
+	}
+
+	/**
+	 * 동시 작업 수와 재정렬 window가 허용하는 만큼 새 작업을 시작시킨다.
+	 * <p>
+	 * 본 메소드는 소비자 쓰레드와 작업 완료 콜백에서 동시에 호출될 수 있다. 입력 스트림 접근은
+	 * {@code m_guard} 밖에서 수행하여 입력이 느리더라도 소비자나 다른 작업의 완료 처리가 블록되지
+	 * 않도록 하고, 대신 {@code m_pulling}을 통해 한번에 한 쓰레드만 입력 스트림을 읽도록 한다.
+	 * 다른 쓰레드가 읽고 있는 중이면 바로 반환하며, 읽고 있던 쓰레드가 다시 여유를 확인하여 작업을 시작시킨다.
+	 */
+	private void fill() {
+		fill(m_guard.get(this::reserveInGuard));
+	}
+
+	/**
+	 * 예약된 순번부터 시작하여, 여유가 있는 동안 입력 스트림에서 원소를 읽어 작업을 시작시킨다.
+	 *
+	 * @param seq	{@link #reserveInGuard()}로 예약된 순번. 음수인 경우는 아무 작업도 하지 않는다.
+	 */
+	private void fill(long seq) {
+		while ( seq >= 0 ) {
+			FOption<S> next;
+			RuntimeException failure = null;
+			try {
+				next = m_src.next();
+			}
+			catch ( RuntimeException e ) {
+				// 입력 스트림 접근은 worker 쓰레드에서도 발생하므로 예외를 기록해두고 소비자에게 전달한다.
+				failure = e;
+				next = FOption.empty();
+			}
+
+			S input;
+			StartableExecution<T> exec;
+			m_guard.lock();
+			try {
+				m_pulling = false;
+				if ( next.isAbsent() || m_closed ) {
+					// 예약한 순번과 작업 slot을 반환한다.
+					m_nextSeq = seq;
+					--m_runningCount;
+					if ( next.isAbsent() ) {
+						m_inputExhausted = true;
+						m_srcFailure = failure;
+					}
+					if ( m_limiter != null ) {
+						m_limiter.release();
+					}
+					m_guard.signalAll();
+					return;
+				}
+
+				input = next.getUnchecked();
+				exec = m_mapper.toExecution(input);
+				m_activeJobs.add(exec);
+			}
+			finally {
+				m_guard.unlock();
+			}
+
+			long started = System.nanoTime();
+			long jobSeq = seq;
+			exec.whenFinishedAsync(ret -> {
+				if ( m_limiter != null ) {
+					m_limiter.onSample(System.nanoTime() - started, ret.isFailed());
+					m_limiter.release();
+				}
+				long reserved = m_guard.get(() -> {
+					m_activeJobs.remove(exec);
+					--m_runningCount;
+					if ( !m_closed ) {
+						m_slots[(int)(jobSeq % m_windowSize)] = Tuple.of(input, ret.asTry());
+					}
+					// 결과를 적재하면서 다음 입력도 함께 예약하여, 결과를 가져간 소비자 쓰레드가
+					// 입력 스트림을 읽느라 블록되지 않도록 한다.
+					return reserveInGuard();
+				});
+				fill(reserved);
+			});
+			exec.start();
+
+			seq = m_guard.get(this::reserveInGuard);
+		}
+	}
+
+	/**
+	 * 새 작업을 시작할 여유가 있으면 순번과 작업 slot을 예약하고 {@code m_pulling}을 설정한다.
+	 * 예약된 순번의 입력 원소는 호출자가 lock 밖에서 읽는다.
+	 *
+	 * @return	예약된 순번. 여유가 없거나 다른 쓰레드가 입력 스트림을 읽고 있는 경우는 {@code -1}.
+	 */
+	private long reserveInGuard() {
+		if ( m_pulling || m_closed || m_inputExhausted || m_nextSeq - m_headSeq >= m_windowSize ) {
+			return -1;
+		}
+		if ( m_limiter == null ) {
+			if ( m_runningCount >= m_workerCount ) {
+				return -1;
+			}
+		}
+		else if ( !m_limiter.tryAcquire() ) {
+			// 수행 중인 작업이 없는 경우에는 진행될 수 있도록 한도와 무관하게 작업을 시작한다.
+			if ( m_runningCount > 0 ) {
+				return -1;
+			}
+			m_limiter.acquire();
+		}
+
+		m_pulling = true;
+		++m_runningCount;
+		return m_nextSeq++;
+	}
+}
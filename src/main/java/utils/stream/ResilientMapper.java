@@ -0,0 +1,252 @@
+package utils.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Throwables;
+import utils.async.CompletableFutureAsyncExecution;
+import utils.async.Executions;
+import utils.async.StartableExecution;
+import utils.func.CheckedFunction;
+import utils.thread.Guard;
+import utils.thread.LatencyHistogram;
+import utils.thread.Timer;
+import utils.thread.Timer.Timeout;
+
+
+/**
+ * 비동기 매핑 스트림에서 각 입력 원소에 대한 매핑 함수 호출을 담당한다.
+ * <p>
+ * {@link AsyncExecutionOptions}에 다음 설정이 있는 경우 이를 반영하여 원소 하나에 대해 매핑 함수를
+ * 여러 번 호출할 수 있다.
+ * <ul>
+ *   <li>{@link AsyncExecutionOptions#getTimeoutMillis()}: 원소 당 제한 시간. 재시도 및 추가 호출을
+ *       포함하여 제한 시간 내에 결과를 얻지 못하면 {@link TimeoutException}으로 실패한다.</li>
+ *   <li>{@link AsyncExecutionOptions#getRetryPolicy()}: 실패한 경우의 재시도 정책.</li>
+ *   <li>{@link AsyncExecutionOptions#getHedgePolicy()}: 호출이 늦어지는 경우의 추가 호출 정책.</li>
+ * </ul>
+ * 어떤 설정도 없는 경우는 원소마다 매핑 함수를 한번 호출하는 {@link StartableExecution}을 생성한다.
+ *
+ * @param <S>	입력 원소 타입.
+ * @param <T>	매핑 결과 타입.
+ * @author Kang-Woo Lee (ETRI)
+ */
+class ResilientMapper<S,T> {
+	private final CheckedFunction<? super S, ? extends T> m_mapper;
+	private final @Nullable Executor m_executor;
+	private final long m_timeoutMillis;
+	private final @Nullable RetryPolicy m_retryPolicy;
+	private final @Nullable HedgePolicy m_hedgePolicy;
+	/** 정상 종료된 호출들의 지연 시간 분포. 백분위 기반 hedge 대기 시간 계산에 사용된다. */
+	private final LatencyHistogram m_latencies = new LatencyHistogram();
+
+	ResilientMapper(CheckedFunction<? super S, ? extends T> mapper, AsyncExecutionOptions options) {
+		m_mapper = mapper;
+		m_executor = options.getExecutor();
+		m_timeoutMillis = options.getTimeoutMillis();
+		m_retryPolicy = options.getRetryPolicy();
+		m_hedgePolicy = options.getHedgePolicy();
+	}
+
+	/**
+	 * 주어진 입력 원소에 매핑 함수를 적용하는 (아직 시작되지 않은) 비동기 실행 객체를 생성한다.
+	 *
+	 * @param input	입력 원소.
+	 * @return	{@link StartableExecution} 객체.
+	 */
+	StartableExecution<T> toExecution(S input) {
+		if ( m_timeoutMillis <= 0 && m_retryPolicy == null && m_hedgePolicy == null ) {
+			return Executions.supplyCheckedAsync(() -> m_mapper.apply(input), m_executor);
+		}
+
+		return new CompletableFutureAsyncExecution<T>() {
+			@Override
+			protected CompletableFuture<? extends T> startExecution() {
+				return new Call(input).start();
+			}
+		};
+	}
+
+	/**
+	 * 원소 하나에 대한 (재시도와 추가 호출을 포함한) 매핑 함수 호출들을 관리한다.
+	 * <p>
+	 * 제한 시간, 재시도 대기, 추가 호출 대기는 공유 {@link Timer}에 등록되며, 결과가 결정되면
+	 * (취소된 경우 포함) 등록된 타임아웃들은 타이머에서 제거되고 진행 중인 호출들은 수행 쓰레드가
+	 * interrupt되어 중단된다. 따라서 결과가 버려진 호출이 동시 작업 수 제한 밖에서 계속 수행되지 않는다.
+	 */
+	private final class Call {
+		private final S m_input;
+		private final CompletableFuture<T> m_result = new CompletableFuture<>();
+		private final Guard m_guard = Guard.create();
+		@GuardedBy("m_guard") private final List<Attempt> m_attempts = new ArrayList<>();
+		@GuardedBy("m_guard") private final List<Timeout> m_timers = new ArrayList<>();
+		@GuardedBy("m_guard") private final List<Timeout> m_hedgeTimers = new ArrayList<>();	// 현재 시도의 추가 호출 대기
+		@GuardedBy("m_guard") private int m_retryCount = 0;
+		@GuardedBy("m_guard") private int m_hedgeCount = 0;
+
+		Call(S input) {
+			m_input = input;
+		}
+
+		CompletableFuture<T> start() {
+			// 결과가 결정되면 (취소된 경우 포함) 진행 중인 호출과 예약된 작업들을 모두 취소한다.
+			m_result.whenComplete((v,e) -> cleanup());
+			if ( m_timeoutMillis > 0 ) {
+				schedule(() -> m_result.completeExceptionally(
+										new TimeoutException("timeout=" + m_timeoutMillis + "ms")),
+						m_timeoutMillis);
+			}
+			launch();
+
+			return m_result;
+		}
+
+		private void launch() {
+			if ( m_result.isDone() ) {
+				return;
+			}
+
+			Attempt attempt = new Attempt();
+			m_guard.run(() -> m_attempts.add(attempt));
+			if ( m_result.isDone() ) {
+				// 추가하는 도중 결과가 결정된 경우.
+				attempt.cancel(true);
+				return;
+			}
+			attempt.submit();
+
+			if ( m_hedgePolicy != null ) {
+				int retry = m_guard.get(() -> m_retryCount);
+				Timeout timer = schedule(() -> hedge(retry), m_hedgePolicy.getDelayMillis(m_latencies));
+				m_guard.run(() -> m_hedgeTimers.add(timer));
+			}
+		}
+
+		private void hedge(int retry) {
+			boolean hedge = m_guard.get(() -> {
+				// 재시도가 시작된 이후에 수행되는 이전 시도의 추가 호출 대기는 무시한다.
+				if ( m_result.isDone() || m_attempts.isEmpty() || retry != m_retryCount
+					|| m_hedgeCount >= m_hedgePolicy.getMaxHedges() ) {
+					return false;
+				}
+				++m_hedgeCount;
+				return true;
+			});
+			if ( hedge ) {
+				launch();
+			}
+		}
+
+		private void onAttemptFinished(Attempt attempt, T value, Throwable error) {
+			if ( error == null ) {
+				m_latencies.record(System.nanoTime() - attempt.m_started);
+				m_result.complete(value);
+				return;
+			}
+
+			Throwable cause = Throwables.unwrapThrowable(error);
+
+			m_guard.lock();
+			try {
+				m_attempts.remove(attempt);
+				if ( m_result.isDone() || !m_attempts.isEmpty() ) {
+					// 이미 결과가 결정되었거나, 아직 진행 중인 다른 호출이 있는 경우.
+					return;
+				}
+
+				if ( !(cause instanceof CancellationException) && m_retryPolicy != null
+					&& m_retryCount < m_retryPolicy.getMaxRetries() && m_retryPolicy.isRetryable(cause) ) {
+					long backoff = m_retryPolicy.getBackoffMillis(m_retryCount++);
+					m_hedgeCount = 0;
+
+					// 실패한 시도를 위해 예약된 추가 호출 대기들을 취소한다.
+					m_hedgeTimers.forEach(Timeout::cancel);
+					m_timers.removeAll(m_hedgeTimers);
+					m_hedgeTimers.clear();
+
+					schedule(this::launch, backoff);
+					return;
+				}
+			}
+			finally {
+				m_guard.unlock();
+			}
+
+			m_result.completeExceptionally(cause);
+		}
+
+		private Timeout schedule(Runnable task, long delayMillis) {
+			Timeout timer = Executions.getTimer().schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+			m_guard.run(() -> m_timers.add(timer));
+			if ( m_result.isDone() ) {
+				// 등록하는 도중 결과가 결정되어 cleanup()에서 누락된 경우.
+				timer.cancel();
+			}
+			return timer;
+		}
+
+		private void cleanup() {
+			List<Attempt> attempts = m_guard.get(() -> {
+				List<Attempt> list = new ArrayList<>(m_attempts);
+				m_attempts.clear();
+				m_timers.forEach(Timeout::cancel);
+				m_timers.clear();
+				m_hedgeTimers.clear();
+				return list;
+			});
+			attempts.forEach(attempt -> attempt.cancel(true));
+		}
+
+		/**
+		 * 매핑 함수 호출 한 번.
+		 * <p>
+		 * {@link FutureTask}로 구현되어 {@link #cancel(boolean) cancel(true)} 호출시 아직 시작되지 않은
+		 * 호출은 수행되지 않고, 수행 중인 호출은 수행 쓰레드가 interrupt된다.
+		 */
+		private final class Attempt extends FutureTask<T> {
+			private final long m_started = System.nanoTime();
+
+			Attempt() {
+				super(() -> m_mapper.apply(m_input));
+			}
+
+			void submit() {
+				try {
+					Executions.callAsync(() -> { run(); return null; }, m_executor);
+				}
+				catch ( Throwable e ) {
+					setException(e);
+				}
+			}
+
+			@Override
+			protected void done() {
+				if ( isCancelled() ) {
+					onAttemptFinished(this, null, new CancellationException());
+					return;
+				}
+				try {
+					onAttemptFinished(this, get(), null);
+				}
+				catch ( ExecutionException e ) {
+					onAttemptFinished(this, null, e.getCause());
+				}
+				catch ( InterruptedException e ) {
+					// 이미 종료된 상태이므로 발생하지 않는다.
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package utils.stream;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import utils.Preconditions;
+
+
+/**
+ * 비동기 매핑 함수 호출이 실패한 경우의 재시도 정책.
+ * <p>
+ * 실패한 호출은 최대 {@link #getMaxRetries()}번까지 재시도되며, {@code i}번째 재시도 (0부터 시작) 전에는
+ * {@code min(maxBackoff, backoff * multiplier^i)} 만큼 대기한다.
+ * <pre>{@code
+ * RetryPolicy policy = RetryPolicy.retries(3)
+ *                                 .backoff(50, TimeUnit.MILLISECONDS)
+ *                                 .retryOn(e -> e instanceof IOException);
+ * }</pre>
+ *
+ * @author Kang-Woo Lee (ETRI)
+ * @see AsyncExecutionOptions#setRetryPolicy(RetryPolicy)
+ */
+public final class RetryPolicy {
+	private static final long DEFAULT_BACKOFF_MILLIS = 100;
+	private static final double DEFAULT_MULTIPLIER = 2.0;
+	private static final long DEFAULT_MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+	private final int m_maxRetries;
+	private final long m_backoffMillis;
+	private final double m_multiplier;
+	private final long m_maxBackoffMillis;
+	private final Predicate<? super Throwable> m_retryOn;
+
+	/**
+	 * 최대 {@code maxRetries}번 재시도하는 정책을 생성한다.
+	 * 기본적으로 모든 예외에 대해 100ms부터 2배씩 (최대 10초) 증가하는 간격으로 재시도한다.
+	 *
+	 * @param maxRetries	최대 재시도 횟수.
+	 * @return	{@link RetryPolicy} 객체.
+	 */
+	public static RetryPolicy retries(int maxRetries) {
+		return new RetryPolicy(maxRetries, DEFAULT_BACKOFF_MILLIS, DEFAULT_MULTIPLIER,
+								DEFAULT_MAX_BACKOFF_MILLIS, e -> true);
+	}
+
+	private RetryPolicy(int maxRetries, long backoffMillis, double multiplier, long maxBackoffMillis,
+						Predicate<? super Throwable> retryOn) {
+		Preconditions.checkArgument(maxRetries >= 0, "invalid maxRetries: %s", maxRetries);
+		Preconditions.checkArgument(backoffMillis >= 0, "invalid backoff: %s", backoffMillis);
+		Preconditions.checkArgument(multiplier >= 1, "invalid multiplier: %s", multiplier);
+		Preconditions.checkArgument(maxBackoffMillis >= backoffMillis,
+									"maxBackoff(%s) < backoff(%s)", maxBackoffMillis, backoffMillis);
+		Preconditions.checkNotNullArgument(retryOn, "retryOn predicate is null");
+
+		m_maxRetries = maxRetries;
+		m_backoffMillis = backoffMillis;
+		m_multiplier = multiplier;
+		m_maxBackoffMillis = maxBackoffMillis;
+		m_retryOn = retryOn;
+	}
+
+	/**
+	 * 첫번째 재시도 전 대기 시간을 설정한 새 정책을 생성한다.
+	 *
+	 * @param backoff	대기 시간.
+	 * @param unit		시간 단위.
+	 * @return	설정이 반영된 새 {@link RetryPolicy} 객체.
+	 */
+	public RetryPolicy backoff(long backoff, TimeUnit unit) {
+		long millis = unit.toMillis(backoff);
+		return new RetryPolicy(m_maxRetries, millis, m_multiplier, Math.max(millis, m_maxBackoffMillis),
+								m_retryOn);
+	}
+
+	/**
+	 * 재시도마다 대기 시간에 곱할 배수를 설정한 새 정책을 생성한다. (기본값: 2.0)
+	 *
+	 * @param multiplier	배수 ({@code multiplier >= 1}).
+	 * @return	설정이 반영된 새 {@link RetryPolicy} 객체.
+	 */
+	public RetryPolicy multiplier(double multiplier) {
+		return new RetryPolicy(m_maxRetries, m_backoffMillis, multiplier, m_maxBackoffMillis, m_retryOn);
+	}
+
+	/**
+	 * 재시도 전 대기 시간의 상한을 설정한 새 정책을 생성한다. (기본값: 10초)
+	 *
+	 * @param maxBackoff	대기 시간 상한.
+	 * @param unit			시간 단위.
+	 * @return	설정이 반영된 새 {@link RetryPolicy} 객체.
+	 */
+	public RetryPolicy maxBackoff(long maxBackoff, TimeUnit unit) {
+		return new RetryPolicy(m_maxRetries, m_backoffMillis, m_multiplier, unit.toMillis(maxBackoff),
+								m_retryOn);
+	}
+
+	/**
+	 * 재시도 대상 예외를 판별하는 조건을 설정한 새 정책을 생성한다.
+	 * 조건을 만족하지 않는 예외로 실패한 경우는 재시도 없이 바로 실패로 처리된다.
+	 *
+	 * @param retryOn	재시도 대상 예외 판별 조건.
+	 * @return	설정이 반영된 새 {@link RetryPolicy} 객체.
+	 */
+	public RetryPolicy retryOn(Predicate<? super Throwable> retryOn) {
+		return new RetryPolicy(m_maxRetries, m_backoffMillis, m_multiplier, m_maxBackoffMillis, retryOn);
+	}
+
+	public int getMaxRetries() {
+		return m_maxRetries;
+	}
+
+	/**
+	 * 주어진 예외로 실패한 호출을 재시도할지 여부를 반환한다.
+	 *
+	 * @param cause	실패 원인 예외.
+	 * @return	재시도 대상인 경우는 {@code true}.
+	 */
+	public boolean isRetryable(Throwable cause) {
+		return m_retryOn.test(cause);
+	}
+
+	/**
+	 * {@code retry}번째 재시도 (0부터 시작) 전에 대기할 시간을 반환한다.
+	 *
+	 * @param retry	재시도 순번.
+	 * @return	대기 시간 (milli-seconds).
+	 */
+	public long getBackoffMillis(int retry) {
+		double backoff = m_backoffMillis * Math.pow(m_multiplier, retry);
+		return (long)Math.min(m_maxBackoffMillis, backoff);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("retry[max=%d, backoff=%dms, x%.1f, max_backoff=%dms]",
+								m_maxRetries, m_backoffMillis, m_multiplier, m_maxBackoffMillis);
+	}
+}
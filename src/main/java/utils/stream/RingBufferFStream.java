@@ -0,0 +1,384 @@
+package utils.stream;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.RuntimeInterruptedException;
+import utils.Throwables;
+import utils.func.FOption;
+
+
+/**
+ * lock-free ring buffer 기반의 bounded {@link FStreamChannel} 구현체.
+ * <p>
+ * {@link SuppliableFStream}과 동일한 규약을 제공하지만, 데이터 적재/소비가 하나의 lock을 거치지 않고
+ * 슬롯별 sequence 번호와 CAS 연산만으로 수행되므로 (다수 producer / 다수 consumer 모두 허용)
+ * 다수의 producer 쓰레드가 동시에 {@code supply}하는 경우에도 lock 경합이 발생하지 않는다.
+ * <p>
+ * 채널이 가득 찼거나 비어있어 대기가 필요한 경우는 잠시 spin한 후 {@link LockSupport#park(Object)}로
+ * 대기하며, 상대편 연산이 수행되면 {@link LockSupport#unpark(Thread)}로 깨어난다.
+ * 대기가 필요 없는 경로에서는 객체 할당이 발생하지 않는다.
+ * <p>
+ * {@link SuppliableFStream}과 달리 {@code null} 원소는 허용되지 않으며, supply listener는 제공하지 않는다.
+ *
+ * @param <T>	스트림 원소 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RingBufferFStream<T> implements FStreamChannel<T> {
+	private static final Object EOS = new Object();
+	private static final int SPIN_COUNT = 64;
+
+	private final int m_capacity;
+	private final AtomicReferenceArray<T> m_slots;
+	private final AtomicLongArray m_sequences;		// 슬롯별로 다음에 허용되는 연산의 위치
+	private final AtomicLong m_head = new AtomicLong(0);	// 다음 소비 위치
+	private final AtomicLong m_tail = new AtomicLong(0);	// 다음 적재 위치
+
+	private volatile boolean m_closed = false;
+	private final AtomicReference<Object> m_termination = new AtomicReference<>();	// EOS 또는 Throwable
+
+	private final ConcurrentLinkedQueue<Thread> m_waitingConsumers = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<Thread> m_waitingProducers = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 지정된 capacity를 가지는 {@link RingBufferFStream}를 생성한다.
+	 *
+	 * @param capacity	채널 capacity. 양의 정수여야 한다.
+	 * @throws IllegalArgumentException	{@code capacity}가 {@code 0} 이하인 경우.
+	 */
+	public RingBufferFStream(int capacity) {
+		Preconditions.checkArgument(capacity > 0, "invalid capacity: %s", capacity);
+
+		m_capacity = capacity;
+		m_slots = new AtomicReferenceArray<>(capacity);
+		m_sequences = new AtomicLongArray(capacity);
+		for ( int i =0; i < capacity; ++i ) {
+			m_sequences.set(i, i);
+		}
+	}
+
+	@Override
+	public int capacity() {
+		return m_capacity;
+	}
+
+	/**
+	 * 채널에 현재 적재되어 있는 원소의 수를 반환한다.
+	 * <p>
+	 * 본 메소드의 결과는 호출 직후 다른 쓰레드의 {@code supply} / {@code next} 호출에 의해
+	 * 즉시 변할 수 있다.
+	 *
+	 * @return	적재된 원소의 수
+	 */
+	public int size() {
+		long size = m_tail.get() - m_head.get();
+		return (int)Math.max(0, Math.min(size, m_capacity));
+	}
+
+	@Override
+	public void close() {
+		if ( !m_closed ) {
+			m_closed = true;
+			clear();
+			wakeUpAll();
+		}
+	}
+
+	@Override
+	public boolean isClosed() {
+		return m_closed;
+	}
+
+	@Override
+	public boolean isEndOfSupply() {
+		return m_termination.get() != null;
+	}
+
+	@Override
+	public FOption<T> next() {
+		try {
+			return takeNext(-1L);
+		}
+		catch ( TimeoutException e ) {
+			throw new AssertionError("should not reach here");
+		}
+	}
+
+	@Override
+	public FOption<T> next(long timeout, TimeUnit tu) throws TimeoutException {
+		return takeNext(tu.toNanos(timeout));
+	}
+
+	@Override
+	public FOption<T> poll() {
+		if ( m_closed ) {
+			return terminated();
+		}
+
+		T value = dequeue();
+		if ( value != null ) {
+			onTaken();
+			return FOption.of(value);
+		}
+		else if ( m_termination.get() != null ) {
+			value = dequeue();
+			if ( value != null ) {
+				onTaken();
+				return FOption.of(value);
+			}
+			return terminated();
+		}
+		else {
+			return FOption.empty();
+		}
+	}
+
+	@Override
+	public void supply(T data) throws IllegalStateException, InterruptedException {
+		try {
+			putNext(data, -1L);
+		}
+		catch ( TimeoutException e ) {
+			throw new AssertionError("should not reach here");
+		}
+	}
+
+	@Override
+	public void supply(T data, long timeout, TimeUnit tu) throws IllegalStateException, InterruptedException,
+																TimeoutException {
+		putNext(data, tu.toNanos(timeout));
+	}
+
+	@Override
+	public void endOfSupply() {
+		if ( m_termination.compareAndSet(null, EOS) ) {
+			wakeUpAll();
+		}
+	}
+
+	@Override
+	public void endOfSupply(Throwable error) throws IllegalArgumentException {
+		Preconditions.checkNotNullArgument(error, "error must not be null");
+
+		if ( m_termination.compareAndSet(null, error) ) {
+			wakeUpAll();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[size=%d, closed=%s, eos=%s]", getClass().getSimpleName(),
+								size(), m_closed, isEndOfSupply());
+	}
+
+	private FOption<T> takeNext(long timeoutNanos) throws TimeoutException {
+		long deadline = (timeoutNanos >= 0) ? System.nanoTime() + timeoutNanos : 0;
+		for ( int spins =0;; ++spins ) {
+			if ( m_closed ) {
+				return terminated();
+			}
+
+			T value = dequeue();
+			if ( value != null ) {
+				onTaken();
+				return FOption.of(value);
+			}
+			if ( m_termination.get() != null ) {
+				// 종료 신호 직전에 적재된 데이터가 있을 수 있으므로 한번 더 확인한다.
+				value = dequeue();
+				if ( value != null ) {
+					onTaken();
+					return FOption.of(value);
+				}
+				return terminated();
+			}
+
+			if ( spins < SPIN_COUNT ) {
+				Thread.onSpinWait();
+				continue;
+			}
+			try {
+				if ( !await(m_waitingConsumers, true, timeoutNanos >= 0, deadline) ) {
+					throw new TimeoutException();
+				}
+			}
+			catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeInterruptedException(e);
+			}
+		}
+	}
+
+	private void putNext(T data, long timeoutNanos) throws InterruptedException, TimeoutException {
+		Preconditions.checkNotNullArgument(data, "data is null");
+
+		long deadline = (timeoutNanos >= 0) ? System.nanoTime() + timeoutNanos : 0;
+
+		for ( int spins =0;; ++spins ) {
+			if ( m_closed ) {
+				throw new IllegalStateException("closed at consumer-side");
+			}
+			else if ( m_termination.get() != null ) {
+				throw new IllegalStateException("Supplier has closed the stream");
+			}
+
+			if ( enqueue(data) ) {
+				if ( m_closed ) {
+					// 적재 도중 consumer가 close한 경우, 적재된 데이터를 폐기한다.
+					clear();
+				}
+				onSupplied();
+				return;
+			}
+
+			if ( spins < SPIN_COUNT ) {
+				Thread.onSpinWait();
+				continue;
+			}
+			if ( !await(m_waitingProducers, false, timeoutNanos >= 0, deadline) ) {
+				throw new TimeoutException();
+			}
+		}
+	}
+
+	private FOption<T> terminated() {
+		Object termination = m_termination.get();
+		if ( termination instanceof Throwable error ) {
+			throw Throwables.toRuntimeException(error);
+		}
+		else {
+			return FOption.empty();
+		}
+	}
+
+	private boolean enqueue(T value) {
+		while ( true ) {
+			long pos = m_tail.get();
+			int idx = (int)(pos % m_capacity);
+			long diff = m_sequences.get(idx) - pos;
+			if ( diff == 0 ) {
+				if ( m_tail.compareAndSet(pos, pos + 1) ) {
+					m_slots.set(idx, value);
+					m_sequences.set(idx, pos + 1);
+					return true;
+				}
+			}
+			else if ( diff < 0 ) {
+				// 이전 바퀴의 데이터가 아직 소비되지 않았으므로 가득 찬 상태이다.
+				return false;
+			}
+		}
+	}
+
+	private @Nullable T dequeue() {
+		while ( true ) {
+			long pos = m_head.get();
+			int idx = (int)(pos % m_capacity);
+			long diff = m_sequences.get(idx) - (pos + 1);
+			if ( diff == 0 ) {
+				if ( m_head.compareAndSet(pos, pos + 1) ) {
+					T value = m_slots.get(idx);
+					m_slots.set(idx, null);
+					m_sequences.set(idx, pos + m_capacity);
+					return value;
+				}
+			}
+			else if ( diff < 0 ) {
+				// 아직 적재되지 않은 (또는 적재가 완료되지 않은) 슬롯이므로 빈 상태이다.
+				return null;
+			}
+		}
+	}
+
+	private void clear() {
+		while ( dequeue() != null ) { }
+		wakeUp(m_waitingProducers);
+	}
+
+	private boolean isReadable() {
+		return m_tail.get() > m_head.get() || m_closed || m_termination.get() != null;
+	}
+
+	private boolean isWritable() {
+		return m_tail.get() - m_head.get() < m_capacity || m_closed || m_termination.get() != null;
+	}
+
+	private void onSupplied() {
+		wakeUp(m_waitingConsumers);
+		if ( isWritable() ) {
+			// 대기 중이던 다른 producer가 깨어날 기회를 잃지 않도록 전파한다.
+			wakeUp(m_waitingProducers);
+		}
+	}
+
+	private void onTaken() {
+		wakeUp(m_waitingProducers);
+		if ( isReadable() ) {
+			// 대기 중이던 다른 consumer가 깨어날 기회를 잃지 않도록 전파한다.
+			wakeUp(m_waitingConsumers);
+		}
+	}
+
+	private void wakeUp(ConcurrentLinkedQueue<Thread> waiters) {
+		Thread waiter = waiters.peek();
+		if ( waiter != null ) {
+			LockSupport.unpark(waiter);
+		}
+	}
+
+	private void wakeUpAll() {
+		m_waitingConsumers.forEach(LockSupport::unpark);
+		m_waitingProducers.forEach(LockSupport::unpark);
+	}
+
+	/**
+	 * 채널 상태가 변경될 때까지 호출 쓰레드를 대기시킨다.
+	 * <p>
+	 * 대기 목록에 등록한 뒤 상태를 다시 확인하고 park하므로, 등록 직전에 발생한 상태 변경을 놓치지 않는다.
+	 * 제한 시각이 지나거나 인터럽트되어 대기를 포기하는 경우는, 대기 목록에서 제거되기 전에 자신에게
+	 * 전달되었을 수 있는 wake-up을 다음 대기자에게 넘겨준다.
+	 *
+	 * @return	상태가 변경되었으면 {@code true}, 제한 시각이 지난 경우는 {@code false}.
+	 */
+	private boolean await(ConcurrentLinkedQueue<Thread> waiters, boolean consumer, boolean timed,
+							long deadline)
+		throws InterruptedException {
+		Thread current = Thread.currentThread();
+		boolean satisfied = false;
+		waiters.add(current);
+		try {
+			while ( !(consumer ? isReadable() : isWritable()) ) {
+				if ( !timed ) {
+					LockSupport.park(this);
+				}
+				else {
+					long remains = deadline - System.nanoTime();
+					if ( remains <= 0 ) {
+						return false;
+					}
+					LockSupport.parkNanos(this, remains);
+				}
+				if ( Thread.interrupted() ) {
+					throw new InterruptedException();
+				}
+			}
+			satisfied = true;
+			return true;
+		}
+		finally {
+			waiters.remove(current);
+			if ( !satisfied ) {
+				wakeUp(waiters);
+			}
+		}
+	}
+}
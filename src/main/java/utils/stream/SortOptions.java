@@ -0,0 +1,85 @@
+package utils.stream;
+
+import java.io.File;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+
+
+/**
+ * {@link FStream#sort(java.util.Comparator, SortOptions)}의 외부 정렬(external merge sort) 설정.
+ * <p>
+ * 메모리에 동시에 적재할 최대 원소 수({@link #getMaxInMemory()})를 넘는 입력은 정렬된 run 단위로
+ * 임시 디렉토리({@link #getTempDir()})에 {@link #getCodec()}을 통해 기록되고, 이후 k-way 병합된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class SortOptions {
+	public static final int DEFAULT_MAX_IN_MEMORY = 100_000;
+
+	private final int m_maxInMemory;
+	private final @Nullable File m_tempDir;
+	private final SpillCodec<?> m_codec;
+
+	public static SortOptions create() {
+		return new SortOptions(DEFAULT_MAX_IN_MEMORY, null, SpillCodec.serializable());
+	}
+
+	public static SortOptions maxInMemory(int count) {
+		return new SortOptions(count, null, SpillCodec.serializable());
+	}
+
+	private SortOptions(int maxInMemory, @Nullable File tempDir, SpillCodec<?> codec) {
+		Preconditions.checkArgument(maxInMemory > 0, "maxInMemory > 0, but: %s", maxInMemory);
+		Preconditions.checkNotNullArgument(codec, "SpillCodec is null");
+
+		m_maxInMemory = maxInMemory;
+		m_tempDir = tempDir;
+		m_codec = codec;
+	}
+
+	/**
+	 * 메모리에 동시에 적재할 최대 원소 수를 반환한다.
+	 *
+	 * @return	원소 수.
+	 */
+	public int getMaxInMemory() {
+		return m_maxInMemory;
+	}
+
+	/**
+	 * 정렬 run 파일이 생성될 디렉토리를 반환한다.
+	 * {@code null}인 경우는 시스템 기본 임시 디렉토리를 사용한다.
+	 *
+	 * @return	디렉토리 또는 {@code null}.
+	 */
+	public @Nullable File getTempDir() {
+		return m_tempDir;
+	}
+
+	/**
+	 * run 파일 기록에 사용할 codec을 반환한다.
+	 *
+	 * @return	codec 객체.
+	 */
+	public SpillCodec<?> getCodec() {
+		return m_codec;
+	}
+
+	public SortOptions tempDir(File dir) {
+		Preconditions.checkNotNullArgument(dir, "tempDir is null");
+
+		return new SortOptions(m_maxInMemory, dir, m_codec);
+	}
+
+	public SortOptions codec(SpillCodec<?> codec) {
+		return new SortOptions(m_maxInMemory, m_tempDir, codec);
+	}
+
+	@Override
+	public String toString() {
+		String dirStr = (m_tempDir != null) ? ", dir=" + m_tempDir : "";
+		return String.format("maxInMemory=%d%s, codec=%s", m_maxInMemory, dirStr, m_codec);
+	}
+}
@@ -0,0 +1,132 @@
+package utils.stream;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import utils.Preconditions;
+import utils.json.JacksonUtils;
+
+
+/**
+ * 스트림 원소를 임시 파일에 기록하고 다시 읽어 들이기 위한 codec.
+ * <p>
+ * {@link FStream#sort(java.util.Comparator, SortOptions)}와 같이 메모리 사용을 제한하기 위해
+ * 원소들을 디스크로 내보내는(spill) 연산에서 사용된다.
+ * 하나의 파일에는 동일 codec으로 기록된 원소들이 연속으로 저장되며, {@link #read(ObjectInput)}는
+ * {@link #write(Object, ObjectOutput)}로 기록된 순서대로 원소를 읽는다.
+ *
+ * @param <T>	원소 타입.
+ * @author Kang-Woo Lee (ETRI)
+ */
+public interface SpillCodec<T> {
+	/**
+	 * 주어진 원소를 출력 스트림에 기록한다.
+	 *
+	 * @param value	기록할 원소.
+	 * @param out	출력 스트림.
+	 * @throws IOException	기록 중 오류가 발생된 경우.
+	 */
+	public void write(T value, ObjectOutput out) throws IOException;
+
+	/**
+	 * 입력 스트림에서 원소 하나를 읽는다.
+	 *
+	 * @param in	입력 스트림.
+	 * @return	읽은 원소.
+	 * @throws IOException	읽는 중 오류가 발생된 경우.
+	 */
+	public T read(ObjectInput in) throws IOException;
+
+	/**
+	 * Java 직렬화({@link java.io.Serializable})를 사용하는 codec을 반환한다.
+	 *
+	 * @param <T>	원소 타입.
+	 * @return	codec 객체.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> SpillCodec<T> serializable() {
+		return (SpillCodec<T>)SerializableCodec.INSTANCE;
+	}
+
+	/**
+	 * Jackson을 이용하여 원소를 JSON으로 기록하는 codec을 반환한다.
+	 *
+	 * @param <T>		원소 타입.
+	 * @param valueType	원소의 클래스.
+	 * @return	codec 객체.
+	 */
+	public static <T> SpillCodec<T> jackson(Class<T> valueType) {
+		return jackson(JacksonUtils.newJsonMapper(false), valueType);
+	}
+
+	/**
+	 * 주어진 {@link ObjectMapper}를 이용하여 원소를 기록하는 codec을 반환한다.
+	 *
+	 * @param <T>		원소 타입.
+	 * @param mapper	원소 변환에 사용할 {@link ObjectMapper}.
+	 * @param valueType	원소의 클래스.
+	 * @return	codec 객체.
+	 */
+	public static <T> SpillCodec<T> jackson(ObjectMapper mapper, Class<T> valueType) {
+		Preconditions.checkNotNullArgument(mapper, "ObjectMapper is null");
+		Preconditions.checkNotNullArgument(valueType, "valueType is null");
+
+		return new JacksonCodec<>(mapper, valueType);
+	}
+
+	static final class SerializableCodec implements SpillCodec<Object> {
+		private static final SerializableCodec INSTANCE = new SerializableCodec();
+
+		@Override
+		public void write(Object value, ObjectOutput out) throws IOException {
+			out.writeObject(value);
+		}
+
+		@Override
+		public Object read(ObjectInput in) throws IOException {
+			try {
+				return in.readObject();
+			}
+			catch ( ClassNotFoundException e ) {
+				throw new IOException("fails to read an object", e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "serializable";
+		}
+	}
+
+	static final class JacksonCodec<T> implements SpillCodec<T> {
+		private final ObjectMapper m_mapper;
+		private final Class<T> m_valueType;
+
+		JacksonCodec(ObjectMapper mapper, Class<T> valueType) {
+			m_mapper = mapper;
+			m_valueType = valueType;
+		}
+
+		@Override
+		public void write(T value, ObjectOutput out) throws IOException {
+			byte[] bytes = m_mapper.writeValueAsBytes(value);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		@Override
+		public T read(ObjectInput in) throws IOException {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return m_mapper.readValue(bytes, m_valueType);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("jackson[%s]", m_valueType.getSimpleName());
+		}
+	}
+}
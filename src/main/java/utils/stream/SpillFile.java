@@ -0,0 +1,190 @@
+package utils.stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.func.FOption;
+import utils.stream.FStreams.AbstractFStream;
+
+
+/**
+ * 메모리 사용을 제한하는 연산(외부 정렬, grace hash join 등)에서 원소들을 일시적으로 기록하는 임시 파일.
+ * <p>
+ * {@link #append(Object)}로 원소들을 순서대로 기록하고 {@link #finish()}를 호출한 뒤에
+ * {@link #read()}를 통해 기록된 순서대로 원소를 읽을 수 있다.
+ * 파일은 {@link #delete()}가 호출될 때 삭제된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class SpillFile<T> {
+	/** ObjectOutputStream의 참조 테이블이 무한히 커지지 않도록 reset하는 주기. */
+	private static final int RESET_INTERVAL = 1024;
+
+	private final File m_file;
+	private final SpillCodec<T> m_codec;
+	private @Nullable ObjectOutputStream m_out;
+	private long m_count = 0;
+
+	private SpillFile(File file, SpillCodec<T> codec) throws IOException {
+		m_file = file;
+		m_codec = codec;
+		m_out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+	}
+
+	/**
+	 * 주어진 디렉토리에 임시 파일을 생성한다.
+	 *
+	 * @param <T>		원소 타입.
+	 * @param tempDir	파일을 생성할 디렉토리. {@code null}인 경우는 시스템 기본 임시 디렉토리.
+	 * @param prefix	파일 이름 prefix.
+	 * @param codec		원소 기록에 사용할 codec.
+	 * @return	생성된 임시 파일.
+	 * @throws IOException	파일 생성에 실패한 경우.
+	 */
+	static <T> SpillFile<T> create(@Nullable File tempDir, String prefix, SpillCodec<T> codec)
+		throws IOException {
+		Preconditions.checkNotNullArgument(codec, "SpillCodec is null");
+
+		File file = (tempDir != null)
+					? Files.createTempFile(tempDir.toPath(), prefix, ".spill").toFile()
+					: Files.createTempFile(prefix, ".spill").toFile();
+		try {
+			return new SpillFile<>(file, codec);
+		}
+		catch ( IOException e ) {
+			file.delete();
+			throw e;
+		}
+	}
+
+	File getFile() {
+		return m_file;
+	}
+
+	/**
+	 * 지금까지 기록된 원소의 수를 반환한다.
+	 *
+	 * @return	원소 수.
+	 */
+	long size() {
+		return m_count;
+	}
+
+	void append(T value) throws IOException {
+		Preconditions.checkState(m_out != null, "finished already: file=%s", m_file);
+
+		m_out.writeBoolean(true);
+		m_codec.write(value, m_out);
+		if ( ++m_count % RESET_INTERVAL == 0 ) {
+			m_out.reset();
+		}
+	}
+
+	/**
+	 * 주어진 스트림의 모든 원소를 기록한다. 스트림은 기록 후 close된다.
+	 *
+	 * @param strm	기록할 원소들의 스트림.
+	 * @throws IOException	기록 중 오류가 발생된 경우.
+	 */
+	void appendAll(FStream<? extends T> strm) throws IOException {
+		try {
+			FOption<? extends T> next;
+			while ( (next = strm.next()).isPresent() ) {
+				append(next.getUnchecked());
+			}
+		}
+		finally {
+			strm.closeQuietly();
+		}
+	}
+
+	/**
+	 * 원소 기록을 종료한다. 이후 {@link #append(Object)}는 호출할 수 없다.
+	 *
+	 * @throws IOException	파일 종료 중 오류가 발생된 경우.
+	 */
+	void finish() throws IOException {
+		if ( m_out != null ) {
+			try {
+				m_out.writeBoolean(false);
+			}
+			finally {
+				m_out.close();
+				m_out = null;
+			}
+		}
+	}
+
+	/**
+	 * 기록된 원소들을 순서대로 읽는 스트림을 반환한다.
+	 * 아직 {@link #finish()}가 호출되지 않은 경우는 먼저 호출한다.
+	 *
+	 * @return	원소 스트림.
+	 * @throws IOException	파일 열기에 실패한 경우.
+	 */
+	FStream<T> read() throws IOException {
+		finish();
+		return new Reader();
+	}
+
+	/**
+	 * 임시 파일을 삭제한다.
+	 */
+	void delete() {
+		if ( m_out != null ) {
+			try {
+				m_out.close();
+			}
+			catch ( IOException ignored ) { }
+			m_out = null;
+		}
+		m_file.delete();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s(%d)", m_file.getName(), m_count);
+	}
+
+	private class Reader extends AbstractFStream<T> {
+		private final ObjectInputStream m_ois;
+
+		Reader() throws IOException {
+			m_ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(m_file)));
+		}
+
+		@Override
+		protected void closeInGuard() throws Exception {
+			m_ois.close();
+		}
+
+		@Override
+		protected FOption<T> nextInGuard() {
+			try {
+				if ( m_ois.readBoolean() ) {
+					return FOption.of(m_codec.read(m_ois));
+				}
+				else {
+					return FOption.empty();
+				}
+			}
+			catch ( EOFException e ) {
+				throw new FStreamException("truncated spill file: " + m_file, e);
+			}
+			catch ( IOException e ) {
+				throw new FStreamException("fails to read spill file: " + m_file, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package utils.stream;
+
+import java.util.List;
+import java.util.Spliterator;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.func.FOption;
+
+
+/**
+ * 남은 원소들 중 일부를 별도의 스트림으로 분리할 수 있는 {@link FStream}.
+ * <p>
+ * {@link FStream#mergePartitioned(FStream, int, int, java.util.concurrent.Executor)}로 여러 스트림을
+ * 병합할 때, 일부 입력 스트림이 다른 스트림들보다 훨씬 큰 경우 해당 스트림을 소비하는 worker는 다른
+ * worker가 할 일이 없어지면 {@link #trySplit()}으로 남은 원소 일부를 분리하여 넘겨준다.
+ * <p>
+ * {@link #trySplit()}은 {@link #next()}를 호출하는 쓰레드와 동일한 쓰레드에서만 호출된다.
+ *
+ * @param <T>	스트림 원소 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+public interface SplittableFStream<T> extends FStream<T> {
+	/**
+	 * 본 스트림의 남은 원소들 중 일부를 분리하여 별도의 스트림으로 반환한다.
+	 * <p>
+	 * 분리된 원소들은 본 스트림에서 더 이상 반환되지 않는다.
+	 *
+	 * @return	분리된 원소들로 구성된 스트림. 분리할 수 없는 경우는 {@code null}.
+	 */
+	public @Nullable FStream<T> trySplit();
+
+	/**
+	 * 주어진 {@link Spliterator}의 원소들로 구성된 {@link SplittableFStream}을 생성한다.
+	 * 분리는 {@link Spliterator#trySplit()}을 통해 이루어진다.
+	 *
+	 * @param <T>	스트림 원소 타입
+	 * @param spliterator	원소를 제공할 {@link Spliterator}.
+	 * @return	{@link SplittableFStream} 객체.
+	 */
+	public static <T> SplittableFStream<T> from(Spliterator<T> spliterator) {
+		Preconditions.checkNotNullArgument(spliterator, "spliterator is null");
+
+		return new SpliteratorFStream<>(spliterator);
+	}
+
+	/**
+	 * 주어진 리스트의 원소들로 구성된 {@link SplittableFStream}을 생성한다.
+	 *
+	 * @param <T>	스트림 원소 타입
+	 * @param list	원소 리스트.
+	 * @return	{@link SplittableFStream} 객체.
+	 */
+	public static <T> SplittableFStream<T> from(List<T> list) {
+		Preconditions.checkNotNullArgument(list, "list is null");
+
+		return new SpliteratorFStream<>(list.spliterator());
+	}
+
+	static class SpliteratorFStream<T> implements SplittableFStream<T> {
+		private final Spliterator<T> m_spliterator;
+		private boolean m_closed = false;
+
+		SpliteratorFStream(Spliterator<T> spliterator) {
+			m_spliterator = spliterator;
+		}
+
+		@Override
+		public void close() throws Exception {
+			m_closed = true;
+		}
+
+		@Override
+		public FOption<T> next() {
+			if ( m_closed ) {
+				return FOption.empty();
+			}
+
+			@SuppressWarnings("unchecked")
+			T[] holder = (T[])new Object[1];
+			return m_spliterator.tryAdvance(v -> holder[0] = v) ? FOption.of(holder[0]) : FOption.empty();
+		}
+
+		@Override
+		public @Nullable FStream<T> trySplit() {
+			if ( m_closed ) {
+				return null;
+			}
+
+			Spliterator<T> split = m_spliterator.trySplit();
+			return (split != null) ? new SpliteratorFStream<>(split) : null;
+		}
+	}
+}
@@ -12,7 +12,6 @@ import org.jetbrains.annotations.Nullable;
 
 import utils.Preconditions;
 import utils.RuntimeInterruptedException;
-import utils.Suppliable;
 import utils.Throwables;
 import utils.thread.Guard;
 import utils.func.FOption;
@@ -48,11 +47,13 @@ import utils.func.FOption;
  * 에러 종료가 의도라면 {@code endOfSupply(error)} 를 먼저 호출해야 한다.
  * <p>
  * 모든 public 메소드는 thread-safe하므로 다수의 producer와 consumer가 동시에 사용해도 안전하다.
+ * 모든 연산이 하나의 lock을 통해 수행되므로, 다수의 producer가 경쟁하는 경우에는
+ * {@link RingBufferFStream}을 사용하는 것이 유리하다.
  *
  * @param <T>	스트림 원소 타입
  * @author Kang-Woo Lee (ETRI)
  */
-public class SuppliableFStream<T> implements TimedFStream<T>, Suppliable<T> {
+public class SuppliableFStream<T> implements FStreamChannel<T> {
 	private final int m_length;
 	
 	private final Guard m_guard = Guard.create();
@@ -88,6 +89,7 @@ public class SuppliableFStream<T> implements TimedFStream<T>, Suppliable<T> {
 	 *
 	 * @return	큐 capacity. 무제한 capacity 인 경우 {@code Integer.MAX_VALUE}.
 	 */
+	@Override
 	public int capacity() {
 		return m_length;
 	}
@@ -261,6 +263,7 @@ public class SuppliableFStream<T> implements TimedFStream<T>, Suppliable<T> {
 	 * 
 	 * @return	다음 원소. 스트림이 빈 경우는 {@link FOption#empty()}
 	 */
+	@Override
 	public FOption<T> poll() {
 		return m_guard.get(() -> {
 			if ( m_deque.size() > 0 ) {
@@ -285,6 +288,7 @@ public class SuppliableFStream<T> implements TimedFStream<T>, Suppliable<T> {
 	 *
 	 * @return	소비자 측이 close된 경우 {@code true}, 그렇지 않은 경우 {@code false}.
 	 */
+	@Override
 	public boolean isClosed() {
 		return m_guard.get(() -> m_closed);
 	}
@@ -0,0 +1,87 @@
+package utils.stream;
+
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * 시간 window [{@link #start()}, {@link #end()}) 에 속한 원소들의 집계 결과.
+ * 시각은 모두 milli-seconds 단위이다.
+ *
+ * @param <A>	집계 값의 타입.
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class TimeWindow<A> {
+	private final long m_start;
+	private final long m_end;
+	private final long m_count;
+	private final @Nullable A m_value;
+
+	TimeWindow(long start, long end, long count, @Nullable A value) {
+		m_start = start;
+		m_end = end;
+		m_count = count;
+		m_value = value;
+	}
+
+	/**
+	 * window의 시작 시각 (포함)을 반환한다.
+	 *
+	 * @return	시작 시각.
+	 */
+	public long start() {
+		return m_start;
+	}
+
+	/**
+	 * window의 종료 시각 (제외)을 반환한다.
+	 *
+	 * @return	종료 시각.
+	 */
+	public long end() {
+		return m_end;
+	}
+
+	/**
+	 * window에 속한 원소의 수를 반환한다.
+	 *
+	 * @return	원소 수.
+	 */
+	public long count() {
+		return m_count;
+	}
+
+	/**
+	 * window에 속한 원소들의 집계 값을 반환한다.
+	 *
+	 * @return	집계 값.
+	 */
+	public @Nullable A value() {
+		return m_value;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(m_start, m_end, m_count, m_value);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		else if ( obj == null || obj.getClass() != TimeWindow.class ) {
+			return false;
+		}
+
+		TimeWindow<?> other = (TimeWindow<?>)obj;
+		return m_start == other.m_start && m_end == other.m_end && m_count == other.m_count
+				&& Objects.equals(m_value, other.m_value);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%d,%d):%s(%d)", m_start, m_end, m_value, m_count);
+	}
+}
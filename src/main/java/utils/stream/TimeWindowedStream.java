@@ -0,0 +1,224 @@
+package utils.stream;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.Nullable;
+
+import utils.Preconditions;
+import utils.func.FOption;
+import utils.stream.FStreams.AbstractFStream;
+
+
+/**
+ * 원천 스트림의 원소들을 시간 window 별로 집계하여 {@link TimeWindow}로 반환하는 스트림.
+ * <p>
+ * 각 window는 누적값 하나만 유지하며, 원소가 도착할 때마다 {@code folder}를 통해 누적값을 갱신한다.
+ * window의 종료 시각이 현재 시각(watermark)을 지나면 해당 window의 집계 결과가 반환된다.
+ * <ul>
+ *   <li>event-time 모드 ({@code timestamper}가 주어진 경우): 원소에서 추출한 시각을 기준으로 하며,
+ *       지금까지 관측된 가장 늦은 시각을 watermark로 사용한다. 이미 결과가 반환된 window에 속하는
+ *       늦게 도착한 원소는 무시된다.
+ *   <li>processing-time 모드: 원소가 도착한 시스템 시각을 기준으로 한다. 원천 스트림이
+ *       {@link TimedFStream}인 경우에는 원소가 도착하지 않더라도 window의 종료 시각에 결과가 반환된다.
+ * </ul>
+ * 원천 스트림이 종료되면 아직 열려있는 모든 window의 결과가 반환된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+class TimeWindowedStream<T,A> extends AbstractFStream<TimeWindow<A>> {
+	private final FStream<T> m_src;
+	private final WindowSpec m_spec;
+	private final @Nullable ToLongFunction<? super T> m_timestamper;
+	private final Supplier<? extends A> m_initializer;
+	private final BiFunction<? super A,? super T,? extends A> m_folder;
+
+	private final TreeMap<Long,Pane> m_windows = new TreeMap<>();	// 고정 길이 window들 (시작 시각 순)
+	private @Nullable Pane m_session = null;						// 현재 진행 중인 session window
+	private final ArrayDeque<TimeWindow<A>> m_ready = new ArrayDeque<>();
+	private long m_watermark = Long.MIN_VALUE;
+	private boolean m_srcExhausted = false;
+
+	TimeWindowedStream(FStream<T> src, WindowSpec spec, @Nullable ToLongFunction<? super T> timestamper,
+						Supplier<? extends A> initializer, BiFunction<? super A,? super T,? extends A> folder) {
+		Preconditions.checkNotNullArgument(src, "source FStream is null");
+		Preconditions.checkNotNullArgument(spec, "WindowSpec is null");
+		Preconditions.checkNotNullArgument(initializer, "initializer is null");
+		Preconditions.checkNotNullArgument(folder, "folder is null");
+
+		m_src = src;
+		m_spec = spec;
+		m_timestamper = timestamper;
+		m_initializer = initializer;
+		m_folder = folder;
+	}
+
+	@Override
+	protected void closeInGuard() throws Exception {
+		m_windows.clear();
+		m_session = null;
+		m_ready.clear();
+		m_src.closeQuietly();
+	}
+
+	@Override
+	protected FOption<TimeWindow<A>> nextInGuard() {
+		while ( m_ready.isEmpty() ) {
+			if ( m_srcExhausted ) {
+				flushAll();
+				return FOption.ofNullable(m_ready.poll());
+			}
+
+			FOption<T> next = pull();
+			if ( next == null ) {
+				// processing-time window의 종료 시각이 지나 시각만 전진된 경우.
+				continue;
+			}
+			if ( next.isAbsent() ) {
+				m_srcExhausted = true;
+				continue;
+			}
+
+			T value = next.getUnchecked();
+			long ts = (m_timestamper != null) ? m_timestamper.applyAsLong(value) : System.currentTimeMillis();
+			assign(ts, value);
+			advance(ts);
+		}
+
+		return FOption.of(m_ready.poll());
+	}
+
+	@Override
+	public String toString() {
+		return String.format("window[%s, %s]", m_spec, (m_timestamper != null) ? "event_time" : "processing_time");
+	}
+
+	/**
+	 * 원천 스트림에서 다음 원소를 읽는다.
+	 * <p>
+	 * processing-time 모드이고 원천 스트림이 {@link TimedFStream}인 경우에는 가장 먼저 종료될 window의
+	 * 종료 시각까지만 대기하고, 그 때까지 원소가 도착하지 않으면 시각을 전진시킨 후 {@code null}을 반환한다.
+	 */
+	private @Nullable FOption<T> pull() {
+		if ( m_timestamper == null && m_src instanceof TimedFStream<T> timed ) {
+			long deadline = nextDeadline();
+			if ( deadline != Long.MAX_VALUE ) {
+				long waitMillis = deadline - System.currentTimeMillis();
+				if ( waitMillis <= 0 ) {
+					advance(System.currentTimeMillis());
+					return null;
+				}
+
+				try {
+					return timed.next(waitMillis, TimeUnit.MILLISECONDS);
+				}
+				catch ( TimeoutException e ) {
+					advance(System.currentTimeMillis());
+					return null;
+				}
+			}
+		}
+
+		return m_src.next();
+	}
+
+	private void assign(long ts, T value) {
+		long size = m_spec.getSizeMillis();
+		if ( m_spec.getType() == WindowSpec.Type.SESSION ) {
+			if ( ts + size <= m_watermark ) {
+				// 이미 종료된 session에 속했을 늦은 원소는 무시한다.
+				return;
+			}
+
+			if ( m_session == null || ts >= m_session.m_end ) {
+				if ( m_session != null ) {
+					emit(m_session);
+				}
+				m_session = new Pane(ts, ts + size);
+			}
+			else {
+				m_session.m_start = Math.min(m_session.m_start, ts);
+			}
+			m_session.m_end = Math.max(m_session.m_end, ts + size);
+			m_session.fold(value);
+		}
+		else {
+			long slide = m_spec.getSlideMillis();
+			for ( long start = Math.floorDiv(ts, slide) * slide; start > ts - size; start -= slide ) {
+				long end = start + size;
+				if ( end <= m_watermark ) {
+					// 이미 결과가 반환된 window이므로 무시한다. 이보다 앞선 window들도 마찬가지이다.
+					break;
+				}
+				m_windows.computeIfAbsent(start, s -> new Pane(s, end)).fold(value);
+			}
+		}
+	}
+
+	/**
+	 * 현재 시각을 주어진 시각으로 전진시키고, 종료 시각이 지난 window들의 결과를 반환 대기열에 추가한다.
+	 */
+	private void advance(long now) {
+		m_watermark = Math.max(m_watermark, now);
+
+		Map.Entry<Long,Pane> first;
+		while ( (first = m_windows.firstEntry()) != null && first.getValue().m_end <= m_watermark ) {
+			m_windows.pollFirstEntry();
+			emit(first.getValue());
+		}
+		if ( m_session != null && m_session.m_end <= m_watermark ) {
+			emit(m_session);
+			m_session = null;
+		}
+	}
+
+	private void flushAll() {
+		Map.Entry<Long,Pane> first;
+		while ( (first = m_windows.pollFirstEntry()) != null ) {
+			emit(first.getValue());
+		}
+		if ( m_session != null ) {
+			emit(m_session);
+			m_session = null;
+		}
+	}
+
+	private long nextDeadline() {
+		long deadline = Long.MAX_VALUE;
+		if ( !m_windows.isEmpty() ) {
+			deadline = m_windows.firstEntry().getValue().m_end;
+		}
+		if ( m_session != null ) {
+			deadline = Math.min(deadline, m_session.m_end);
+		}
+		return deadline;
+	}
+
+	private void emit(Pane pane) {
+		m_ready.add(new TimeWindow<>(pane.m_start, pane.m_end, pane.m_count, pane.m_accum));
+	}
+
+	private final class Pane {
+		private long m_start;
+		private long m_end;
+		private long m_count = 0;
+		private A m_accum;
+
+		Pane(long start, long end) {
+			m_start = start;
+			m_end = end;
+			m_accum = m_initializer.get();
+		}
+
+		void fold(T value) {
+			m_accum = m_folder.apply(m_accum, value);
+			++m_count;
+		}
+	}
+}
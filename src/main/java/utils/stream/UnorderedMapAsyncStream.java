@@ -9,9 +9,10 @@ import java.util.Set;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import org.jetbrains.annotations.Nullable;
+
 import utils.Preconditions;
 import utils.Tuple;
-import utils.async.Executions;
 import utils.async.StartableExecution;
 import utils.func.CheckedFunction;
 import utils.func.FOption;
@@ -55,8 +56,9 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	private final FStream<Tuple<S,StartableExecution<T>>> m_jobStream;
 
 	private final AsyncExecutionOptions m_options;
+	private final @Nullable ConcurrencyLimiter m_limiter;
 	private final Guard m_guard = Guard.create();
-	@GuardedBy("m_guard") private final SuppliableFStream<Tuple<S, Try<T>>> m_outChannel;
+	@GuardedBy("m_guard") private final FStreamChannel<Tuple<S, Try<T>>> m_outChannel;
 	@GuardedBy("m_guard") int m_runningWorkerCount = 0;
 	@GuardedBy("m_guard") private final Set<StartableExecution<T>> m_activeJobs
 													= Collections.newSetFromMap(new IdentityHashMap<>());
@@ -77,8 +79,10 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 		Preconditions.checkNotNullArgument(mapper, "mapper is null");
 
 		m_options = options;
-		m_jobStream = src.map(input -> applyFunction(mapper, input));
-		m_outChannel = new SuppliableFStream<>(options.getWorkerCount());
+		m_limiter = options.getConcurrencyLimiter();
+		ResilientMapper<S,T> resilient = new ResilientMapper<>(mapper, options);
+		m_jobStream = src.map(input -> applyFunction(resilient, input));
+		m_outChannel = options.newChannel(options.getWorkerCount());
 	}
 
 	/**
@@ -109,6 +113,8 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	protected void initialize() {
 		// 허용된 동시 작업 수만큼 매핑 작업을 시작한다.
 		// 각 작업이 끝나면 startNext()가 다음 작업을 시작하는 식으로 진행된다.
+		// Limiter가 설정된 경우는 최대 동시 작업 수까지 시도하되, 현재 한도에 도달하면 startNext()가
+		// false를 반환하여 중단된다.
 		for ( int i =0; i < m_options.getWorkerCount(); ++i ) {
 			m_guard.run(() -> m_runningWorkerCount++);
 			if ( !startNext() ) {
@@ -131,17 +137,14 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	
 	/**
 	 * 입력 원소를 비동기 매핑 실행 객체로 감싼다. 실제 매핑은 {@link StartableExecution#start()} 호출
-	 * 시점에 시작된다.
+	 * 시점에 시작된다. 제한 시간, 재시도, 추가 호출 등은 {@link ResilientMapper}에 의해 처리된다.
 	 *
-	 * @param func  매핑 함수.
+	 * @param func  매핑 함수 호출기.
 	 * @param input 입력 원소.
 	 * @return 입력 원소와 아직 시작되지 않은 매핑 실행 객체의 튜플.
 	 */
-	private Tuple<S,StartableExecution<T>> applyFunction(CheckedFunction<? super S, ? extends T> func,
-														S input) {
-		StartableExecution<T> exec = Executions.supplyCheckedAsync(() -> func.apply(input),
-																	m_options.getExecutor());
-		return Tuple.of(input, exec);
+	private Tuple<S,StartableExecution<T>> applyFunction(ResilientMapper<S,T> func, S input) {
+		return Tuple.of(input, func.toExecution(input));
 	}
 
 	/**
@@ -157,6 +160,17 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 	private boolean startNext() {
 		m_guard.lock();
 		try {
+			if ( m_limiter != null && !m_limiter.tryAcquire() ) {
+				// 동시 작업 한도에 도달한 경우는 본 worker를 종료시킨다.
+				// 단, 마지막 worker는 (limiter를 공유하는 다른 스트림들로 인해 한도에 도달한 경우에도)
+				// 스트림이 진행될 수 있도록 한도와 무관하게 계속 수행한다.
+				if ( m_runningWorkerCount > 1 ) {
+					--m_runningWorkerCount;
+					return false;
+				}
+				m_limiter.acquire();
+			}
+			
 			FOption<Tuple<S, StartableExecution<T>>> ojob;
 			try {
 				ojob = m_jobStream.next();
@@ -164,6 +178,7 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 			catch ( IllegalStateException closed ) {
 				// closeInGuard()로 입력 스트림이 이미 닫힌 상태.
 				// 새 작업을 시작하지 않고 worker 카운트만 정리한다.
+				releaseLimit();
 				if ( --m_runningWorkerCount == 0 ) {
 					Unchecked.runOrIgnore(m_outChannel::endOfSupply);
 				}
@@ -171,6 +186,7 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 			}
 			if ( ojob.isPresent() ) {
 				Tuple<S, StartableExecution<T>> job = ojob.get();
+				long started = System.nanoTime();
 				S input = job._1();
 				StartableExecution<T> exec = job._2();
 
@@ -180,6 +196,10 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 				exec.whenFinishedAsync(ret -> {
 					// job-tracking에서 제거한다.
 					m_guard.get(() -> m_activeJobs.remove(exec));
+					if ( m_limiter != null ) {
+						m_limiter.onSample(System.nanoTime() - started, ret.isFailed());
+						m_limiter.release();
+					}
 
 					// supply는 채널이 full일 때 blocking이 가능하므로 m_guard 밖에서 호출한다.
 					// m_guard 안에서 호출하면 채널이 full + 소비자가 close 시도 시
@@ -197,7 +217,15 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 						getLogger().warn("worker thread interrupted while supplying result", e);
 						Thread.currentThread().interrupt();
 					}
-					startNext();
+					if ( startNext() && m_limiter != null ) {
+						// 한도가 증가된 경우에는 그만큼 worker를 추가로 시작시킨다.
+						while ( m_limiter.getInFlightCount() < m_limiter.getLimit() ) {
+							m_guard.run(() -> m_runningWorkerCount++);
+							if ( !startNext() ) {
+								break;
+							}
+						}
+					}
 				});
 				exec.start();
 				
@@ -206,6 +234,7 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 			else {
 				// 입력이 소진되어 더 이상 시작할 작업이 없다.
 				// worker 카운트를 감소시키고, 마지막 worker가 종료되면 채널 종료.
+				releaseLimit();
 				if ( --m_runningWorkerCount == 0 ) {
 					m_outChannel.endOfSupply();
 				}
@@ -217,4 +246,10 @@ class UnorderedMapAsyncStream<S,T> extends AbstractFStream<Tuple<S,Try<T>>> {
 			m_guard.unlock();
 		}
 	}
-}
\ No newline at end of file
+
+	private void releaseLimit() {
+		if ( m_limiter != null ) {
+			m_limiter.release();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package utils.stream;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.google.common.collect.Lists;
+
+import utils.Preconditions;
+
+
+/**
+ * 스트림 원소들을 시간 window 별로 집계하는 연산자.
+ * <p>
+ * {@link FStream#window(WindowSpec)} 또는 {@link FStream#window(WindowSpec, ToLongFunction)}로
+ * 생성되며, 집계 연산을 지정하면 window 별 결과를 담은 {@link TimeWindow}의 스트림이 생성된다.
+ * {@link #toList()}를 제외한 집계 연산은 window 별로 누적값 하나만 유지하므로 window에 속한 원소들을
+ * 메모리에 보관하지 않는다.
+ * <pre>{@code
+ * FStream<TimeWindow<Long>> counts = strm.window(WindowSpec.tumbling(Duration.ofMinutes(1)), Event::getTime)
+ *                                         .count();
+ * }</pre>
+ *
+ * @param <T>	원소 타입.
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class WindowBuilder<T> {
+	private final FStream<T> m_src;
+	private final WindowSpec m_spec;
+	private final @Nullable ToLongFunction<? super T> m_timestamper;
+
+	WindowBuilder(FStream<T> src, WindowSpec spec, @Nullable ToLongFunction<? super T> timestamper) {
+		Preconditions.checkNotNullArgument(src, "source FStream is null");
+		Preconditions.checkNotNullArgument(spec, "WindowSpec is null");
+
+		m_src = src;
+		m_spec = spec;
+		m_timestamper = timestamper;
+	}
+
+	/**
+	 * window 별로 원소들을 fold한 결과의 스트림을 생성한다.
+	 *
+	 * @param <A>			누적값 타입.
+	 * @param initializer	window 별 초기 누적값을 생성하는 함수.
+	 * @param folder		누적값과 원소를 받아 새 누적값을 반환하는 함수.
+	 * @return	window 별 fold 결과 스트림.
+	 */
+	public <A> FStream<TimeWindow<A>> fold(Supplier<? extends A> initializer,
+											BiFunction<? super A,? super T,? extends A> folder) {
+		return new TimeWindowedStream<>(m_src, m_spec, m_timestamper, initializer, folder);
+	}
+
+	/**
+	 * window 별로 원소들을 reduce한 결과의 스트림을 생성한다.
+	 *
+	 * @param reducer	두 원소를 병합하는 함수.
+	 * @return	window 별 reduce 결과 스트림.
+	 */
+	public FStream<TimeWindow<T>> reduce(BinaryOperator<T> reducer) {
+		Preconditions.checkNotNullArgument(reducer, "reducer is null");
+
+		return fold(() -> null, (accum, v) -> (accum != null) ? reducer.apply(accum, v) : v);
+	}
+
+	/**
+	 * window 별 원소 수의 스트림을 생성한다.
+	 *
+	 * @return	window 별 원소 수 스트림.
+	 */
+	public FStream<TimeWindow<Long>> count() {
+		return fold(() -> 0L, (accum, v) -> accum + 1);
+	}
+
+	/**
+	 * window 별로 속한 원소들의 리스트를 반환하는 스트림을 생성한다.
+	 * 다른 집계 연산과 달리 window에 속한 모든 원소들을 메모리에 보관한다.
+	 *
+	 * @return	window 별 원소 리스트 스트림.
+	 */
+	public FStream<TimeWindow<List<T>>> toList() {
+		return fold(Lists::newArrayList, (list, v) -> {
+			list.add(v);
+			return list;
+		});
+	}
+}
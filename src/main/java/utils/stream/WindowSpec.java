@@ -0,0 +1,107 @@
+package utils.stream;
+
+import java.time.Duration;
+
+import utils.Preconditions;
+
+
+/**
+ * 시간 기반 window의 형태를 정의한다.
+ * <ul>
+ *   <li>{@link #tumbling(Duration)}: 겹치지 않는 고정 길이 window.
+ *   <li>{@link #sliding(Duration, Duration)}: 일정 간격({@code slide})마다 시작하는 고정 길이 window.
+ *       한 원소가 여러 window에 속할 수 있다.
+ *   <li>{@link #session(Duration)}: 원소 사이의 간격이 {@code gap} 이상 벌어지면 종료되는 가변 길이 window.
+ * </ul>
+ * 고정 길이 window들의 시작 시각은 epoch(0) 기준으로 {@code slide}의 배수로 정렬된다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class WindowSpec {
+	enum Type { TUMBLING, SLIDING, SESSION };
+
+	private final Type m_type;
+	private final long m_sizeMillis;
+	private final long m_slideMillis;
+
+	/**
+	 * 길이 {@code size}의 겹치지 않는 window를 정의한다.
+	 *
+	 * @param size	window 길이. 1ms 이상이어야 한다.
+	 * @return	window 정의.
+	 */
+	public static WindowSpec tumbling(Duration size) {
+		Preconditions.checkNotNullArgument(size, "window size is null");
+		Preconditions.checkArgument(size.toMillis() > 0, "window size should be at least 1ms: %s", size);
+
+		return new WindowSpec(Type.TUMBLING, size.toMillis(), size.toMillis());
+	}
+
+	/**
+	 * {@code slide} 간격마다 시작하는 길이 {@code size}의 window를 정의한다.
+	 *
+	 * @param size	window 길이. 1ms 이상이어야 한다.
+	 * @param slide	window 시작 간격. 1ms 이상이어야 하며, {@code size}보다 클 수 없다.
+	 * @return	window 정의.
+	 */
+	public static WindowSpec sliding(Duration size, Duration slide) {
+		Preconditions.checkNotNullArgument(size, "window size is null");
+		Preconditions.checkNotNullArgument(slide, "window slide is null");
+		Preconditions.checkArgument(size.toMillis() > 0, "window size should be at least 1ms: %s", size);
+		Preconditions.checkArgument(slide.toMillis() > 0, "window slide should be at least 1ms: %s", slide);
+		Preconditions.checkArgument(slide.compareTo(size) <= 0, "slide should not be larger than size: size=%s, slide=%s",
+									size, slide);
+
+		return new WindowSpec(Type.SLIDING, size.toMillis(), slide.toMillis());
+	}
+
+	/**
+	 * 원소 사이의 간격이 {@code gap} 이상이 되면 종료되는 session window를 정의한다.
+	 *
+	 * @param gap	session 종료 간격. 1ms 이상이어야 한다.
+	 * @return	window 정의.
+	 */
+	public static WindowSpec session(Duration gap) {
+		Preconditions.checkNotNullArgument(gap, "session gap is null");
+		Preconditions.checkArgument(gap.toMillis() > 0, "session gap should be at least 1ms: %s", gap);
+
+		return new WindowSpec(Type.SESSION, gap.toMillis(), 0);
+	}
+
+	private WindowSpec(Type type, long sizeMillis, long slideMillis) {
+		Preconditions.checkArgument(sizeMillis > 0, "window length should be positive: %sms", sizeMillis);
+
+		m_type = type;
+		m_sizeMillis = sizeMillis;
+		m_slideMillis = slideMillis;
+	}
+
+	Type getType() {
+		return m_type;
+	}
+
+	/**
+	 * 고정 길이 window의 길이 또는 session window의 종료 간격(milli-seconds)을 반환한다.
+	 *
+	 * @return	길이 (milli-seconds).
+	 */
+	long getSizeMillis() {
+		return m_sizeMillis;
+	}
+
+	long getSlideMillis() {
+		return m_slideMillis;
+	}
+
+	@Override
+	public String toString() {
+		switch ( m_type ) {
+			case TUMBLING:
+				return String.format("tumbling(%dms)", m_sizeMillis);
+			case SLIDING:
+				return String.format("sliding(%dms, %dms)", m_sizeMillis, m_slideMillis);
+			default:
+				return String.format("session(%dms)", m_sizeMillis);
+		}
+	}
+}
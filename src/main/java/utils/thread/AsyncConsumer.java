@@ -9,6 +9,7 @@ import java.util.function.Consumer;
 /**
  * 
  * @author Kang-Woo Lee (ETRI)
+ * @see BatchingConsumer
  */
 // FIXME: 삭제 대상
 public class AsyncConsumer<T> implements Consumer<T> {
@@ -0,0 +1,496 @@
+package utils.thread;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import utils.Preconditions;
+import utils.RuntimeInterruptedException;
+
+
+/**
+ * 입력된 데이터를 batch 단위로 모아 별도의 쓰레드에서 batch 소비자에게 전달하는 {@link Consumer}.
+ * <p>
+ * {@link AsyncConsumer}와 달리 데이터마다 작업을 생성하지 않고, 데이터를 bounded queue에 적재한 후
+ * 전용 쓰레드가 이를 {@code List<T>} 단위로 batch 소비자에게 전달한다. write-behind 로깅이나
+ * DB insert 처럼 batch 처리가 효율적인 경우에 사용한다.
+ * <ul>
+ *   <li>적재된 데이터 수가 {@link Builder#batchSize(int) batchSize}에 도달하거나, batch의 첫번째 데이터가
+ *       적재된 후 {@link Builder#maxLinger(Duration) maxLinger}가 경과하면 batch를 전달한다.</li>
+ *   <li>Queue가 가득 찬 상태에서 데이터가 입력되면 {@link Builder#overflowPolicy(OverflowPolicy)}로
+ *       지정된 정책에 따라 처리한다.</li>
+ *   <li>Batch 소비자에서 발생한 예외는 로그로 기록되고 무시된다.</li>
+ * </ul>
+ * 인스턴스는 {@link #builder(Consumer)}로 생성하며, 생성 즉시 소비 쓰레드가 시작된다.
+ * {@link #close()}가 호출되면 더 이상 데이터를 받지 않고, 적재된 데이터를 모두 전달한 후 쓰레드가 종료된다.
+ *
+ * @param <T>	데이터 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class BatchingConsumer<T> implements Consumer<T>, AutoCloseable {
+	private static final Logger s_logger = LoggerFactory.getLogger(BatchingConsumer.class);
+
+	/**
+	 * Queue가 가득 찬 상태에서 데이터가 입력되는 경우의 처리 정책.
+	 */
+	public enum OverflowPolicy {
+		/** Queue에 여유가 생길 때까지 입력 쓰레드를 대기시킨다. */
+		BLOCK,
+		/** Queue에서 가장 오래된 데이터를 버리고 입력 데이터를 적재한다. */
+		DROP_OLDEST,
+		/** 입력 데이터를 버린다. */
+		DROP_NEWEST,
+	}
+
+	private final Consumer<? super List<T>> m_batchConsumer;
+	private final int m_batchSize;
+	private final long m_lingerNanos;
+	private final int m_capacity;
+	private final OverflowPolicy m_policy;
+	private final Thread m_worker;
+	private final long m_startedNanos;
+
+	private final Guard m_guard = Guard.create();
+	@GuardedBy("m_guard") private final ArrayDeque<T> m_queue;
+	@GuardedBy("m_guard") private long m_batchStartedNanos;	// 현재 batch의 첫번째 데이터가 적재된 시각
+	@GuardedBy("m_guard") private boolean m_closed = false;
+	@GuardedBy("m_guard") private long m_flushTarget = 0;		// flush 요청 시점까지 적재된 데이터 수
+	@GuardedBy("m_guard") private long m_dequeuedCount = 0;		// queue에서 꺼내졌거나 버려진 데이터 수
+	@GuardedBy("m_guard") private long m_consumingSeq = -1;		// 전달 중인 batch의 시작 번호
+	@GuardedBy("m_guard") private long m_acceptedCount = 0;
+	@GuardedBy("m_guard") private long m_droppedCount = 0;
+	@GuardedBy("m_guard") private long m_consumedCount = 0;
+	@GuardedBy("m_guard") private long m_batchCount = 0;
+	@GuardedBy("m_guard") private long m_failedBatchCount = 0;
+
+	private BatchingConsumer(Builder<T> builder) {
+		m_batchConsumer = builder.m_batchConsumer;
+		m_batchSize = builder.m_batchSize;
+		m_lingerNanos = builder.m_maxLinger.toNanos();
+		m_capacity = builder.m_capacity;
+		m_policy = builder.m_policy;
+		m_queue = new ArrayDeque<>(Math.min(m_capacity, 1024));
+
+		m_startedNanos = System.nanoTime();
+		m_worker = new Thread(this::runWorker, builder.m_threadName);
+		m_worker.setDaemon(true);
+		m_worker.start();
+	}
+
+	/**
+	 * 주어진 batch 소비자를 사용하는 {@link BatchingConsumer}의 빌더를 반환한다.
+	 *
+	 * @param <T>	데이터 타입
+	 * @param batchConsumer	batch 단위로 데이터를 전달받을 소비자.
+	 * @return	빌더 객체.
+	 */
+	public static <T> Builder<T> builder(Consumer<? super List<T>> batchConsumer) {
+		return new Builder<>(batchConsumer);
+	}
+
+	/**
+	 * 소비 쓰레드가 처리할 데이터를 추가한다.
+	 * <p>
+	 * Queue가 가득 찬 경우는 설정된 {@link OverflowPolicy}에 따라 처리된다.
+	 *
+	 * @param data	추가할 데이터.
+	 * @throws IllegalStateException	이미 {@link #close()}된 경우.
+	 * @throws RuntimeInterruptedException	{@link OverflowPolicy#BLOCK} 정책에서 대기 중 인터럽트된 경우.
+	 */
+	@Override
+	public void accept(T data) {
+		m_guard.lock();
+		try {
+			Preconditions.checkState(!m_closed, "BatchingConsumer has been closed");
+
+			while ( m_queue.size() >= m_capacity ) {
+				switch ( m_policy ) {
+					case BLOCK:
+						m_guard.awaitSignal();
+						Preconditions.checkState(!m_closed, "BatchingConsumer has been closed");
+						break;
+					case DROP_OLDEST:
+						m_queue.poll();
+						++m_dequeuedCount;
+						++m_droppedCount;
+						break;
+					case DROP_NEWEST:
+						++m_droppedCount;
+						return;
+				}
+			}
+
+			m_queue.add(data);
+			++m_acceptedCount;
+			if ( m_queue.size() == 1 ) {
+				m_batchStartedNanos = System.nanoTime();
+				m_guard.signalAll();
+			}
+			else if ( m_queue.size() == m_batchSize ) {
+				m_guard.signalAll();
+			}
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeInterruptedException(e);
+		}
+		finally {
+			m_guard.unlock();
+		}
+	}
+
+	/**
+	 * 지금까지 입력된 데이터들이 batch 소비자에게 모두 전달될 때까지 대기한다.
+	 * <p>
+	 * 적재된 데이터는 {@code batchSize}나 {@code maxLinger}에 도달하지 않았더라도 바로 전달된다.
+	 * 호출 시점까지 적재된 데이터만을 대상으로 하므로, 대기 중에 다른 쓰레드가 계속 데이터를 입력하더라도
+	 * 대기 시간이 늘어나지 않는다.
+	 *
+	 * @throws InterruptedException	대기 중 인터럽트된 경우.
+	 */
+	public void flush() throws InterruptedException {
+		m_guard.lock();
+		try {
+			long target = m_acceptedCount;
+			if ( target > m_flushTarget ) {
+				m_flushTarget = target;
+				m_guard.signalAll();
+			}
+			while ( getCompletedSeqInGuard() < target && m_worker.isAlive() ) {
+				m_guard.awaitSignalNanos(TimeUnit.MILLISECONDS.toNanos(100));
+			}
+		}
+		finally {
+			m_guard.unlock();
+		}
+	}
+
+	/**
+	 * 더 이상 데이터를 받지 않고, 적재된 데이터를 모두 전달한 후 소비 쓰레드를 종료시킨다.
+	 * <p>
+	 * 소비 쓰레드가 종료될 때까지 대기한다. 멱등하다.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		m_guard.run(() -> m_closed = true);
+		if ( Thread.currentThread() != m_worker ) {
+			m_worker.join();
+		}
+	}
+
+	/**
+	 * 현재까지의 처리 통계 정보를 반환한다.
+	 *
+	 * @return	통계 정보.
+	 */
+	public Stats getStats() {
+		return m_guard.get(() -> new Stats(m_queue.size(), m_capacity, m_acceptedCount, m_droppedCount,
+											m_consumedCount, m_batchCount, m_failedBatchCount,
+											System.nanoTime() - m_startedNanos));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[batch=%d, linger=%dms, %s]", getClass().getSimpleName(), m_batchSize,
+							TimeUnit.NANOSECONDS.toMillis(m_lingerNanos), getStats());
+	}
+
+	private void runWorker() {
+		while ( true ) {
+			List<T> batch;
+			try {
+				m_guard.lock();
+				try {
+					while ( !isBatchReadyInGuard() ) {
+						if ( m_queue.isEmpty() ) {
+							if ( m_closed ) {
+								return;
+							}
+							m_guard.awaitSignal();
+						}
+						else {
+							long remains = m_batchStartedNanos + m_lingerNanos - System.nanoTime();
+							m_guard.awaitSignalNanos(remains);
+						}
+					}
+
+					m_consumingSeq = m_dequeuedCount;
+					batch = drainInGuard();
+					m_guard.signalAll();
+				}
+				finally {
+					m_guard.unlock();
+				}
+			}
+			catch ( InterruptedException e ) {
+				// 소비 쓰레드는 close()를 통해서만 종료된다.
+				continue;
+			}
+
+			boolean failed = false;
+			try {
+				m_batchConsumer.accept(batch);
+			}
+			catch ( Throwable e ) {
+				failed = true;
+				s_logger.warn("failed to consume batch: size={}, cause={}", batch.size(), e.toString());
+			}
+
+			final boolean batchFailed = failed;
+			m_guard.run(() -> {
+				m_consumingSeq = -1;
+				m_consumedCount += batch.size();
+				++m_batchCount;
+				if ( batchFailed ) {
+					++m_failedBatchCount;
+				}
+			});
+		}
+	}
+
+	/**
+	 * 전달이 완료된 데이터의 번호를 반환한다.
+	 * <p>
+	 * 반환된 값보다 앞선 순서로 적재된 데이터들은 모두 batch 소비자에게 전달되었거나 버려진 상태이다.
+	 * Batch가 전달 중인 경우는 해당 batch의 시작 번호를 반환한다.
+	 */
+	private long getCompletedSeqInGuard() {
+		return (m_consumingSeq >= 0) ? m_consumingSeq : m_dequeuedCount;
+	}
+
+	private boolean isBatchReadyInGuard() {
+		if ( m_queue.isEmpty() ) {
+			return false;
+		}
+		if ( m_dequeuedCount < m_flushTarget ) {
+			// flush 요청 이전에 적재된 데이터가 남아있다.
+			return true;
+		}
+		return m_queue.size() >= m_batchSize || m_closed
+				|| System.nanoTime() - m_batchStartedNanos >= m_lingerNanos;
+	}
+
+	private List<T> drainInGuard() {
+		int count = Math.min(m_queue.size(), m_batchSize);
+		List<T> batch = new ArrayList<>(count);
+		for ( int i =0; i < count; ++i ) {
+			batch.add(m_queue.poll());
+		}
+		m_dequeuedCount += count;
+		if ( !m_queue.isEmpty() ) {
+			// 남은 데이터들은 다음 batch가 된다.
+			m_batchStartedNanos = System.nanoTime();
+		}
+		return batch;
+	}
+
+	/**
+	 * {@link BatchingConsumer}의 처리 통계 정보.
+	 */
+	public static final class Stats {
+		private final int m_queueDepth;
+		private final int m_queueCapacity;
+		private final long m_acceptedCount;
+		private final long m_droppedCount;
+		private final long m_consumedCount;
+		private final long m_batchCount;
+		private final long m_failedBatchCount;
+		private final long m_elapsedNanos;
+
+		private Stats(int queueDepth, int queueCapacity, long acceptedCount, long droppedCount,
+						long consumedCount, long batchCount, long failedBatchCount, long elapsedNanos) {
+			m_queueDepth = queueDepth;
+			m_queueCapacity = queueCapacity;
+			m_acceptedCount = acceptedCount;
+			m_droppedCount = droppedCount;
+			m_consumedCount = consumedCount;
+			m_batchCount = batchCount;
+			m_failedBatchCount = failedBatchCount;
+			m_elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * Queue에 적재되어 전달을 기다리는 데이터 수를 반환한다.
+		 *
+		 * @return	적재된 데이터 수.
+		 */
+		public int getQueueDepth() {
+			return m_queueDepth;
+		}
+
+		public int getQueueCapacity() {
+			return m_queueCapacity;
+		}
+
+		/**
+		 * Queue에 적재된 데이터 수를 반환한다. {@link OverflowPolicy#DROP_OLDEST}에 의해 나중에 버려진
+		 * 데이터도 포함된다.
+		 *
+		 * @return	적재된 데이터 수.
+		 */
+		public long getAcceptedCount() {
+			return m_acceptedCount;
+		}
+
+		/**
+		 * Queue가 가득 차서 버려진 데이터 수를 반환한다.
+		 *
+		 * @return	버려진 데이터 수.
+		 */
+		public long getDroppedCount() {
+			return m_droppedCount;
+		}
+
+		/**
+		 * Batch 소비자에게 전달된 데이터 수를 반환한다.
+		 *
+		 * @return	전달된 데이터 수.
+		 */
+		public long getConsumedCount() {
+			return m_consumedCount;
+		}
+
+		public long getBatchCount() {
+			return m_batchCount;
+		}
+
+		/**
+		 * Batch 소비자가 예외를 발생시킨 batch 수를 반환한다.
+		 *
+		 * @return	실패한 batch 수.
+		 */
+		public long getFailedBatchCount() {
+			return m_failedBatchCount;
+		}
+
+		/**
+		 * 평균 batch 크기를 반환한다.
+		 *
+		 * @return	평균 batch 크기. 전달된 batch가 없는 경우는 {@code 0}.
+		 */
+		public double getAverageBatchSize() {
+			return (m_batchCount > 0) ? m_consumedCount / (double)m_batchCount : 0;
+		}
+
+		/**
+		 * 생성 이후 초당 전달된 평균 데이터 수를 반환한다.
+		 *
+		 * @return	초당 처리량.
+		 */
+		public double getThroughput() {
+			return (m_elapsedNanos > 0) ? m_consumedCount / (m_elapsedNanos / 1_000_000_000d) : 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("queue=%d/%d, accepted=%d, dropped=%d, consumed=%d, batches=%d, "
+								+ "failed=%d, throughput=%.1f/s",
+								m_queueDepth, m_queueCapacity, m_acceptedCount, m_droppedCount,
+								m_consumedCount, m_batchCount, m_failedBatchCount, getThroughput());
+		}
+	}
+
+	/**
+	 * {@link BatchingConsumer} 인스턴스를 구성하는 빌더이다.
+	 * <p>
+	 * 기본값은 batch 크기 100, 최대 linger 100ms, queue 크기 10000, {@link OverflowPolicy#BLOCK}이다.
+	 *
+	 * @param <T>	데이터 타입
+	 */
+	public static final class Builder<T> {
+		private final Consumer<? super List<T>> m_batchConsumer;
+		private int m_batchSize = 100;
+		private Duration m_maxLinger = Duration.ofMillis(100);
+		private int m_capacity = 10_000;
+		private OverflowPolicy m_policy = OverflowPolicy.BLOCK;
+		private String m_threadName = "batching-consumer";
+
+		private Builder(Consumer<? super List<T>> batchConsumer) {
+			Preconditions.checkNotNullArgument(batchConsumer, "batch consumer is null");
+			m_batchConsumer = batchConsumer;
+		}
+
+		/**
+		 * 한번에 전달할 최대 데이터 수를 지정한다.
+		 *
+		 * @param size	batch 크기. 양의 정수여야 한다.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder<T> batchSize(int size) {
+			Preconditions.checkArgument(size > 0, "batchSize should be positive: %s", size);
+			m_batchSize = size;
+
+			return this;
+		}
+
+		/**
+		 * Batch의 첫번째 데이터가 적재된 후 batch가 채워지기를 기다리는 최대 시간을 지정한다.
+		 *
+		 * @param linger	최대 대기 시간.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder<T> maxLinger(Duration linger) {
+			Preconditions.checkNotNullArgument(linger, "maxLinger is null");
+			Preconditions.checkArgument(!linger.isNegative(), "maxLinger should not be negative: %s", linger);
+			m_maxLinger = linger;
+
+			return this;
+		}
+
+		/**
+		 * Queue에 적재할 수 있는 최대 데이터 수를 지정한다.
+		 *
+		 * @param capacity	queue 크기. 양의 정수여야 한다.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder<T> queueCapacity(int capacity) {
+			Preconditions.checkArgument(capacity > 0, "queueCapacity should be positive: %s", capacity);
+			m_capacity = capacity;
+
+			return this;
+		}
+
+		/**
+		 * Queue가 가득 찬 경우의 처리 정책을 지정한다.
+		 *
+		 * @param policy	처리 정책.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder<T> overflowPolicy(OverflowPolicy policy) {
+			Preconditions.checkNotNullArgument(policy, "OverflowPolicy is null");
+			m_policy = policy;
+
+			return this;
+		}
+
+		/**
+		 * 소비 쓰레드의 이름을 지정한다.
+		 *
+		 * @param name	쓰레드 이름.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder<T> threadName(String name) {
+			Preconditions.checkNotNullArgument(name, "thread name is null");
+			m_threadName = name;
+
+			return this;
+		}
+
+		/**
+		 * 설정된 값으로 {@link BatchingConsumer}를 생성하고 소비 쓰레드를 시작시킨다.
+		 *
+		 * @return	{@link BatchingConsumer} 객체.
+		 */
+		public BatchingConsumer<T> build() {
+			return new BatchingConsumer<>(this);
+		}
+	}
+}
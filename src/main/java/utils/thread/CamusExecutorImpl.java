@@ -1,6 +1,12 @@
 package utils.thread;
 
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.DelayQueue;
@@ -9,34 +15,76 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import utils.Preconditions;
+
 
 /**
+ * {@link CamusExecutor}의 기본 구현.
+ * <p>
+ * 지연 작업은 {@link DelayQueue}에 등록되고, 전용 쓰레드({@code camus.executor})가 만기된 작업을
+ * 작업 수행용 {@link ExecutorService}에 전달한다. 인자 없는 생성자는 작업 수행용으로
+ * {@link Executors#newCachedThreadPool()}을 사용하므로 부하가 몰리면 쓰레드 수가 제한없이 증가할 수 있다.
+ * 쓰레드 수와 대기 작업 수를 제한하려면 {@link #builder()}로 생성한다.
+ * <p>
+ * 모든 작업에 대해 대기 시간(제출부터 수행 시작까지)과 수행 시간이 {@link LatencyHistogram}으로
+ * 기록되고, 수행 시간이 가장 길었던 작업들({@link #getSlowestTasks()})이 유지된다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
 public final class CamusExecutorImpl implements CamusExecutor {
+	private static final int SLOW_TASK_COUNT = 10;
+
+	/**
+	 * {@link #builder()}로 생성된 실행기의 작업 대기열이 가득 찬 경우의 처리 정책.
+	 */
+	public enum RejectionPolicy {
+		/**
+		 * 작업을 제출한 쓰레드에서 직접 수행한다.
+		 * 지연 작업과 실행기가 종료된 이후에 제출된 작업은 {@link #ABORT}와 동일하게 거절된다.
+		 */
+		CALLER_RUNS,
+		/** {@link RejectedExecutionException}을 발생시킨다. */
+		ABORT,
+	}
+
 	private final DelayQueue<DelayedTask> m_queue;
 	private final ExecutorService m_executor;
+	private final RejectionPolicy m_rejectionPolicy;
 	private Thread m_worker;
 
-	public CamusExecutorImpl(ExecutorService executor) {
-		m_queue = new DelayQueue<DelayedTask>();
-		m_executor = executor;
+	private final AtomicInteger m_queuedCount = new AtomicInteger(0);
+	private final AtomicInteger m_activeCount = new AtomicInteger(0);
+	private final LongAdder m_completedCount = new LongAdder();
+	private final LongAdder m_rejectedCount = new LongAdder();
+	private final LatencyHistogram m_queueWaits = new LatencyHistogram();
+	private final LatencyHistogram m_runTimes = new LatencyHistogram();
+	@GuardedBy("m_slowTasks") private final PriorityQueue<SlowTask> m_slowTasks
+										= new PriorityQueue<>(Comparator.comparingLong(t -> t.m_runNanos));
+	private volatile long m_slowTaskThreshold = 0;
 
-		m_worker = new Thread(new Worker(), "camus.executor");
-		m_worker.setDaemon(true);
-		m_worker.start();
+	public CamusExecutorImpl(ExecutorService executor) {
+		this(executor, RejectionPolicy.ABORT);
 	}
 
 	public CamusExecutorImpl() {
+		this(Executors.newCachedThreadPool(), RejectionPolicy.ABORT);
+	}
+
+	private CamusExecutorImpl(ExecutorService executor, RejectionPolicy policy) {
 		m_queue = new DelayQueue<DelayedTask>();
-		m_executor = Executors.newCachedThreadPool();
+		m_executor = executor;
+		m_rejectionPolicy = policy;
 
 		m_worker = new Thread(new Worker(), "camus.executor");
 		m_worker.setDaemon(true);
@@ -65,16 +113,347 @@ public final class CamusExecutorImpl implements CamusExecutor {
 		return wrapped;
 	}
 
+	/**
+	 * 작업 수행용 쓰레드 풀의 크기와 대기열 크기가 제한된 {@link CamusExecutorImpl}의 빌더를 반환한다.
+	 *
+	 * @return	빌더 객체.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
 	public Future<?> submit(Runnable task) {
-		return m_executor.submit(task);
+		if ( task == null ) {
+			throw new IllegalArgumentException("task was null");
+		}
+
+		FutureTask<?> future = new FutureTask<>(task, null);
+		execute(future, task, m_rejectionPolicy == RejectionPolicy.CALLER_RUNS);
+		return future;
 	}
 
 	public <T> Future<T> submit(Callable<T> task) {
-		return m_executor.submit(task);
+		if ( task == null ) {
+			throw new IllegalArgumentException("task was null");
+		}
+
+		FutureTask<T> future = new FutureTask<>(task);
+		execute(future, task, m_rejectionPolicy == RejectionPolicy.CALLER_RUNS);
+		return future;
 	}
 
 	public void execute(Runnable task) {
-		m_executor.execute(task);
+		if ( task == null ) {
+			throw new IllegalArgumentException("task was null");
+		}
+
+		execute(task, task, m_rejectionPolicy == RejectionPolicy.CALLER_RUNS);
+	}
+
+	/**
+	 * 수행 대기 중인 작업 수를 반환한다.
+	 *
+	 * @return	대기 작업 수.
+	 */
+	public int getQueuedCount() {
+		return m_queuedCount.get();
+	}
+
+	/**
+	 * 수행 중인 작업 수를 반환한다.
+	 *
+	 * @return	수행 작업 수.
+	 */
+	public int getActiveCount() {
+		return m_activeCount.get();
+	}
+
+	public long getCompletedCount() {
+		return m_completedCount.sum();
+	}
+
+	/**
+	 * 작업 대기열이 가득 차서 거절된 작업 수를 반환한다.
+	 * {@link RejectionPolicy#CALLER_RUNS} 정책에 따라 제출 쓰레드에서 수행된 작업은 포함되지 않는다.
+	 *
+	 * @return	거절된 작업 수.
+	 */
+	public long getRejectedCount() {
+		return m_rejectedCount.sum();
+	}
+
+	/**
+	 * 작업이 제출된 후 수행이 시작될 때까지의 대기 시간 분포를 반환한다.
+	 * 지연 작업의 경우는 지연 시간이 만료된 시점부터의 대기 시간이 기록된다.
+	 *
+	 * @return	대기 시간 histogram.
+	 */
+	public LatencyHistogram getQueueWaitHistogram() {
+		return m_queueWaits;
+	}
+
+	/**
+	 * 작업 수행 시간 분포를 반환한다.
+	 *
+	 * @return	수행 시간 histogram.
+	 */
+	public LatencyHistogram getRunTimeHistogram() {
+		return m_runTimes;
+	}
+
+	/**
+	 * 지금까지 수행된 작업 중 수행 시간이 가장 길었던 작업들을 수행 시간의 역순으로 반환한다.
+	 *
+	 * @return	수행 시간이 긴 작업 목록 (최대 {@value #SLOW_TASK_COUNT}개).
+	 */
+	public List<SlowTask> getSlowestTasks() {
+		List<SlowTask> tasks;
+		synchronized ( m_slowTasks ) {
+			tasks = new ArrayList<>(m_slowTasks);
+		}
+		tasks.sort(Comparator.comparingLong((SlowTask t) -> t.m_runNanos).reversed());
+		return tasks;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[active=%d, queued=%d, completed=%d, rejected=%d]", getClass().getSimpleName(),
+							getActiveCount(), getQueuedCount(), getCompletedCount(), getRejectedCount());
+	}
+
+	/**
+	 * 주어진 작업을 작업 수행용 쓰레드 풀에 전달한다.
+	 * <p>
+	 * 작업 수행용 쓰레드 풀은 작업을 직접 수행하거나 버리지 않고 항상 거절하도록 구성되며,
+	 * {@link RejectionPolicy#CALLER_RUNS} 정책은 본 메소드에서 처리한다. 따라서 거절된 작업은
+	 * 제출 쓰레드에서 수행되거나 {@link RejectedExecutionException}이 발생하고, 수행되지 않은 작업이
+	 * 대기 작업 수에 남지 않는다.
+	 *
+	 * @param task		수행할 작업.
+	 * @param source	작업 설명에 사용될 원래 작업 객체.
+	 * @param callerRuns	거절된 경우 호출 쓰레드에서 수행할지 여부.
+	 */
+	private void execute(Runnable task, Object source, boolean callerRuns) {
+		if ( m_executor.isShutdown() ) {
+			m_rejectedCount.increment();
+			throw new RejectedExecutionException("executor has been shut down: " + this);
+		}
+
+		TimedTask timed = new TimedTask(task, source);
+		m_queuedCount.incrementAndGet();
+		try {
+			m_executor.execute(timed);
+		}
+		catch ( RejectedExecutionException e ) {
+			if ( callerRuns && !m_executor.isShutdown() ) {
+				// 대기 작업 수 및 수행 통계는 TimedTask에서 갱신된다.
+				timed.run();
+				return;
+			}
+
+			m_queuedCount.decrementAndGet();
+			m_rejectedCount.increment();
+			throw e;
+		}
+	}
+
+	private void onTaskFinished(TimedTask task, long runNanos) {
+		m_activeCount.decrementAndGet();
+		m_completedCount.increment();
+		m_runTimes.record(runNanos);
+
+		if ( runNanos > m_slowTaskThreshold ) {
+			synchronized ( m_slowTasks ) {
+				if ( m_slowTasks.size() < SLOW_TASK_COUNT ) {
+					m_slowTasks.add(new SlowTask(task, runNanos));
+				}
+				else if ( runNanos > m_slowTasks.peek().m_runNanos ) {
+					m_slowTasks.poll();
+					m_slowTasks.add(new SlowTask(task, runNanos));
+				}
+				if ( m_slowTasks.size() >= SLOW_TASK_COUNT ) {
+					m_slowTaskThreshold = m_slowTasks.peek().m_runNanos;
+				}
+			}
+		}
+	}
+
+	private final class TimedTask implements Runnable {
+		private final Runnable m_task;
+		private final Object m_source;
+		private final long m_submittedNanos = System.nanoTime();
+		private long m_queueWaitNanos;
+
+		TimedTask(Runnable task, Object source) {
+			m_task = task;
+			m_source = source;
+		}
+
+		@Override
+		public void run() {
+			long startedNanos = System.nanoTime();
+			m_queueWaitNanos = startedNanos - m_submittedNanos;
+			m_queuedCount.decrementAndGet();
+			m_activeCount.incrementAndGet();
+			m_queueWaits.record(m_queueWaitNanos);
+
+			try {
+				m_task.run();
+			}
+			finally {
+				onTaskFinished(this, System.nanoTime() - startedNanos);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return m_source.toString();
+		}
+	}
+
+	/**
+	 * 수행 시간이 긴 작업의 수행 정보.
+	 */
+	public static final class SlowTask {
+		private final String m_description;
+		private final long m_runNanos;
+		private final long m_queueWaitNanos;
+		private final long m_finishedMillis;
+
+		private SlowTask(TimedTask task, long runNanos) {
+			m_description = task.toString();
+			m_runNanos = runNanos;
+			m_queueWaitNanos = task.m_queueWaitNanos;
+			m_finishedMillis = System.currentTimeMillis();
+		}
+
+		/**
+		 * 작업의 {@link Object#toString()} 값을 반환한다.
+		 *
+		 * @return	작업 설명.
+		 */
+		public String getDescription() {
+			return m_description;
+		}
+
+		public long getRunTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(m_runNanos);
+		}
+
+		public long getQueueWaitMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(m_queueWaitNanos);
+		}
+
+		/**
+		 * 작업 수행이 종료된 시각을 반환한다.
+		 *
+		 * @return	종료 시각 (epoch milli-seconds)
+		 */
+		public long getFinishedMillis() {
+			return m_finishedMillis;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: run=%dms, wait=%dms", m_description, getRunTimeMillis(),
+								getQueueWaitMillis());
+		}
+	}
+
+	/**
+	 * 작업 수행용 쓰레드 풀의 크기와 대기열 크기가 제한된 {@link CamusExecutorImpl}을 구성하는 빌더이다.
+	 * <p>
+	 * 생성되는 쓰레드 풀은 {@link ThreadPoolExecutor}의 정책을 따른다. 즉, 수행 중인 쓰레드 수가
+	 * {@code corePoolSize}에 도달하면 작업은 대기열에 추가되고, 대기열이 가득 찬 경우에만
+	 * {@code maxPoolSize}까지 쓰레드가 추가된다. 쓰레드 수가 {@code maxPoolSize}에 도달한 상태에서
+	 * 대기열도 가득 차면 {@link RejectionPolicy}에 따라 처리된다.
+	 * <p>
+	 * 기본값은 core 쓰레드 수는 가용 프로세서 수, 최대 쓰레드 수는 그 4배, 대기열 크기 1024,
+	 * 유휴 쓰레드 유지 시간 60초, {@link RejectionPolicy#ABORT}이다.
+	 */
+	public static final class Builder {
+		private int m_corePoolSize = Runtime.getRuntime().availableProcessors();
+		private int m_maxPoolSize = m_corePoolSize * 4;
+		private int m_queueCapacity = 1024;
+		private Duration m_keepAlive = Duration.ofSeconds(60);
+		private RejectionPolicy m_rejectionPolicy = RejectionPolicy.ABORT;
+		private String m_threadNamePrefix = "camus.executor.worker";
+
+		private Builder() { }
+
+		public Builder corePoolSize(int size) {
+			Preconditions.checkArgument(size >= 0, "invalid corePoolSize: %s", size);
+			m_corePoolSize = size;
+
+			return this;
+		}
+
+		public Builder maxPoolSize(int size) {
+			Preconditions.checkArgument(size > 0, "invalid maxPoolSize: %s", size);
+			m_maxPoolSize = size;
+
+			return this;
+		}
+
+		public Builder queueCapacity(int capacity) {
+			Preconditions.checkArgument(capacity > 0, "invalid queueCapacity: %s", capacity);
+			m_queueCapacity = capacity;
+
+			return this;
+		}
+
+		/**
+		 * {@code corePoolSize}를 초과하여 생성된 쓰레드가 유휴 상태로 유지되는 최대 시간을 지정한다.
+		 *
+		 * @param keepAlive	유휴 쓰레드 유지 시간.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder keepAlive(Duration keepAlive) {
+			Preconditions.checkNotNullArgument(keepAlive, "keepAlive is null");
+			Preconditions.checkArgument(!keepAlive.isNegative(), "invalid keepAlive: %s", keepAlive);
+			m_keepAlive = keepAlive;
+
+			return this;
+		}
+
+		/**
+		 * 대기열이 가득 찬 경우의 처리 정책을 지정한다.
+		 * <p>
+		 * {@link RejectionPolicy#CALLER_RUNS}는 {@code execute()}, {@code submit()}으로 제출된 작업에만
+		 * 적용된다. 지연 작업은 정책과 무관하게 지연 작업 처리 쓰레드에서 수행되지 않고 거절되며,
+		 * 거절된 지연 작업의 {@link Future#get()}은 {@link RejectedExecutionException}을 원인으로 하는
+		 * {@link ExecutionException}을 발생시킨다. 기본값은 {@link RejectionPolicy#ABORT}이다.
+		 *
+		 * @param policy	처리 정책.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public Builder rejectionPolicy(RejectionPolicy policy) {
+			Preconditions.checkNotNullArgument(policy, "RejectionPolicy is null");
+			m_rejectionPolicy = policy;
+
+			return this;
+		}
+
+		public Builder threadNamePrefix(String prefix) {
+			Preconditions.checkNotNullArgument(prefix, "thread name prefix is null");
+			m_threadNamePrefix = prefix;
+
+			return this;
+		}
+
+		public CamusExecutorImpl build() {
+			Preconditions.checkArgument(m_corePoolSize <= m_maxPoolSize,
+										"corePoolSize(%s) > maxPoolSize(%s)", m_corePoolSize, m_maxPoolSize);
+
+			String prefix = m_threadNamePrefix;
+			AtomicInteger seqno = new AtomicInteger(0);
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(m_corePoolSize, m_maxPoolSize,
+														m_keepAlive.toNanos(), TimeUnit.NANOSECONDS,
+														new ArrayBlockingQueue<>(m_queueCapacity),
+														task -> new Thread(task, prefix + "-" + seqno.incrementAndGet()),
+														new ThreadPoolExecutor.AbortPolicy());
+			return new CamusExecutorImpl(executor, m_rejectionPolicy);
+		}
 	}
 
 	public RecurringSchedule createScheduleWithFixedRate(RecurringWork work, long initialDelay,
@@ -145,7 +524,11 @@ public final class CamusExecutorImpl implements CamusExecutor {
 			m_worker.interrupt();
 			m_worker = null;
 
+			// 수행되지 못한 지연 작업들을 기다리는 쪽이 무한히 대기하지 않도록 거절 처리한다.
+			List<DelayedTask> pendings = new ArrayList<>(m_queue);
 			m_queue.clear();
+			RejectedExecutionException cause = new RejectedExecutionException("executor stopped: " + this);
+			pendings.forEach(task -> task.reject(cause));
 		}
 
 		if ( shutdownBaseExecutor ) {
@@ -174,7 +557,13 @@ public final class CamusExecutorImpl implements CamusExecutor {
 					}
 
 					if ( task != null ) {
-						m_executor.execute(task);
+						try {
+							// 지연 작업은 지연 작업 처리 쓰레드에서 수행하지 않는다.
+							execute(task, task.m_task, false);
+						}
+						catch ( RejectedExecutionException e ) {
+							task.reject(e);
+						}
 					}
 				}
 			}
@@ -250,7 +639,7 @@ public final class CamusExecutorImpl implements CamusExecutor {
 							throw new TimeoutException();
 						}
 
-						this.wait(remainNanos/1000000, (int)remainNanos%1000000);
+						this.wait(remainNanos/1000000, (int)(remainNanos%1000000));
 				}
 			}
 		}
@@ -278,6 +667,16 @@ public final class CamusExecutorImpl implements CamusExecutor {
 			}
 		}
 
+		synchronized void reject(RejectedExecutionException cause) {
+			if ( m_state >= STATE_FINISHED ) {
+				return;
+			}
+
+			m_cause = new ExecutionException(cause);
+			m_state = STATE_FINISHED;
+			this.notifyAll();
+		}
+
 		@Override
 		public synchronized boolean isCancelled() {
 			return m_state == STATE_CANCELLED;
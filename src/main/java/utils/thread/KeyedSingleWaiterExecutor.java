@@ -0,0 +1,296 @@
+package utils.thread;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import utils.LoggerSettable;
+import utils.Preconditions;
+import utils.async.StartableExecution;
+
+
+/**
+ * 키별로 {@link SingleWaiterExecutor}와 같은 latest-wins 실행 정책을 적용하는 실행기.
+ * <p>
+ * 각 키마다 최대 하나의 작업만 실행되고, 실행 중이거나 실행 대기 중인 키에 새 작업이 제출되면
+ * 키 별 대기 슬롯에 한 개만 보관된다. 대기 슬롯에 이미 작업이 있으면 기존 작업은
+ * {@link StartableExecution#cancel(boolean) cancel(true)}되어 폐기되고 새 작업이 자리잡는다
+ * ({@link LengthOneOverridingQueue}와 동일한 latest-wins). 따라서 producer의 갱신 속도와 무관하게
+ * 키 당 제출 비용은 O(1)이다.
+ * <p>
+ * 모든 키는 최대 {@code maxConcurrency}개의 작업만 동시에 실행되도록 실행 slot을 공유한다.
+ * 실행할 작업이 있는 키들은 FIFO 순서로 실행 slot을 배정받으며, 작업 실행이 끝난 키에 대기 중인
+ * 작업이 있으면 그 키는 다시 대기 목록의 마지막에 추가된다. 그러므로 갱신이 빈번한 키가 있더라도
+ * 다른 키들이 실행 기회를 잃지 않는다.
+ * <p>
+ * 작업 제출 및 실행 slot 배정은 lock을 사용하지 않고 CAS 연산으로 처리되므로, 특정 키에 대한
+ * 제출이 몰리더라도 다른 키의 제출이 블록되지 않는다. 실행 중이거나 대기 중인 작업이 없는 키의
+ * 상태 정보는 자동으로 제거된다.
+ * <p>
+ * {@link SingleWaiterExecutor}와 마찬가지로 fire-and-forget 형태로 사용되며, 제출한 작업의 실행 여부를
+ * 추적하려면 호출자가 직접 {@link StartableExecution}의 finish 콜백을 등록해야 한다.
+ *
+ * @param <K>	키 타입
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class KeyedSingleWaiterExecutor<K> implements LoggerSettable {
+	private static final Logger s_logger = LoggerFactory.getLogger(KeyedSingleWaiterExecutor.class);
+
+	private static final int IDLE = 0;		// 실행 중이거나 대기 중인 작업이 없는 상태
+	private static final int ACTIVE = 1;	// 작업이 실행 중이거나 실행 slot을 기다리는 상태
+	private static final int RETIRED = 2;	// 키 목록에서 제거된 상태
+
+	private final int m_maxConcurrency;
+	private final Map<K, Slot<K>> m_slots = new ConcurrentHashMap<>();
+	private final Queue<Slot<K>> m_readySlots = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger m_runningCount = new AtomicInteger(0);
+	private final LongAdder m_submittedCount = new LongAdder();
+	private final LongAdder m_replacedCount = new LongAdder();
+	private volatile boolean m_stopped = false;
+
+	private volatile Logger m_logger = s_logger;
+
+	/**
+	 * 새 {@code KeyedSingleWaiterExecutor}를 생성한다.
+	 *
+	 * @param maxConcurrency	모든 키에 걸쳐 동시에 실행될 수 있는 최대 작업 수 (양수)
+	 * @throws IllegalArgumentException	{@code maxConcurrency}가 양수가 아닌 경우
+	 */
+	public KeyedSingleWaiterExecutor(int maxConcurrency) {
+		Preconditions.checkArgument(maxConcurrency > 0, "invalid maxConcurrency: %s", maxConcurrency);
+
+		m_maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * 주어진 키에 작업을 제출한다.
+	 * <p>
+	 * 해당 키에 실행 중이거나 대기 중인 작업이 없으면 실행 slot을 기다리는 키 목록에 추가된다.
+	 * 이미 대기 중인 작업이 있는 경우 그 작업은 {@code cancel(true)}되어 폐기되고 새 작업이
+	 * 대기 슬롯을 차지한다 (latest-wins).
+	 *
+	 * @param key	작업 키 (non-null)
+	 * @param exec	제출할 실행 (non-null)
+	 * @throws IllegalArgumentException	{@code key} 또는 {@code exec}가 {@code null}인 경우
+	 * @throws IllegalStateException	{@link #stop()}이 이미 호출된 경우
+	 */
+	public void submit(K key, StartableExecution<?> exec) {
+		Preconditions.checkNotNullArgument(key, "key is null");
+		Preconditions.checkNotNullArgument(exec, "StartableExecution is null");
+		Preconditions.checkState(!m_stopped, "stopped");
+
+		m_submittedCount.increment();
+		enqueue(key, exec);
+		dispatch();
+	}
+
+	/**
+	 * 모든 키에 걸쳐 현재 실행 중인 작업 수를 반환한다.
+	 *
+	 * @return	실행 중인 작업 수
+	 */
+	public int getRunningCount() {
+		return m_runningCount.get();
+	}
+
+	/**
+	 * 실행 중이거나 대기 중인 작업이 있는 키의 수를 반환한다.
+	 *
+	 * @return	활성 키 수
+	 */
+	public int getActiveKeyCount() {
+		return m_slots.size();
+	}
+
+	/**
+	 * 지금까지 제출된 작업 수를 반환한다.
+	 *
+	 * @return	제출된 작업 수
+	 */
+	public long getSubmittedCount() {
+		return m_submittedCount.sum();
+	}
+
+	/**
+	 * 후속 제출로 교체되어 실행되지 않고 취소된 작업 수를 반환한다.
+	 *
+	 * @return	교체된 작업 수
+	 */
+	public long getReplacedCount() {
+		return m_replacedCount.sum();
+	}
+
+	/**
+	 * 본 실행기를 중단한다.
+	 * <p>
+	 * 모든 키의 대기 슬롯에 보관된 작업과 실행 중인 작업에 {@code cancel(true)}을 호출한다.
+	 * 본 메소드 호출 후 {@link #submit}은 {@link IllegalStateException}을 던진다.
+	 */
+	public void stop() {
+		m_stopped = true;
+
+		m_readySlots.clear();
+		for ( Slot<K> slot: m_slots.values() ) {
+			StartableExecution<?> pending = slot.m_pending.getAndSet(null);
+			if ( pending != null ) {
+				pending.cancel(true);
+			}
+			StartableExecution<?> running = slot.m_running;
+			if ( running != null ) {
+				running.cancel(true);
+			}
+		}
+	}
+
+	@Override
+	public Logger getLogger() {
+		return m_logger;
+	}
+
+	@Override
+	public void setLogger(Logger logger) {
+		m_logger = logger != null ? logger : s_logger;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[running=%d/%d, keys=%d]", getClass().getSimpleName(),
+							m_runningCount.get(), m_maxConcurrency, m_slots.size());
+	}
+
+	private void enqueue(K key, StartableExecution<?> exec) {
+		StartableExecution<?> job = exec;
+		while ( job != null ) {
+			Slot<K> slot = m_slots.get(key);
+			if ( slot == null ) {
+				slot = m_slots.computeIfAbsent(key, Slot::new);
+			}
+
+			StartableExecution<?> prev = slot.m_pending.getAndSet(job);
+			if ( prev != null ) {
+				// 대기 중인 작업이 있으면, 새 작업으로 교체한다.
+				prev.cancel(true);
+				m_replacedCount.increment();
+
+				getLogger().debug("pending job is replaced and cancelled: key={}, job={}", key, prev);
+			}
+
+			if ( slot.m_state.compareAndSet(IDLE, ACTIVE) ) {
+				m_readySlots.add(slot);
+				return;
+			}
+			if ( slot.m_state.get() != RETIRED ) {
+				// 작업 실행 중이거나 이미 대기 목록에 있으므로, 대기 슬롯의 작업은 해당 키의
+				// 작업 실행이 끝난 후에 처리된다.
+				return;
+			}
+
+			// slot이 키 목록에서 제거되는 중에 작업이 등록된 경우에는, 새 slot으로 다시 등록한다.
+			// 제거하는 쪽에서 먼저 작업을 회수한 경우에는 그쪽에서 재등록한다.
+			job = slot.m_pending.getAndSet(null);
+		}
+	}
+
+	private void dispatch() {
+		while ( !m_stopped ) {
+			int nrunnings = m_runningCount.get();
+			if ( nrunnings >= m_maxConcurrency || m_readySlots.isEmpty() ) {
+				return;
+			}
+			if ( !m_runningCount.compareAndSet(nrunnings, nrunnings+1) ) {
+				continue;
+			}
+
+			Slot<K> slot = m_readySlots.poll();
+			if ( slot == null ) {
+				// 다른 쓰레드가 먼저 대기 목록의 slot을 가져간 경우.
+				m_runningCount.decrementAndGet();
+				continue;
+			}
+
+			StartableExecution<?> job = slot.m_pending.getAndSet(null);
+			if ( job == null ) {
+				onFinished(slot);
+			}
+			else {
+				start(slot, job);
+			}
+		}
+	}
+
+	private void start(Slot<K> slot, StartableExecution<?> job) {
+		slot.m_running = job;
+
+		AtomicBoolean finished = new AtomicBoolean(false);
+		Runnable onDone = () -> {
+			if ( finished.compareAndSet(false, true) ) {
+				onFinished(slot);
+			}
+		};
+		try {
+			job.whenFinishedAsync(ret -> onDone.run());
+			if ( !job.isDone() ) {
+				job.start();
+			}
+		}
+		catch ( Throwable e ) {
+			getLogger().warn("failed to start job: key={}, job={}, cause={}", slot.m_key, job, e.toString());
+			onDone.run();
+		}
+	}
+
+	private void onFinished(Slot<K> slot) {
+		slot.m_running = null;
+		m_runningCount.decrementAndGet();
+
+		if ( slot.m_pending.get() != null ) {
+			// 대기 중인 작업이 있으면, 다른 키들 뒤로 다시 대기한다.
+			m_readySlots.add(slot);
+		}
+		else {
+			slot.m_state.set(IDLE);
+
+			if ( slot.m_pending.get() != null ) {
+				// IDLE로 바꾸기 직전에 작업이 제출된 경우.
+				if ( slot.m_state.compareAndSet(IDLE, ACTIVE) ) {
+					m_readySlots.add(slot);
+				}
+			}
+			else if ( slot.m_state.compareAndSet(IDLE, RETIRED) ) {
+				m_slots.remove(slot.m_key, slot);
+
+				// 제거 중에 제출된 작업이 있으면 새 slot으로 옮긴다.
+				StartableExecution<?> orphan = slot.m_pending.getAndSet(null);
+				if ( orphan != null ) {
+					enqueue(slot.m_key, orphan);
+				}
+			}
+		}
+
+		dispatch();
+	}
+
+	private static final class Slot<K> {
+		private final K m_key;
+		private final AtomicInteger m_state = new AtomicInteger(IDLE);
+		private final AtomicReference<StartableExecution<?>> m_pending = new AtomicReference<>();
+		private volatile StartableExecution<?> m_running;
+
+		Slot(K key) {
+			m_key = key;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Slot[%s]", m_key);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package utils.thread;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import utils.Preconditions;
+
+
+/**
+ * 작업 지연 시간의 분포를 기록하는 histogram.
+ * <p>
+ * 지연 시간은 milli-seconds 단위의 2의 거듭제곱 구간으로 구분하여 기록된다. 구간 {@code 0}은
+ * 1ms 미만을, 구간 {@code i}({@code i >= 1})는 [2<sup>i-1</sup>, 2<sup>i</sup>) ms를 나타낸다.
+ * 기록 연산은 lock 없이 수행되므로 여러 쓰레드에서 동시에 기록하여도 무방하다.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public final class LatencyHistogram {
+	private static final int BUCKET_COUNT = 32;
+
+	private final AtomicLongArray m_buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong m_count = new AtomicLong();
+	private final AtomicLong m_totalNanos = new AtomicLong();
+	private final AtomicLong m_maxNanos = new AtomicLong();
+
+	public LatencyHistogram() { }
+
+	/**
+	 * 지연 시간을 기록한다.
+	 *
+	 * @param latencyNanos	지연 시간 (단위: nano-seconds). 음수인 경우는 {@code 0}으로 기록된다.
+	 */
+	public void record(long latencyNanos) {
+		long nanos = Math.max(0, latencyNanos);
+		long millis = nanos / 1_000_000L;
+		int idx = (millis == 0) ? 0 : Math.min(BUCKET_COUNT-1, 64 - Long.numberOfLeadingZeros(millis));
+
+		m_buckets.incrementAndGet(idx);
+		m_count.incrementAndGet();
+		m_totalNanos.addAndGet(nanos);
+		m_maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * 기록된 지연 시간의 수를 반환한다.
+	 *
+	 * @return	기록 수.
+	 */
+	public long getCount() {
+		return m_count.get();
+	}
+
+	/**
+	 * 기록된 지연 시간의 평균(milli-seconds)을 반환한다.
+	 *
+	 * @return	평균 지연 시간. 기록이 없는 경우는 {@code 0}.
+	 */
+	public double getMeanMillis() {
+		long count = m_count.get();
+		return (count > 0) ? m_totalNanos.get() / (count * 1_000_000.0) : 0;
+	}
+
+	/**
+	 * 기록된 지연 시간 중 최대값(milli-seconds)을 반환한다.
+	 *
+	 * @return	최대 지연 시간.
+	 */
+	public double getMaxMillis() {
+		return m_maxNanos.get() / 1_000_000.0;
+	}
+
+	/**
+	 * 주어진 백분위에 해당하는 지연 시간의 상한(milli-seconds)을 반환한다.
+	 * <p>
+	 * 반환 값은 해당 백분위 기록이 속한 구간의 상한이므로 실제 값보다 최대 2배까지 클 수 있다.
+	 *
+	 * @param percentile	백분위 ({@code 0 < percentile <= 100}).
+	 * @return	지연 시간 상한. 기록이 없는 경우는 {@code 0}.
+	 */
+	public long getPercentileMillis(double percentile) {
+		Preconditions.checkArgument(percentile > 0 && percentile <= 100,
+									"invalid percentile: %s", percentile);
+
+		long[] buckets = getBucketCounts();
+		long total = 0;
+		for ( long cnt: buckets ) {
+			total += cnt;
+		}
+		if ( total == 0 ) {
+			return 0;
+		}
+
+		long rank = (long)Math.ceil(total * percentile / 100.0);
+		long acc = 0;
+		for ( int i =0; i < buckets.length; ++i ) {
+			acc += buckets[i];
+			if ( acc >= rank ) {
+				return 1L << i;
+			}
+		}
+		return 1L << (BUCKET_COUNT-1);
+	}
+
+	/**
+	 * 구간별 기록 수를 반환한다.
+	 *
+	 * @return	구간별 기록 수 배열.
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[BUCKET_COUNT];
+		for ( int i =0; i < BUCKET_COUNT; ++i ) {
+			counts[i] = m_buckets.get(i);
+		}
+		return counts;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.1fms, p50=%dms, p99=%dms, max=%.1fms",
+								getCount(), getMeanMillis(), getPercentileMillis(50),
+								getPercentileMillis(99), getMaxMillis());
+	}
+}
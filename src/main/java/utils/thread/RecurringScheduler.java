@@ -0,0 +1,758 @@
+package utils.thread;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import utils.LoggerSettable;
+import utils.Preconditions;
+import utils.Throwables;
+import utils.UnitUtils;
+import utils.thread.Timer.Timeout;
+
+
+/**
+ * 다수의 {@link RecurringSchedule}을 소수의 쓰레드로 처리하는 공유 반복 작업 스케줄러.
+ * <p>
+ * {@link RecurringScheduleThread}는 반복 작업마다 전용 쓰레드를 사용하고, {@link RecurringScheduleImpl}은
+ * {@link CamusExecutorImpl}의 {@link java.util.concurrent.DelayQueue}를 거쳐 cached thread pool에서 수행되는
+ * 반면, 본 스케줄러는 다음 수행 시각을 hashed wheel {@link Timer}에 등록하고, 만기된 작업을 고정 크기의
+ * 쓰레드 풀에서 수행한다. 따라서 수천개의 반복 작업을 등록하더라도 쓰레드 수는 늘어나지 않는다.
+ * 단, {@link RecurringWork#perform()}이 오랫동안 블로킹되면 다른 반복 작업의 수행이 지연될 수 있다.
+ * <p>
+ * 반복 작업은 {@link #schedule(RecurringWork)}가 반환하는 {@link ScheduleBuilder}를 통해 생성하며,
+ * 생성된 {@link Schedule}은 {@link Schedule#start()}가 호출되어야 수행된다.
+ * <ul>
+ *   <li>Fixed-rate 작업의 수행 시각은 시작 시각을 기준으로 {@code 시작 시각 + k * 주기}로 계산되므로,
+ *       작업 수행 시간이나 스케줄링 지연이 누적되지 않는다 (drift-free).</li>
+ *   <li>작업 수행이 주기보다 길어져서 수행 시각을 놓친 경우는 {@link CatchUpPolicy}에 따라 처리된다.</li>
+ *   <li>Jitter가 설정된 경우는 각 수행 시각에 {@code [0, jitter)} 구간의 임의 시간이 더해진다.
+ *       Jitter는 다음 수행 시각 계산에 영향을 주지 않는다.</li>
+ *   <li>각 반복 작업의 수행 횟수, overrun 횟수, 건너뛴 횟수 등은 {@link Schedule#getStats()}로 얻을 수 있다.</li>
+ * </ul>
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RecurringScheduler {
+	private static final Logger s_logger = LoggerFactory.getLogger(RecurringScheduler.class);
+
+	private static final Object s_defaultLock = new Object();
+	private static volatile RecurringScheduler s_default;
+
+	/**
+	 * Fixed-rate 반복 작업이 수행 시각을 놓친 경우의 처리 정책.
+	 */
+	public enum CatchUpPolicy {
+		/** 놓친 수행 시각들은 건너뛰고, 다음 수행 시각부터 수행한다. */
+		SKIP,
+		/** 놓친 수행 시각 수만큼 연속으로 수행한다. */
+		BURST,
+		/** 놓친 수행 시각들을 묶어 한번만 바로 수행한 후, 다음 수행 시각부터 수행한다. */
+		COALESCE,
+	}
+
+	private final String m_name;
+	private final ExecutorService m_workers;
+	private final Timer m_timer;
+	private final Set<Schedule> m_schedules = ConcurrentHashMap.newKeySet();
+	private volatile boolean m_shutdown = false;
+
+	/**
+	 * 공유 반복 작업 스케줄러를 반환한다.
+	 * <p>
+	 * 반환되는 스케줄러는 최초 호출 시 생성되며, 쓰레드 풀의 크기는 가용 프로세서 수로 설정된다.
+	 *
+	 * @return	공유 스케줄러 객체.
+	 */
+	public static RecurringScheduler getDefault() {
+		RecurringScheduler scheduler = s_default;
+		if ( scheduler == null ) {
+			synchronized ( s_defaultLock ) {
+				scheduler = s_default;
+				if ( scheduler == null ) {
+					int nthreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+					s_default = scheduler = new RecurringScheduler("recurring", nthreads);
+				}
+			}
+		}
+
+		return scheduler;
+	}
+
+	/**
+	 * 반복 작업 스케줄러를 생성한다.
+	 *
+	 * @param name		스케줄러 이름. 작업 수행 쓰레드 이름의 접두어로 사용된다.
+	 * @param nthreads	반복 작업을 수행할 쓰레드 수.
+	 */
+	public RecurringScheduler(String name, int nthreads) {
+		Preconditions.checkNotNullArgument(name, "name is null");
+		Preconditions.checkArgument(nthreads > 0, "invalid thread count: %s", nthreads);
+
+		m_name = name;
+		AtomicInteger seqno = new AtomicInteger(0);
+		m_workers = Executors.newFixedThreadPool(nthreads, task -> {
+			Thread thread = new Thread(task, String.format("%s-%d", name, seqno.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		});
+		m_timer = new Timer(Timer.DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, Timer.DEFAULT_WHEEL_SIZE, m_workers);
+	}
+
+	/**
+	 * 주어진 작업을 반복 수행할 {@link Schedule}의 빌더를 반환한다.
+	 *
+	 * @param work	반복 수행할 작업.
+	 * @return	빌더 객체.
+	 */
+	public ScheduleBuilder schedule(RecurringWork work) {
+		Preconditions.checkNotNullArgument(work, "RecurringWork is null");
+
+		return new ScheduleBuilder(work);
+	}
+
+	/**
+	 * 주어진 작업을 반복 수행할 {@link Schedule}의 빌더를 반환한다.
+	 *
+	 * @param work	반복 수행할 작업.
+	 * @return	빌더 객체.
+	 */
+	public ScheduleBuilder schedule(Runnable work) {
+		Preconditions.checkNotNullArgument(work, "work is null");
+
+		return new ScheduleBuilder(new CamusExecutorImpl.SimpleRecurringWork(work));
+	}
+
+	/**
+	 * 시작된 후 아직 종료되지 않은 반복 작업 수를 반환한다.
+	 *
+	 * @return	반복 작업 수.
+	 */
+	public int getScheduleCount() {
+		return m_schedules.size();
+	}
+
+	/**
+	 * 스케줄러를 종료시킨다.
+	 * <p>
+	 * 수행 중인 모든 반복 작업에 {@link Schedule#stop(boolean) stop(false)}을 호출한 후,
+	 * 작업 수행 쓰레드 풀과 타이머를 종료시킨다.
+	 */
+	public void shutdown() {
+		m_shutdown = true;
+
+		m_schedules.forEach(sched -> sched.stop(false));
+		m_workers.shutdown();
+		m_timer.shutdown();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s, schedules=%d]", getClass().getSimpleName(), m_name, m_schedules.size());
+	}
+
+	/**
+	 * {@link RecurringScheduler}에서 수행되는 반복 작업.
+	 */
+	public final class Schedule implements RecurringSchedule, LoggerSettable {
+		private final RecurringWork m_work;
+		private final String m_name;
+		private final boolean m_byRate;
+		private final long m_initialDelayNanos;
+		private final CatchUpPolicy m_catchUpPolicy;
+		private final long m_jitterNanos;
+		private volatile Logger m_logger = s_logger;
+
+		private final Guard m_guard = Guard.create();
+		@GuardedBy("m_guard") private boolean m_started = false;
+		@GuardedBy("m_guard") private State m_state = State.STOPPED;
+		@GuardedBy("m_guard") private long m_intervalNanos;
+		@GuardedBy("m_guard") private long m_nextNanos;		// 다음 수행 예정 시각 (jitter 제외)
+		@GuardedBy("m_guard") private @Nullable Timeout m_timeout;
+		@GuardedBy("m_guard") private boolean m_outOfBand = false;	// performNow()에 의한 수행 여부
+		@GuardedBy("m_guard") private @Nullable Thread m_performThread;
+		private volatile Throwable m_failureCause;
+
+		@GuardedBy("m_guard") private long m_execCount = 0;
+		@GuardedBy("m_guard") private long m_overrunCount = 0;
+		@GuardedBy("m_guard") private long m_skippedCount = 0;
+		@GuardedBy("m_guard") private long m_coalescedCount = 0;
+		@GuardedBy("m_guard") private long m_totalExecNanos = 0;
+		@GuardedBy("m_guard") private long m_maxExecNanos = 0;
+		@GuardedBy("m_guard") private long m_maxLatenessNanos = 0;
+
+		private Schedule(ScheduleBuilder builder) {
+			m_work = builder.m_work;
+			m_name = builder.m_name;
+			m_byRate = builder.m_byRate;
+			m_intervalNanos = builder.m_interval.toNanos();
+			m_initialDelayNanos = builder.m_initialDelay.toNanos();
+			m_catchUpPolicy = builder.m_catchUpPolicy;
+			m_jitterNanos = builder.m_jitter.toNanos();
+		}
+
+		public String getName() {
+			return m_name;
+		}
+
+		@Override
+		public Logger getLogger() {
+			return m_logger;
+		}
+
+		@Override
+		public void setLogger(Logger logger) {
+			m_logger = logger != null ? logger : s_logger;
+		}
+
+		@Override
+		public State getState() {
+			return m_guard.get(() -> m_state);
+		}
+
+		@Override
+		public Throwable getFailureCause() {
+			return m_failureCause;
+		}
+
+		@Override
+		public long getInterval() {
+			return m_guard.get(() -> TimeUnit.NANOSECONDS.toMillis(m_intervalNanos));
+		}
+
+		/**
+		 * 반복 작업 주기를 설정한다.
+		 * <p>
+		 * 변경된 주기는 이미 예약된 다음 수행 이후부터 적용된다.
+		 *
+		 * @param millis	반복 작업 주기 (단위: millseconds)
+		 */
+		@Override
+		public void setInterval(long millis) {
+			Preconditions.checkArgument(millis > 0, "invalid interval: %s", millis);
+
+			m_guard.run(() -> m_intervalNanos = TimeUnit.MILLISECONDS.toNanos(millis));
+		}
+
+		/**
+		 * 다음 수행 시각을 기다리지 않고 바로 작업을 수행시킨다.
+		 * <p>
+		 * 작업이 수행 중이거나 시작되지 않은 경우는 무시된다.
+		 * Fixed-rate 작업의 경우 본 메소드에 의한 수행은 기존 수행 시각 계산에 영향을 주지 않는다.
+		 */
+		@Override
+		public void performNow() {
+			m_guard.run(() -> {
+				if ( m_state == State.IDLE && m_timeout != null && m_timeout.cancel() ) {
+					m_timeout = null;
+					m_outOfBand = true;
+					m_workers.execute(this::fire);
+				}
+			});
+		}
+
+		@Override
+		public void start() throws ExecutionException, IllegalStateException {
+			m_guard.run(() -> {
+				Preconditions.checkState(!m_shutdown, "RecurringScheduler has been shut down");
+				Preconditions.checkState(!m_started, "already started");
+
+				m_started = true;
+				m_state = State.STARTING;
+			});
+
+			try {
+				m_failureCause = null;
+				m_work.onStarted(this);
+			}
+			catch ( Throwable e ) {
+				m_failureCause = Throwables.unwrapThrowable(e);
+				setState(State.STOPPED);
+
+				throw new ExecutionException(m_failureCause);
+			}
+
+			m_schedules.add(this);
+			if ( m_shutdown ) {
+				// 등록하는 도중 스케줄러가 종료되어 RecurringScheduler.shutdown()에서 누락되었을 수 있다.
+				shutdown();
+				throw new IllegalStateException("RecurringScheduler has been shut down");
+			}
+			m_guard.run(() -> {
+				m_state = State.IDLE;
+				m_nextNanos = System.nanoTime() + m_initialDelayNanos;
+				scheduleInGuard();
+			});
+
+			if ( m_logger.isInfoEnabled() ) {
+				m_logger.info("started: {}[period={}]", m_name, UnitUtils.toSecondString(getInterval()));
+			}
+		}
+
+		@Override
+		public void stop(boolean mayInterruptIfRunning) {
+			m_guard.lock();
+			try {
+				// start가 완료되기 전에 stop()이 호출되는 경우를 처리
+				while ( m_state == State.STARTING ) {
+					m_guard.awaitSignal();
+				}
+
+				switch ( m_state ) {
+					case IDLE:
+						m_state = State.STOPPING;
+						if ( m_timeout != null ) {
+							m_timeout.cancel();
+							m_timeout = null;
+						}
+						m_guard.signalAll();
+
+						// 이미 만기되어 수행 대기 중인 작업은 STOPPING 상태를 보고 수행되지 않는다.
+						m_workers.execute(this::shutdown);
+						break;
+					case WORKING:
+						m_state = State.STOPPING;
+						m_guard.signalAll();
+
+						if ( m_work instanceof InterruptableWork ) {
+							((InterruptableWork)m_work).interrupt();
+						}
+						else if ( mayInterruptIfRunning && m_performThread != null ) {
+							m_performThread.interrupt();
+						}
+						break;
+					default:
+						break;
+				}
+			}
+			catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				m_guard.unlock();
+			}
+		}
+
+		@Override
+		public void waitForStopped() throws InterruptedException {
+			m_guard.lock();
+			try {
+				checkNotPerformThreadInGuard();
+				while ( m_started && m_state != State.STOPPED ) {
+					m_guard.awaitSignal();
+				}
+			}
+			finally {
+				m_guard.unlock();
+			}
+		}
+
+		@Override
+		public boolean waitForStopped(long timeout) throws InterruptedException {
+			long dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+			m_guard.lock();
+			try {
+				checkNotPerformThreadInGuard();
+				while ( m_started && m_state != State.STOPPED ) {
+					long remainsNanos = dueNanos - System.nanoTime();
+					if ( remainsNanos <= 0 ) {
+						return false;
+					}
+					m_guard.awaitSignalNanos(remainsNanos);
+				}
+
+				return true;
+			}
+			finally {
+				m_guard.unlock();
+			}
+		}
+
+		/**
+		 * 현재까지의 반복 작업 수행 통계 정보를 반환한다.
+		 *
+		 * @return	통계 정보.
+		 */
+		public Stats getStats() {
+			return m_guard.get(() -> new Stats(m_execCount, m_overrunCount, m_skippedCount, m_coalescedCount,
+												m_totalExecNanos, m_maxExecNanos, m_maxLatenessNanos));
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s[%s, period=%dms, state=%s]", getClass().getSimpleName(), m_name,
+								getInterval(), getState());
+		}
+
+		@GuardedBy("m_guard")
+		private void scheduleInGuard() {
+			long delayNanos = m_nextNanos - System.nanoTime();
+			if ( m_jitterNanos > 0 ) {
+				delayNanos += ThreadLocalRandom.current().nextLong(m_jitterNanos);
+			}
+
+			if ( delayNanos <= 0 ) {
+				// 타이머는 tick 단위로 동작하므로, 이미 수행 시각이 지난 경우는 바로 수행시킨다.
+				m_timeout = null;
+				m_workers.execute(this::fire);
+			}
+			else {
+				m_timeout = m_timer.schedule(this::fire, delayNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		private void fire() {
+			long dueNanos;
+			m_guard.lock();
+			try {
+				// 수행 대기 중에 stop()이 호출된 경우는 stop()에서 종료 처리를 한다.
+				if ( m_state != State.IDLE ) {
+					return;
+				}
+
+				m_state = State.WORKING;
+				m_timeout = null;
+				m_performThread = Thread.currentThread();
+				m_guard.signalAll();
+				dueNanos = m_outOfBand ? System.nanoTime() : m_nextNanos;
+			}
+			finally {
+				m_guard.unlock();
+			}
+
+			long startedNanos = System.nanoTime();
+			Throwable failure = null;
+			try {
+				m_work.perform();
+			}
+			catch ( Throwable e ) {
+				failure = Throwables.unwrapThrowable(e);
+			}
+			long execNanos = System.nanoTime() - startedNanos;
+
+			boolean stopped = false;
+			m_guard.lock();
+			try {
+				m_performThread = null;
+				updateStatsInGuard(execNanos, startedNanos - dueNanos);
+
+				if ( failure != null ) {
+					if ( failure instanceof InterruptedException ) {
+						if ( m_logger.isDebugEnabled() ) {
+							m_logger.debug("interrupted: RecurringSchedule={}", m_name);
+						}
+					}
+					else {
+						m_failureCause = failure;
+						m_logger.error("fails to perform job, stop schedule..., cause=" + failure);
+					}
+					m_state = State.STOPPING;
+					stopped = true;
+				}
+				else if ( m_state == State.STOPPING ) {
+					// perform 수행 중 스케줄이 중단된 경우.
+					stopped = true;
+				}
+				else {
+					m_state = State.IDLE;
+					updateNextInGuard(execNanos);
+					scheduleInGuard();
+				}
+				m_guard.signalAll();
+			}
+			finally {
+				m_guard.unlock();
+			}
+
+			// stop()에 의한 interrupt가 작업 수행 쓰레드 풀의 다른 작업에 영향을 주지 않도록 한다.
+			Thread.interrupted();
+			if ( stopped ) {
+				shutdown();
+			}
+		}
+
+		@GuardedBy("m_guard")
+		private void updateStatsInGuard(long execNanos, long latenessNanos) {
+			++m_execCount;
+			m_totalExecNanos += execNanos;
+			m_maxExecNanos = Math.max(m_maxExecNanos, execNanos);
+			m_maxLatenessNanos = Math.max(m_maxLatenessNanos, latenessNanos);
+
+			if ( execNanos > m_intervalNanos ) {
+				++m_overrunCount;
+				if ( m_logger.isDebugEnabled() ) {
+					m_logger.debug("overrun: schedule={}, period={}ms, elapsed={}ms", m_name,
+									TimeUnit.NANOSECONDS.toMillis(m_intervalNanos),
+									TimeUnit.NANOSECONDS.toMillis(execNanos));
+				}
+			}
+		}
+
+		@GuardedBy("m_guard")
+		private void updateNextInGuard(long execNanos) {
+			long now = System.nanoTime();
+			if ( !m_byRate ) {
+				m_outOfBand = false;
+				m_nextNanos = now + m_intervalNanos;
+				return;
+			}
+
+			// performNow()에 의한 수행은 예정된 수행 시각을 소모하지 않는다.
+			if ( m_outOfBand ) {
+				m_outOfBand = false;
+			}
+			else {
+				m_nextNanos += m_intervalNanos;
+			}
+			if ( m_nextNanos > now ) {
+				return;
+			}
+
+			// 다음 수행 시각이 이미 지난 경우
+			long missed = (now - m_nextNanos) / m_intervalNanos + 1;
+			switch ( m_catchUpPolicy ) {
+				case SKIP:
+					m_nextNanos += missed * m_intervalNanos;
+					m_skippedCount += missed;
+					break;
+				case COALESCE:
+					// 놓친 수행 시각 중 마지막 시각의 수행으로 간주하여 바로 수행한다.
+					m_nextNanos += (missed - 1) * m_intervalNanos;
+					m_coalescedCount += missed - 1;
+					break;
+				case BURST:
+					break;
+			}
+		}
+
+		@GuardedBy("m_guard")
+		private void checkNotPerformThreadInGuard() {
+			if ( Thread.currentThread().equals(m_performThread) ) {
+				throw new RuntimeException("may cause deadlock!: don't call waitForStopped while perform");
+			}
+		}
+
+		private void setState(State state) {
+			m_guard.run(() -> m_state = state);
+		}
+
+		private void shutdown() {
+			try {
+				m_work.onStopped();
+			}
+			catch ( Throwable e ) {
+				m_logger.warn("ignored exception: fails to call onStopped, cause="
+								+ Throwables.unwrapThrowable(e));
+			}
+			m_schedules.remove(this);
+			setState(State.STOPPED);
+
+			if ( m_logger.isInfoEnabled() ) {
+				m_logger.info("stopped: {}[period={}]", m_name, UnitUtils.toSecondString(getInterval()));
+			}
+		}
+	}
+
+	/**
+	 * {@link Schedule}의 수행 통계 정보.
+	 */
+	public static final class Stats {
+		private final long m_execCount;
+		private final long m_overrunCount;
+		private final long m_skippedCount;
+		private final long m_coalescedCount;
+		private final long m_totalExecNanos;
+		private final long m_maxExecNanos;
+		private final long m_maxLatenessNanos;
+
+		private Stats(long execCount, long overrunCount, long skippedCount, long coalescedCount,
+						long totalExecNanos, long maxExecNanos, long maxLatenessNanos) {
+			m_execCount = execCount;
+			m_overrunCount = overrunCount;
+			m_skippedCount = skippedCount;
+			m_coalescedCount = coalescedCount;
+			m_totalExecNanos = totalExecNanos;
+			m_maxExecNanos = maxExecNanos;
+			m_maxLatenessNanos = maxLatenessNanos;
+		}
+
+		/**
+		 * {@link RecurringWork#perform()}이 호출된 횟수를 반환한다.
+		 *
+		 * @return	수행 횟수.
+		 */
+		public long getExecutionCount() {
+			return m_execCount;
+		}
+
+		/**
+		 * 작업 수행 시간이 반복 주기보다 길었던 횟수를 반환한다.
+		 *
+		 * @return	overrun 횟수.
+		 */
+		public long getOverrunCount() {
+			return m_overrunCount;
+		}
+
+		/**
+		 * {@link CatchUpPolicy#SKIP} 정책에 따라 건너뛴 수행 시각 수를 반환한다.
+		 *
+		 * @return	건너뛴 수행 시각 수.
+		 */
+		public long getSkippedCount() {
+			return m_skippedCount;
+		}
+
+		/**
+		 * {@link CatchUpPolicy#COALESCE} 정책에 따라 다른 수행과 합쳐진 수행 시각 수를 반환한다.
+		 *
+		 * @return	합쳐진 수행 시각 수.
+		 */
+		public long getCoalescedCount() {
+			return m_coalescedCount;
+		}
+
+		public long getAverageExecutionMillis() {
+			return (m_execCount > 0) ? TimeUnit.NANOSECONDS.toMillis(m_totalExecNanos / m_execCount) : 0;
+		}
+
+		public long getMaxExecutionMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(m_maxExecNanos);
+		}
+
+		/**
+		 * 예정된 수행 시각보다 늦게 수행이 시작된 최대 지연 시간을 반환한다.
+		 * 설정된 jitter에 의한 지연도 포함된다.
+		 *
+		 * @return	최대 지연 시간 (단위: milli-seconds)
+		 */
+		public long getMaxLatenessMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(m_maxLatenessNanos);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("execs=%d, overruns=%d, skipped=%d, coalesced=%d, avg=%dms, max=%dms, late=%dms",
+								m_execCount, m_overrunCount, m_skippedCount, m_coalescedCount,
+								getAverageExecutionMillis(), getMaxExecutionMillis(), getMaxLatenessMillis());
+		}
+	}
+
+	/**
+	 * {@link Schedule}을 구성하는 빌더이다.
+	 * <p>
+	 * 기본값은 주기 1초의 fixed-rate, 초기 지연 없음, {@link CatchUpPolicy#SKIP}, jitter 없음이다.
+	 */
+	public final class ScheduleBuilder {
+		private final RecurringWork m_work;
+		private String m_name;
+		private boolean m_byRate = true;
+		private Duration m_interval = Duration.ofSeconds(1);
+		private Duration m_initialDelay = Duration.ZERO;
+		private CatchUpPolicy m_catchUpPolicy = CatchUpPolicy.SKIP;
+		private Duration m_jitter = Duration.ZERO;
+
+		private ScheduleBuilder(RecurringWork work) {
+			m_work = work;
+			m_name = work.getClass().getSimpleName();
+		}
+
+		/**
+		 * 작업 시작 시각을 기준으로 주어진 주기마다 작업이 수행되도록 한다.
+		 *
+		 * @param interval	반복 주기.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public ScheduleBuilder fixedRate(Duration interval) {
+			return interval(interval, true);
+		}
+
+		/**
+		 * 작업 수행이 끝난 후 주어진 시간이 지나면 다시 작업이 수행되도록 한다.
+		 *
+		 * @param delay	작업 수행 사이의 지연 시간.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public ScheduleBuilder fixedDelay(Duration delay) {
+			return interval(delay, false);
+		}
+
+		public ScheduleBuilder initialDelay(Duration delay) {
+			Preconditions.checkNotNullArgument(delay, "initial delay is null");
+			Preconditions.checkArgument(!delay.isNegative(), "initial delay should not be negative: %s", delay);
+			m_initialDelay = delay;
+
+			return this;
+		}
+
+		/**
+		 * Fixed-rate 작업이 수행 시각을 놓친 경우의 처리 정책을 지정한다.
+		 * Fixed-delay 작업에는 적용되지 않는다.
+		 *
+		 * @param policy	처리 정책.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public ScheduleBuilder catchUpPolicy(CatchUpPolicy policy) {
+			Preconditions.checkNotNullArgument(policy, "CatchUpPolicy is null");
+			m_catchUpPolicy = policy;
+
+			return this;
+		}
+
+		/**
+		 * 각 수행 시각에 더해질 임의 지연 시간의 최대값을 지정한다.
+		 * <p>
+		 * 동일 주기의 작업들이 같은 시각에 몰려 수행되는 것을 막기 위해 사용된다.
+		 *
+		 * @param jitter	최대 임의 지연 시간.
+		 * @return	메서드 체이닝을 위한 자기 자신.
+		 */
+		public ScheduleBuilder jitter(Duration jitter) {
+			Preconditions.checkNotNullArgument(jitter, "jitter is null");
+			Preconditions.checkArgument(!jitter.isNegative(), "jitter should not be negative: %s", jitter);
+			m_jitter = jitter;
+
+			return this;
+		}
+
+		public ScheduleBuilder name(String name) {
+			Preconditions.checkNotNullArgument(name, "name is null");
+			m_name = name;
+
+			return this;
+		}
+
+		/**
+		 * 설정된 값으로 {@link Schedule}을 생성한다. 생성된 작업은 {@link Schedule#start()}가
+		 * 호출되어야 수행된다.
+		 *
+		 * @return	생성된 반복 작업.
+		 */
+		public Schedule build() {
+			return new Schedule(this);
+		}
+
+		private ScheduleBuilder interval(Duration interval, boolean byRate) {
+			Preconditions.checkNotNullArgument(interval, "interval is null");
+			Preconditions.checkArgument(!interval.isNegative() && !interval.isZero(),
+										"interval should be positive: %s", interval);
+			m_interval = interval;
+			m_byRate = byRate;
+
+			return this;
+		}
+	}
+}
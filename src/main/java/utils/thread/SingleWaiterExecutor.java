@@ -26,6 +26,7 @@ import utils.async.StartableExecution;
  * {@link StartableExecution}의 finish 콜백을 등록해야 한다.
  * <p>
  * 모든 상태 변경은 내부 {@link Guard} lock으로 직렬화된다.
+ * 키별로 독립적인 latest-wins 실행이 필요한 경우는 {@link KeyedSingleWaiterExecutor}를 사용한다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
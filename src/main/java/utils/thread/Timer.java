@@ -1,107 +1,355 @@
 package utils.thread;
 
-import java.util.Comparator;
 import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
-import javax.annotation.concurrent.GuardedBy;
-
-import com.google.common.collect.MinMaxPriorityQueue;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import utils.Preconditions;
 import utils.async.Execution;
-import utils.thread.Guard;
 
 
 /**
+ * Hashed wheel 방식으로 구현된 타이머.
+ * <p>
+ * 타이머는 {@code wheelSize}개의 bucket으로 구성된 wheel을 갖고, 전용 쓰레드가 {@code tick} 주기마다
+ * 다음 bucket으로 이동하면서 만기된 타임아웃들을 처리한다.
+ * <ul>
+ *   <li>타임아웃 등록과 취소는 lock 없이 concurrent queue에 추가하는 것으로 처리되고, 실제 bucket 반영은
+ *       타이머 쓰레드가 다음 tick에서 수행한다. 따라서 등록/취소 비용은 등록된 타임아웃 수와 무관하게
+ *       O(1)이며, 등록 가능한 타임아웃 수에 제한이 없다.</li>
+ *   <li>타임아웃은 만기 시각이 속한 tick이 끝날 때 처리되므로 최대 {@code tick}만큼 늦게 처리될 수 있다.</li>
+ *   <li>만기된 타임아웃의 작업은 생성 시 지정된 {@link Executor}에서 수행된다. {@link Executor}가 지정되지
+ *       않은 경우는 타이머 쓰레드에서 직접 수행되므로, 이 경우 작업은 짧고 블로킹되지 않아야 한다.</li>
+ * </ul>
+ * {@link #setTimer(Execution, long, TimeUnit)}로 등록된 타임아웃은 대상 {@link Execution}이 먼저 종료되면
+ * 자동으로 취소된다.
  *
  * @author Kang-Woo Lee (ETRI)
  */
-public class Timer {
-	private final Guard m_guard = Guard.create();
-	@GuardedBy("m_guard") private boolean m_shutdown = false;
-	@GuardedBy("m_guard") private final MinMaxPriorityQueue<Schedule> m_timerQueue;
-	private final Thread m_schedulerThread;
-	
-	private static class Schedule {
-		private final Execution<?> m_exec;
-		private final Date m_due;
-		
-		Schedule(Execution<?> exec, Date due) {
-			m_exec = exec;
-			m_due = due;
-		}
-	}
-	
+public final class Timer {
+	private static final Logger s_logger = LoggerFactory.getLogger(Timer.class);
+
+	public static final long DEFAULT_TICK_MILLIS = 10;
+	public static final int DEFAULT_WHEEL_SIZE = 512;
+	/** 한 tick 동안 bucket으로 옮길 최대 신규 타임아웃 수. 나머지는 다음 tick에서 처리된다. */
+	private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+	private final long m_tickNanos;
+	private final int m_mask;
+	private final Bucket[] m_wheel;
+	private final @Nullable Executor m_taskExecutor;
+	private final long m_startNanos;
+	private final Queue<Timeout> m_pendings = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> m_cancelleds = new ConcurrentLinkedQueue<>();
+	private final AtomicLong m_pendingCount = new AtomicLong(0);
+	private volatile boolean m_shutdown = false;
+	private final Thread m_workerThread;
+	private long m_tick = 0;	// 타이머 쓰레드에서만 접근
+
+	/**
+	 * 기본 tick({@value #DEFAULT_TICK_MILLIS}ms)과 기본 wheel 크기({@value #DEFAULT_WHEEL_SIZE})를
+	 * 사용하고, 만기된 작업을 타이머 쓰레드에서 수행하는 타이머를 생성한다.
+	 */
 	public Timer() {
-		m_timerQueue = MinMaxPriorityQueue
-						.<Schedule>orderedBy(Comparator.comparing(s -> s.m_due))
-						.maximumSize(64)
-						.create();
-		m_schedulerThread = new Thread(m_scheduler);
-		m_schedulerThread.setDaemon(true);
-		m_schedulerThread.start();
+		this(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, null);
+	}
+
+	/**
+	 * 타이머를 생성한다.
+	 *
+	 * @param tick		wheel이 한 bucket 이동하는 주기. 타임아웃 처리의 해상도가 된다.
+	 * @param unit		{@code tick}의 시간 단위.
+	 * @param wheelSize	wheel의 bucket 수. 2의 지수승으로 올림된다.
+	 * @param taskExecutor	만기된 작업을 수행할 {@link Executor}.
+	 * 						{@code null}인 경우는 타이머 쓰레드에서 직접 수행한다.
+	 */
+	public Timer(long tick, TimeUnit unit, int wheelSize, @Nullable Executor taskExecutor) {
+		Preconditions.checkArgument(tick > 0, "tick should be positive: %s", tick);
+		Preconditions.checkNotNullArgument(unit, "TimeUnit is null");
+		Preconditions.checkArgument(wheelSize > 0 && wheelSize <= (1 << 30),
+									"invalid wheelSize: %s", wheelSize);
+
+		m_tickNanos = Math.max(unit.toNanos(tick), TimeUnit.MILLISECONDS.toNanos(1));
+		int size = Integer.highestOneBit(wheelSize);
+		size = (size < wheelSize) ? size << 1 : size;
+		m_mask = size - 1;
+		m_wheel = new Bucket[size];
+		for ( int i =0; i < size; ++i ) {
+			m_wheel[i] = new Bucket();
+		}
+		m_taskExecutor = taskExecutor;
+
+		m_startNanos = System.nanoTime();
+		m_workerThread = new Thread(this::runWorker, "utils-timer");
+		m_workerThread.setDaemon(true);
+		m_workerThread.start();
 	}
-	
+
+	/**
+	 * 타이머를 종료시킨다.
+	 * <p>
+	 * 아직 만기되지 않은 타임아웃들은 더 이상 처리되지 않는다.
+	 */
 	public void shutdown() {
-		m_guard.run(() -> m_shutdown=true);
+		m_shutdown = true;
+		LockSupport.unpark(m_workerThread);
+	}
+
+	/**
+	 * Tick 주기를 반환한다.
+	 *
+	 * @param unit	반환할 시간 단위.
+	 * @return	tick 주기.
+	 */
+	public long getTick(TimeUnit unit) {
+		return unit.convert(m_tickNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 등록된 후 아직 만기되거나 취소되지 않은 타임아웃 수를 반환한다.
+	 *
+	 * @return	대기 중인 타임아웃 수.
+	 */
+	public long getPendingCount() {
+		return m_pendingCount.get();
+	}
+
+	/**
+	 * 주어진 시간이 경과한 후 {@code task}가 수행되도록 등록한다.
+	 *
+	 * @param task	수행할 작업.
+	 * @param delay	지연 시간.
+	 * @param unit	{@code delay}의 시간 단위.
+	 * @return	등록된 타임아웃 객체. 작업 수행 전에 {@link Timeout#cancel()}로 취소할 수 있다.
+	 * @throws IllegalStateException	타이머가 이미 종료된 경우.
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		Preconditions.checkNotNullArgument(task, "task is null");
+		Preconditions.checkNotNullArgument(unit, "TimeUnit is null");
+		Preconditions.checkState(!m_shutdown, "Timer has been shut down");
+
+		long deadline = System.nanoTime() - m_startNanos + Math.max(unit.toNanos(delay), 0);
+		Timeout timeout = new Timeout(task, deadline);
+		m_pendingCount.incrementAndGet();
+		m_pendings.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * 주어진 시각까지 {@code task}가 종료되지 않으면 취소되도록 타임아웃을 설정한다.
+	 *
+	 * @param task	대상 작업.
+	 * @param due	만기 시각.
+	 * @return	등록된 타임아웃 객체.
+	 */
+	public Timeout setTimer(Execution<?> task, Date due) {
+		return setTimer(task, due.getTime() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 주어진 시간 내에 {@code task}가 종료되지 않으면 취소되도록 타임아웃을 설정한다.
+	 * <p>
+	 * {@code task}가 먼저 종료되면 설정된 타임아웃은 자동으로 취소된다.
+	 *
+	 * @param task		대상 작업.
+	 * @param timeout	제한 시간.
+	 * @param unit		{@code timeout}의 시간 단위.
+	 * @return	등록된 타임아웃 객체.
+	 */
+	public Timeout setTimer(Execution<?> task, long timeout, TimeUnit unit) {
+		Preconditions.checkNotNullArgument(task, "target Execution is null");
+
+		Timeout handle = schedule(() -> task.cancel(true), timeout, unit);
+		task.whenFinished(r -> handle.cancel());
+		return handle;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[tick=%dms, wheel=%d, pending=%d]", getClass().getSimpleName(),
+							TimeUnit.NANOSECONDS.toMillis(m_tickNanos), m_wheel.length, m_pendingCount.get());
 	}
-	
-	public void setTimer(Execution<?> task, Date due) {
-		m_guard.lock();
-		try {
-			Schedule schedule = new Schedule(task, due);
-			m_timerQueue.add(schedule);
-			if ( m_timerQueue.peekFirst() == schedule ) {
-				m_guard.signalAll();
+
+	/**
+	 * {@link Timer}에 등록된 타임아웃.
+	 */
+	public final class Timeout {
+		private static final int ST_INIT = 0;
+		private static final int ST_CANCELLED = 1;
+		private static final int ST_EXPIRED = 2;
+
+		private final Runnable m_task;
+		private final long m_deadline;		// 타이머 시작 시점 기준 nano-seconds
+		private final AtomicInteger m_state = new AtomicInteger(ST_INIT);
+
+		// 아래 필드들은 타이머 쓰레드에서만 접근된다.
+		private long m_remainingRounds;
+		private @Nullable Bucket m_bucket;
+		private @Nullable Timeout m_prev;
+		private @Nullable Timeout m_next;
+
+		private Timeout(Runnable task, long deadline) {
+			m_task = task;
+			m_deadline = deadline;
+		}
+
+		/**
+		 * 타임아웃을 취소한다.
+		 *
+		 * @return	취소된 경우는 {@code true}, 이미 만기되었거나 취소된 경우는 {@code false}.
+		 */
+		public boolean cancel() {
+			if ( !m_state.compareAndSet(ST_INIT, ST_CANCELLED) ) {
+				return false;
 			}
+			m_pendingCount.decrementAndGet();
+			m_cancelleds.add(this);
+			return true;
 		}
-		finally {
-			m_guard.unlock();
+
+		public boolean isCancelled() {
+			return m_state.get() == ST_CANCELLED;
+		}
+
+		public boolean isExpired() {
+			return m_state.get() == ST_EXPIRED;
+		}
+
+		private void expire() {
+			if ( !m_state.compareAndSet(ST_INIT, ST_EXPIRED) ) {
+				return;
+			}
+			m_pendingCount.decrementAndGet();
+
+			try {
+				if ( m_taskExecutor != null ) {
+					m_taskExecutor.execute(m_task);
+				}
+				else {
+					m_task.run();
+				}
+			}
+			catch ( Throwable e ) {
+				s_logger.warn("failed to run timer task: " + m_task, e);
+			}
 		}
 	}
-	
-	public void setTimer(Execution<?> task, long timeout, TimeUnit unit) {
-    	Date due = new Date(System.currentTimeMillis() + unit.toMillis(timeout));
-		setTimer(task, due);
+
+	private void runWorker() {
+		while ( !m_shutdown ) {
+			waitForNextTick();
+			if ( m_shutdown ) {
+				break;
+			}
+
+			removeCancelleds();
+			transferPendings();
+			m_wheel[(int)(m_tick & m_mask)].expire();
+			++m_tick;
+		}
 	}
-	
-	private final Runnable m_scheduler = new Runnable() {
-		@Override
-		public void run() {
-			m_guard.lock();
-			try {
-				while ( true ) {
-					Date now = new Date();
-					if ( m_shutdown ) {
-						return;
-					}
-					
-					try {
-						Schedule schedule = m_timerQueue.peekFirst();
-						if ( schedule != null ) {
-							if ( !schedule.m_exec.isDone() ) {
-								if ( schedule.m_due.compareTo(now) <= 0 ) {
-									m_timerQueue.removeFirst();
-									schedule.m_exec.cancel(true);
-								}
-								else {
-									m_guard.awaitSignal(schedule.m_due);
-								}
-							}
-							else {
-								m_timerQueue.removeFirst();
-							}
-						}
-						else {
-							m_guard.awaitSignal();
-						}
-					}
-					catch ( InterruptedException expected ) { }
+
+	private void waitForNextTick() {
+		long deadline = m_tickNanos * (m_tick + 1);
+		while ( !m_shutdown ) {
+			long remains = deadline - (System.nanoTime() - m_startNanos);
+			if ( remains <= 0 ) {
+				return;
+			}
+			LockSupport.parkNanos(this, remains);
+		}
+	}
+
+	private void removeCancelleds() {
+		Timeout timeout;
+		while ( (timeout = m_cancelleds.poll()) != null ) {
+			if ( timeout.m_bucket != null ) {
+				timeout.m_bucket.remove(timeout);
+			}
+		}
+	}
+
+	private void transferPendings() {
+		for ( int i =0; i < MAX_TRANSFERS_PER_TICK; ++i ) {
+			Timeout timeout = m_pendings.poll();
+			if ( timeout == null ) {
+				break;
+			}
+			if ( timeout.m_state.get() != Timeout.ST_INIT ) {
+				continue;
+			}
+
+			long expireTick = timeout.m_deadline / m_tickNanos;
+			timeout.m_remainingRounds = Math.max(expireTick - m_tick, 0) / m_wheel.length;
+			long tick = Math.max(expireTick, m_tick);	// 이미 지난 tick이면 현재 tick에서 처리한다.
+			m_wheel[(int)(tick & m_mask)].add(timeout);
+		}
+	}
+
+	private static final class Bucket {
+		private @Nullable Timeout m_head;
+		private @Nullable Timeout m_tail;
+
+		void add(Timeout timeout) {
+			timeout.m_bucket = this;
+			if ( m_head == null ) {
+				m_head = m_tail = timeout;
+			}
+			else {
+				m_tail.m_next = timeout;
+				timeout.m_prev = m_tail;
+				m_tail = timeout;
+			}
+		}
+
+		void expire() {
+			Timeout timeout = m_head;
+			while ( timeout != null ) {
+				Timeout next = timeout.m_next;
+				if ( timeout.m_remainingRounds <= 0 ) {
+					remove(timeout);
+					timeout.expire();
+				}
+				else if ( timeout.isCancelled() ) {
+					remove(timeout);
 				}
+				else {
+					--timeout.m_remainingRounds;
+				}
+				timeout = next;
 			}
-			finally {
-				m_guard.unlock();
+		}
+
+		void remove(Timeout timeout) {
+			if ( timeout.m_bucket != this ) {
+				return;
+			}
+
+			Timeout next = timeout.m_next;
+			if ( timeout.m_prev != null ) {
+				timeout.m_prev.m_next = next;
 			}
+			if ( next != null ) {
+				next.m_prev = timeout.m_prev;
+			}
+			if ( timeout == m_head ) {
+				m_head = next;
+			}
+			if ( timeout == m_tail ) {
+				m_tail = timeout.m_prev;
+			}
+			timeout.m_prev = null;
+			timeout.m_next = null;
+			timeout.m_bucket = null;
 		}
-	};
+	}
 }
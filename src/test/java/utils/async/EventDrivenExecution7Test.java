@@ -0,0 +1,147 @@
+package utils.async;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.func.Result;
+
+/**
+ * 여러 쓰레드가 동시에 상태 전이를 시도하는 경우의 {@link EventDrivenExecution} 동작 검증.
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class EventDrivenExecution7Test {
+	@Test
+	public void test_concurrent_finish() throws Exception {
+		for ( int round =0; round < 200; ++round ) {
+			EventDrivenExecution<Integer> exec = new EventDrivenExecution<>();
+			AtomicInteger finishCount = new AtomicInteger();
+			exec.whenFinished(r -> finishCount.incrementAndGet());
+			exec.notifyStarted();
+
+			AtomicInteger winCount = new AtomicInteger();
+			CountDownLatch ready = new CountDownLatch(1);
+			List<Thread> threads = new ArrayList<>();
+			for ( int i =0; i < 4; ++i ) {
+				final int idx = i;
+				Thread thread = new Thread(() -> {
+					try {
+						ready.await();
+					}
+					catch ( InterruptedException e ) {
+						return;
+					}
+					boolean won = switch ( idx ) {
+						case 0 -> exec.notifyCompleted(idx);
+						case 1 -> exec.notifyFailed(new IllegalStateException());
+						case 2 -> exec.notifyCancelled();
+						default -> exec.notifyCompleted(idx);
+					};
+					if ( won ) {
+						winCount.incrementAndGet();
+					}
+				});
+				thread.start();
+				threads.add(thread);
+			}
+			ready.countDown();
+			for ( Thread thread: threads ) {
+				thread.join();
+			}
+
+			Assertions.assertEquals(1, winCount.get());
+			Assertions.assertEquals(1, finishCount.get());
+			Assertions.assertTrue(exec.isDone());
+			Assertions.assertEquals(exec.getState(), exec.poll().getState());
+		}
+	}
+
+	@Test
+	public void test_waiters_released() throws Exception {
+		EventDrivenExecution<String> exec = new EventDrivenExecution<>();
+		List<Thread> waiters = new ArrayList<>();
+		AtomicInteger released = new AtomicInteger();
+		for ( int i =0; i < 8; ++i ) {
+			Thread thread = new Thread(() -> {
+				try {
+					if ( "a".equals(exec.get()) ) {
+						released.incrementAndGet();
+					}
+				}
+				catch ( Exception e ) { }
+			});
+			thread.start();
+			waiters.add(thread);
+		}
+		Thread.sleep(50);
+
+		exec.notifyStarted();
+		Thread.sleep(20);
+		Assertions.assertEquals(0, released.get());
+
+		exec.notifyCompleted("a");
+		for ( Thread thread: waiters ) {
+			thread.join(TimeUnit.SECONDS.toMillis(3));
+		}
+		Assertions.assertEquals(8, released.get());
+	}
+
+	@Test
+	public void test_sync_listener_before_waiter() throws Exception {
+		EventDrivenExecution<String> exec = new EventDrivenExecution<>();
+		AtomicInteger handled = new AtomicInteger();
+		exec.whenFinished(r -> {
+			try {
+				// 동기 listener 내에서 대기하더라도 deadlock이 발생하지 않아야 한다.
+				Assertions.assertEquals("a", exec.get());
+				Thread.sleep(50);
+			}
+			catch ( Exception e ) { }
+			handled.incrementAndGet();
+		});
+		exec.notifyStarted();
+		new Thread(() -> exec.notifyCompleted("a")).start();
+
+		exec.waitForFinished();
+		Assertions.assertEquals(1, handled.get());
+	}
+
+	@Test
+	public void test_listener_registration() throws Exception {
+		EventDrivenExecution<String> exec = new EventDrivenExecution<>();
+		AtomicInteger count = new AtomicInteger();
+		Consumer<Result<String>> handler = r -> count.incrementAndGet();
+		exec.whenFinished(handler);
+		exec.whenFinished(handler);
+
+		exec.notifyStarted();
+		exec.notifyCompleted("a");
+		Assertions.assertEquals(1, count.get());
+
+		// 종료 후에 등록된 handler는 바로 호출되고, 이미 등록된 handler는 무시된다.
+		exec.whenFinished(handler);
+		Assertions.assertEquals(1, count.get());
+		exec.whenFinished(r -> count.incrementAndGet());
+		Assertions.assertEquals(2, count.get());
+	}
+
+	@Test
+	public void test_timed_wait() throws Exception {
+		EventDrivenExecution<String> exec = new EventDrivenExecution<>();
+		exec.notifyStarted();
+		for ( int i =0; i < 5; ++i ) {
+			AsyncResult<String> result = exec.waitForFinished(10, TimeUnit.MILLISECONDS);
+			Assertions.assertTrue(result.isRunning());
+		}
+		exec.notifyCompleted("a");
+		Assertions.assertEquals("a", exec.waitForFinished(10, TimeUnit.MILLISECONDS).get());
+	}
+}
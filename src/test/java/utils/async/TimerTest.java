@@ -1,7 +1,12 @@
 package utils.async;
 
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -13,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import utils.RuntimeInterruptedException;
 import utils.func.Unchecked;
 import utils.thread.Timer;
+import utils.thread.Timer.Timeout;
 
 
 /**
@@ -111,4 +117,66 @@ public class TimerTest {
 		taskA.waitForFinished();
 		Assertions.assertEquals(true, taskA.isCancelled());
 	}
+	
+	@Test
+	public void test05() throws Exception {
+		// 64개보다 많은 타임아웃도 모두 처리되어야 한다.
+		List<StartableExecution<String>> tasks = new ArrayList<>();
+		for ( int i =0; i < 500; ++i ) {
+			StartableExecution<String> task = create("" + i, 1000000, true);
+			m_timer.setTimer(task, 50 + (i % 100), TimeUnit.MILLISECONDS);
+			tasks.add(task);
+		}
+		for ( StartableExecution<String> task: tasks ) {
+			task.waitForFinished();
+			Assertions.assertEquals(true, task.isCancelled());
+		}
+		Assertions.assertEquals(0, m_timer.getPendingCount());
+	}
+	
+	@Test
+	public void test06() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		Timeout timeout = m_timer.schedule(count::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+		Assertions.assertEquals(1, m_timer.getPendingCount());
+		Assertions.assertTrue(timeout.cancel());
+		Assertions.assertFalse(timeout.cancel());
+		Assertions.assertEquals(0, m_timer.getPendingCount());
+		
+		Thread.sleep(200);
+		Assertions.assertEquals(0, count.get());
+		Assertions.assertTrue(timeout.isCancelled());
+	}
+	
+	@Test
+	public void test07() throws Exception {
+		// 작업이 먼저 종료되면 타임아웃은 자동으로 취소된다.
+		StartableExecution<String> task = create("a", 50, true);
+		Timeout timeout = m_timer.setTimer(task, 10, TimeUnit.SECONDS);
+		Assertions.assertEquals("a", task.get());
+		Assertions.assertTrue(timeout.isCancelled());
+		Assertions.assertEquals(0, m_timer.getPendingCount());
+	}
+	
+	@Test
+	public void test08() throws Exception {
+		// wheel 한 바퀴보다 긴 타임아웃은 남은 회전 수만큼 기다린 후에 처리되어야 한다.
+		Timer timer = new Timer(5, TimeUnit.MILLISECONDS, 8, null);
+		try {
+			long started = System.nanoTime();
+			AtomicLong elapsed = new AtomicLong();
+			CountDownLatch latch = new CountDownLatch(1);
+			timer.schedule(() -> {
+				elapsed.set(System.nanoTime() - started);
+				latch.countDown();
+			}, 200, TimeUnit.MILLISECONDS);
+			
+			Assertions.assertTrue(latch.await(3, TimeUnit.SECONDS));
+			long millis = TimeUnit.NANOSECONDS.toMillis(elapsed.get());
+			Assertions.assertTrue(millis >= 200 && millis < 400, "elapsed=" + millis);
+		}
+		finally {
+			timer.shutdown();
+		}
+	}
 }
@@ -0,0 +1,114 @@
+package utils.async;
+
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import utils.stream.AsyncExecutionOptions;
+import utils.stream.FStream;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class VirtualThreadExecutionTest {
+	@AfterEach
+	public void tearDown() {
+		Executions.setUseVirtualThreads(false);
+	}
+
+	@Test
+	public void testVirtualThreadExecutor() throws Exception {
+		Assumptions.assumeTrue(Executions.isVirtualThreadSupported());
+
+		boolean[] isVirtual = { false };
+		CountDownLatch latch = new CountDownLatch(1);
+		Executions.getVirtualThreadExecutor().execute(() -> {
+			isVirtual[0] = isVirtual(Thread.currentThread());
+			latch.countDown();
+		});
+		Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(isVirtual[0]);
+	}
+
+	@Test
+	public void testMapAsyncManyBlockingCalls() throws Exception {
+		int count = 500;
+		AsyncExecutionOptions opts = AsyncExecutionOptions.VIRTUAL_THREADS(count);
+		Assertions.assertTrue(opts.getVirtualThreads());
+		Assertions.assertNotNull(opts.getExecutor());
+
+		Set<Boolean> kinds = ConcurrentHashMap.newKeySet();
+		long started = System.currentTimeMillis();
+		List<Integer> result = FStream.range(0, count)
+										.mapCheckedAsync(v -> {
+											kinds.add(isVirtual(Thread.currentThread()));
+											Thread.sleep(300);
+											return v;
+										}, opts)
+										.map(t -> t._2().get())
+										.sort()
+										.toList();
+		long elapsed = System.currentTimeMillis() - started;
+
+		Assertions.assertEquals(FStream.range(0, count).toList(), result);
+		// 모든 호출이 동시에 수행되므로 수 초 이내에 완료되어야 한다.
+		Assertions.assertTrue(elapsed < 10_000, "elapsed=" + elapsed);
+		Assertions.assertEquals(Set.of(Executions.isVirtualThreadSupported()), kinds);
+	}
+
+	@Test
+	public void testGlobalDefault() throws Exception {
+		Assumptions.assumeTrue(Executions.isVirtualThreadSupported());
+
+		Executions.setUseVirtualThreads(true);
+		Assertions.assertTrue(Executions.isUseVirtualThreads());
+
+		StartableExecution<Boolean> viaSupply = Executions.supplyAsync(() -> isVirtual(Thread.currentThread()));
+		viaSupply.start();
+		Assertions.assertTrue(viaSupply.get(5, TimeUnit.SECONDS));
+
+		boolean[] viaThreaded = { false };
+		AbstractThreadedExecution<Void> exec = new AbstractThreadedExecution<Void>() {
+			@Override
+			protected Void executeWork() throws Exception {
+				viaThreaded[0] = isVirtual(Thread.currentThread());
+				return null;
+			}
+		};
+		exec.start();
+		exec.get(5, TimeUnit.SECONDS);
+		Assertions.assertTrue(viaThreaded[0]);
+
+		Set<Boolean> kinds = ConcurrentHashMap.newKeySet();
+		FStream.range(0, 10)
+				.mapAsync(v -> kinds.add(isVirtual(Thread.currentThread())))
+				.toList();
+		Assertions.assertEquals(Set.of(true), kinds);
+	}
+
+	@Test
+	public void testExplicitExecutorWins() throws Exception {
+		AsyncExecutionOptions opts = AsyncExecutionOptions.create()
+															.setVirtualThreads(true)
+															.setExecutor(Executions.getExecutor());
+		Assertions.assertSame(Executions.getExecutor(), opts.getExecutor());
+	}
+
+	private static boolean isVirtual(Thread thread) {
+		try {
+			return (Boolean)Thread.class.getMethod("isVirtual").invoke(thread);
+		}
+		catch ( ReflectiveOperationException e ) {
+			return false;
+		}
+	}
+}
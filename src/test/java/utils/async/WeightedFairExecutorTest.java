@@ -0,0 +1,162 @@
+package utils.async;
+
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.async.WeightedFairExecutor.Lane;
+import utils.async.WeightedFairExecutor.LaneStats;
+import utils.func.Result;
+import utils.func.Unchecked;
+import utils.stream.FStream;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class WeightedFairExecutorTest {
+	@Test
+	public void testExecuteStream() throws Exception {
+		WeightedFairExecutor executor = new WeightedFairExecutor(4);
+		FStream<StartableExecution<Integer>> execs = FStream.range(0, 100)
+															.map(i -> Executions.supplyCheckedAsync(() -> i * 2));
+		List<Integer> result = executor.<Integer>execute("job", execs, 1, 2)
+										.map(Result::getUnchecked)
+										.sort()
+										.toList();
+		Assertions.assertEquals(FStream.range(0, 100).map(i -> i * 2).toList(), result);
+		Assertions.assertEquals(0, executor.getRunningCount());
+		Assertions.assertTrue(executor.getStats().isEmpty());
+	}
+
+	@Test
+	public void testWeightedShare() throws Exception {
+		WeightedFairExecutor executor = new WeightedFairExecutor(1);
+		CountDownLatch gate = new CountDownLatch(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+
+		// 실행 slot을 점유하여, 이후 등록된 작업들이 모두 대기하도록 한다.
+		Lane blocker = executor.addLane("blocker", 1);
+		blocker.submit(Executions.toExecution(gate::await));
+
+		Lane heavy = executor.addLane("heavy", 3);
+		Lane light = executor.addLane("light", 1);
+		for ( int i =0; i < 40; ++i ) {
+			heavy.submit(Executions.toExecution(() -> order.add("heavy")));
+			light.submit(Executions.toExecution(() -> order.add("light")));
+		}
+		Assertions.assertEquals(40, heavy.getStats().getQueueDepth());
+		Assertions.assertEquals(40, light.getStats().getQueueDepth());
+
+		gate.countDown();
+		awaitCompletion(() -> order.size() == 80);
+
+		long heavyCount = order.subList(0, 40).stream().filter("heavy"::equals).count();
+		Assertions.assertTrue(heavyCount >= 28 && heavyCount <= 32, "heavy=" + heavyCount);
+
+		LaneStats stats = light.getStats();
+		Assertions.assertEquals(0, stats.getQueueDepth());
+		Assertions.assertEquals(40, stats.getStartedCount());
+		Assertions.assertTrue(stats.getMaxWaitMillis() >= 0);
+	}
+
+	@Test
+	public void testPerLaneLimit() throws Exception {
+		WeightedFairExecutor executor = new WeightedFairExecutor(8);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		FStream<StartableExecution<Integer>> execs = FStream.range(0, 30).map(i -> Executions.supplyCheckedAsync(() -> {
+			int n = running.incrementAndGet();
+			maxRunning.accumulateAndGet(n, Math::max);
+			Thread.sleep(5);
+			running.decrementAndGet();
+			return i;
+		}));
+		Assertions.assertEquals(30, executor.<Integer>execute("capped", execs, 1, 2).count());
+		Assertions.assertTrue(maxRunning.get() <= 2, "max=" + maxRunning.get());
+	}
+
+	@Test
+	public void testCloseLane() throws Exception {
+		WeightedFairExecutor executor = new WeightedFairExecutor(1);
+		CountDownLatch gate = new CountDownLatch(1);
+
+		Lane lane = executor.addLane("lane", 1);
+		lane.submit(Executions.toExecution(gate::await));
+		StartableExecution<Void> pending = Executions.toExecution(() -> { });
+		lane.submit(pending);
+
+		lane.close();
+		Assertions.assertTrue(pending.isCancelled());
+		Assertions.assertThrows(IllegalStateException.class, () -> lane.submit(Executions.toExecution(() -> { })));
+		gate.countDown();
+
+		executor.shutdown();
+		Assertions.assertThrows(IllegalStateException.class, () -> executor.addLane("other", 1));
+	}
+
+	@Test
+	public void testSourceFailureAfterRunningJobs() throws Exception {
+		WeightedFairExecutor executor = new WeightedFairExecutor(4);
+		FStream<StartableExecution<Integer>> execs = FStream.range(0, 4).map(i -> {
+			if ( i == 3 ) {
+				throw new IllegalStateException("source failed");
+			}
+			return Executions.supplyCheckedAsync(() -> {
+				Thread.sleep(50);
+				return i;
+			});
+		});
+
+		FStream<Result<Integer>> results = executor.<Integer>execute("job", execs, 1, 4);
+		List<Integer> values = new CopyOnWriteArrayList<>();
+		RuntimeException error = Assertions.assertThrows(RuntimeException.class, () -> {
+			results.forEach(r -> values.add(r.getUnchecked()));
+		});
+		Assertions.assertEquals("source failed", error.getMessage());
+		Assertions.assertEquals(List.of(0, 1, 2), FStream.from(values).sort().toList());
+	}
+
+	@Test
+	public void testSlowSourceDoesNotBlockOtherLanes() throws Exception {
+		WeightedFairExecutor executor = new WeightedFairExecutor(4);
+		CountDownLatch pulling = new CountDownLatch(1);
+		CountDownLatch gate = new CountDownLatch(1);
+		FStream<StartableExecution<Integer>> slow = FStream.range(0, 1).map(i -> {
+			pulling.countDown();
+			Unchecked.runOrThrowSneakily(gate::await);
+			return Executions.supplyCheckedAsync(() -> i);
+		});
+
+		CompletableFuture<List<Integer>> slowResult = CompletableFuture.supplyAsync(() ->
+			executor.<Integer>execute("slow", slow, 1, 1).map(Result::getUnchecked).toList());
+		Assertions.assertTrue(pulling.await(5, TimeUnit.SECONDS));
+
+		// 'slow' lane의 작업 스트림이 읽히는 중에도 다른 lane의 작업은 실행되어야 한다.
+		Lane other = executor.addLane("other", 1);
+		CountDownLatch done = new CountDownLatch(1);
+		other.submit(Executions.toExecution(done::countDown));
+		Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		gate.countDown();
+		Assertions.assertEquals(List.of(0), slowResult.get(5, TimeUnit.SECONDS));
+	}
+
+	private static void awaitCompletion(BooleanSupplier cond) throws InterruptedException {
+		long due = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ( !cond.getAsBoolean() && System.nanoTime() < due ) {
+			Thread.sleep(5);
+		}
+		Assertions.assertTrue(cond.getAsBoolean());
+	}
+}
@@ -0,0 +1,102 @@
+package utils.rx;
+
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import utils.stream.FStream;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class FlowablesTest {
+	@Test
+	public void testFromFlowable() throws Exception {
+		List<Integer> list = Flowables.from(Flowable.range(0, 1000)).toList();
+		Assertions.assertEquals(FStream.range(0, 1000).toList(), list);
+	}
+
+	@Test
+	public void testRequestBatching() throws Exception {
+		List<Long> requests = new CopyOnWriteArrayList<>();
+		Flowable<Integer> flowable = Flowable.range(0, 1000).doOnRequest(requests::add);
+
+		List<Integer> list = Flowables.from(flowable, 16, 4).toList();
+		Assertions.assertEquals(1000, list.size());
+		Assertions.assertEquals(16L, requests.get(0));
+		for ( long n: requests ) {
+			Assertions.assertTrue(n >= 12 && n <= 16, "request=" + n);
+		}
+	}
+
+	@Test
+	public void testSlowConsumerThrottlesProducer() throws Exception {
+		AtomicInteger emitted = new AtomicInteger();
+		Flowable<Integer> flowable = Flowable.range(0, 100_000)
+											.doOnNext(v -> emitted.incrementAndGet())
+											.subscribeOn(Schedulers.io());
+
+		try ( FStream<Integer> strm = Flowables.from(flowable, 16, 4) ) {
+			for ( int i =0; i < 5; ++i ) {
+				Assertions.assertEquals(i, strm.next().get());
+			}
+			Thread.sleep(100);
+			Assertions.assertTrue(emitted.get() <= 16, "emitted=" + emitted.get());
+		}
+	}
+
+	@Test
+	public void testCloseCancelsSubscription() throws Exception {
+		AtomicBoolean cancelled = new AtomicBoolean(false);
+		AtomicInteger subscriptions = new AtomicInteger();
+		Flowable<Long> flowable = Flowable.interval(1, TimeUnit.MILLISECONDS)
+										.doOnSubscribe(s -> subscriptions.incrementAndGet())
+										.doOnCancel(() -> cancelled.set(true));
+
+		FStream<Long> strm = Flowables.from(flowable, 8, 2);
+		Assertions.assertEquals(0L, strm.next().get());
+		Assertions.assertEquals(1L, strm.next().get());
+		strm.close();
+
+		Assertions.assertTrue(cancelled.get());
+		Assertions.assertEquals(1, subscriptions.get());
+		Assertions.assertTrue(strm.next().isAbsent());
+	}
+
+	@Test
+	public void testError() throws Exception {
+		Flowable<Integer> flowable = Flowable.concat(Flowable.range(0, 3),
+													Flowable.error(new IllegalStateException("test")));
+		FStream<Integer> strm = Flowables.from(flowable, 4, 1);
+		Assertions.assertEquals(0, strm.next().get());
+		Assertions.assertEquals(1, strm.next().get());
+		Assertions.assertEquals(2, strm.next().get());
+		Assertions.assertThrows(IllegalStateException.class, strm::next);
+	}
+
+	@Test
+	public void testFlowPublisher() throws Exception {
+		Flow.Publisher<Integer> publisher = Flowables.toFlowPublisher(FStream.range(0, 500));
+		List<Integer> list = Flowables.from(publisher, 32, 8).toList();
+		Assertions.assertEquals(FStream.range(0, 500).toList(), list);
+	}
+
+	@Test
+	public void testInvalidWatermarks() throws Exception {
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> Flowables.from(Flowable.range(0, 10), 0, 0));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> Flowables.from(Flowable.range(0, 10), 8, 8));
+	}
+}
@@ -0,0 +1,141 @@
+package utils.stream;
+
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.Tuple;
+import utils.func.Try;
+import utils.thread.LatencyHistogram;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class ConcurrencyLimiterTest {
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void testIncreaseOnStableLatency() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(2, 8);
+		Assertions.assertEquals(2, limiter.getLimit());
+
+		for ( int i =0; i < 200; ++i ) {
+			limiter.onSample(10 * MILLIS, false);
+		}
+		Assertions.assertEquals(8, limiter.getLimit());
+	}
+
+	@Test
+	public void testDecreaseOnLatencySpike() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(2, 16).initialLimit(16);
+
+		limiter.onSample(10 * MILLIS, false);
+		for ( int i =0; i < 500; ++i ) {
+			limiter.onSample(100 * MILLIS, false);
+		}
+		Assertions.assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	public void testDecreaseOnErrors() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 10).initialLimit(10);
+
+		for ( int i =0; i < 10; ++i ) {
+			limiter.onSample(10 * MILLIS, false);
+		}
+		for ( int i =0; i < 20; ++i ) {
+			limiter.onSample(10 * MILLIS, true);
+		}
+		Assertions.assertTrue(limiter.getErrorRate() > 0.1);
+		Assertions.assertTrue(limiter.getLimit() < 10);
+		Assertions.assertTrue(limiter.getLimit() >= 1);
+	}
+
+	@Test
+	public void testAcquireRelease() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(2, 4);
+
+		Assertions.assertTrue(limiter.tryAcquire());
+		Assertions.assertTrue(limiter.tryAcquire());
+		Assertions.assertFalse(limiter.tryAcquire());
+		Assertions.assertEquals(2, limiter.getInFlightCount());
+
+		limiter.release();
+		Assertions.assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	public void testLatencyHistogram() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 4);
+		for ( int i =0; i < 99; ++i ) {
+			limiter.onSample(3 * MILLIS, false);
+		}
+		limiter.onSample(100 * MILLIS, false);
+
+		LatencyHistogram histo = limiter.getLatencyHistogram();
+		Assertions.assertEquals(100, histo.getCount());
+		Assertions.assertEquals(4, histo.getPercentileMillis(50));
+		Assertions.assertEquals(4, histo.getPercentileMillis(99));
+		Assertions.assertEquals(128, histo.getPercentileMillis(100));
+		Assertions.assertEquals(100, histo.getMaxMillis(), 0.001);
+	}
+
+	@Test
+	public void testInvalidConfig() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.aimd(0, 4));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.aimd(4, 2));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> ConcurrencyLimiter.aimd(1, 4).initialLimit(5));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> ConcurrencyLimiter.aimd(1, 4).backoffRatio(1));
+	}
+
+	@Test
+	public void testUnorderedMapAsync() throws Exception {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 4);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		List<Integer> result = FStream.range(0, 50)
+										.mapCheckedAsync(v -> {
+											maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+											Thread.sleep(2);
+											running.decrementAndGet();
+											return v * 2;
+										}, AsyncExecutionOptions.ADAPTIVE(limiter))
+										.map(t -> t._2.get())
+										.sort()
+										.toList();
+		Assertions.assertEquals(FStream.range(0, 50).map(v -> v * 2).toList(), result);
+		Assertions.assertTrue(maxRunning.get() <= limiter.getMaxLimit());
+		Assertions.assertEquals(0, limiter.getInFlightCount());
+		Assertions.assertEquals(50, limiter.getLatencyHistogram().getCount());
+	}
+
+	@Test
+	public void testOrderedMapAsync() throws Exception {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(1, 4);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		AsyncExecutionOptions opts = AsyncExecutionOptions.ADAPTIVE(limiter).setKeepOrder(true);
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.range(0, 50)
+						.mapCheckedAsync(v -> {
+							maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+							Thread.sleep(2);
+							running.decrementAndGet();
+							return v * 2;
+						}, opts)
+						.toList();
+		Assertions.assertEquals(FStream.range(0, 50).map(v -> v * 2).toList(),
+								FStream.from(result).map(t -> t._2.get()).toList());
+		Assertions.assertTrue(maxRunning.get() <= limiter.getMaxLimit());
+		Assertions.assertEquals(0, limiter.getInFlightCount());
+	}
+}
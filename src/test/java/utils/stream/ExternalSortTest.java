@@ -0,0 +1,105 @@
+package utils.stream;
+
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class ExternalSortTest {
+	@TempDir
+	public Path tmp;
+
+	private static List<Integer> randoms(int count) {
+		Random random = new Random(1234);
+		return FStream.generate(0, v -> v).map(v -> random.nextInt(1000)).take(count).toList();
+	}
+
+	private int countRunFiles() {
+		File[] files = tmp.toFile().listFiles();
+		return (files != null) ? files.length : 0;
+	}
+
+	@Test
+	public void testInMemory() throws Exception {
+		List<Integer> list = randoms(100);
+		SortOptions opts = SortOptions.maxInMemory(1000).tempDir(tmp.toFile());
+
+		List<Integer> sorted = FStream.from(list).sort(Comparator.naturalOrder(), opts).toList();
+		Assertions.assertEquals(list.stream().sorted().collect(Collectors.toList()), sorted);
+		Assertions.assertEquals(0, countRunFiles());
+	}
+
+	@Test
+	public void testSpill() throws Exception {
+		List<Integer> list = randoms(5000);
+		SortOptions opts = SortOptions.maxInMemory(500).tempDir(tmp.toFile());
+
+		try ( FStream<Integer> strm = FStream.from(list).sort((i,j) -> j-i, opts) ) {
+			Assertions.assertEquals(FStream.from(list).max().get(), strm.next().get());
+			Assertions.assertEquals(9, countRunFiles());
+		}
+		Assertions.assertEquals(0, countRunFiles());
+
+		List<Integer> sorted = FStream.from(list).sort((i,j) -> j-i, opts).toList();
+		Assertions.assertEquals(list.stream().sorted((i,j) -> j-i).collect(Collectors.toList()), sorted);
+		Assertions.assertEquals(0, countRunFiles());
+	}
+
+	@Test
+	public void testMultiPassMerge() throws Exception {
+		List<Integer> list = randoms(3000);
+		SortOptions opts = SortOptions.maxInMemory(10).tempDir(tmp.toFile());
+
+		try ( FStream<Integer> strm = FStream.from(list).sort(Comparator.naturalOrder(), opts) ) {
+			List<Integer> sorted = strm.toList();
+			Assertions.assertEquals(list.stream().sorted().collect(Collectors.toList()), sorted);
+		}
+		Assertions.assertEquals(0, countRunFiles());
+	}
+
+	@Test
+	public void testStable() throws Exception {
+		List<Integer> list = randoms(2000);
+		List<SimpleImmutableEntry<Integer,Integer>> indexed = FStream.from(list).zipWithIndex()
+														.map(t -> new SimpleImmutableEntry<>(t.value() % 10, t.index()))
+														.toList();
+		SortOptions opts = SortOptions.maxInMemory(100).tempDir(tmp.toFile());
+
+		List<SimpleImmutableEntry<Integer,Integer>> sorted = FStream.from(indexed)
+														.sort(Comparator.comparing(SimpleImmutableEntry::getKey), opts)
+														.toList();
+		List<SimpleImmutableEntry<Integer,Integer>> expected = FStream.from(indexed)
+														.sort(Comparator.comparing(SimpleImmutableEntry::getKey))
+														.toList();
+		Assertions.assertEquals(expected, sorted);
+	}
+
+	@Test
+	public void testJacksonCodec() throws Exception {
+		List<Integer> list = randoms(1000);
+		SortOptions opts = SortOptions.maxInMemory(100)
+										.tempDir(tmp.toFile())
+										.codec(SpillCodec.jackson(Integer.class));
+
+		List<Integer> sorted = FStream.from(list).sort(Comparator.naturalOrder(), opts).toList();
+		Assertions.assertEquals(list.stream().sorted().collect(Collectors.toList()), sorted);
+	}
+
+	@Test
+	public void testInvalidOptions() throws Exception {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> SortOptions.maxInMemory(0));
+	}
+}
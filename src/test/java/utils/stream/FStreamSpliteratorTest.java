@@ -0,0 +1,103 @@
+package utils.stream;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class FStreamSpliteratorTest {
+	private static final int N = 10_000;
+
+	private static List<Integer> numbers() {
+		List<Integer> list = Lists.newArrayList();
+		for ( int i =0; i < N; ++i ) {
+			list.add(i);
+		}
+		return list;
+	}
+
+	private static void assertSizedSplit(Spliterator<?> spliter, long size) {
+		Assertions.assertTrue(spliter.hasCharacteristics(Spliterator.SIZED));
+		Assertions.assertTrue(spliter.hasCharacteristics(Spliterator.SUBSIZED));
+		Assertions.assertTrue(spliter.hasCharacteristics(Spliterator.ORDERED));
+		Assertions.assertEquals(size, spliter.estimateSize());
+
+		Spliterator<?> prefix = spliter.trySplit();
+		Assertions.assertNotNull(prefix);
+		Assertions.assertEquals(size, prefix.estimateSize() + spliter.estimateSize());
+		Assertions.assertTrue(Math.abs(prefix.estimateSize() - spliter.estimateSize()) <= 1);
+	}
+
+	@Test
+	public void testListSpliterator() throws Exception {
+		assertSizedSplit(FStream.from(numbers()).spliterator(), N);
+	}
+
+	@Test
+	public void testArraySpliterator() throws Exception {
+		assertSizedSplit(FStream.of(1, 2, 3, 4, 5).spliterator(), 5);
+		assertSizedSplit(IntFStream.of(new int[]{1, 2, 3, 4}).spliterator(), 4);
+		assertSizedSplit(LongFStream.of(new long[]{1L, 2L, 3L}).spliterator(), 3);
+		assertSizedSplit(DoubleFStream.of(new double[]{0.5, 1.5}).spliterator(), 2);
+	}
+
+	@Test
+	public void testRangeSpliterator() throws Exception {
+		assertSizedSplit(FStream.range(0, N).spliterator(), N);
+		assertSizedSplit(LongFStream.range(0, N).spliterator(), N);
+	}
+
+	@Test
+	public void testRemainingOnly() throws Exception {
+		IntFStream strm = FStream.range(0, 10);
+		strm.nextInt();
+		strm.nextInt();
+
+		Spliterator<Integer> spliter = strm.spliterator();
+		Assertions.assertEquals(8, spliter.estimateSize());
+		Assertions.assertFalse(strm.hasNextInt());
+	}
+
+	@Test
+	public void testParallelStream() throws Exception {
+		long sum = FStream.from(numbers()).stream().parallel().mapToLong(v -> v).sum();
+		Assertions.assertEquals((long)N * (N - 1) / 2, sum);
+
+		long sum2 = FStream.range(0, N).stream().parallel().mapToLong(v -> v).sum();
+		Assertions.assertEquals((long)N * (N - 1) / 2, sum2);
+	}
+
+	@Test
+	public void testFromStream() throws Exception {
+		List<Integer> list = numbers();
+		FStream<Integer> strm = FStream.from(list.stream());
+		Spliterator<Integer> spliter = strm.spliterator();
+		Assertions.assertTrue(spliter.hasCharacteristics(Spliterator.SIZED));
+		Assertions.assertEquals(N, spliter.estimateSize());
+
+		List<Integer> round = FStream.from(Stream.of(1, 2, 3)).stream().collect(Collectors.toList());
+		Assertions.assertEquals(List.of(1, 2, 3), round);
+	}
+
+	@Test
+	public void testUnsizedFallback() throws Exception {
+		boolean[] closed = { false };
+		FStream<Integer> strm = FStream.generate(0, v -> v + 1).take(N).onClose(() -> closed[0] = true);
+
+		Spliterator<Integer> spliter = strm.spliterator();
+		Assertions.assertFalse(spliter.hasCharacteristics(Spliterator.SIZED));
+
+		long sum = strm.stream().parallel().mapToLong(v -> v).sum();
+		Assertions.assertEquals((long)N * (N - 1) / 2, sum);
+		Assertions.assertTrue(closed[0]);
+	}
+}
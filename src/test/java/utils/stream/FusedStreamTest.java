@@ -0,0 +1,71 @@
+package utils.stream;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+import utils.stream.FStreams.FusedStream;
+
+
+/**
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class FusedStreamTest {
+	@Test
+	public void testFusion() throws Exception {
+		List<Integer> peeked = Lists.newArrayList();
+		FStream<String> strm = FStream.of(1, 2, 3, 4, 5, 6)
+										.filter(v -> v % 2 == 0)
+										.map(v -> v * 10)
+										.filter(v -> v > 20)
+										.peek(peeked::add)
+										.map(v -> "" + v);
+		Assertions.assertTrue(strm instanceof FusedStream);
+		Assertions.assertEquals(5, ((FusedStream<?,?>)strm).getStageCount());
+		Assertions.assertEquals("fused[filter, map, filter, peek, map]", strm.toString());
+		Assertions.assertTrue(strm.explain().endsWith(" -> fused[filter, map, filter, peek, map]"));
+
+		Assertions.assertEquals(List.of("40", "60"), strm.toList());
+		Assertions.assertEquals(List.of(40, 60), peeked);
+	}
+
+	@Test
+	public void testFusionBarrier() throws Exception {
+		FStream<Integer> strm = FStream.of(1, 2, 3, 4, 5)
+										.map(v -> v + 1)
+										.take(3)
+										.map(v -> v * 2);
+		Assertions.assertEquals(1, ((FusedStream<?,?>)strm).getStageCount());
+		Assertions.assertEquals(List.of(4, 6, 8), strm.toList());
+	}
+
+	@Test
+	public void testPerElementPull() throws Exception {
+		FStream<Integer> strm = FStream.of(1, 2, 3, 4).filter(v -> v != 2).map(v -> -v);
+		Assertions.assertEquals(-1, strm.next().get());
+		Assertions.assertEquals(-3, strm.next().get());
+		Assertions.assertEquals(-4, strm.next().get());
+		Assertions.assertTrue(strm.next().isAbsent());
+		strm.close();
+	}
+
+	@Test
+	public void testNullElement() throws Exception {
+		List<String> list = FStream.of("a", "b").map(v -> v.equals("a") ? (String)null : v)
+										.filter(v -> true)
+										.toList();
+		Assertions.assertEquals(Lists.newArrayList(null, "b"), list);
+	}
+
+	@Test
+	public void testClosePropagation() throws Exception {
+		boolean[] closed = { false };
+		FStream<Integer> strm = FStream.of(1, 2).onClose(() -> closed[0] = true)
+										.map(v -> v).filter(v -> true);
+		strm.close();
+		Assertions.assertTrue(closed[0]);
+	}
+}
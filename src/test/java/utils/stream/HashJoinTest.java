@@ -0,0 +1,135 @@
+package utils.stream;
+
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+import utils.KeyValue;
+import utils.Tuple;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class HashJoinTest {
+	@TempDir
+	public Path tmp;
+
+	private static KeyValueFStream<Integer,String> left(int count) {
+		return KeyValueFStream.from(FStream.range(0, count).map(i -> KeyValue.of(i % 300, "L" + i)));
+	}
+
+	private static KeyValueFStream<Integer,Integer> right(int count) {
+		return KeyValueFStream.from(FStream.range(0, count).map(i -> KeyValue.of(i % 500, i)));
+	}
+
+	private int countSpillFiles() {
+		File[] files = tmp.toFile().listFiles();
+		return (files != null) ? files.length : 0;
+	}
+
+	private static <T> Multiset<T> toMultiset(FStream<T> strm) {
+		return strm.collect(HashMultiset.create(), Multiset::add);
+	}
+
+	@Test
+	public void testInnerJoinInMemory() throws Exception {
+		List<KeyValue<Integer,Tuple<String,Integer>>> joined = KeyValueFStream.from(FStream.of(KeyValue.of(1, "a"),
+																			KeyValue.of(2, "b"),
+																			KeyValue.of(1, "c")))
+									.innerJoin(KeyValueFStream.from(FStream.of(KeyValue.of(1, 10),
+																				KeyValue.of(3, 30))))
+									.toList();
+		Assertions.assertEquals(List.of(KeyValue.of(1, Tuple.of("a", 10)), KeyValue.of(1, Tuple.of("c", 10))),
+								joined);
+	}
+
+	@Test
+	public void testInnerJoinSpill() throws Exception {
+		Multiset<KeyValue<Integer,Tuple<String,Integer>>> expected = toMultiset(left(3000).innerJoin(right(1000)));
+
+		JoinOptions opts = JoinOptions.maxInMemory(200).partitionCount(4).tempDir(tmp.toFile());
+		try ( KeyValueFStream<Integer,Tuple<String,Integer>> strm = left(3000).innerJoin(right(1000), opts) ) {
+			Assertions.assertTrue(strm.next().isPresent());
+			Assertions.assertTrue(countSpillFiles() > 0);
+
+			Multiset<KeyValue<Integer,Tuple<String,Integer>>> joined = toMultiset(left(3000).innerJoin(right(1000), opts));
+			Assertions.assertEquals(expected, joined);
+		}
+		Assertions.assertEquals(0, countSpillFiles());
+	}
+
+	@Test
+	public void testInnerJoinRightBuildSide() throws Exception {
+		Multiset<KeyValue<Integer,Tuple<String,Integer>>> expected = toMultiset(left(3000).innerJoin(right(1000)));
+
+		JoinOptions opts = JoinOptions.maxInMemory(200).tempDir(tmp.toFile())
+										.leftSizeHint(3000).rightSizeHint(1000);
+		Assertions.assertEquals(expected, toMultiset(left(3000).innerJoin(right(1000), opts)));
+		Assertions.assertEquals(0, countSpillFiles());
+	}
+
+	@Test
+	public void testInnerJoinSkewedKey() throws Exception {
+		KeyValueFStream<Integer,Integer> skewed = KeyValueFStream.from(FStream.range(0, 500)
+																			.map(i -> KeyValue.of(7, i)));
+		KeyValueFStream<Integer,String> probe = KeyValueFStream.from(FStream.of(KeyValue.of(7, "x"),
+																				KeyValue.of(8, "y")));
+
+		JoinOptions opts = JoinOptions.maxInMemory(50).partitionCount(4).tempDir(tmp.toFile());
+		Assertions.assertEquals(500, skewed.innerJoin(probe, opts).count());
+		Assertions.assertEquals(0, countSpillFiles());
+	}
+
+	@Test
+	public void testOuterJoinSpill() throws Exception {
+		Map<Integer,Tuple<Set<String>,Set<Integer>>> expected
+									= left(2000).outerJoin(right(1000))
+												.mapValue(t -> Tuple.of(Set.copyOf(t._1), Set.copyOf(t._2)))
+												.toMap();
+		Assertions.assertEquals(500, expected.size());
+
+		JoinOptions opts = JoinOptions.maxInMemory(300).partitionCount(4).tempDir(tmp.toFile());
+		Map<Integer,Tuple<Set<String>,Set<Integer>>> joined
+									= left(2000).outerJoin(right(1000), opts)
+												.mapValue(t -> Tuple.of(Set.copyOf(t._1), Set.copyOf(t._2)))
+												.toMap();
+		Assertions.assertEquals(expected, joined);
+		Assertions.assertEquals(0, countSpillFiles());
+	}
+
+	@Test
+	public void testSpillWithJacksonCodecs() throws Exception {
+		Multiset<KeyValue<Integer,Tuple<String,Integer>>> expected = toMultiset(left(3000).innerJoin(right(1000)));
+
+		// 키(Integer)와 양쪽 값(String, Integer)의 타입이 모두 다르므로 각각의 codec으로 기록되어야 한다.
+		JoinOptions opts = JoinOptions.maxInMemory(200).partitionCount(4).tempDir(tmp.toFile())
+										.keyCodec(SpillCodec.jackson(Integer.class))
+										.leftValueCodec(SpillCodec.jackson(String.class))
+										.rightValueCodec(SpillCodec.jackson(Integer.class));
+		Assertions.assertEquals(expected, toMultiset(left(3000).innerJoin(right(1000), opts)));
+		Assertions.assertEquals(expected, toMultiset(left(3000).innerJoin(right(1000),
+																		opts.leftSizeHint(3000).rightSizeHint(1000))));
+
+		Map<Integer,Tuple<Set<String>,Set<Integer>>> outerExpected
+									= left(2000).outerJoin(right(1000))
+												.mapValue(t -> Tuple.of(Set.copyOf(t._1), Set.copyOf(t._2)))
+												.toMap();
+		Map<Integer,Tuple<Set<String>,Set<Integer>>> outerJoined
+									= left(2000).outerJoin(right(1000), opts)
+												.mapValue(t -> Tuple.of(Set.copyOf(t._1), Set.copyOf(t._2)))
+												.toMap();
+		Assertions.assertEquals(outerExpected, outerJoined);
+		Assertions.assertEquals(0, countSpillFiles());
+	}
+}
@@ -0,0 +1,76 @@
+package utils.stream;
+
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class LongGroupByTest {
+	@Test
+	public void testCount() throws Exception {
+		LongLongMap counts = FStream.range(0, 1000).groupByInt(v -> v % 7).count();
+		Assertions.assertEquals(7, counts.size());
+		Assertions.assertEquals(143, counts.get(0, -1));
+		Assertions.assertEquals(142, counts.get(6, -1));
+		Assertions.assertEquals(-1, counts.get(7, -1));
+	}
+
+	@Test
+	public void testSumDouble() throws Exception {
+		LongDoubleMap sums = FStream.range(0, 10_000).groupByLong(v -> v % 100 - 50).sumDouble(v -> v * 0.5);
+
+		Map<Long,Double> expected = FStream.range(0, 10_000).stream()
+									.collect(Collectors.groupingBy(v -> (long)(v % 100 - 50),
+																	Collectors.summingDouble(v -> v * 0.5)));
+		Assertions.assertEquals(expected, sums.toMap());
+		Assertions.assertTrue(sums.containsKey(0L));
+		Assertions.assertTrue(sums.containsKey(-50L));
+	}
+
+	@Test
+	public void testSumLongWithGrowth() throws Exception {
+		int n = 200_000;
+		LongLongMap sums = FStream.range(0, n).groupByLong(v -> (long)v * 31).sumLong(v -> 2L);
+		Assertions.assertEquals(n, sums.size());
+		for ( long i =0; i < n; i += 997 ) {
+			Assertions.assertEquals(2L, sums.get(i * 31, 0));
+		}
+		Assertions.assertEquals(n, sums.keys().length);
+	}
+
+	@Test
+	public void testReduce() throws Exception {
+		LongLongMap maxes = FStream.range(0, 1000).groupByInt(v -> v % 3).reduceLong(v -> v, Math::max);
+		Assertions.assertEquals(999, maxes.get(0, -1));
+		Assertions.assertEquals(997, maxes.get(1, -1));
+
+		LongDoubleMap mins = FStream.range(0, 1000).groupByInt(v -> v % 3)
+									.expectedGroups(3)
+									.reduceDouble(v -> -v, Math::min);
+		Assertions.assertEquals(-999.0, mins.get(0, 0));
+	}
+
+	@Test
+	public void testSameAsReduceByKey() throws Exception {
+		Map<Integer,Integer> expected = FStream.range(0, 5000).map(v -> v * 13 % 1000)
+												.reduceByKey(Function.identity(), Integer::sum);
+		LongLongMap sums = FStream.range(0, 5000).map(v -> v * 13 % 1000)
+									.groupByInt(v -> v).sumLong(v -> v);
+		Assertions.assertEquals(expected.size(), sums.size());
+		expected.forEach((k,v) -> Assertions.assertEquals((long)v, sums.get(k, -1)));
+	}
+
+	@Test
+	public void testCloseSource() throws Exception {
+		boolean[] closed = { false };
+		FStream.of(1, 2, 3).onClose(() -> closed[0] = true).groupByInt(v -> v).count();
+		Assertions.assertTrue(closed[0]);
+	}
+}
@@ -0,0 +1,90 @@
+package utils.stream;
+
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.KeyValue;
+import utils.Tuple;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class MergeJoinTest {
+	private static KeyValueFStream<Integer,String> left() {
+		return KeyValueFStream.from(FStream.of(KeyValue.of(1, "a"), KeyValue.of(2, "b"), KeyValue.of(2, "c"),
+												KeyValue.of(4, "d")));
+	}
+
+	private static KeyValueFStream<Integer,Integer> right() {
+		return KeyValueFStream.from(FStream.of(KeyValue.of(0, 0), KeyValue.of(2, 20), KeyValue.of(2, 21),
+												KeyValue.of(3, 30), KeyValue.of(4, 40)));
+	}
+
+	private static <V,R> KeyValue<Integer,Tuple<V,R>> kv(int key, V left, R right) {
+		return KeyValue.of(key, Tuple.of(left, right));
+	}
+
+	@Test
+	public void testInnerJoin() throws Exception {
+		List<KeyValue<Integer,Tuple<String,Integer>>> joined = left().mergeJoin(right()).toList();
+		Assertions.assertEquals(List.of(kv(2, "b", 20), kv(2, "b", 21), kv(2, "c", 20), kv(2, "c", 21),
+										kv(4, "d", 40)), joined);
+	}
+
+	@Test
+	public void testLeftOuterJoin() throws Exception {
+		List<KeyValue<Integer,Tuple<String,Integer>>> joined = left().mergeLeftOuterJoin(right()).toList();
+		Assertions.assertEquals(List.of(kv(1, "a", null), kv(2, "b", 20), kv(2, "b", 21), kv(2, "c", 20),
+										kv(2, "c", 21), kv(4, "d", 40)), joined);
+	}
+
+	@Test
+	public void testRightOuterJoin() throws Exception {
+		List<KeyValue<Integer,Tuple<String,Integer>>> joined = left().mergeRightOuterJoin(right()).toList();
+		Assertions.assertEquals(List.of(kv(0, null, 0), kv(2, "b", 20), kv(2, "b", 21), kv(2, "c", 20),
+										kv(2, "c", 21), kv(3, null, 30), kv(4, "d", 40)), joined);
+	}
+
+	@Test
+	public void testFullOuterJoin() throws Exception {
+		List<KeyValue<Integer,Tuple<String,Integer>>> joined = left().mergeFullOuterJoin(right()).toList();
+		Assertions.assertEquals(List.of(kv(0, null, 0), kv(1, "a", null), kv(2, "b", 20), kv(2, "b", 21),
+										kv(2, "c", 20), kv(2, "c", 21), kv(3, null, 30), kv(4, "d", 40)),
+								joined);
+	}
+
+	@Test
+	public void testComparator() throws Exception {
+		KeyValueFStream<Integer,String> left = KeyValueFStream.from(FStream.of(KeyValue.of(3, "x"),
+																				KeyValue.of(1, "y")));
+		KeyValueFStream<Integer,Integer> right = KeyValueFStream.from(FStream.of(KeyValue.of(3, 30),
+																				KeyValue.of(2, 20)));
+		List<KeyValue<Integer,Tuple<String,Integer>>> joined
+							= left.mergeFullOuterJoin(right, Comparator.reverseOrder()).toList();
+		Assertions.assertEquals(List.of(kv(3, "x", 30), kv(2, null, 20), kv(1, "y", null)), joined);
+	}
+
+	@Test
+	public void testLargeStream() throws Exception {
+		KeyValueFStream<Long,Long> left = KeyValueFStream.from(FStream.generate(0L, v -> v + 1)
+																		.take(200_000)
+																		.map(v -> KeyValue.of(v, v)));
+		KeyValueFStream<Long,Long> right = KeyValueFStream.from(FStream.generate(0L, v -> v + 2)
+																		.take(100_000)
+																		.map(v -> KeyValue.of(v, -v)));
+		Assertions.assertEquals(100_000, left.mergeJoin(right).count());
+	}
+
+	@Test
+	public void testOrderViolation() throws Exception {
+		KeyValueFStream<Integer,String> unsorted = KeyValueFStream.from(FStream.of(KeyValue.of(1, "a"),
+																					KeyValue.of(5, "b"),
+																					KeyValue.of(3, "c")));
+		Assertions.assertThrows(IllegalStateException.class, () -> unsorted.mergeJoin(right()).toList());
+	}
+}
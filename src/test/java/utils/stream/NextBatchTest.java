@@ -0,0 +1,228 @@
+package utils.stream;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.KeyValue;
+import utils.func.FOption;
+import utils.func.Unchecked;
+
+
+/**
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class NextBatchTest {
+	@Test
+	public void testSourceBatch() throws Exception {
+		FStream<Integer> src = FStream.from(List.of(0, 1, 2, 3, 4));
+
+		Object[] buf = new Object[3];
+		Assertions.assertEquals(3, src.nextBatch(buf));
+		Assertions.assertArrayEquals(new Object[] { 0, 1, 2 }, buf);
+		Assertions.assertEquals(2, src.nextBatch(buf));
+		Assertions.assertEquals(3, buf[0]);
+		Assertions.assertEquals(4, buf[1]);
+		Assertions.assertEquals(0, src.nextBatch(buf));
+		Assertions.assertEquals(0, src.nextBatch(buf));
+		src.close();
+	}
+
+	@Test
+	public void testDefaultBridge() throws Exception {
+		FStream<String> strm = new FStream<String>() {
+			private int m_idx = 0;
+
+			@Override
+			public void close() throws Exception { }
+
+			@Override
+			public FOption<String> next() {
+				return (m_idx < 3) ? FOption.of("" + m_idx++) : FOption.empty();
+			}
+		};
+
+		Object[] buf = new Object[10];
+		Assertions.assertEquals(1, strm.nextBatch(buf));
+		Assertions.assertEquals("0", buf[0]);
+		Assertions.assertEquals(List.of("1", "2"), strm.map(s -> s).toList());
+	}
+
+	@Test
+	public void testMapFilterBatch() throws Exception {
+		FStream<Integer> strm = FStream.from(List.of(1, 2, 3, 4, 5, 6))
+										.map(v -> v * 10)
+										.filter(v -> v % 20 == 0);
+		Object[] buf = new Object[4];
+		Assertions.assertEquals(2, strm.nextBatch(buf));
+		Assertions.assertEquals(20, buf[0]);
+		Assertions.assertEquals(40, buf[1]);
+		Assertions.assertEquals(1, strm.nextBatch(buf));
+		Assertions.assertEquals(60, buf[0]);
+		Assertions.assertEquals(0, strm.nextBatch(buf));
+		strm.close();
+	}
+
+	@Test
+	public void testTakeDoesNotOverRead() throws Exception {
+		AtomicInteger pulled = new AtomicInteger();
+		List<Integer> list = FStream.from(List.of(1, 2, 3, 4, 5, 6, 7, 8))
+									.peek(v -> pulled.incrementAndGet())
+									.take(3)
+									.toList();
+		Assertions.assertEquals(List.of(1, 2, 3), list);
+		Assertions.assertEquals(3, pulled.get());
+	}
+
+	@Test
+	public void testTakeTailBatch() throws Exception {
+		FStream<Integer> strm = FStream.from(List.of(0, 1, 2, 3, 4, 5, 6, 7)).take(5);
+
+		Object[] buf = new Object[4];
+		Assertions.assertEquals(4, strm.nextBatch(buf));
+		Assertions.assertEquals(1, strm.nextBatch(buf));
+		Assertions.assertEquals(4, buf[0]);
+		Assertions.assertEquals(0, strm.nextBatch(buf));
+		strm.close();
+	}
+
+	@Test
+	public void testBlockingIteratorDeliversEagerly() throws Exception {
+		// 다음 원소가 준비될 때까지 대기하는 iterator는 일괄 전달을 위해 원소를 모으지 않아야 한다.
+		BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+		Iterator<Integer> iter = new Iterator<>() {
+			private Integer m_next = null;
+
+			@Override
+			public boolean hasNext() {
+				if ( m_next == null ) {
+					m_next = Unchecked.getOrThrowSneakily(queue::take);
+				}
+				return m_next >= 0;
+			}
+
+			@Override
+			public Integer next() {
+				hasNext();
+				Integer next = m_next;
+				m_next = null;
+				return next;
+			}
+		};
+
+		CountDownLatch first = new CountDownLatch(1);
+		CompletableFuture<Long> done = CompletableFuture.supplyAsync(() ->
+			FStream.from(iter).peek(v -> first.countDown()).count());
+		queue.add(0);
+		Assertions.assertTrue(first.await(5, TimeUnit.SECONDS));
+		queue.add(1);
+		queue.add(-1);
+		Assertions.assertEquals(2L, done.get(5, TimeUnit.SECONDS));
+
+		BlockingQueue<Integer> queue2 = new LinkedBlockingQueue<>();
+		CountDownLatch first2 = new CountDownLatch(1);
+		CompletableFuture<Void> done2 = CompletableFuture.runAsync(() ->
+			FStream.from(Stream.generate(() -> Unchecked.getOrThrowSneakily(queue2::take))
+								.takeWhile(v -> v >= 0))
+					.forEach(v -> first2.countDown()));
+		queue2.add(0);
+		Assertions.assertTrue(first2.await(5, TimeUnit.SECONDS));
+		queue2.add(-1);
+		done2.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testDropBatch() throws Exception {
+		List<Integer> list = FStream.range(0, 3000).boxed().filter(v -> true).drop(2500).toList();
+		Assertions.assertEquals(500, list.size());
+		Assertions.assertEquals(2500, list.get(0));
+
+		Assertions.assertEquals(0, FStream.of(1, 2).drop(5).count());
+	}
+
+	@Test
+	public void testConcatAndFlatMapBatch() throws Exception {
+		List<Integer> list = FStream.of(1, 2, 3)
+									.flatMap(v -> FStream.of(v, v))
+									.toList();
+		Assertions.assertEquals(List.of(1, 1, 2, 2, 3, 3), list);
+
+		FStream<Integer> strm = FStream.concat(FStream.empty(), FStream.of(7), FStream.of(8, 9));
+		Object[] buf = new Object[8];
+		Assertions.assertEquals(1, strm.nextBatch(buf));
+		Assertions.assertEquals(7, buf[0]);
+		Assertions.assertEquals(2, strm.nextBatch(buf));
+		Assertions.assertEquals(0, strm.nextBatch(buf));
+		strm.close();
+	}
+
+	@Test
+	public void testBufferBatch() throws Exception {
+		List<List<Integer>> list = FStream.of(1, 2, 3, 4, 5).buffer(2, 3).toList();
+		Assertions.assertEquals(List.of(List.of(1, 2), List.of(4, 5)), list);
+	}
+
+	@Test
+	public void testLargePipeline() throws Exception {
+		long count = FStream.range(0, 100_000).boxed()
+							.map(v -> v + 1)
+							.filter(v -> v % 2 == 0)
+							.count();
+		Assertions.assertEquals(50_000, count);
+	}
+
+	@Test
+	public void testPartialBatchBeforeFailure() throws Exception {
+		List<Integer> printed = new ArrayList<>();
+		Assertions.assertThrows(ArithmeticException.class,
+								() -> FStream.of(1, 2, 0).map(x -> 10 / x).forEach(printed::add));
+		Assertions.assertEquals(List.of(10, 5), printed);
+
+		// 실패 이후의 원소들은 원소 단위로 읽는 경우와 같이 계속 읽을 수 있다.
+		FStream<Integer> strm = FStream.of(1, 0, 2, 5).map(x -> 10 / x);
+		Object[] buf = new Object[8];
+		Assertions.assertEquals(1, strm.nextBatch(buf));
+		Assertions.assertEquals(10, buf[0]);
+		Assertions.assertThrows(ArithmeticException.class, () -> strm.nextBatch(buf));
+		Assertions.assertEquals(2, strm.nextBatch(buf));
+		Assertions.assertEquals(5, buf[0]);
+		Assertions.assertEquals(2, buf[1]);
+		Assertions.assertEquals(0, strm.nextBatch(buf));
+		strm.close();
+
+		List<Integer> mapped = new ArrayList<>();
+		Assertions.assertThrows(ArithmeticException.class,
+								() -> FStream.of(1, 2, 0).mapOrThrow(x -> 10 / x).forEach(mapped::add));
+		Assertions.assertEquals(List.of(10, 5), mapped);
+		Assertions.assertThrows(ArithmeticException.class,
+								() -> FStream.of(1, 2, 0, 4).filter(x -> x != 2).map(x -> 10 / x).count());
+	}
+
+	@Test
+	public void testPeekInterleavesWithConsumer() throws Exception {
+		List<String> events = new ArrayList<>();
+		FStream.of(1, 2, 3)
+				.peek(v -> events.add("peek" + v))
+				.map(v -> v * 10)
+				.forEach(v -> events.add("consume" + v));
+		Assertions.assertEquals(List.of("peek1", "consume10", "peek2", "consume20", "peek3", "consume30"),
+								events);
+
+		events.clear();
+		KeyValueFStream<String,Integer> kvStrm = KeyValueFStream.from(FStream.of(KeyValue.of("a", 1),
+																					KeyValue.of("b", 2)))
+																.peek(kv -> events.add("peek" + kv.key()));
+		kvStrm.forEach(kv -> events.add("consume" + kv.key()));
+		Assertions.assertEquals(List.of("peeka", "consumea", "peekb", "consumeb"), events);
+	}
+}
@@ -0,0 +1,101 @@
+package utils.stream;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class ParallelFStreamTest {
+	private static final int N = 100_000;
+
+	private static FStream<Integer> numbers() {
+		List<Integer> list = Lists.newArrayList();
+		for ( int i =0; i < N; ++i ) {
+			list.add(i);
+		}
+		return FStream.from(list);
+	}
+
+	@Test
+	public void testCount() throws Exception {
+		Assertions.assertEquals(N / 2, numbers().parallel(4).filter(v -> v % 2 == 0).count());
+	}
+
+	@Test
+	public void testFold() throws Exception {
+		long sum = numbers().parallel(4)
+							.map(v -> (long)v)
+							.fold(0L, (s,v) -> s + v, Long::sum);
+		Assertions.assertEquals((long)N * (N - 1) / 2, sum);
+	}
+
+	@Test
+	public void testReduce() throws Exception {
+		Assertions.assertEquals(N - 1, numbers().parallel(3).reduce(Math::max).get());
+		Assertions.assertTrue(FStream.<Integer>empty().parallel(3).reduce(Math::max).isAbsent());
+	}
+
+	@Test
+	public void testToListKeepsOrder() throws Exception {
+		List<Integer> list = numbers().parallel(8).map(v -> v * 2).toList();
+		Assertions.assertEquals(N, list.size());
+		for ( int i =0; i < N; ++i ) {
+			Assertions.assertEquals(i * 2, list.get(i));
+		}
+	}
+
+	@Test
+	public void testFusedStagesRunInParallel() throws Exception {
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		long count = numbers().map(v -> { threads.add(Thread.currentThread().getName()); return v; })
+								.parallel(4)
+								.count();
+		Assertions.assertEquals(N, count);
+		Assertions.assertTrue(threads.size() > 1);
+	}
+
+	@Test
+	public void testReduceByKey() throws Exception {
+		Map<Integer,Integer> sums = numbers().parallel(4).reduceByKey(v -> v % 3, Integer::sum);
+		Assertions.assertEquals(3, sums.size());
+		Assertions.assertEquals(numbers().filter(v -> v % 3 == 1).reduce(Integer::sum).get(), sums.get(1));
+	}
+
+	@Test
+	public void testUnsizedSource() throws Exception {
+		FStream<Integer> strm = FStream.generate(0, v -> v + 1).take(N);
+		AtomicLong total = new AtomicLong();
+		strm.parallel(4).forEach(v -> total.addAndGet(v));
+		Assertions.assertEquals((long)N * (N - 1) / 2, total.get());
+	}
+
+	@Test
+	public void testCloseSource() throws Exception {
+		boolean[] closed = { false };
+		FStream.of(1, 2, 3).onClose(() -> closed[0] = true).parallel(2).count();
+		Assertions.assertTrue(closed[0]);
+	}
+
+	@Test
+	public void testException() throws Exception {
+		Assertions.assertThrows(IllegalStateException.class, () -> {
+			numbers().parallel(2).map(v -> { if ( v == 777 ) throw new IllegalStateException(); return v; })
+					.count();
+		});
+	}
+
+	@Test
+	public void testInvalidParallelism() throws Exception {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> numbers().parallel(0));
+	}
+}
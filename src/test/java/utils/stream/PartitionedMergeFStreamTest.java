@@ -0,0 +1,133 @@
+package utils.stream;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.func.FOption;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class PartitionedMergeFStreamTest {
+	@Test
+	public void testMerge() throws Exception {
+		FStream<FStream<Integer>> fact = FStream.range(0, 20).map(i -> FStream.range(i*100, (i+1)*100).boxed());
+		List<Integer> result = FStream.<Integer>mergePartitioned(fact, 4, 16, null).sort().toList();
+		Assertions.assertEquals(FStream.range(0, 2000).toList(), result);
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		FStream<FStream<Integer>> fact = FStream.empty();
+		Assertions.assertTrue(FStream.mergePartitioned(fact, 4, 16, null).next().isAbsent());
+
+		fact = FStream.range(0, 5).map(i -> FStream.<Integer>empty());
+		Assertions.assertTrue(FStream.mergePartitioned(fact, 2, 16, null).next().isAbsent());
+	}
+
+	@Test
+	public void testWorkStealing() throws Exception {
+		// 하나의 큰 입력 스트림만 있는 경우, 분할되어 여러 쓰레드에서 소비되어야 한다.
+		List<Integer> data = new ArrayList<>();
+		for ( int i =0; i < 4000; ++i ) {
+			data.add(i);
+		}
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		FStream<FStream<Integer>> fact = FStream.of(new PeekingSplittable(SplittableFStream.from(data), threads));
+
+		List<Integer> result = FStream.<Integer>mergePartitioned(fact, 4, 8, null).sort().toList();
+		Assertions.assertEquals(data, result);
+		Assertions.assertTrue(threads.size() > 1, "threads=" + threads.size());
+	}
+
+	@Test
+	public void testError() throws Exception {
+		FStream<FStream<Integer>> fact = FStream.of(FStream.range(0, 10).boxed(),
+													FStream.range(0, 10).boxed().map(v -> {
+														if ( v == 5 ) {
+															throw new IllegalArgumentException("test");
+														}
+														return v;
+													}));
+		FStream<Integer> strm = FStream.mergePartitioned(fact, 2, 4, null);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> strm.toList());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		FStream<FStream<Integer>> fact = FStream.range(0, 100).map(i -> FStream.range(0, 10_000).boxed());
+		FStream<Integer> strm = FStream.mergePartitioned(fact, 4, 16, null);
+		Assertions.assertTrue(strm.next().isPresent());
+		strm.close();
+	}
+
+	@Test
+	public void testPartialBatchOfBlockingInput() throws Exception {
+		// 입력 스트림이 더 이상의 원소를 바로 제공하지 못하는 경우, batch가 차지 않았더라도
+		// 이미 읽은 원소들은 소비자에게 전달되어야 한다.
+		SuppliableFStream<Integer> input = new SuppliableFStream<>(16);
+		FStream<FStream<Integer>> fact = FStream.of(input);
+		FStream<Integer> strm = FStream.mergePartitioned(fact, 2, 100, null);
+		try {
+			input.supply(1);
+			input.supply(2);
+			input.supply(3);
+
+			List<Integer> result = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				List<Integer> read = new ArrayList<>();
+				for ( int i =0; i < 3; ++i ) {
+					read.add(strm.next().get());
+				}
+				return read;
+			});
+			Assertions.assertEquals(List.of(1, 2, 3), result);
+
+			input.supply(4);
+			input.endOfSupply();
+			Assertions.assertEquals(FOption.of(4), strm.next());
+			Assertions.assertTrue(strm.next().isAbsent());
+		}
+		finally {
+			strm.closeQuietly();
+		}
+	}
+
+	private static class PeekingSplittable implements SplittableFStream<Integer> {
+		private final SplittableFStream<Integer> m_src;
+		private final Set<Thread> m_threads;
+
+		PeekingSplittable(SplittableFStream<Integer> src, Set<Thread> threads) {
+			m_src = src;
+			m_threads = threads;
+		}
+
+		@Override
+		public void close() throws Exception {
+			m_src.close();
+		}
+
+		@Override
+		public FOption<Integer> next() {
+			m_threads.add(Thread.currentThread());
+			try {
+				Thread.sleep(0, 200_000);
+			}
+			catch ( InterruptedException e ) { }
+			return m_src.next();
+		}
+
+		@Override
+		public FStream<Integer> trySplit() {
+			FStream<Integer> split = m_src.trySplit();
+			return (split != null) ? new PeekingSplittable((SplittableFStream<Integer>)split, m_threads) : null;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package utils.stream;
+
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.func.FOption;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class PrefetchedFStreamTest {
+	@Test
+	public void testPrefetch() throws Exception {
+		List<Integer> result = FStream.range(0, 10_000).boxed().prefetch(64).toList();
+		Assertions.assertEquals(FStream.range(0, 10_000).toList(), result);
+
+		Assertions.assertTrue(FStream.<Integer>empty().prefetch(4).next().isAbsent());
+	}
+
+	@Test
+	public void testRunsOnOtherThread() throws Exception {
+		AtomicReference<Thread> producer = new AtomicReference<>();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			List<Integer> result = FStream.range(0, 100).boxed()
+											.peek(v -> producer.set(Thread.currentThread()))
+											.prefetch(8, executor)
+											.toList();
+			Assertions.assertEquals(100, result.size());
+			Assertions.assertNotSame(Thread.currentThread(), producer.get());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testDedicatedThreadWithoutExecutor() throws Exception {
+		// Executor가 없으면 공용 ForkJoinPool이 아닌 전용 쓰레드에서 입력 스트림을 읽는다.
+		AtomicReference<Thread> producer = new AtomicReference<>();
+		List<Integer> result = FStream.range(0, 100).boxed()
+										.peek(v -> producer.set(Thread.currentThread()))
+										.prefetch(8)
+										.toList();
+		Assertions.assertEquals(100, result.size());
+		Assertions.assertFalse(producer.get() instanceof ForkJoinWorkerThread);
+		Assertions.assertTrue(producer.get().isDaemon());
+	}
+
+	@Test
+	public void testBounded() throws Exception {
+		AtomicInteger produced = new AtomicInteger();
+		try ( FStream<Integer> strm = FStream.range(0, 100_000).boxed()
+												.peek(v -> produced.incrementAndGet())
+												.prefetch(16) ) {
+			Assertions.assertEquals(0, strm.next().get());
+			Thread.sleep(100);
+			// buffer에 적재된 데이터 외에 producer가 모으고 있는 chunk 하나를 더 읽을 수 있다.
+			Assertions.assertTrue(produced.get() <= 1 + 16 + 4, "produced=" + produced.get());
+		}
+	}
+
+	@Test
+	public void testSlowProducer() throws Exception {
+		// chunk가 다 채워지지 않더라도 소비자가 기다리고 있으면 바로 전달되어야 한다.
+		FStream<Integer> src = FStream.range(0, 3).boxed().peek(v -> sleep(50));
+		try ( FStream<Integer> strm = src.prefetch(1024) ) {
+			long started = System.nanoTime();
+			Assertions.assertEquals(0, strm.next().get());
+			Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 140);
+			Assertions.assertEquals(1, strm.next().get());
+			Assertions.assertEquals(2, strm.next().get());
+			Assertions.assertTrue(strm.next().isAbsent());
+		}
+	}
+
+	@Test
+	public void testError() throws Exception {
+		FStream<Integer> strm = FStream.range(0, 10).boxed()
+										.map(v -> {
+											if ( v == 5 ) {
+												throw new IllegalArgumentException("test");
+											}
+											return v;
+										})
+										.prefetch(64);
+		for ( int i =0; i < 5; ++i ) {
+			Assertions.assertEquals(i, strm.next().get());
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, strm::next);
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		AtomicBoolean closed = new AtomicBoolean(false);
+		FStream<Integer> src = new FStream<>() {
+			private int m_next = 0;
+
+			@Override
+			public void close() throws Exception {
+				closed.set(true);
+			}
+
+			@Override
+			public FOption<Integer> next() {
+				return FOption.of(m_next++);
+			}
+		};
+
+		FStream<Integer> strm = src.prefetch(8);
+		Assertions.assertEquals(0, strm.next().get());
+		strm.close();
+
+		long due = System.currentTimeMillis() + 3000;
+		while ( !closed.get() && System.currentTimeMillis() < due ) {
+			Thread.sleep(10);
+		}
+		Assertions.assertTrue(closed.get());
+	}
+
+	@Test
+	public void testCloseBeforeStart() throws Exception {
+		AtomicBoolean closed = new AtomicBoolean(false);
+		FStream<Integer> src = FStream.range(0, 10).boxed().onClose(() -> closed.set(true));
+		src.prefetch(8).close();
+		Assertions.assertTrue(closed.get());
+	}
+
+	@Test
+	public void testInvalidCapacity() throws Exception {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> FStream.range(0, 10).boxed().prefetch(0));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
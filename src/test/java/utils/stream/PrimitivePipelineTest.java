@@ -0,0 +1,213 @@
+package utils.stream;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.func.FOption;
+
+
+/**
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class PrimitivePipelineTest {
+	@Test
+	public void testIntMapFilterSum() {
+		long sum = FStream.range(0, 10).mapInt(v -> v * 2).filterInt(v -> v % 3 == 0).sum();
+		Assertions.assertEquals(0 + 6 + 12 + 18, sum);
+	}
+
+	@Test
+	public void testIntReduce() {
+		Assertions.assertEquals(9, FStream.range(0, 10).reduceInt(Math::max).get());
+		Assertions.assertTrue(IntFStream.of().reduceInt(Math::max).isAbsent());
+		Assertions.assertEquals(-1, IntFStream.of(3, -1, 7).minValue().get());
+		Assertions.assertEquals(10, IntFStream.of(1, 2, 3, 4).foldInt(0, Integer::sum));
+	}
+
+	@Test
+	public void testIntHistogram() {
+		long[] hist = FStream.range(0, 100).histogram(0, 50, 5);
+		Assertions.assertArrayEquals(new long[] { 10, 10, 10, 10, 10 }, hist);
+	}
+
+	@Test
+	public void testIntToArrayGrowth() {
+		int[] array = FStream.range(0, 100).toArray();
+		Assertions.assertEquals(100, array.length);
+		Assertions.assertEquals(99, array[99]);
+	}
+
+	@Test
+	public void testMixedProtocol() {
+		IntFStream strm = IntFStream.of(1, 2, 3, 4);
+		Assertions.assertEquals(1, strm.next().get());
+		Assertions.assertTrue(strm.hasNextInt());
+		Assertions.assertEquals(2, strm.nextInt());
+		Assertions.assertEquals(List.of(3, 4), strm.toList());
+	}
+
+	@Test
+	public void testMapToIntUnboxing() {
+		IntFStream strm = FStream.of("a", "bb", "ccc").mapToInt(String::length);
+		Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, strm.toArray());
+
+		long sum = FStream.of(1, 2, 3).toIntFStream().mapInt(v -> v * v).sum();
+		Assertions.assertEquals(14, sum);
+	}
+
+	@Test
+	public void testBoxed() {
+		List<Integer> list = IntFStream.of(5, 6).boxed().map(v -> v + 1).toList();
+		Assertions.assertEquals(List.of(6, 7), list);
+	}
+
+	@Test
+	public void testIntToLongAndDouble() {
+		long sum = IntFStream.of(Integer.MAX_VALUE, Integer.MAX_VALUE).asLongFStream().sum();
+		Assertions.assertEquals(2L * Integer.MAX_VALUE, sum);
+
+		double avg = IntFStream.of(1, 2).asDoubleFStream().average().get();
+		Assertions.assertEquals(1.5, avg, 1e-9);
+	}
+
+	@Test
+	public void testLongPipeline() {
+		LongFStream strm = LongFStream.range(0L, 10L).filterLong(v -> v % 2 == 1).mapLong(v -> v * 10);
+		Assertions.assertArrayEquals(new long[] { 10, 30, 50, 70, 90 }, strm.toArray());
+		Assertions.assertEquals(9L, LongFStream.of(new long[] { 3L, 9L, 1L }).maxValue().get());
+	}
+
+	@Test
+	public void testDoublePipeline() {
+		double sum = DoubleFStream.of(new double[] { 0.5, 1.5, 2.5 }).mapDouble(v -> v * 2).filterDouble(v -> v > 1).sum();
+		Assertions.assertEquals(8.0, sum, 1e-9);
+
+		long[] hist = DoubleFStream.of(new double[] { 0.1, 0.2, 0.6, 1.0, Double.NaN }).histogram(0, 1, 2);
+		Assertions.assertArrayEquals(new long[] { 2, 1 }, hist);
+
+		DoubleFStream strm = DoubleFStream.downcast(FStream.of(1d, 2d, 3d)).take(2);
+		Assertions.assertArrayEquals(new double[] { 1d, 2d }, strm.toArray());
+	}
+
+	@Test
+	public void testExternalImplementor() {
+		// next()만 구현한 외부 구현체는 downcast()로 얻은 어댑터를 통해 primitive 프로토콜을 사용한다.
+		FStream<Integer> src = new FStream<Integer>() {
+			private int m_next = 0;
+
+			@Override
+			public FOption<Integer> next() {
+				return (m_next < 5) ? FOption.of(m_next++) : FOption.empty();
+			}
+
+			@Override
+			public void close() { }
+		};
+		IntFStream strm = IntFStream.downcast(src);
+		Assertions.assertTrue(strm.hasNextInt());
+		Assertions.assertTrue(strm.hasNextInt());
+
+		// 두 프로토콜을 섞어 사용해도 미리 읽힌 원소가 유실되지 않아야 한다.
+		Assertions.assertEquals(0, strm.next().get());
+		Assertions.assertEquals(1, strm.nextInt());
+		Assertions.assertTrue(strm.hasNextInt());
+		Assertions.assertEquals(2, strm.next().get());
+		Assertions.assertEquals(3, strm.nextInt());
+		Assertions.assertEquals(4, strm.next().get());
+		Assertions.assertFalse(strm.hasNextInt());
+		Assertions.assertThrows(NoSuchElementException.class, strm::nextInt);
+	}
+
+	@Test
+	public void testMapToInt() {
+		IntFStream strm = FStream.of("a", "bb", "ccc").mapToInt(String::length);
+		Assertions.assertTrue(strm.hasNextInt());
+		Assertions.assertEquals(1, strm.nextInt());
+		Assertions.assertEquals(2, strm.next().get());
+		Assertions.assertEquals(3, strm.nextInt());
+		Assertions.assertFalse(strm.hasNextInt());
+
+		Assertions.assertEquals(6L, FStream.of("a", "bb", "ccc").mapToLong(String::length).sum());
+		Assertions.assertEquals(6d, FStream.of("a", "bb", "ccc").mapToDouble(String::length).sum());
+	}
+
+	@Test
+	public void testLongHistogramPrecision() {
+		// 2^53을 넘는 값은 double로 변환하면 인접한 값과 구분되지 않는다.
+		long base = (1L << 60);
+		long[] bins = LongFStream.of(new long[] { base, base + 1, base + 2, base + 3 }).histogram(base, base + 4, 4);
+		Assertions.assertArrayEquals(new long[] { 1, 1, 1, 1 }, bins);
+
+		bins = LongFStream.of(new long[] { Long.MIN_VALUE, -1, 0, Long.MAX_VALUE - 1 })
+							.histogram(Long.MIN_VALUE, Long.MAX_VALUE, 2);
+		Assertions.assertArrayEquals(new long[] { 2, 2 }, bins);
+	}
+
+	@Test
+	public void testNextAfterClose() throws Exception {
+		IntFStream mapped = FStream.range(0, 10).mapInt(v -> v + 1);
+		mapped.close();
+		Assertions.assertThrows(IllegalStateException.class, mapped::nextInt);
+
+		IntFStream taken = FStream.range(0, 10).take(3);
+		taken.close();
+		Assertions.assertThrows(IllegalStateException.class, taken::nextInt);
+
+		IntFStream unboxed = IntFStream.downcast(FStream.of(1, 2));
+		unboxed.close();
+		Assertions.assertThrows(IllegalStateException.class, unboxed::next);
+	}
+
+	@Test
+	public void testTakeKeepsCountOnFailure() {
+		int[] values = { 1, 2, 3 };
+		boolean[] failed = { false };
+		IntFStream src = new IntFStream() {
+			private int m_idx = 0;
+
+			@Override
+			public boolean hasNextInt() {
+				return m_idx < values.length;
+			}
+
+			@Override
+			public int nextInt() {
+				if ( m_idx == 1 && !failed[0] ) {
+					failed[0] = true;
+					throw new IllegalStateException("transient");
+				}
+				return values[m_idx++];
+			}
+
+			@Override
+			public FOption<Integer> next() {
+				return hasNextInt() ? FOption.of(nextInt()) : FOption.empty();
+			}
+
+			@Override
+			public void close() { }
+		};
+
+		IntFStream taken = src.take(2);
+		Assertions.assertEquals(1, taken.nextInt());
+		Assertions.assertThrows(IllegalStateException.class, taken::nextInt);
+		Assertions.assertTrue(taken.hasNextInt());
+		Assertions.assertEquals(2, taken.nextInt());
+		Assertions.assertFalse(taken.hasNextInt());
+	}
+
+	@Test
+	public void testUnboxNullElement() {
+		IntFStream strm = IntFStream.downcast(FStream.of(1, null, 3));
+		Assertions.assertEquals(1, strm.nextInt());
+		IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, strm::hasNextInt);
+		Assertions.assertTrue(e.getMessage().contains("null"));
+
+		IntFStream boxed = IntFStream.downcast(FStream.of(1, null, 3));
+		Assertions.assertEquals(1, boxed.next().get());
+		Assertions.assertThrows(IllegalStateException.class, boxed::next);
+	}
+}
@@ -0,0 +1,140 @@
+package utils.stream;
+
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.Tuple;
+import utils.func.FOption;
+import utils.func.Unchecked;
+import utils.func.Try;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class ReorderingMapAsyncStreamTest {
+	private static AsyncExecutionOptions options(int workers, int window) {
+		return AsyncExecutionOptions.KEEP_ORDER().setWorkerCount(workers).setReorderWindow(window);
+	}
+
+	@Test
+	public void testKeepOrder() throws Exception {
+		List<Integer> result = FStream.range(0, 100)
+										.mapCheckedAsync(v -> {
+											Thread.sleep((v * 7) % 5);
+											return v * 2;
+										}, options(4, 16))
+										.map(t -> t._2.get())
+										.toList();
+		Assertions.assertEquals(FStream.range(0, 100).map(v -> v * 2).toList(), result);
+	}
+
+	@Test
+	public void testNoHeadOfLineBlocking() throws Exception {
+		// 첫 원소는 나머지 원소들 중 10개 이상이 끝나야 완료된다.
+		// 재정렬 window가 없으면 동시 작업 수(2) 이상의 원소가 시작되지 않아 시간 내에 끝나지 않는다.
+		CountDownLatch latch = new CountDownLatch(10);
+		List<Tuple<Integer,Try<Boolean>>> result
+				= FStream.range(0, 20)
+						.mapCheckedAsync(v -> {
+							if ( v == 0 ) {
+								return latch.await(5, TimeUnit.SECONDS);
+							}
+							latch.countDown();
+							return true;
+						}, options(2, 32))
+						.toList();
+		Assertions.assertEquals(FStream.range(0, 20).toList(), FStream.from(result).map(t -> t._1).toList());
+		Assertions.assertTrue(result.get(0)._2.get());
+	}
+
+	@Test
+	public void testSlowSourceDoesNotBlockConsumer() throws Exception {
+		// 두번째 원소는 작업 완료 콜백에서 읽히며, 읽는 동안 블록된다.
+		CountDownLatch gate = new CountDownLatch(1);
+		FStream<Integer> src = FStream.range(0, 3).boxed()
+										.peek(v -> {
+											if ( v == 1 ) {
+												Unchecked.runOrIgnore(() -> gate.await(3, TimeUnit.SECONDS));
+											}
+										});
+		try ( FStream<Tuple<Integer,Try<Integer>>> strm = src.mapCheckedAsync(v -> v * 10, options(1, 4)) ) {
+			long started = System.nanoTime();
+			Assertions.assertEquals(0, strm.next().get()._2.get());
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+			Assertions.assertTrue(elapsed < 1000, "elapsed=" + elapsed);
+
+			gate.countDown();
+			Assertions.assertEquals(10, strm.next().get()._2.get());
+			Assertions.assertEquals(20, strm.next().get()._2.get());
+			Assertions.assertTrue(strm.next().isAbsent());
+		}
+	}
+
+	@Test
+	public void testWindowBound() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+		AtomicInteger startedWhileBlocked = new AtomicInteger();
+		List<Integer> result = FStream.range(0, 20)
+										.mapCheckedAsync(v -> {
+											started.incrementAndGet();
+											if ( v == 0 ) {
+												Thread.sleep(300);
+												startedWhileBlocked.set(started.get());
+											}
+											return v;
+										}, options(2, 5))
+										.map(t -> t._2.get())
+										.toList();
+		Assertions.assertEquals(FStream.range(0, 20).toList(), result);
+		Assertions.assertEquals(5, startedWhileBlocked.get());
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.range(0, 10)
+						.<Integer>mapAsync(v -> {
+							if ( v % 3 == 0 ) {
+								throw new IllegalArgumentException("" + v);
+							}
+							return v;
+						}, options(3, 8))
+						.toList();
+		Assertions.assertEquals(10, result.size());
+		for ( Tuple<Integer,Try<Integer>> t: result ) {
+			Assertions.assertEquals(t._1 % 3 == 0, t._2.isFailed());
+		}
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		FStream<Tuple<Integer,Try<Integer>>> strm = FStream.<Integer>empty().mapAsync(v -> v, options(2, 4));
+		Assertions.assertTrue(strm.next().isAbsent());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		FStream<Tuple<Integer,Try<Integer>>> strm
+				= FStream.range(0, 1000)
+						.mapCheckedAsync(v -> {
+							Thread.sleep(5);
+							return v;
+						}, options(4, 16));
+		FOption<Tuple<Integer,Try<Integer>>> first = strm.next();
+		Assertions.assertEquals(0, first.get()._1);
+		strm.close();
+	}
+
+	@Test
+	public void testInvalidWindow() throws Exception {
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> AsyncExecutionOptions.KEEP_ORDER().setReorderWindow(-1));
+	}
+}
@@ -0,0 +1,196 @@
+package utils.stream;
+
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.Tuple;
+import utils.func.Try;
+import utils.thread.LatencyHistogram;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class ResilientMapAsyncTest {
+	@Test
+	public void testTimeoutKeepOrder() throws Exception {
+		AsyncExecutionOptions opts = AsyncExecutionOptions.KEEP_ORDER()
+															.setWorkerCount(2)
+															.setTimeout(100, TimeUnit.MILLISECONDS);
+		long started = System.currentTimeMillis();
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.range(0, 4)
+						.mapCheckedAsync(v -> {
+							if ( v == 1 ) {
+								Thread.sleep(2000);
+							}
+							return v;
+						}, opts)
+						.toList();
+		long elapsed = System.currentTimeMillis() - started;
+
+		Assertions.assertEquals(List.of(0, 1, 2, 3), FStream.from(result).map(t -> t._1).toList());
+		Assertions.assertEquals(0, result.get(0)._2.get());
+		Assertions.assertTrue(result.get(1)._2.getCause() instanceof TimeoutException);
+		Assertions.assertEquals(3, result.get(3)._2.get());
+		Assertions.assertTrue(elapsed < 1500, "elapsed=" + elapsed);
+	}
+
+	@Test
+	public void testRetry() throws Exception {
+		ConcurrentHashMap<Integer,AtomicInteger> counts = new ConcurrentHashMap<>();
+		RetryPolicy retry = RetryPolicy.retries(3).backoff(5, TimeUnit.MILLISECONDS);
+		AsyncExecutionOptions opts = AsyncExecutionOptions.KEEP_ORDER().setRetryPolicy(retry);
+
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.range(0, 5)
+						.mapCheckedAsync(v -> {
+							int count = counts.computeIfAbsent(v, k -> new AtomicInteger()).incrementAndGet();
+							if ( count < 3 ) {
+								throw new IOException("failure: " + count);
+							}
+							return v * 10;
+						}, opts)
+						.toList();
+		Assertions.assertEquals(List.of(0, 10, 20, 30, 40), FStream.from(result).map(t -> t._2.get()).toList());
+		Assertions.assertEquals(3, counts.get(2).get());
+	}
+
+	@Test
+	public void testRetryExhausted() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		RetryPolicy retry = RetryPolicy.retries(2).backoff(1, TimeUnit.MILLISECONDS);
+
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.of(1)
+						.<Integer>mapCheckedAsync(v -> {
+							count.incrementAndGet();
+							throw new IOException("always");
+						}, AsyncExecutionOptions.create().setRetryPolicy(retry))
+						.toList();
+		Assertions.assertEquals(1, result.size());
+		Assertions.assertTrue(result.get(0)._2.getCause() instanceof IOException);
+		Assertions.assertEquals(3, count.get());
+	}
+
+	@Test
+	public void testRetryOnFilter() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		RetryPolicy retry = RetryPolicy.retries(5).backoff(1, TimeUnit.MILLISECONDS)
+										.retryOn(e -> e instanceof IOException);
+
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.of(1)
+						.<Integer>mapCheckedAsync(v -> {
+							count.incrementAndGet();
+							throw new IllegalStateException("not retryable");
+						}, AsyncExecutionOptions.create().setRetryPolicy(retry))
+						.toList();
+		Assertions.assertTrue(result.get(0)._2.getCause() instanceof IllegalStateException);
+		Assertions.assertEquals(1, count.get());
+	}
+
+	@Test
+	public void testHedge() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		AsyncExecutionOptions opts = AsyncExecutionOptions.create()
+												.setHedgePolicy(HedgePolicy.after(50, TimeUnit.MILLISECONDS));
+
+		long started = System.currentTimeMillis();
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.of(7)
+						.mapCheckedAsync(v -> {
+							if ( calls.incrementAndGet() == 1 ) {
+								Thread.sleep(3000);
+							}
+							return v;
+						}, opts)
+						.toList();
+		long elapsed = System.currentTimeMillis() - started;
+
+		Assertions.assertEquals(7, result.get(0)._2.get());
+		Assertions.assertEquals(2, calls.get());
+		Assertions.assertTrue(elapsed < 2000, "elapsed=" + elapsed);
+	}
+
+	@Test
+	public void testRetryCancelsPreviousHedge() throws Exception {
+		// 첫 번째 호출은 추가 호출 대기(400ms) 전에 실패하고, 재시도된 호출은 자신의 추가 호출 대기
+		// 전에 성공한다. 실패한 호출을 위해 예약된 추가 호출은 수행되지 않아야 한다.
+		AtomicInteger calls = new AtomicInteger();
+		AsyncExecutionOptions opts = AsyncExecutionOptions.create()
+												.setRetryPolicy(RetryPolicy.retries(1).backoff(1, TimeUnit.MILLISECONDS))
+												.setHedgePolicy(HedgePolicy.after(400, TimeUnit.MILLISECONDS));
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.of(7)
+						.mapCheckedAsync(v -> {
+							if ( calls.incrementAndGet() == 1 ) {
+								Thread.sleep(200);
+								throw new IOException("first");
+							}
+							Thread.sleep(300);
+							return v;
+						}, opts)
+						.toList();
+
+		Assertions.assertEquals(7, result.get(0)._2.get());
+		Assertions.assertEquals(2, calls.get());
+	}
+
+	@Test
+	public void testAbandonedAttemptsInterrupted() throws Exception {
+		CountDownLatch interrupted = new CountDownLatch(2);
+		AsyncExecutionOptions opts = AsyncExecutionOptions.create()
+												.setTimeout(100, TimeUnit.MILLISECONDS)
+												.setHedgePolicy(HedgePolicy.after(20, TimeUnit.MILLISECONDS));
+		List<Tuple<Integer,Try<Integer>>> result
+				= FStream.of(7)
+						.mapCheckedAsync(v -> {
+							try {
+								Thread.sleep(5000);
+							}
+							catch ( InterruptedException e ) {
+								interrupted.countDown();
+								throw e;
+							}
+							return v;
+						}, opts)
+						.toList();
+
+		Assertions.assertTrue(result.get(0)._2.getCause() instanceof TimeoutException);
+		// 제한 시간이 지나면 원래 호출과 추가 호출 모두 중단되어야 한다.
+		Assertions.assertTrue(interrupted.await(3, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testBackoff() {
+		RetryPolicy retry = RetryPolicy.retries(10)
+										.backoff(10, TimeUnit.MILLISECONDS)
+										.maxBackoff(50, TimeUnit.MILLISECONDS);
+		Assertions.assertEquals(10, retry.getBackoffMillis(0));
+		Assertions.assertEquals(20, retry.getBackoffMillis(1));
+		Assertions.assertEquals(40, retry.getBackoffMillis(2));
+		Assertions.assertEquals(50, retry.getBackoffMillis(3));
+	}
+
+	@Test
+	public void testHedgeDelay() {
+		HedgePolicy hedge = HedgePolicy.atPercentile(90, 30, TimeUnit.MILLISECONDS);
+		LatencyHistogram latencies = new LatencyHistogram();
+		Assertions.assertEquals(30, hedge.getDelayMillis(latencies));
+
+		for ( int i =0; i < 100; ++i ) {
+			latencies.record(TimeUnit.MILLISECONDS.toNanos(5));
+		}
+		Assertions.assertEquals(8, hedge.getDelayMillis(latencies));
+	}
+}
@@ -0,0 +1,268 @@
+package utils.stream;
+
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RingBufferFStreamTest {
+	private RingBufferFStream<Integer> m_stream;
+
+	@BeforeEach
+	public void setup() {
+		m_stream = new RingBufferFStream<>(3);
+	}
+
+	@Test
+	public void testSupplyAndNext() throws Exception {
+		Assertions.assertTrue(m_stream.poll().isAbsent());
+
+		m_stream.supply(1);
+		m_stream.supply(2);
+		Assertions.assertEquals(2, m_stream.size());
+		Assertions.assertEquals(1, m_stream.next().get());
+		Assertions.assertEquals(2, m_stream.poll().get());
+		Assertions.assertEquals(0, m_stream.size());
+	}
+
+	@Test
+	public void testWrapAround() throws Exception {
+		for ( int i =0; i < 100; ++i ) {
+			m_stream.supply(i);
+			m_stream.supply(i + 1000);
+			Assertions.assertEquals(i, m_stream.next().get());
+			Assertions.assertEquals(i + 1000, m_stream.next().get());
+		}
+	}
+
+	@Test
+	public void testNextTimeout() throws Exception {
+		Assertions.assertThrows(TimeoutException.class, () -> m_stream.next(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testSupplyTimeout() throws Exception {
+		m_stream.supply(1);
+		m_stream.supply(2);
+		m_stream.supply(3);
+		Assertions.assertThrows(TimeoutException.class, () -> m_stream.supply(4, 100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testBlockingNext() throws Exception {
+		CompletableFuture.runAsync(() -> {
+			try {
+				Thread.sleep(300);
+				m_stream.supply(7);
+			}
+			catch ( InterruptedException e ) { }
+		});
+		Assertions.assertEquals(7, m_stream.next(3, TimeUnit.SECONDS).get());
+	}
+
+	@Test
+	public void testBlockingSupply() throws Exception {
+		m_stream.supply(1);
+		m_stream.supply(2);
+		m_stream.supply(3);
+
+		CompletableFuture<Void> fut = CompletableFuture.runAsync(() -> {
+			try {
+				m_stream.supply(4);
+			}
+			catch ( InterruptedException e ) { }
+		});
+		Thread.sleep(200);
+		Assertions.assertFalse(fut.isDone());
+
+		Assertions.assertEquals(1, m_stream.next().get());
+		fut.get(3, TimeUnit.SECONDS);
+		Assertions.assertEquals(2, m_stream.poll().get());
+		Assertions.assertEquals(3, m_stream.poll().get());
+		Assertions.assertEquals(4, m_stream.poll().get());
+		Assertions.assertTrue(m_stream.poll().isAbsent());
+	}
+
+	@Test
+	public void testEndOfSupply() throws Exception {
+		m_stream.supply(1);
+		m_stream.endOfSupply();
+		Assertions.assertThrows(IllegalStateException.class, () -> m_stream.supply(2));
+
+		Assertions.assertEquals(1, m_stream.next().get());
+		Assertions.assertTrue(m_stream.next().isAbsent());
+		Assertions.assertTrue(m_stream.isEndOfSupply());
+	}
+
+	@Test
+	public void testEndOfSupplyWithError() throws Exception {
+		IllegalArgumentException error = new IllegalArgumentException("boom");
+		m_stream.supply(1);
+		m_stream.endOfSupply(error);
+		m_stream.endOfSupply();
+
+		Assertions.assertEquals(1, m_stream.next().get());
+		RuntimeException thrown = Assertions.assertThrows(RuntimeException.class, () -> m_stream.next());
+		Assertions.assertSame(error, thrown);
+	}
+
+	@Test
+	public void testEndOfSupplyWakesConsumer() throws Exception {
+		CompletableFuture.runAsync(() -> {
+			try {
+				Thread.sleep(200);
+			}
+			catch ( InterruptedException e ) { }
+			m_stream.endOfSupply();
+		});
+		Assertions.assertTrue(m_stream.next(3, TimeUnit.SECONDS).isAbsent());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		m_stream.supply(1);
+		m_stream.supply(2);
+		m_stream.close();
+
+		Assertions.assertTrue(m_stream.isClosed());
+		Assertions.assertEquals(0, m_stream.size());
+		Assertions.assertTrue(m_stream.next().isAbsent());
+		Assertions.assertThrows(IllegalStateException.class, () -> m_stream.supply(3));
+	}
+
+	@Test
+	public void testCloseWakesProducer() throws Exception {
+		m_stream.supply(1);
+		m_stream.supply(2);
+		m_stream.supply(3);
+
+		CompletableFuture<Void> fut = CompletableFuture.runAsync(() -> {
+			try {
+				m_stream.supply(4);
+			}
+			catch ( InterruptedException e ) { }
+		});
+		Thread.sleep(200);
+		m_stream.close();
+
+		try {
+			fut.get(3, TimeUnit.SECONDS);
+			Assertions.fail("should have failed");
+		}
+		catch ( ExecutionException expected ) {
+			Assertions.assertTrue(expected.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testManyProducersAndConsumers() throws Exception {
+		int nproducers = 16;
+		int nconsumers = 4;
+		int count = 20_000;
+
+		RingBufferFStream<Integer> channel = new RingBufferFStream<>(8);
+		ExecutorService executor = Executors.newFixedThreadPool(nproducers + nconsumers);
+		try {
+			Set<Integer> received = ConcurrentHashMap.newKeySet();
+			List<CompletableFuture<Void>> consumers = FStream.range(0, nconsumers)
+				.map(i -> CompletableFuture.runAsync(() -> channel.forEach(received::add), executor))
+				.toList();
+			List<CompletableFuture<Void>> producers = FStream.range(0, nproducers)
+				.map(p -> CompletableFuture.runAsync(() -> {
+					try {
+						for ( int i = p; i < count; i += nproducers ) {
+							channel.supply(i);
+						}
+					}
+					catch ( InterruptedException e ) {
+						throw new AssertionError(e);
+					}
+				}, executor))
+				.toList();
+
+			CompletableFuture.allOf(producers.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+			channel.endOfSupply();
+			CompletableFuture.allOf(consumers.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+			Assertions.assertEquals(count, received.size());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testTimedOutWaiterPassesWakeUp() throws Exception {
+		// 먼저 대기한 consumer가 제한 시각이 지나 떠나는 순간에 원소가 적재되어도,
+		// 뒤에서 대기 중인 consumer는 깨어나야 한다.
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for ( int i =0; i < 300; ++i ) {
+				RingBufferFStream<Integer> channel = new RingBufferFStream<>(1);
+				CompletableFuture<Void> timed = CompletableFuture.runAsync(() -> {
+					try {
+						channel.next(1, TimeUnit.MILLISECONDS);
+					}
+					catch ( TimeoutException expected ) { }
+				}, executor);
+				CompletableFuture<Integer> untimed = CompletableFuture.supplyAsync(() -> channel.next().get(),
+																					executor);
+				Thread.sleep(1);
+				channel.supply(i);
+
+				timed.get(5, TimeUnit.SECONDS);
+				if ( channel.size() > 0 ) {
+					// 원소가 'timed' consumer에게 전달되지 않았다면 'untimed' consumer가 받아야 한다.
+					Assertions.assertEquals(i, untimed.get(5, TimeUnit.SECONDS));
+				}
+				channel.endOfSupply();
+				untimed.handle((v, e) -> null).get(5, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testMapAsyncWithLockFreeChannel() throws Exception {
+		AsyncExecutionOptions opts = AsyncExecutionOptions.WORKER_COUNT(4).setLockFreeChannel(true);
+		Assertions.assertTrue(opts.getLockFreeChannel());
+		Assertions.assertTrue(opts.setKeepOrder(true).getLockFreeChannel());
+
+		List<Integer> ordered = FStream.range(0, 200)
+										.mapAsync(v -> v * 2, opts.setKeepOrder(true))
+										.map(t -> t._2().get())
+										.toList();
+		Assertions.assertEquals(FStream.range(0, 200).map(v -> v * 2).toList(), ordered);
+
+		List<Integer> unordered = FStream.range(0, 200)
+										.mapAsync(v -> v * 2, opts)
+										.map(t -> t._2().get())
+										.sort()
+										.toList();
+		Assertions.assertEquals(ordered, unordered);
+	}
+
+	@Test
+	public void testMergeParallelWithLockFreeChannel() throws Exception {
+		AsyncExecutionOptions opts = AsyncExecutionOptions.LOCK_FREE_CHANNEL().setWorkerCount(3);
+		FStream<FStream<Integer>> inputs = FStream.range(0, 10).map(i -> FStream.range(i * 100, i * 100 + 100));
+		List<Integer> merged = FStream.mergeParallel(inputs, opts).sort().toList();
+		Assertions.assertEquals(FStream.range(0, 1000).toList(), merged);
+	}
+}
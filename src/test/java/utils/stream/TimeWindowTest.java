@@ -0,0 +1,117 @@
+package utils.stream;
+
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class TimeWindowTest {
+	@Test
+	public void testTumbling() throws Exception {
+		List<TimeWindow<Long>> windows = FStream.of(1L, 5L, 9L, 10L, 12L, 35L)
+												.window(WindowSpec.tumbling(Duration.ofMillis(10)), v -> v)
+												.count()
+												.toList();
+		Assertions.assertEquals(List.of(new TimeWindow<>(0, 10, 3, 3L),
+										new TimeWindow<>(10, 20, 2, 2L),
+										new TimeWindow<>(30, 40, 1, 1L)), windows);
+	}
+
+	@Test
+	public void testSliding() throws Exception {
+		List<TimeWindow<Long>> windows = FStream.of(1L, 6L, 12L)
+												.window(WindowSpec.sliding(Duration.ofMillis(10), Duration.ofMillis(5)), v -> v)
+												.reduce(Long::sum)
+												.toList();
+		Assertions.assertEquals(List.of(new TimeWindow<>(-5, 5, 1, 1L),
+										new TimeWindow<>(0, 10, 2, 7L),
+										new TimeWindow<>(5, 15, 2, 18L),
+										new TimeWindow<>(10, 20, 1, 12L)), windows);
+	}
+
+	@Test
+	public void testSession() throws Exception {
+		List<TimeWindow<List<Long>>> windows = FStream.of(100L, 102L, 105L, 120L, 123L, 200L)
+													.window(WindowSpec.session(Duration.ofMillis(10)), v -> v)
+													.toList()
+													.toList();
+		Assertions.assertEquals(3, windows.size());
+		Assertions.assertEquals(new TimeWindow<>(100, 115, 3, List.of(100L, 102L, 105L)), windows.get(0));
+		Assertions.assertEquals(new TimeWindow<>(120, 133, 2, List.of(120L, 123L)), windows.get(1));
+		Assertions.assertEquals(new TimeWindow<>(200, 210, 1, List.of(200L)), windows.get(2));
+	}
+
+	@Test
+	public void testLateElements() throws Exception {
+		List<TimeWindow<Long>> windows = FStream.of(1L, 15L, 3L, 18L, 22L)
+												.window(WindowSpec.tumbling(Duration.ofMillis(10)), v -> v)
+												.count()
+												.toList();
+		Assertions.assertEquals(List.of(new TimeWindow<>(0, 10, 1, 1L),
+										new TimeWindow<>(10, 20, 2, 2L),
+										new TimeWindow<>(20, 30, 1, 1L)), windows);
+	}
+
+	@Test
+	public void testOutOfOrderWithinWindow() throws Exception {
+		List<TimeWindow<Long>> windows = FStream.of(8L, 2L, 5L, 11L)
+												.window(WindowSpec.tumbling(Duration.ofMillis(10)), v -> v)
+												.count()
+												.toList();
+		Assertions.assertEquals(List.of(new TimeWindow<>(0, 10, 3, 3L),
+										new TimeWindow<>(10, 20, 1, 1L)), windows);
+	}
+
+	@Test
+	public void testProcessingTimeCloseOnTimeout() throws Exception {
+		SuppliableFStream<Integer> src = new SuppliableFStream<>(16);
+		FStream<TimeWindow<Long>> windows = src.window(WindowSpec.tumbling(Duration.ofMillis(100))).count();
+
+		src.supply(1);
+		src.supply(2);
+
+		// 원소가 더 이상 공급되지 않아도 window 종료 시각이 지나면 결과가 반환되어야 한다.
+		long started = System.currentTimeMillis();
+		TimeWindow<Long> first = windows.next().get();
+		Assertions.assertTrue(System.currentTimeMillis() - started < 1000);
+		Assertions.assertEquals(2L, first.value());
+		Assertions.assertEquals(100, first.end() - first.start());
+
+		src.supply(3);
+		src.endOfSupply();
+		Assertions.assertEquals(1L, windows.next().get().value());
+		Assertions.assertTrue(windows.next().isAbsent());
+	}
+
+	@Test
+	public void testCloseSource() throws Exception {
+		boolean[] closed = { false };
+		FStream<TimeWindow<Long>> windows = FStream.of(1L, 2L, 30L)
+													.onClose(() -> closed[0] = true)
+													.window(WindowSpec.tumbling(Duration.ofMillis(10)), v -> v)
+													.count();
+		windows.next();
+		windows.close();
+		Assertions.assertTrue(closed[0]);
+	}
+
+	@Test
+	public void testInvalidSpec() throws Exception {
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> WindowSpec.sliding(Duration.ofMillis(5), Duration.ofMillis(10)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> WindowSpec.tumbling(Duration.ZERO));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> WindowSpec.sliding(Duration.ofMillis(10), Duration.ZERO));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> WindowSpec.sliding(Duration.ofMillis(10), Duration.ofNanos(500_000)));
+		Assertions.assertThrows(IllegalArgumentException.class,
+								() -> WindowSpec.sliding(Duration.ofNanos(500_000), Duration.ofNanos(100_000)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> WindowSpec.session(Duration.ofNanos(10)));
+	}
+}
@@ -0,0 +1,242 @@
+package utils.thread;
+
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.func.Unchecked;
+import utils.stream.FStream;
+import utils.thread.BatchingConsumer.OverflowPolicy;
+import utils.thread.BatchingConsumer.Stats;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class BatchingConsumerTest {
+	@Test
+	public void testBatchSize() throws Exception {
+		List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batches::add)
+															.batchSize(10)
+															.maxLinger(Duration.ofSeconds(10))
+															.build();
+		for ( int i =0; i < 25; ++i ) {
+			consumer.accept(i);
+		}
+		consumer.close();
+
+		Assertions.assertEquals(List.of(10, 10, 5), FStream.from(batches).map(List::size).toList());
+		Assertions.assertEquals(FStream.range(0, 25).toList(), FStream.from(batches).flatMapIterable(b -> b).toList());
+
+		Stats stats = consumer.getStats();
+		Assertions.assertEquals(25, stats.getAcceptedCount());
+		Assertions.assertEquals(25, stats.getConsumedCount());
+		Assertions.assertEquals(3, stats.getBatchCount());
+		Assertions.assertEquals(0, stats.getQueueDepth());
+		Assertions.assertThrows(IllegalStateException.class, () -> consumer.accept(99));
+	}
+
+	@Test
+	public void testLinger() throws Exception {
+		List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batches::add)
+															.batchSize(100)
+															.maxLinger(Duration.ofMillis(50))
+															.build();
+		consumer.accept(1);
+		consumer.accept(2);
+		Thread.sleep(20);
+		Assertions.assertTrue(batches.isEmpty());
+
+		Thread.sleep(300);
+		Assertions.assertEquals(List.of(List.of(1, 2)), batches);
+		consumer.close();
+	}
+
+	@Test
+	public void testFlush() throws Exception {
+		List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batches::add)
+															.maxLinger(Duration.ofSeconds(10))
+															.build();
+		consumer.accept(1);
+		consumer.accept(2);
+		consumer.flush();
+		Assertions.assertEquals(List.of(List.of(1, 2)), batches);
+
+		// 적재된 데이터가 없는 경우에도 바로 반환되어야 한다.
+		consumer.flush();
+		Assertions.assertEquals(1, batches.size());
+		consumer.close();
+	}
+
+	@Test
+	public void testFlushUnderSteadyProducer() throws Exception {
+		List<Integer> consumed = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batch -> {
+																try {
+																	Thread.sleep(2);
+																}
+																catch ( InterruptedException e ) { }
+																consumed.addAll(batch);
+															})
+															.batchSize(10)
+															.queueCapacity(100)
+															.build();
+		AtomicBoolean stop = new AtomicBoolean(false);
+		Thread producer = new Thread(() -> {
+			for ( int i =0; !stop.get(); ++i ) {
+				consumer.accept(i);
+			}
+		});
+		producer.start();
+		while ( consumer.getStats().getAcceptedCount() < 200 ) {
+			Thread.sleep(5);
+		}
+
+		// producer가 계속 데이터를 입력하여 queue가 비지 않더라도 flush()는 반환되어야 한다.
+		consumer.accept(-1);
+		CompletableFuture<Void> flushed = CompletableFuture.runAsync(() -> {
+			Unchecked.runOrThrowSneakily(consumer::flush);
+		});
+		try {
+			flushed.get(10, TimeUnit.SECONDS);
+			Assertions.assertTrue(consumed.contains(-1));
+		}
+		finally {
+			stop.set(true);
+			producer.join();
+			consumer.close();
+		}
+	}
+
+	@Test
+	public void testDropOldest() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> consumed = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batch -> {
+																try {
+																	gate.await();
+																}
+																catch ( InterruptedException e ) { }
+																consumed.addAll(batch);
+															})
+															.batchSize(1)
+															.queueCapacity(3)
+															.overflowPolicy(OverflowPolicy.DROP_OLDEST)
+															.build();
+		consumer.accept(0);
+		awaitQueueDepth(consumer, 0);	// '0'은 소비 쓰레드에서 처리 중
+		for ( int i =1; i <= 6; ++i ) {
+			consumer.accept(i);
+		}
+		Assertions.assertEquals(3, consumer.getStats().getDroppedCount());
+		Assertions.assertEquals(3, consumer.getStats().getQueueDepth());
+
+		gate.countDown();
+		consumer.close();
+		Assertions.assertEquals(List.of(0, 4, 5, 6), consumed);
+	}
+
+	@Test
+	public void testDropNewest() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> consumed = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batch -> {
+																try {
+																	gate.await();
+																}
+																catch ( InterruptedException e ) { }
+																consumed.addAll(batch);
+															})
+															.batchSize(1)
+															.queueCapacity(3)
+															.overflowPolicy(OverflowPolicy.DROP_NEWEST)
+															.build();
+		consumer.accept(0);
+		awaitQueueDepth(consumer, 0);
+		for ( int i =1; i <= 6; ++i ) {
+			consumer.accept(i);
+		}
+		Assertions.assertEquals(3, consumer.getStats().getDroppedCount());
+
+		gate.countDown();
+		consumer.close();
+		Assertions.assertEquals(List.of(0, 1, 2, 3), consumed);
+	}
+
+	@Test
+	public void testBlock() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> consumed = new CopyOnWriteArrayList<>();
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batch -> {
+																try {
+																	gate.await();
+																}
+																catch ( InterruptedException e ) { }
+																consumed.addAll(batch);
+															})
+															.batchSize(2)
+															.maxLinger(Duration.ZERO)
+															.queueCapacity(2)
+															.build();
+		consumer.accept(0);
+		awaitQueueDepth(consumer, 0);
+		consumer.accept(1);
+		consumer.accept(2);
+
+		CountDownLatch accepted = new CountDownLatch(1);
+		Thread producer = new Thread(() -> {
+			consumer.accept(3);
+			accepted.countDown();
+		});
+		producer.start();
+		Thread.sleep(50);
+		Assertions.assertEquals(1, accepted.getCount());
+
+		gate.countDown();
+		producer.join(3000);
+		Assertions.assertEquals(0, accepted.getCount());
+		consumer.close();
+		Assertions.assertEquals(List.of(0, 1, 2, 3), consumed);
+		Assertions.assertEquals(0, consumer.getStats().getDroppedCount());
+	}
+
+	@Test
+	public void testFailedBatch() throws Exception {
+		BatchingConsumer<Integer> consumer = BatchingConsumer.<Integer>builder(batch -> {
+																if ( batch.contains(3) ) {
+																	throw new IllegalArgumentException();
+																}
+															})
+															.batchSize(2)
+															.build();
+		for ( int i =0; i < 6; ++i ) {
+			consumer.accept(i);
+		}
+		consumer.close();
+
+		Stats stats = consumer.getStats();
+		Assertions.assertEquals(6, stats.getConsumedCount());
+		Assertions.assertEquals(3, stats.getBatchCount());
+		Assertions.assertEquals(1, stats.getFailedBatchCount());
+		Assertions.assertEquals(2.0, stats.getAverageBatchSize());
+	}
+
+	private static void awaitQueueDepth(BatchingConsumer<?> consumer, int depth) throws InterruptedException {
+		for ( int i =0; i < 500 && consumer.getStats().getQueueDepth() != depth; ++i ) {
+			Thread.sleep(5);
+		}
+		Assertions.assertEquals(depth, consumer.getStats().getQueueDepth());
+	}
+}
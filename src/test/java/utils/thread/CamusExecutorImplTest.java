@@ -0,0 +1,219 @@
+package utils.thread;
+
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.thread.CamusExecutorImpl.RejectionPolicy;
+import utils.thread.CamusExecutorImpl.SlowTask;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class CamusExecutorImplTest {
+	@Test
+	public void testCallerRuns() throws Exception {
+		CamusExecutorImpl executor = CamusExecutorImpl.builder()
+														.corePoolSize(1)
+														.maxPoolSize(1)
+														.queueCapacity(1)
+														.rejectionPolicy(RejectionPolicy.CALLER_RUNS)
+														.build();
+		try {
+			CountDownLatch gate = new CountDownLatch(1);
+			executor.execute(() -> await(gate));
+			executor.execute(() -> await(gate));
+			awaitCondition(() -> executor.getActiveCount() == 1 && executor.getQueuedCount() == 1);
+
+			// 쓰레드와 대기열이 모두 찬 상태이므로 제출 쓰레드에서 수행된다.
+			Thread caller = Thread.currentThread();
+			Future<Boolean> future = executor.submit(() -> Thread.currentThread() == caller);
+			Assertions.assertTrue(future.isDone());
+			Assertions.assertTrue(future.get());
+
+			gate.countDown();
+			awaitCondition(() -> executor.getCompletedCount() == 3);
+			Assertions.assertEquals(0, executor.getActiveCount());
+			Assertions.assertEquals(0, executor.getQueuedCount());
+			Assertions.assertEquals(0, executor.getRejectedCount());
+		}
+		finally {
+			executor.stop(true);
+		}
+	}
+
+	@Test
+	public void testAbort() throws Exception {
+		CamusExecutorImpl executor = CamusExecutorImpl.builder()
+														.corePoolSize(1)
+														.maxPoolSize(1)
+														.queueCapacity(1)
+														.rejectionPolicy(RejectionPolicy.ABORT)
+														.build();
+		try {
+			CountDownLatch gate = new CountDownLatch(1);
+			executor.execute(() -> await(gate));
+			executor.execute(() -> await(gate));
+			Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+			Assertions.assertEquals(1, executor.getRejectedCount());
+
+			// 거절된 지연 작업은 실패로 처리되고, 지연 작업 처리 쓰레드는 계속 동작한다.
+			Future<?> rejected = executor.schedule(() -> { }, 10, TimeUnit.MILLISECONDS);
+			ExecutionException cause = Assertions.assertThrows(ExecutionException.class,
+																() -> rejected.get(3, TimeUnit.SECONDS));
+			Assertions.assertTrue(cause.getCause() instanceof RejectedExecutionException);
+
+			gate.countDown();
+			awaitCondition(() -> executor.getActiveCount() == 0 && executor.getQueuedCount() == 0);
+			Future<?> scheduled = executor.schedule(() -> { }, 10, TimeUnit.MILLISECONDS);
+			Assertions.assertNull(scheduled.get(3, TimeUnit.SECONDS));
+		}
+		finally {
+			executor.stop(true);
+		}
+	}
+
+	@Test
+	public void testDelayedTaskNotRunByCaller() throws Exception {
+		CamusExecutorImpl executor = CamusExecutorImpl.builder()
+														.corePoolSize(1)
+														.maxPoolSize(1)
+														.queueCapacity(1)
+														.rejectionPolicy(RejectionPolicy.CALLER_RUNS)
+														.build();
+		try {
+			CountDownLatch gate = new CountDownLatch(1);
+			executor.execute(() -> await(gate));
+			executor.execute(() -> await(gate));
+			awaitCondition(() -> executor.getActiveCount() == 1 && executor.getQueuedCount() == 1);
+
+			// CALLER_RUNS 정책이더라도 지연 작업은 지연 작업 처리 쓰레드에서 수행되지 않고 거절된다.
+			List<Thread> runners = new CopyOnWriteArrayList<>();
+			Future<?> rejected = executor.schedule(() -> runners.add(Thread.currentThread()),
+													10, TimeUnit.MILLISECONDS);
+			ExecutionException cause = Assertions.assertThrows(ExecutionException.class,
+																() -> rejected.get(3, TimeUnit.SECONDS));
+			Assertions.assertTrue(cause.getCause() instanceof RejectedExecutionException);
+			Assertions.assertTrue(runners.isEmpty());
+			Assertions.assertEquals(1, executor.getQueuedCount());
+			Assertions.assertEquals(1, executor.getRejectedCount());
+
+			gate.countDown();
+			awaitCondition(() -> executor.getCompletedCount() == 2);
+			Assertions.assertEquals(0, executor.getQueuedCount());
+		}
+		finally {
+			executor.stop(true);
+		}
+	}
+
+	@Test
+	public void testDefaultPolicyAborts() throws Exception {
+		CamusExecutorImpl executor = CamusExecutorImpl.builder()
+														.corePoolSize(1)
+														.maxPoolSize(1)
+														.queueCapacity(1)
+														.build();
+		try {
+			CountDownLatch gate = new CountDownLatch(1);
+			executor.execute(() -> await(gate));
+			executor.execute(() -> await(gate));
+			Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+			gate.countDown();
+		}
+		finally {
+			executor.stop(true);
+		}
+	}
+
+	@Test
+	public void testStopRejectsPendingTasks() throws Exception {
+		CamusExecutorImpl executor = CamusExecutorImpl.builder()
+														.rejectionPolicy(RejectionPolicy.CALLER_RUNS)
+														.build();
+		Future<?> pending = executor.schedule(() -> { }, 10, TimeUnit.SECONDS);
+		executor.stop(true);
+
+		// 수행되지 못한 지연 작업은 거절 처리되어 대기 중인 쪽이 깨어나야 한다.
+		ExecutionException cause = Assertions.assertThrows(ExecutionException.class,
+															() -> pending.get(3, TimeUnit.SECONDS));
+		Assertions.assertTrue(cause.getCause() instanceof RejectedExecutionException);
+
+		// 종료된 이후 제출된 작업은 CALLER_RUNS 정책이더라도 거절되고 대기 작업으로 남지 않는다.
+		Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+		Assertions.assertEquals(0, executor.getQueuedCount());
+	}
+
+	@Test
+	public void testInstrumentation() throws Exception {
+		CamusExecutorImpl executor = new CamusExecutorImpl();
+		try {
+			for ( int i =0; i < 20; ++i ) {
+				final int millis = i * 5;
+				executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						sleep(millis);
+					}
+
+					@Override
+					public String toString() {
+						return "task-" + millis;
+					}
+				});
+			}
+			awaitCondition(() -> executor.getCompletedCount() == 20);
+
+			Assertions.assertEquals(20, executor.getRunTimeHistogram().getCount());
+			Assertions.assertEquals(20, executor.getQueueWaitHistogram().getCount());
+			Assertions.assertTrue(executor.getRunTimeHistogram().getMaxMillis() >= 95);
+
+			List<SlowTask> slowests = executor.getSlowestTasks();
+			Assertions.assertEquals(10, slowests.size());
+			Assertions.assertEquals("task-95", slowests.get(0).getDescription());
+			for ( SlowTask task: slowests ) {
+				Assertions.assertTrue(task.getRunTimeMillis() >= 50, task.toString());
+			}
+		}
+		finally {
+			executor.stop(true);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void awaitCondition(BooleanSupplier cond) throws InterruptedException {
+		long due = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ( !cond.getAsBoolean() && System.nanoTime() < due ) {
+			Thread.sleep(5);
+		}
+		Assertions.assertTrue(cond.getAsBoolean());
+	}
+}
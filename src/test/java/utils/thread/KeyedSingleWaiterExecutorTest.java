@@ -0,0 +1,136 @@
+package utils.thread;
+
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import utils.async.Executions;
+import utils.async.StartableExecution;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class KeyedSingleWaiterExecutorTest {
+	@Test
+	public void testLatestWins() throws Exception {
+		KeyedSingleWaiterExecutor<String> executor = new KeyedSingleWaiterExecutor<>(4);
+		CountDownLatch gate = new CountDownLatch(1);
+		List<Integer> done = new CopyOnWriteArrayList<>();
+
+		StartableExecution<Void> first = Executions.toExecution(() -> {
+			gate.await();
+			done.add(0);
+		});
+		executor.submit("a", first);
+
+		StartableExecution<?>[] pendings = new StartableExecution<?>[10];
+		for ( int i =1; i <= 10; ++i ) {
+			final int idx = i;
+			pendings[i-1] = Executions.toExecution(() -> done.add(idx));
+			executor.submit("a", pendings[i-1]);
+		}
+		Assertions.assertEquals(9, executor.getReplacedCount());
+		for ( int i =0; i < 9; ++i ) {
+			Assertions.assertTrue(pendings[i].isCancelled());
+		}
+
+		gate.countDown();
+		awaitCondition(() -> executor.getActiveKeyCount() == 0);
+		Assertions.assertEquals(List.of(0, 10), done);
+		Assertions.assertEquals(11, executor.getSubmittedCount());
+	}
+
+	@Test
+	public void testOneRunningPerKey() throws Exception {
+		KeyedSingleWaiterExecutor<Integer> executor = new KeyedSingleWaiterExecutor<>(8);
+		Map<Integer,AtomicInteger> runnings = new ConcurrentHashMap<>();
+		AtomicInteger violations = new AtomicInteger();
+		AtomicInteger total = new AtomicInteger();
+		AtomicInteger maxTotal = new AtomicInteger();
+
+		List<Thread> producers = new CopyOnWriteArrayList<>();
+		for ( int p =0; p < 4; ++p ) {
+			Thread producer = new Thread(() -> {
+				for ( int i =0; i < 500; ++i ) {
+					int key = i % 20;
+					executor.submit(key, Executions.toExecution(() -> {
+						AtomicInteger running = runnings.computeIfAbsent(key, k -> new AtomicInteger());
+						if ( running.incrementAndGet() > 1 ) {
+							violations.incrementAndGet();
+						}
+						maxTotal.accumulateAndGet(total.incrementAndGet(), Math::max);
+						Thread.sleep(1);
+						total.decrementAndGet();
+						running.decrementAndGet();
+					}));
+				}
+			});
+			producer.start();
+			producers.add(producer);
+		}
+		for ( Thread producer: producers ) {
+			producer.join();
+		}
+
+		awaitCondition(() -> executor.getActiveKeyCount() == 0 && executor.getRunningCount() == 0);
+		Assertions.assertEquals(0, violations.get());
+		Assertions.assertTrue(maxTotal.get() <= 8, "max=" + maxTotal.get());
+	}
+
+	@Test
+	public void testFairRotation() throws Exception {
+		KeyedSingleWaiterExecutor<String> executor = new KeyedSingleWaiterExecutor<>(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch gate = new CountDownLatch(1);
+
+		executor.submit("hot", Executions.toExecution(() -> {
+			gate.await();
+			order.add("hot");
+		}));
+		executor.submit("hot", Executions.toExecution(() -> order.add("hot")));
+		executor.submit("cold1", Executions.toExecution(() -> order.add("cold1")));
+		executor.submit("cold2", Executions.toExecution(() -> order.add("cold2")));
+		gate.countDown();
+
+		awaitCondition(() -> order.size() == 4);
+		// 'hot'의 대기 작업은 먼저 대기하던 키들 다음에 실행된다.
+		Assertions.assertEquals(List.of("hot", "cold1", "cold2", "hot"), order);
+	}
+
+	@Test
+	public void testStop() throws Exception {
+		KeyedSingleWaiterExecutor<String> executor = new KeyedSingleWaiterExecutor<>(1);
+		CountDownLatch gate = new CountDownLatch(1);
+
+		StartableExecution<Void> running = Executions.toExecution(gate::await);
+		executor.submit("a", running);
+		StartableExecution<Void> pending = Executions.toExecution(() -> { });
+		executor.submit("b", pending);
+
+		executor.stop();
+		Assertions.assertTrue(pending.isCancelled());
+		running.waitForFinished(3, TimeUnit.SECONDS);
+		Assertions.assertTrue(running.isCancelled());
+		Assertions.assertThrows(IllegalStateException.class,
+								() -> executor.submit("c", Executions.toExecution(() -> { })));
+	}
+
+	private static void awaitCondition(BooleanSupplier cond) throws InterruptedException {
+		long due = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ( !cond.getAsBoolean() && System.nanoTime() < due ) {
+			Thread.sleep(5);
+		}
+		Assertions.assertTrue(cond.getAsBoolean());
+	}
+}
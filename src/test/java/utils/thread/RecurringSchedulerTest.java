@@ -0,0 +1,264 @@
+package utils.thread;
+
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import utils.thread.RecurringSchedule.State;
+import utils.thread.RecurringScheduler.CatchUpPolicy;
+import utils.thread.RecurringScheduler.Schedule;
+import utils.thread.RecurringScheduler.Stats;
+
+
+/**
+ *
+ * @author Kang-Woo Lee (ETRI)
+ */
+public class RecurringSchedulerTest {
+	private RecurringScheduler m_scheduler;
+
+	@BeforeEach
+	public void setup() {
+		m_scheduler = new RecurringScheduler("test", 4);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		m_scheduler.shutdown();
+	}
+
+	@Test
+	public void testFixedRate() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		Schedule sched = m_scheduler.schedule(count::incrementAndGet)
+									.fixedRate(Duration.ofMillis(20))
+									.build();
+		sched.start();
+		Assertions.assertEquals(1, m_scheduler.getScheduleCount());
+
+		Thread.sleep(210);
+		sched.stop(false);
+		Assertions.assertTrue(sched.waitForStopped(1000));
+		Assertions.assertEquals(State.STOPPED, sched.getState());
+		Assertions.assertEquals(0, m_scheduler.getScheduleCount());
+
+		// 시작 시점에 한번, 이후 20ms마다 수행된다.
+		int n = count.get();
+		Assertions.assertTrue(n >= 9 && n <= 12, "count=" + n);
+		Assertions.assertEquals(n, sched.getStats().getExecutionCount());
+	}
+
+	@Test
+	public void testManySchedules() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		List<Schedule> scheds = new CopyOnWriteArrayList<>();
+		for ( int i =0; i < 2000; ++i ) {
+			Schedule sched = m_scheduler.schedule(count::incrementAndGet)
+										.fixedRate(Duration.ofMillis(50))
+										.jitter(Duration.ofMillis(10))
+										.build();
+			sched.start();
+			scheds.add(sched);
+		}
+		Thread.sleep(300);
+		for ( Schedule sched: scheds ) {
+			sched.stop(false);
+		}
+		for ( Schedule sched: scheds ) {
+			Assertions.assertTrue(sched.waitForStopped(3000));
+		}
+		Assertions.assertTrue(count.get() >= 2000 * 4, "count=" + count.get());
+	}
+
+	@Test
+	public void testSkip() throws Exception {
+		List<Long> starts = new CopyOnWriteArrayList<>();
+		CountDownLatch started = new CountDownLatch(2);
+		Schedule sched = m_scheduler.schedule(() -> {
+										starts.add(System.nanoTime());
+										if ( starts.size() == 1 ) {
+											sleep(110);
+										}
+										started.countDown();
+									})
+									.fixedRate(Duration.ofMillis(50))
+									.catchUpPolicy(CatchUpPolicy.SKIP)
+									.build();
+		long begin = System.nanoTime();
+		sched.start();
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		sched.stop(false);
+		sched.waitForStopped();
+
+		// 첫번째 수행은 최소 110ms가 걸리므로 50ms, 100ms의 수행 시각을 놓친다.
+		Stats stats = sched.getStats();
+		Assertions.assertTrue(stats.getOverrunCount() >= 1, "overruns=" + stats.getOverrunCount());
+		Assertions.assertTrue(stats.getSkippedCount() >= 2, "skipped=" + stats.getSkippedCount());
+		Assertions.assertEquals(0, stats.getCoalescedCount());
+
+		// 두번째 수행은 건너뛴 수행 시각들 이후의 수행 시각에 수행된다. (타이머 tick 오차 5ms 허용)
+		long due = (stats.getSkippedCount() + 1) * 50;
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(starts.get(1) - begin);
+		Assertions.assertTrue(elapsed >= due - 5, "elapsed=" + elapsed + ", due=" + due);
+	}
+
+	@Test
+	public void testBurst() throws Exception {
+		List<Long> starts = new CopyOnWriteArrayList<>();
+		CountDownLatch started = new CountDownLatch(3);
+		Schedule sched = m_scheduler.schedule(() -> {
+										starts.add(System.nanoTime());
+										if ( starts.size() == 1 ) {
+											sleep(110);
+										}
+										started.countDown();
+									})
+									.fixedRate(Duration.ofMillis(50))
+									.catchUpPolicy(CatchUpPolicy.BURST)
+									.build();
+		sched.start();
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		sched.stop(false);
+		sched.waitForStopped();
+
+		// 놓친 수행 시각들은 건너뛰거나 합쳐지지 않고 모두 수행된다.
+		Stats stats = sched.getStats();
+		Assertions.assertEquals(0, stats.getSkippedCount());
+		Assertions.assertEquals(0, stats.getCoalescedCount());
+		Assertions.assertTrue(stats.getExecutionCount() >= 3);
+
+		// 50ms에 예정된 두번째 수행은 첫번째 수행이 끝난 (110ms 이후) 직후 지연된 상태로 수행된다.
+		Assertions.assertTrue(stats.getMaxLatenessMillis() >= 59, "lateness=" + stats.getMaxLatenessMillis());
+	}
+
+	@Test
+	public void testCoalesce() throws Exception {
+		List<Long> starts = new CopyOnWriteArrayList<>();
+		CountDownLatch started = new CountDownLatch(2);
+		Schedule sched = m_scheduler.schedule(() -> {
+										starts.add(System.nanoTime());
+										if ( starts.size() == 1 ) {
+											sleep(110);
+										}
+										started.countDown();
+									})
+									.fixedRate(Duration.ofMillis(50))
+									.catchUpPolicy(CatchUpPolicy.COALESCE)
+									.build();
+		long begin = System.nanoTime();
+		sched.start();
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		sched.stop(false);
+		sched.waitForStopped();
+
+		// 놓친 2번 이상의 수행이 한번으로 합쳐진다.
+		Stats stats = sched.getStats();
+		Assertions.assertEquals(0, stats.getSkippedCount());
+		Assertions.assertTrue(stats.getCoalescedCount() >= 1, "coalesced=" + stats.getCoalescedCount());
+
+		// 두번째 수행은 합쳐진 수행 시각들 중 마지막 시각의 수행이다. (타이머 tick 오차 5ms 허용)
+		long due = (stats.getCoalescedCount() + 1) * 50;
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(starts.get(1) - begin);
+		Assertions.assertTrue(elapsed >= due - 5, "elapsed=" + elapsed + ", due=" + due);
+	}
+
+	@Test
+	public void testPerformNowAndStop() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		AtomicInteger stopped = new AtomicInteger();
+		Schedule sched = m_scheduler.schedule(new RecurringWork() {
+										@Override
+										public void onStarted(RecurringSchedule schedule) { }
+										@Override
+										public void onStopped() {
+											stopped.incrementAndGet();
+										}
+										@Override
+										public void perform() {
+											count.incrementAndGet();
+										}
+									})
+									.fixedDelay(Duration.ofSeconds(10))
+									.initialDelay(Duration.ofSeconds(10))
+									.build();
+		sched.start();
+		Thread.sleep(30);
+		Assertions.assertEquals(0, count.get());
+
+		sched.performNow();
+		Thread.sleep(50);
+		Assertions.assertEquals(1, count.get());
+
+		sched.stop(true);
+		sched.waitForStopped();
+		Assertions.assertEquals(1, stopped.get());
+		Assertions.assertThrows(IllegalStateException.class, sched::start);
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		Schedule sched = m_scheduler.schedule(() -> { throw new IllegalArgumentException("boom"); })
+									.fixedRate(Duration.ofMillis(10))
+									.build();
+		sched.start();
+		Assertions.assertTrue(sched.waitForStopped(1000));
+		Assertions.assertTrue(sched.getFailureCause() instanceof IllegalArgumentException);
+		Assertions.assertEquals(1, sched.getStats().getExecutionCount());
+
+		Schedule failToStart = m_scheduler.schedule(new RecurringWork() {
+											@Override
+											public void onStarted(RecurringSchedule schedule) throws Throwable {
+												throw new IllegalStateException();
+											}
+											@Override
+											public void onStopped() { }
+											@Override
+											public void perform() { }
+										})
+										.build();
+		Assertions.assertThrows(ExecutionException.class, failToStart::start);
+		Assertions.assertEquals(State.STOPPED, failToStart.getState());
+	}
+
+	@Test
+	public void testStartRacingShutdown() throws Exception {
+		// 스케줄러가 작업 시작 도중 (onStarted 수행 중) 종료되는 경우.
+		AtomicInteger stopped = new AtomicInteger();
+		Schedule sched = m_scheduler.schedule(new RecurringWork() {
+										@Override
+										public void onStarted(RecurringSchedule schedule) {
+											m_scheduler.shutdown();
+										}
+										@Override
+										public void onStopped() {
+											stopped.incrementAndGet();
+										}
+										@Override
+										public void perform() { }
+									})
+									.build();
+		Assertions.assertThrows(IllegalStateException.class, sched::start);
+		Assertions.assertEquals(State.STOPPED, sched.getState());
+		Assertions.assertEquals(1, stopped.get());
+		Assertions.assertEquals(0, m_scheduler.getScheduleCount());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}